@@ -0,0 +1,267 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.graphper.api.FileType;
+import org.graphper.api.GraphResource;
+import org.graphper.api.Graphviz;
+import org.graphper.parser.DotParser;
+import org.graphper.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders every graph of the batch inputs in one JVM. Each input file is parsed and rendered by one
+ * of a fixed number of workers, so only the graphs of the files in progress are kept in memory.
+ * Every graph, including each graph of a multi-graph file, is written to the file named by the
+ * output template:
+ *
+ * <ul>
+ *   <li>{@code {dir}} - the directory of the input file</li>
+ *   <li>{@code {rel}} - the directory of the input file relative to the walked directory or glob
+ *   base with a trailing separator, empty if the input file is given directly</li>
+ *   <li>{@code {name}} - the input file name without extension</li>
+ *   <li>{@code {index}} - empty for the first graph of the input file, {@code _1}, {@code _2}...
+ *   for the following graphs</li>
+ *   <li>{@code {ext}} - the output file type, e.g. {@code svg}</li>
+ * </ul>
+ *
+ * <p>The default template is {@code {dir}/{name}{index}.{ext}}, if the output is a directory the
+ * files are named {@code {rel}{name}{index}.{ext}} in it. The output file of the first graph of
+ * every input is resolved before any file is parsed, and the batch fails if two inputs have the
+ * same output file. The following graphs are only known after parsing, a graph which has the same
+ * output file as another graph fails its input file instead of overwriting the output. The time
+ * of each input file and the failures are reported, a failed file does not stop the others.
+ *
+ * @author Jamison Jiang
+ */
+public class BatchRender {
+
+  private static final Logger log = LoggerFactory.getLogger(BatchRender.class);
+
+  private static final String DEFAULT_NAME = "{name}{index}.{ext}";
+
+  private final Command command;
+
+  private final String template;
+
+  // Output file -> the graph writes it
+  private final Map<File, String> owners = new HashMap<>();
+
+  /**
+   * Constructs a batch render of the command.
+   *
+   * @param command The command in batch mode.
+   * @throws WrongCommandException if the output is neither a directory nor a naming template.
+   */
+  public BatchRender(Command command) throws WrongCommandException {
+    this.command = command;
+    this.template = template(command);
+  }
+
+  /**
+   * Renders all inputs and blocks until they are done.
+   *
+   * @return The number of failed input files.
+   * @throws WrongCommandException if two input files have the same output file.
+   * @throws InterruptedException  if interrupted while waiting for the workers.
+   * @throws ExecutionException    if a worker fails unexpectedly.
+   */
+  public int render() throws WrongCommandException, InterruptedException, ExecutionException {
+    List<File> inputs = command.getInputs();
+    for (File input : inputs) {
+      File output = output(input, 0);
+      String owner = owner(input, 0);
+      String other = reserve(output, owner);
+      if (other != null) {
+        throw new WrongCommandException("Error: " + other + " and " + owner
+                                            + " have the same output " + output.getPath()
+                                            + ", please use a different output template");
+      }
+    }
+
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(command.getJobs());
+    try {
+      List<Future<Integer>> results = new ArrayList<>(inputs.size());
+      for (File input : inputs) {
+        results.add(executor.submit(() -> renderFile(input)));
+      }
+
+      int graphs = 0;
+      int failures = 0;
+      for (Future<Integer> result : results) {
+        int count = result.get();
+        if (count < 0) {
+          failures++;
+        } else {
+          graphs += count;
+        }
+      }
+
+      log.info("Rendered {} graph(s) of {} file(s) in {} ms, {} failed", graphs, inputs.size(),
+               millis(start), failures);
+      return failures;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /*
+   * Parses and renders all graphs of the input file, returns the number of graphs, or -1 if the
+   * file or any graph failed. The graphs are released when the file is done.
+   */
+  private int renderFile(File input) {
+    long start = System.nanoTime();
+    List<Graphviz> graphs = parse(input);
+    if (graphs == null) {
+      return -1;
+    }
+
+    int count = 0;
+    boolean failed = false;
+    for (int i = 0; i < graphs.size(); i++) {
+      Graphviz graphviz = graphs.get(i);
+      if (graphviz.isEmpty()) {
+        log.warn("{} - Graph {} is empty", input.getPath(), i);
+        continue;
+      }
+
+      File output = output(input, i);
+      String owner = owner(input, i);
+      String other = reserve(output, owner);
+      if (other != null) {
+        log.error("{} - Graph {} has the same output {} as {}, please use a different output "
+                      + "template", input.getPath(), i, output.getPath(), other);
+        failed = true;
+      } else if (renderGraph(input, i, graphviz, output)) {
+        count++;
+      } else {
+        failed = true;
+      }
+    }
+    if (failed) {
+      return -1;
+    }
+
+    log.info("{} - {} graph(s) in {} ms", input.getPath(), count, millis(start));
+    return count;
+  }
+
+  private List<Graphviz> parse(File input) {
+    try {
+      return DotParser.parseAll(CommandUnits.getCharStream(input),
+                                Main.postGraphComponents(command));
+    } catch (StackOverflowError e) {
+      log.error("{} - Big graph, please increasing the stack size", input.getPath());
+    } catch (ParseException e) {
+      log.error("{} - Parse script error: {}", input.getPath(), e.getMessage());
+    } catch (WrongCommandException e) {
+      log.error("{} - Read or write error: {}", input.getPath(), e.getMessage());
+    } catch (Exception e) {
+      log.error("{} - Generate error:", input.getPath(), e);
+    }
+    return null;
+  }
+
+  /*
+   * Reserves the output file for the graph, the graphs are written concurrently, so an output file
+   * reserved by another graph is refused. Returns the other graph, or null if reserved.
+   */
+  private synchronized String reserve(File output, String owner) {
+    String other = owners.putIfAbsent(output, owner);
+    return other == null || other.equals(owner) ? null : other;
+  }
+
+  private boolean renderGraph(File input, int index, Graphviz graphviz, File output) {
+    try {
+      Files.createDirectories(output.getParentFile().toPath());
+      try (GraphResource resource = graphviz.toFile(command.getFileType())) {
+        resource.save(output.getParent(), output.getName());
+      }
+      return true;
+    } catch (StackOverflowError e) {
+      log.error("{} - Graph {} is big, please increasing the stack size", input.getPath(), index);
+    } catch (IOException e) {
+      log.error("{} - Graph {} write error: {}", input.getPath(), index, e.getMessage());
+    } catch (Exception e) {
+      log.error("{} - Graph {} generate error:", input.getPath(), index, e);
+    }
+    return false;
+  }
+
+  private static String owner(File input, int index) {
+    return input.getPath() + (index == 0 ? "" : " graph " + index);
+  }
+
+  private File output(File input, int index) {
+    String name = input.getName();
+    int dot = name.lastIndexOf('.');
+    if (dot > 0) {
+      name = name.substring(0, dot);
+    }
+    FileType fileType = command.getFileType();
+    return new File(template
+                        .replace("{dir}", input.getAbsoluteFile().getParent())
+                        .replace("{rel}", relativeDir(input))
+                        .replace("{name}", name)
+                        .replace("{index}", index == 0 ? "" : "_" + index)
+                        .replace("{ext}", fileType.getType()))
+        .getAbsoluteFile().toPath().normalize().toFile();
+  }
+
+  private String relativeDir(File input) {
+    File root = command.getInputRoot(input);
+    File dir = input.getAbsoluteFile().getParentFile();
+    if (root == null || dir == null || dir.equals(root)) {
+      return "";
+    }
+    return root.toPath().relativize(dir.toPath()) + File.separator;
+  }
+
+  private static String template(Command command) throws WrongCommandException {
+    if (command.getOutputTemplate() != null) {
+      return command.getOutputTemplate();
+    }
+
+    File output = command.getOutput();
+    if (output == null) {
+      return "{dir}" + File.separator + DEFAULT_NAME;
+    }
+    if (!output.isDirectory()) {
+      throw new WrongCommandException(
+          "Error: output of batch mode must be a directory or a naming template");
+    }
+    return output.getPath() + File.separator + "{rel}" + DEFAULT_NAME;
+  }
+
+  private static long millis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
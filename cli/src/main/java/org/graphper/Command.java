@@ -17,6 +17,10 @@
 package org.graphper;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.antlr.v4.runtime.CharStream;
 import org.graphper.api.FileType;
 import org.graphper.api.attributes.Layout;
@@ -34,6 +38,15 @@ public class Command {
   private File output;
   private FileType fileType;
   private Layout layout;
+  private final List<File> inputs = new ArrayList<>();
+  private final Map<File, File> inputRoots = new HashMap<>();
+  private boolean batch;
+  private String outputTemplate;
+  private int jobs;
+  private boolean serve;
+  private boolean client;
+  private int port;
+  private int maxFrameSize;
 
   /**
    * Gets the DOT file as a CharStream.
@@ -106,4 +119,172 @@ public class Command {
   public void setLayout(Layout layout) {
     this.layout = layout;
   }
-}
\ No newline at end of file
+
+  /**
+   * Gets the input DOT files, in the order of command line.
+   *
+   * @return The input DOT files.
+   */
+  public List<File> getInputs() {
+    return inputs;
+  }
+
+  /**
+   * Adds an input DOT file.
+   *
+   * @param input The input DOT file.
+   */
+  public void addInput(File input) {
+    inputs.add(input);
+  }
+
+  /**
+   * Adds an input DOT file found by walking a directory or a glob pattern.
+   *
+   * @param input The input DOT file.
+   * @param root  The walked directory.
+   */
+  public void addInput(File input, File root) {
+    inputs.add(input);
+    inputRoots.put(input, root);
+  }
+
+  /**
+   * Gets the walked directory which the input DOT file was found in.
+   *
+   * @param input The input DOT file.
+   * @return The walked directory, or null if the file is given directly.
+   */
+  public File getInputRoot(File input) {
+    return inputRoots.get(input);
+  }
+
+  /**
+   * Checks whether to render every graph of all inputs in batch mode. It is enabled explicitly, or
+   * by more than one input, a directory or a glob pattern.
+   *
+   * @return true if it is batch mode, false otherwise.
+   */
+  public boolean isBatch() {
+    return batch || inputs.size() > 1;
+  }
+
+  /**
+   * Sets whether to render in batch mode.
+   *
+   * @param batch true to render in batch mode.
+   */
+  public void setBatch(boolean batch) {
+    this.batch = batch;
+  }
+
+  /**
+   * Gets the naming template of the batch outputs, see {@link BatchRender}.
+   *
+   * @return The naming template, or null if not set.
+   */
+  public String getOutputTemplate() {
+    return outputTemplate;
+  }
+
+  /**
+   * Sets the naming template of the batch outputs.
+   *
+   * @param outputTemplate The naming template.
+   */
+  public void setOutputTemplate(String outputTemplate) {
+    this.outputTemplate = outputTemplate;
+  }
+
+  /**
+   * Gets the number of workers in batch mode. If not set, defaults to the number of processors.
+   *
+   * @return The number of workers.
+   */
+  public int getJobs() {
+    return jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Sets the number of workers in batch mode.
+   *
+   * @param jobs The number of workers.
+   */
+  public void setJobs(int jobs) {
+    this.jobs = jobs;
+  }
+
+  /**
+   * Checks whether to run as a render daemon, see {@link RenderServer}.
+   *
+   * @return true if it runs as a render daemon, false otherwise.
+   */
+  public boolean isServe() {
+    return serve;
+  }
+
+  /**
+   * Sets whether to run as a render daemon.
+   *
+   * @param serve true to run as a render daemon.
+   */
+  public void setServe(boolean serve) {
+    this.serve = serve;
+  }
+
+  /**
+   * Checks whether to send the graph to a running render daemon, see {@link RenderClient}.
+   *
+   * @return true if the graph is rendered by the daemon, false otherwise.
+   */
+  public boolean isClient() {
+    return client;
+  }
+
+  /**
+   * Sets whether to send the graph to a running render daemon.
+   *
+   * @param client true to render by the daemon.
+   */
+  public void setClient(boolean client) {
+    this.client = client;
+  }
+
+  /**
+   * Gets the loopback port of the render daemon. If not set, defaults to
+   * {@link RenderServer#DEFAULT_PORT}.
+   *
+   * @return The port of the render daemon.
+   */
+  public int getPort() {
+    return port > 0 ? port : RenderServer.DEFAULT_PORT;
+  }
+
+  /**
+   * Sets the loopback port of the render daemon.
+   *
+   * @param port The port of the render daemon.
+   */
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  /**
+   * Gets the max size of the DOT script a render daemon accepts, in bytes. If not set, defaults to
+   * {@link RenderServer#DEFAULT_MAX_FRAME}.
+   *
+   * @return The max size of the DOT script.
+   */
+  public int getMaxFrameSize() {
+    return maxFrameSize > 0 ? maxFrameSize : RenderServer.DEFAULT_MAX_FRAME;
+  }
+
+  /**
+   * Sets the max size of the DOT script a render daemon accepts, in bytes.
+   *
+   * @param maxFrameSize The max size of the DOT script.
+   */
+  public void setMaxFrameSize(int maxFrameSize) {
+    this.maxFrameSize = maxFrameSize;
+  }
+}
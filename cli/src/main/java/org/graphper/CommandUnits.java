@@ -28,10 +28,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.antlr.v4.runtime.CharStream;
@@ -63,7 +70,13 @@ public class CommandUnits {
       new OutputFile(),
       new GraphLayout(),
       new OutputFileType(),
-      new NativeImageRender()
+      new NativeImageRender(),
+      new Batch(),
+      new Jobs(),
+      new Serve(),
+      new Client(),
+      new Port(),
+      new MaxFrame()
   );
 
   public static class DotInput implements CommandUnit {
@@ -75,14 +88,36 @@ public class CommandUnits {
         return false;
       }
 
+      // An existing file name with wildcard chars is not a glob
       File input = parseFile(arg);
+      if (!input.exists() && isGlob(arg)) {
+        Path base = globBase(arg);
+        addInputs(command, globFiles(base, arg), base, arg);
+        return true;
+      }
       if (!input.exists()) {
         throw new WrongCommandException("Error: dot file " + input.getPath() + " not exists");
       }
-      command.setDotFile(getCharStream(input));
+      if (input.isDirectory()) {
+        addInputs(command, dotFiles(input.toPath()), input.toPath(), arg);
+        return true;
+      }
+      command.addInput(input);
       return true;
     }
 
+    private static void addInputs(Command command, List<File> inputs, Path root, String arg)
+        throws WrongCommandException {
+      if (inputs.isEmpty()) {
+        throw new WrongCommandException("Error: no dot file found in " + arg);
+      }
+      File rootFile = root.toAbsolutePath().normalize().toFile();
+      for (File input : inputs) {
+        command.addInput(input, rootFile);
+      }
+      command.setBatch(true);
+    }
+
     @Override
     public String helpCommend() {
       return null;
@@ -102,6 +137,25 @@ public class CommandUnits {
       if (value == null) {
         throw new WrongCommandException("Error: don't have output path");
       }
+      // The placeholders are replaced by each graph in batch mode, the batch mode may be enabled
+      // by the following arguments, so the template is resolved after all arguments are handled
+      if (value.contains("{")) {
+        command.setOutputTemplate(value);
+        return true;
+      }
+
+      command.setOutput(outputFile(value));
+      return true;
+    }
+
+    /**
+     * Resolves the output file path whose directory must exist.
+     *
+     * @param value the output file path
+     * @return the output file
+     * @throws WrongCommandException if the directory of output file not exists
+     */
+    static File outputFile(String value) throws WrongCommandException {
       File output = parseFile(value);
       File parentFile = output.getParentFile();
       if (parentFile == null) {
@@ -111,13 +165,13 @@ public class CommandUnits {
         throw new WrongCommandException(
             "Error: output path " + parentFile.getAbsolutePath() + " not exists");
       }
-      command.setOutput(output);
-      return true;
+      return output;
     }
 
     @Override
     public String helpCommend() {
-      return "-oFile       - Write output to 'file'";
+      return "-oFile       - Write output to 'file', a directory or a naming template "
+          + "({dir}, {rel}, {name}, {index}, {ext}) in batch mode";
     }
   }
 
@@ -199,6 +253,152 @@ public class CommandUnits {
     }
   }
 
+  public static class Batch implements CommandUnit {
+
+    @Override
+    public boolean handle(Arguments arguments, Command command) {
+      String arg = arguments.current();
+      if (!"-b".equals(arg) && !"--batch".equals(arg)) {
+        return false;
+      }
+      command.setBatch(true);
+      return true;
+    }
+
+    @Override
+    public String helpCommend() {
+      return "-b           - Render every graph of the inputs (files, directories or globs) "
+          + "concurrently";
+    }
+  }
+
+  public static class Jobs implements CommandUnit {
+
+    @Override
+    public boolean handle(Arguments arguments, Command command) throws WrongCommandException {
+      String arg = arguments.current();
+      if (arg == null || !arg.startsWith("-j")) {
+        return false;
+      }
+
+      try {
+        int jobs = Integer.parseInt(arg.substring(2));
+        if (jobs <= 0) {
+          throw new WrongCommandException("Error: Jobs " + arg + " must be greater than 0");
+        }
+        command.setJobs(jobs);
+      } catch (NumberFormatException e) {
+        throw new WrongCommandException("Error: Jobs " + arg + " unrecognized");
+      }
+      return true;
+    }
+
+    @Override
+    public String helpCommend() {
+      return "-jN          - Set the number of batch workers to 'N' (default: processors)";
+    }
+  }
+
+  public static class Serve implements CommandUnit {
+
+    @Override
+    public boolean handle(Arguments arguments, Command command) {
+      String arg = arguments.current();
+      if (!"--serve".equals(arg)) {
+        return false;
+      }
+      command.setServe(true);
+      return true;
+    }
+
+    @Override
+    public String helpCommend() {
+      return "--serve      - Run as a render daemon on the loopback port";
+    }
+  }
+
+  public static class Client implements CommandUnit {
+
+    @Override
+    public boolean handle(Arguments arguments, Command command) {
+      String arg = arguments.current();
+      if (!"--client".equals(arg)) {
+        return false;
+      }
+      command.setClient(true);
+      return true;
+    }
+
+    @Override
+    public String helpCommend() {
+      return "--client     - Render by the running daemon, with the same -T/-K/-o options";
+    }
+  }
+
+  public static class Port implements CommandUnit {
+
+    @Override
+    public boolean handle(Arguments arguments, Command command) throws WrongCommandException {
+      String key = arguments.current();
+      if (!"--port".equals(key)) {
+        return false;
+      }
+
+      String value = arguments.advance();
+      if (value == null) {
+        throw new WrongCommandException("Error: don't have port");
+      }
+      try {
+        int port = Integer.parseInt(value);
+        if (port <= 0 || port > 65535) {
+          throw new WrongCommandException("Error: Port " + value + " out of range");
+        }
+        command.setPort(port);
+      } catch (NumberFormatException e) {
+        throw new WrongCommandException("Error: Port " + value + " unrecognized");
+      }
+      return true;
+    }
+
+    @Override
+    public String helpCommend() {
+      return "--port N     - Set the loopback port of the render daemon (default: "
+          + RenderServer.DEFAULT_PORT + ")";
+    }
+  }
+
+  public static class MaxFrame implements CommandUnit {
+
+    @Override
+    public boolean handle(Arguments arguments, Command command) throws WrongCommandException {
+      String key = arguments.current();
+      if (!"--frame".equals(key)) {
+        return false;
+      }
+
+      String value = arguments.advance();
+      if (value == null) {
+        throw new WrongCommandException("Error: don't have max frame size");
+      }
+      try {
+        int kb = Integer.parseInt(value);
+        if (kb <= 0 || kb > Integer.MAX_VALUE / 1024) {
+          throw new WrongCommandException("Error: Max frame size " + value + " out of range");
+        }
+        command.setMaxFrameSize(kb * 1024);
+      } catch (NumberFormatException e) {
+        throw new WrongCommandException("Error: Max frame size " + value + " unrecognized");
+      }
+      return true;
+    }
+
+    @Override
+    public String helpCommend() {
+      return "--frame N    - Set the max DOT script size of the render daemon to 'N' KB "
+          + "(default: " + RenderServer.DEFAULT_MAX_FRAME / 1024 + ")";
+    }
+  }
+
   public static class Version implements CommandUnit {
 
     @Override
@@ -307,7 +507,58 @@ public class CommandUnits {
     }
   }
 
-  private static CharStream getCharStream(File file) throws WrongCommandException {
+  private static boolean isGlob(String path) {
+    return wildcardIndex(path) >= 0;
+  }
+
+  private static int wildcardIndex(String path) {
+    for (int i = 0; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (c == '*' || c == '?' || c == '[' || c == '{') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Path globBase(String pattern) {
+    // Walk from the directory before the first wildcard
+    int wildcard = wildcardIndex(pattern);
+    int slash = Math.max(pattern.lastIndexOf('/', wildcard),
+                         pattern.lastIndexOf(File.separatorChar, wildcard));
+    return Paths.get(slash < 0 ? "" : pattern.substring(0, slash + 1));
+  }
+
+  private static List<File> globFiles(Path base, String pattern) throws WrongCommandException {
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    return walkFiles(base, matcher::matches);
+  }
+
+  private static List<File> dotFiles(Path directory) throws WrongCommandException {
+    return walkFiles(directory, path -> {
+      String name = path.getFileName().toString().toLowerCase();
+      return name.endsWith(".dot") || name.endsWith(".gv");
+    });
+  }
+
+  private static List<File> walkFiles(Path directory, Predicate<Path> filter)
+      throws WrongCommandException {
+    if (!Files.isDirectory(directory.toAbsolutePath())) {
+      return Collections.emptyList();
+    }
+
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.filter(Files::isRegularFile)
+          .filter(filter)
+          .sorted()
+          .map(path -> path.toAbsolutePath().normalize().toFile())
+          .collect(Collectors.toList());
+    } catch (IOException | UncheckedIOException e) {
+      throw new WrongCommandException(e);
+    }
+  }
+
+  static CharStream getCharStream(File file) throws WrongCommandException {
     CharStream charStream;
     try (InputStream is = Files.newInputStream(file.toPath());
         Reader r = new InputStreamReader(is, StandardCharsets.UTF_8)) {
@@ -40,16 +40,23 @@ public class Main {
   public static void main(String[] args) {
     try {
       Command command = newCommand(args);
-      File output = command.getOutput();
-      Graphviz graphviz = DotParser.parse(command.getDotFile(), new PostGraphComponents() {
-        @Override
-        public void postGraphviz(GraphvizBuilder graphvizBuilder) {
-          Layout layout = command.getLayout();
-          if (layout != null) {
-            graphvizBuilder.layout(layout);
-          }
+      if (command.isServe()) {
+        new RenderServer(command).serve();
+        return;
+      }
+      if (command.isClient()) {
+        RenderClient.render(command);
+        return;
+      }
+      if (command.isBatch()) {
+        if (new BatchRender(command).render() > 0) {
+          System.exit(1);
         }
-      });
+        return;
+      }
+
+      File output = command.getOutput();
+      Graphviz graphviz = DotParser.parse(command.getDotFile(), postGraphComponents(command));
 
       if (graphviz.isEmpty()) {
         log.error("Graph is empty");
@@ -70,7 +77,7 @@ public class Main {
     }
   }
 
-  private static Command newCommand(String[] args) throws WrongCommandException {
+  static Command newCommand(String[] args) throws WrongCommandException {
     Command command = new Command();
     Arguments arguments = new Arguments(args);
     while (arguments.currentExist()) {
@@ -88,13 +95,47 @@ public class Main {
       arguments.advance();
     }
 
+    if (command.isServe()) {
+      return command;
+    }
+
+    // The daemon renders one graph per client
+    if (command.isClient() && command.getInputs().size() > 1) {
+      throw new WrongCommandException("Error: Client mode only renders one dot file");
+    }
+    if (command.isBatch() && !command.isClient()) {
+      if (command.getInputs().isEmpty()) {
+        throw new WrongCommandException("Error: No dot file");
+      }
+      return command;
+    }
+
+    if (command.getDotFile() == null && command.getInputs().size() == 1) {
+      command.setDotFile(CommandUnits.getCharStream(command.getInputs().get(0)));
+    }
     if (command.getDotFile() == null) {
       throw new WrongCommandException("Error: No dot file/script");
     }
 
+    // The braces are only placeholders in batch mode
+    if (command.getOutput() == null && command.getOutputTemplate() != null) {
+      command.setOutput(CommandUnits.OutputFile.outputFile(command.getOutputTemplate()));
+    }
     if (command.getOutput() == null) {
       throw new WrongCommandException("Error: No output file");
     }
     return command;
   }
+
+  static PostGraphComponents postGraphComponents(Command command) {
+    return new PostGraphComponents() {
+      @Override
+      public void postGraphviz(GraphvizBuilder graphvizBuilder) {
+        Layout layout = command.getLayout();
+        if (layout != null) {
+          graphvizBuilder.layout(layout);
+        }
+      }
+    };
+  }
 }
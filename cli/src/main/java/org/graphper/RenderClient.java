@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import org.graphper.api.attributes.Layout;
+import org.graphper.parser.ParseException;
+
+/**
+ * The thin client of {@link RenderServer}, sends the token of daemon and the DOT script with the
+ * {@code -T} and {@code -K} options to the running daemon and writes the result to the {@code -o}
+ * file. The token is read from the token file of daemon, so only the user who runs the daemon
+ * can render by it.
+ *
+ * @author Jamison Jiang
+ */
+public class RenderClient {
+
+  private RenderClient() {
+  }
+
+  /**
+   * Renders the graph of command by the daemon.
+   *
+   * @param command The command in client mode.
+   * @throws WrongCommandException if no daemon is listening on the port.
+   * @throws ParseException        if the DOT script contains syntax errors.
+   * @throws IOException           if the daemon fails to render, or an I/O error occurs.
+   */
+  public static void render(Command command) throws WrongCommandException, IOException {
+    Layout layout = command.getLayout();
+    String type = command.getFileType().getType();
+    byte[] token = readToken(command.getPort());
+    byte[] result;
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), command.getPort());
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream in = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream()))) {
+      RenderServer.writeFrame(out, token);
+      RenderServer.writeFrame(out, type.getBytes(StandardCharsets.UTF_8));
+      RenderServer.writeFrame(out, layout != null
+          ? layout.name().getBytes(StandardCharsets.UTF_8) : new byte[0]);
+      RenderServer.writeFrame(out, command.getDotFile().toString()
+          .getBytes(StandardCharsets.UTF_8));
+      out.flush();
+
+      byte status = in.readByte();
+      result = RenderServer.readFrame(in, Integer.MAX_VALUE);
+      if (status == RenderServer.PARSE_ERROR) {
+        throw new ParseException(new String(result, StandardCharsets.UTF_8));
+      }
+      if (status != RenderServer.OK) {
+        throw new IOException(new String(result, StandardCharsets.UTF_8));
+      }
+    } catch (ConnectException e) {
+      throw new WrongCommandException("Error: no render daemon on port " + command.getPort()
+                                          + ", start it by --serve");
+    }
+
+    File output = command.getOutput();
+    String name = output.getName();
+    if (!name.endsWith("." + type)) {
+      name += "." + type;
+    }
+    Files.write(new File(output.getParentFile(), name).toPath(), result);
+  }
+
+  private static byte[] readToken(int port) throws WrongCommandException, IOException {
+    Path tokenFile = RenderServer.tokenFile(port);
+    try {
+      return Files.readAllBytes(tokenFile);
+    } catch (NoSuchFileException e) {
+      throw new WrongCommandException("Error: no render daemon on port " + port
+                                          + ", start it by --serve");
+    }
+  }
+}
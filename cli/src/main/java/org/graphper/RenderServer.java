@@ -0,0 +1,374 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.antlr.v4.runtime.CharStreams;
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.FileType;
+import org.graphper.api.GraphResource;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Graphviz.GraphvizBuilder;
+import org.graphper.api.attributes.Layout;
+import org.graphper.parser.DotParser;
+import org.graphper.parser.ParseException;
+import org.graphper.parser.PostGraphComponents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running render daemon which keeps the parser, fonts and JIT warm, so the graphs rendered
+ * by {@link RenderClient} do not pay the startup cost of JVM. It only listens on the loopback
+ * address. The requests of each connection are read by a connection thread, and every request is
+ * rendered by a fixed number of workers, so an idle connection never holds a worker.
+ *
+ * <p>The loopback address is reachable by every local user, so the daemon writes a random token
+ * to the file {@code ~/.graph-support/daemon-<port>.token}, which is only readable by the
+ * owner on POSIX file systems, and deletes it on exit. A connection first sends the token frame,
+ * a connection with a wrong token is answered by {@link #REQUEST_ERROR} and closed.
+ *
+ * <p>Each connection then sends any number of requests, a request is the frames of file type,
+ * layout (empty for the default) and the UTF-8 DOT script. The response is a status byte followed
+ * by a frame, which is the rendered bytes if the status is {@link #OK}, otherwise the error
+ * message. A frame is an int length followed by the bytes. A request with an unknown file type or a
+ * frame larger than the max frame size is answered by {@link #REQUEST_ERROR} and the connection is
+ * closed before the frame is read, a connection idle longer than {@link #READ_TIMEOUT} ms is closed
+ * too.
+ *
+ * @author Jamison Jiang
+ */
+public class RenderServer {
+
+  private static final Logger log = LoggerFactory.getLogger(RenderServer.class);
+
+  /**
+   * The default loopback port of the daemon.
+   */
+  public static final int DEFAULT_PORT = 7391;
+
+  static final byte OK = 0;
+
+  static final byte PARSE_ERROR = 1;
+
+  static final byte RENDER_ERROR = 2;
+
+  static final byte REQUEST_ERROR = 3;
+
+  /**
+   * The default max size of the DOT script frame of a request, in bytes.
+   */
+  public static final int DEFAULT_MAX_FRAME = 8 * 1024 * 1024;
+
+  /**
+   * The read timeout of connections in milliseconds, an idle connection is closed after it.
+   */
+  public static final int READ_TIMEOUT = 30_000;
+
+  // The max number of open connections, the later connections are closed at once
+  private static final int MAX_CONNECTIONS = 256;
+
+  // The max size of the token, file type and layout frames
+  private static final int MAX_NAME_FRAME = 64;
+
+  private static final int TOKEN_BYTES = 16;
+
+  private static final String WARM_UP_DOT = "digraph { a -> b -> c; a -> c [label=warm] }";
+
+  private final Command command;
+
+  private byte[] token;
+
+  /**
+   * Constructs a daemon of the command, the port, jobs, max frame size and default layout are
+   * used.
+   *
+   * @param command The command in serve mode.
+   */
+  public RenderServer(Command command) {
+    this.command = command;
+  }
+
+  /**
+   * Warms up the engine and serves the requests until the process is stopped.
+   *
+   * @throws IOException if the port can not be bound or the token file can not be written.
+   */
+  public void serve() throws IOException {
+    warmUp();
+
+    ExecutorService workers = Executors.newFixedThreadPool(command.getJobs());
+    ExecutorService connections = new ThreadPoolExecutor(0, MAX_CONNECTIONS, 60, TimeUnit.SECONDS,
+                                                         new SynchronousQueue<>());
+    try (ServerSocket serverSocket = new ServerSocket(command.getPort(), 50,
+                                                      InetAddress.getLoopbackAddress())) {
+      token = writeToken(tokenFile(serverSocket.getLocalPort()));
+      log.info("Render daemon is listening on {}:{}",
+               serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort());
+      while (!serverSocket.isClosed()) {
+        Socket socket = serverSocket.accept();
+        try {
+          socket.setSoTimeout(READ_TIMEOUT);
+          connections.execute(() -> handle(socket, workers));
+        } catch (IOException | RejectedExecutionException e) {
+          log.debug("Refuse render connection", e);
+          closeQuietly(socket);
+        }
+      }
+    } finally {
+      connections.shutdownNow();
+      workers.shutdownNow();
+    }
+  }
+
+  private void warmUp() {
+    long start = System.currentTimeMillis();
+    DotParser.warmUp();
+    for (FileType fileType : new FileType[]{FileType.SVG, FileType.PNG}) {
+      try (GraphResource resource = DotParser.parse(WARM_UP_DOT).toFile(fileType)) {
+        resource.bytes();
+      } catch (Exception e) {
+        log.debug("Failed to warm up {} render", fileType, e);
+      }
+    }
+    log.info("Render daemon warmed up in {} ms", System.currentTimeMillis() - start);
+  }
+
+  private void handle(Socket socket, ExecutorService workers) {
+    try (Socket s = socket;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(s.getOutputStream()))) {
+      if (!authorized(in)) {
+        Response.error(REQUEST_ERROR, "Illegal token of render daemon").write(out);
+        out.flush();
+        return;
+      }
+
+      while (true) {
+        try {
+          byte[] type;
+          try {
+            type = readFrame(in, MAX_NAME_FRAME);
+          } catch (EOFException e) {
+            // The client has sent all requests
+            return;
+          }
+          FileType fileType = fileType(new String(type, StandardCharsets.UTF_8));
+          String layout = new String(readFrame(in, MAX_NAME_FRAME), StandardCharsets.UTF_8);
+          String dot = new String(readFrame(in, command.getMaxFrameSize()),
+                                  StandardCharsets.UTF_8);
+
+          Future<Response> response = workers.submit(() -> render(fileType, layout, dot));
+          response.get().write(out);
+          out.flush();
+        } catch (IllegalRequestException e) {
+          // The rest of the stream can not be trusted, close the connection
+          Response.error(REQUEST_ERROR, e.getMessage()).write(out);
+          out.flush();
+          return;
+        }
+      }
+    } catch (IOException e) {
+      log.debug("Render connection closed", e);
+    } catch (ExecutionException e) {
+      log.error("Render worker failed", e.getCause());
+    } catch (InterruptedException | RejectedExecutionException e) {
+      log.debug("Render daemon is stopping", e);
+    }
+  }
+
+  private boolean authorized(DataInputStream in) throws IOException {
+    try {
+      return MessageDigest.isEqual(token, readFrame(in, MAX_NAME_FRAME));
+    } catch (IllegalRequestException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the token file of the daemon on the port.
+   *
+   * @param port the port of daemon
+   * @return the token file
+   */
+  static Path tokenFile(int port) {
+    return Paths.get(System.getProperty("user.home"), ".graph-support",
+                     "daemon-" + port + ".token");
+  }
+
+  /*
+   * Writes a new token to the file, the file is created before the token is written, so it is
+   * never readable by other users on POSIX file systems.
+   */
+  private static byte[] writeToken(Path file) throws IOException {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    new SecureRandom().nextBytes(bytes);
+    StringBuilder token = new StringBuilder(TOKEN_BYTES * 2);
+    for (byte b : bytes) {
+      token.append(String.format("%02x", b));
+    }
+
+    Files.createDirectories(file.getParent());
+    Files.deleteIfExists(file);
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(file, PosixFilePermissions.asFileAttribute(
+          PosixFilePermissions.fromString("rw-------")));
+    } else {
+      Files.createFile(file);
+    }
+    file.toFile().deleteOnExit();
+    byte[] tokenBytes = token.toString().getBytes(StandardCharsets.UTF_8);
+    Files.write(file, tokenBytes);
+    return tokenBytes;
+  }
+
+  private static FileType fileType(String type) throws IllegalRequestException {
+    for (FileType fileType : FileType.values()) {
+      if (fileType.name().equalsIgnoreCase(type)) {
+        return fileType;
+      }
+    }
+    throw new IllegalRequestException("Unknown file type " + type);
+  }
+
+  private Response render(FileType fileType, String layoutName, String dot) {
+    long start = System.currentTimeMillis();
+    byte[] bytes;
+    try {
+      Layout layout = StringUtils.isEmpty(layoutName)
+          ? command.getLayout() : Layout.valueOf(layoutName.toUpperCase());
+      Graphviz graphviz = DotParser.parse(CharStreams.fromString(dot, "request"),
+                                          postGraphComponents(layout));
+      if (graphviz.isEmpty()) {
+        return Response.error(RENDER_ERROR, "Graph is empty");
+      }
+
+      try (GraphResource resource = graphviz.toFile(fileType)) {
+        bytes = resource.bytes();
+      }
+    } catch (ParseException e) {
+      return Response.error(PARSE_ERROR, e.getMessage());
+    } catch (StackOverflowError e) {
+      return Response.error(RENDER_ERROR, "Big graph, please increasing the stack size of daemon");
+    } catch (Exception e) {
+      log.debug("Render request error", e);
+      return Response.error(RENDER_ERROR, String.valueOf(e));
+    }
+
+    log.debug("Rendered {} {} bytes in {} ms", fileType.getType(), bytes.length,
+              System.currentTimeMillis() - start);
+    return new Response(OK, bytes);
+  }
+
+  private static PostGraphComponents postGraphComponents(Layout layout) {
+    return new PostGraphComponents() {
+      @Override
+      public void postGraphviz(GraphvizBuilder graphvizBuilder) {
+        if (layout != null) {
+          graphvizBuilder.layout(layout);
+        }
+      }
+    };
+  }
+
+  static void writeFrame(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a frame, the length is checked before the bytes are allocated.
+   *
+   * @param in        the input stream
+   * @param maxLength the max length of frame
+   * @return the bytes of frame
+   * @throws IllegalRequestException if the length is negative or greater than the max length
+   * @throws IOException             if an I/O error occurs
+   */
+  static byte[] readFrame(DataInputStream in, int maxLength) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > maxLength) {
+      throw new IllegalRequestException(
+          "Illegal frame length " + length + ", the max length is " + maxLength);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      log.debug("Failed to close render connection", e);
+    }
+  }
+
+  static class IllegalRequestException extends IOException {
+
+    private static final long serialVersionUID = 4317624935190772371L;
+
+    IllegalRequestException(String message) {
+      super(message);
+    }
+  }
+
+  private static class Response {
+
+    private final byte status;
+
+    private final byte[] bytes;
+
+    private Response(byte status, byte[] bytes) {
+      this.status = status;
+      this.bytes = bytes;
+    }
+
+    private static Response error(byte status, String message) {
+      return new Response(status, String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeByte(status);
+      writeFrame(out, bytes);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchRenderTest {
+
+  @Test
+  public void testOutputTemplate(@TempDir Path dir)
+      throws IOException, WrongCommandException, InterruptedException, ExecutionException {
+    Path sub = Files.createDirectory(dir.resolve("sub"));
+    CommandUnitsTest.write(dir.resolve("a.dot"));
+    CommandUnitsTest.write(sub.resolve("b.dot"));
+
+    Command command = Main.newCommand(new String[]{dir.toString(), "-o",
+        dir.resolve("out").toString() + File.separator + "{rel}{name}{index}.{ext}"});
+    Assertions.assertEquals(0, new BatchRender(command).render());
+    Assertions.assertTrue(Files.isRegularFile(dir.resolve("out/a.svg")));
+    Assertions.assertTrue(Files.isRegularFile(dir.resolve("out/sub/b.svg")));
+  }
+
+  @Test
+  public void testSameOutput(@TempDir Path dir) throws IOException, WrongCommandException {
+    CommandUnitsTest.write(dir.resolve("a.dot"));
+    CommandUnitsTest.write(dir.resolve("b.dot"));
+
+    // Both inputs are named out.svg
+    Command command = Main.newCommand(new String[]{dir.toString(), "-o",
+        dir.resolve("out.{ext}").toString()});
+    BatchRender batchRender = new BatchRender(command);
+    Assertions.assertThrows(WrongCommandException.class, batchRender::render);
+    Assertions.assertFalse(Files.exists(dir.resolve("out.svg")));
+  }
+}
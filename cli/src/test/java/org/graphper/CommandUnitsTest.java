@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CommandUnitsTest {
+
+  private static final String DOT = "digraph { a -> b }";
+
+  @Test
+  public void testLiteralInput(@TempDir Path dir) throws IOException, WrongCommandException {
+    Path literal = write(dir.resolve("g[1].dot"));
+    write(dir.resolve("g1.dot"));
+
+    // The existing file is not matched as a glob
+    Command command = Main.newCommand(new String[]{literal.toString(), "-o",
+        dir.resolve("g.svg").toString()});
+    Assertions.assertFalse(command.isBatch());
+    Assertions.assertEquals(Arrays.asList(literal.toFile().getCanonicalFile()),
+                            command.getInputs());
+  }
+
+  @Test
+  public void testGlobInput(@TempDir Path dir) throws IOException, WrongCommandException {
+    Path g1 = write(dir.resolve("g1.dot"));
+    Path g2 = write(dir.resolve("g2.dot"));
+    write(dir.resolve("h1.dot"));
+
+    Command command = Main.newCommand(new String[]{dir.resolve("g?.dot").toString()});
+    Assertions.assertTrue(command.isBatch());
+    Assertions.assertEquals(Arrays.asList(g1.toFile().getCanonicalFile(),
+                                          g2.toFile().getCanonicalFile()),
+                            command.getInputs());
+
+    Assertions.assertThrows(WrongCommandException.class,
+                            () -> Main.newCommand(new String[]{dir.resolve("x*.dot").toString()}));
+  }
+
+  @Test
+  public void testSingleFileOutput(@TempDir Path dir) throws IOException, WrongCommandException {
+    Path input = write(dir.resolve("g.dot"));
+
+    // The braces are only placeholders in batch mode
+    Command command = Main.newCommand(new String[]{input.toString(), "-o",
+        dir.resolve("o{x}.svg").toString()});
+    Assertions.assertFalse(command.isBatch());
+    Assertions.assertEquals(dir.resolve("o{x}.svg").toFile().getCanonicalFile(),
+                            command.getOutput());
+
+    command = Main.newCommand(new String[]{input.toString(), "-o",
+        dir.resolve("o.svg").toString()});
+    Assertions.assertEquals(dir.resolve("o.svg").toFile().getCanonicalFile(), command.getOutput());
+
+    Assertions.assertThrows(WrongCommandException.class, () -> Main.newCommand(
+        new String[]{input.toString(), "-o", dir.resolve("none/o{x}.svg").toString()}));
+  }
+
+  @Test
+  public void testBatchOutputTemplate(@TempDir Path dir) throws IOException, WrongCommandException {
+    Path input = write(dir.resolve("g.dot"));
+
+    Command command = Main.newCommand(new String[]{"-o", "{dir}/out/{name}.{ext}",
+        input.toString(), "-b"});
+    Assertions.assertTrue(command.isBatch());
+    Assertions.assertNull(command.getOutput());
+    Assertions.assertEquals("{dir}/out/{name}.{ext}", command.getOutputTemplate());
+  }
+
+  @Test
+  public void testClientInput(@TempDir Path dir) throws IOException, WrongCommandException {
+    Path input = write(dir.resolve("g1.dot"));
+    write(dir.resolve("g2.dot"));
+
+    // The glob input of client is not rendered in batch mode
+    Command command = Main.newCommand(new String[]{"--client", dir.resolve("g1*.dot").toString(),
+        "-o", dir.resolve("o{x}.svg").toString()});
+    Assertions.assertTrue(command.isClient());
+    Assertions.assertNotNull(command.getDotFile());
+    Assertions.assertEquals(Arrays.asList(input.toFile().getCanonicalFile()), command.getInputs());
+    Assertions.assertEquals(dir.resolve("o{x}.svg").toFile().getCanonicalFile(),
+                            command.getOutput());
+
+    Assertions.assertThrows(WrongCommandException.class, () -> Main.newCommand(
+        new String[]{"--client", dir.toString(), "-o", dir.resolve("o.svg").toString()}));
+  }
+
+  static Path write(Path file) throws IOException {
+    Files.write(file, DOT.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.api;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.graphper.util.CollectionUtils;
+
+/**
+ * The membership index of a built {@link GraphContainer}, which records the direct nodes, the
+ * innermost container of every node and the node and line numbers of the container, so that the
+ * membership queries of container do not need to recurse into all sub containers. The index only
+ * depends on the container itself and its sub containers, which can not be changed after build, so
+ * the index of a sub container is shared by all containers (and graphs) that contain it.
+ *
+ * <p>Every container records the innermost containers of all nodes it contains, the memory usage is
+ * proportional to the number of nodes multiplied by the nesting depth of containers.
+ *
+ * @author Jamison Jiang
+ */
+final class ContainerIndex {
+
+  private final GraphContainer container;
+
+  private final Set<Node> directNodes;
+
+  // Nodes of container and all sub containers -> the innermost container
+  private final Map<Node, GraphContainer> nodeContainers;
+
+  private final int nodeNum;
+
+  private final int lineNum;
+
+  private ContainerIndex(GraphContainer container) {
+    this.container = container;
+
+    int nNum = CollectionUtils.isNotEmpty(container.nodes) ? container.nodes.size() : 0;
+    int lNum = CollectionUtils.isNotEmpty(container.lines) ? container.lines.size() : 0;
+    Map<Node, GraphContainer> containers = new HashMap<>();
+    nNum += merge(container.subgraphs, containers);
+    lNum += lineNum(container.subgraphs);
+    nNum += merge(container.clusters, containers);
+    lNum += lineNum(container.clusters);
+
+    Set<Node> direct = null;
+    if (CollectionUtils.isNotEmpty(container.nodes)) {
+      for (Node node : container.nodes) {
+        if (containers.containsKey(node)) {
+          continue;
+        }
+        if (direct == null) {
+          direct = new TreeSet<>();
+        }
+        direct.add(node);
+      }
+    }
+
+    if (direct != null) {
+      for (Node node : direct) {
+        containers.put(node, container);
+      }
+    }
+    this.directNodes = direct != null
+        ? Collections.unmodifiableSet(direct) : Collections.emptySet();
+    this.nodeContainers = containers;
+    this.nodeNum = nNum;
+    this.lineNum = lNum;
+  }
+
+  /**
+   * Build the index of container and all its sub containers, the container must be built.
+   *
+   * @param container the built container
+   * @return the index of container
+   */
+  static ContainerIndex index(GraphContainer container) {
+    ContainerIndex index = container.index;
+    if (index != null) {
+      return index;
+    }
+
+    // The sub containers first
+    for (Subgraph subgraph : container.subgraphs()) {
+      index(subgraph);
+    }
+    for (Cluster cluster : container.clusters()) {
+      index(cluster);
+    }
+    index = new ContainerIndex(container);
+    container.index = index;
+    return index;
+  }
+
+  Set<Node> directNodes() {
+    return directNodes;
+  }
+
+  int nodeNum() {
+    return nodeNum;
+  }
+
+  int lineNum() {
+    return lineNum;
+  }
+
+  boolean containsNode(Node node) {
+    return nodeContainers.containsKey(node);
+  }
+
+  boolean subContains(Node node) {
+    GraphContainer c = nodeContainers.get(node);
+    return c != null && c != container;
+  }
+
+  private static int merge(List<? extends GraphContainer> subs,
+                           Map<Node, GraphContainer> containers) {
+    if (CollectionUtils.isEmpty(subs)) {
+      return 0;
+    }
+
+    int n = 0;
+    for (GraphContainer sub : subs) {
+      ContainerIndex index = sub.index;
+      n += index.nodeNum;
+      for (Map.Entry<Node, GraphContainer> entry : index.nodeContainers.entrySet()) {
+        containers.putIfAbsent(entry.getKey(), entry.getValue());
+      }
+    }
+    return n;
+  }
+
+  private static int lineNum(List<? extends GraphContainer> subs) {
+    if (CollectionUtils.isEmpty(subs)) {
+      return 0;
+    }
+
+    int n = 0;
+    for (GraphContainer sub : subs) {
+      n += sub.index.lineNum;
+    }
+    return n;
+  }
+}
@@ -20,6 +20,7 @@ import static org.graphper.util.FontUtils.DEFAULT_FONT;
 
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import org.graphper.api.Html.LabelTag;
 import org.graphper.api.Html.Table;
 import org.graphper.api.attributes.Color;
@@ -30,6 +31,8 @@ import org.graphper.api.attributes.Layout;
 import org.graphper.api.attributes.Rankdir;
 import org.graphper.api.attributes.Splines;
 import org.graphper.def.FlatPoint;
+import org.graphper.draw.MetricsListener;
+import org.graphper.draw.RankSnapshot;
 import org.graphper.util.EnvProp;
 
 /**
@@ -75,6 +78,16 @@ public class GraphAttrs implements Serializable, Cloneable {
 
   int mclimit = 8;
 
+  int mcstarts = 1;
+
+  transient ForkJoinPool mcpool;
+
+  boolean warmStart;
+
+  transient RankSnapshot rankSnapshot;
+
+  transient MetricsListener metrics;
+
   double fontSize = (double) Graphviz.PIXEL / 2;
 
   boolean showGrid = false;
@@ -91,6 +104,12 @@ public class GraphAttrs implements Serializable, Cloneable {
 
   double k = 1;
 
+  double theta = 0.6;
+
+  boolean fdpParallel = false;
+
+  transient ForkJoinPool fdpPool;
+
   boolean overlap = false;
 
   InitPos initPos = InitPos.SECTOR;
@@ -159,6 +178,26 @@ public class GraphAttrs implements Serializable, Cloneable {
     return mclimit;
   }
 
+  public int getMcstarts() {
+    return mcstarts;
+  }
+
+  public ForkJoinPool getMcpool() {
+    return mcpool;
+  }
+
+  public boolean isWarmStart() {
+    return warmStart;
+  }
+
+  public RankSnapshot getRankSnapshot() {
+    return rankSnapshot;
+  }
+
+  public MetricsListener getMetrics() {
+    return metrics;
+  }
+
   public FlatPoint getMargin() {
     return margin;
   }
@@ -195,6 +234,18 @@ public class GraphAttrs implements Serializable, Cloneable {
     return k;
   }
 
+  public double getTheta() {
+    return theta;
+  }
+
+  public boolean isFdpParallel() {
+    return fdpParallel;
+  }
+
+  public ForkJoinPool getFdpPool() {
+    return fdpPool;
+  }
+
   public boolean isOverlap() {
     return overlap;
   }
@@ -223,9 +274,11 @@ public class GraphAttrs implements Serializable, Cloneable {
     GraphAttrs that = (GraphAttrs) o;
     return Double.compare(that.nodeSep, nodeSep) == 0 && nslimit == that.nslimit
         && nslimit1 == that.nslimit1 && Double.compare(that.rankSep, rankSep) == 0
-        && mclimit == that.mclimit && Double.compare(that.fontSize, fontSize) == 0
+        && mclimit == that.mclimit && mcstarts == that.mcstarts && warmStart == that.warmStart
+        && Double.compare(that.fontSize, fontSize) == 0
         && showGrid == that.showGrid && maxiter == that.maxiter
-        && Double.compare(that.k, k) == 0 && overlap == that.overlap
+        && Double.compare(that.k, k) == 0 && Double.compare(that.theta, theta) == 0
+        && fdpParallel == that.fdpParallel && overlap == that.overlap
         && Objects.equals(bgColor, that.bgColor) && splines == that.splines
         && Objects.equals(fontColor, that.fontColor) && rankdir == that.rankdir
         && layout == that.layout && Objects.equals(label, that.label)
@@ -241,8 +294,8 @@ public class GraphAttrs implements Serializable, Cloneable {
   public int hashCode() {
     return Objects.hash(bgColor, splines, fontColor, rankdir, layout, nodeSep, label, labelTag,
                         fontName, labelloc, labeljust, nslimit, nslimit1, rankSep, scale, margin,
-                        mclimit, fontSize, showGrid, href, tooltip, table, assemble, maxiter, k,
-                        overlap, initPos);
+                        mclimit, mcstarts, warmStart, fontSize, showGrid, href, tooltip, table, assemble,
+                        maxiter, k, theta, fdpParallel, overlap, initPos);
   }
 
   @Override
@@ -265,6 +318,8 @@ public class GraphAttrs implements Serializable, Cloneable {
         ", scale=" + scale +
         ", margin=" + margin +
         ", mclimit=" + mclimit +
+        ", mcstarts=" + mcstarts +
+        ", warmStart=" + warmStart +
         ", fontSize=" + fontSize +
         ", showGrid=" + showGrid +
         ", href='" + href + '\'' +
@@ -273,6 +328,8 @@ public class GraphAttrs implements Serializable, Cloneable {
         ", assemble=" + assemble +
         ", maxiter=" + maxiter +
         ", k=" + k +
+        ", theta=" + theta +
+        ", fdpParallel=" + fdpParallel +
         ", overlap=" + overlap +
         ", initPos=" + initPos +
         '}';
@@ -73,6 +73,9 @@ public abstract class GraphContainer implements Serializable {
   // The line template attribute value
   protected volatile Map<String, Object> lineAttrsMap;
 
+  // The membership index, only built for the containers of built graphviz
+  transient volatile ContainerIndex index;
+
   /**
    * Returns the container id.
    *
@@ -216,6 +219,10 @@ public abstract class GraphContainer implements Serializable {
    * @return all directly nodes
    */
   public Set<Node> directNodes() {
+    ContainerIndex idx = index;
+    if (idx != null) {
+      return idx.directNodes();
+    }
     if (CollectionUtils.isEmpty(nodes)) {
       return Collections.emptySet();
     }
@@ -237,6 +244,10 @@ public abstract class GraphContainer implements Serializable {
    * @return node number
    */
   public int nodeNum() {
+    ContainerIndex idx = index;
+    if (idx != null) {
+      return idx.nodeNum();
+    }
     int n = CollectionUtils.isNotEmpty(nodes) ? nodes.size() : 0;
     for (Subgraph subgraph : subgraphs()) {
       n += subgraph.nodeNum();
@@ -304,6 +315,10 @@ public abstract class GraphContainer implements Serializable {
    * @return line number
    */
   public int lineNum() {
+    ContainerIndex idx = index;
+    if (idx != null) {
+      return idx.lineNum();
+    }
     int n = CollectionUtils.isNotEmpty(lines) ? lines.size() : 0;
     for (Subgraph subgraph : subgraphs()) {
       n += subgraph.lineNum();
@@ -321,6 +336,10 @@ public abstract class GraphContainer implements Serializable {
    * @return <tt>true</tt> if node in current container
    */
   public boolean containsNode(Node node) {
+    ContainerIndex idx = index;
+    if (idx != null) {
+      return idx.containsNode(node);
+    }
     if (CollectionUtils.isNotEmpty(nodes) && nodes.contains(node)) {
       return true;
     }
@@ -451,6 +470,10 @@ public abstract class GraphContainer implements Serializable {
 
 
   public boolean subContains(Node node) {
+    ContainerIndex idx = index;
+    if (idx != null) {
+      return idx.subContains(node);
+    }
     for (Subgraph subgraph : subgraphs()) {
       if (subgraph.containsNode(node)) {
         return true;
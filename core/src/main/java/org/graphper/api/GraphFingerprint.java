@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.api;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import org.graphper.util.EnvProp;
+
+/**
+ * Calculate the structural hash of {@link Graphviz}. All containers, nodes, lines and their
+ * attributes are written by the java serialization in the same order as the layout engine visits
+ * them, the SHA-256 digest of the written bytes is the fingerprint. Since the serialization writes
+ * all attributes, two graphs with the same fingerprint always have the same layout, the graphs with
+ * any attribute that can not be serialized have no fingerprint.
+ *
+ * @author Jamison Jiang
+ */
+final class GraphFingerprint {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private GraphFingerprint() {
+  }
+
+  /**
+   * Returns the fingerprint of graph.
+   *
+   * @param graphviz graph
+   * @return the fingerprint of graph, or null if the graph can not be fingerprinted
+   */
+  static String of(Graphviz graphviz) {
+    GraphAttrs graphAttrs = graphviz.graphAttrs();
+    // The layout of a warm start depends on the previous layout
+    if (graphAttrs.getRankSnapshot() != null) {
+      return null;
+    }
+
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      try (ObjectOutputStream out = new ObjectOutputStream(
+          new DigestOutputStream(NullOutputStream.INSTANCE, digest))) {
+        out.writeBoolean(EnvProp.useV1Coordinate());
+        out.writeBoolean(EnvProp.parallelLineDistinction());
+        out.writeBoolean(graphviz.isDirected());
+        out.writeObject(graphAttrs);
+        writeContainer(out, graphviz);
+      }
+      return hex(digest.digest());
+    } catch (IOException | NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  private static void writeContainer(ObjectOutputStream out, GraphContainer container)
+      throws IOException {
+    out.writeUTF(container.getClass().getName());
+    out.writeObject(container.id);
+    if (container.isCluster()) {
+      out.writeObject(((Cluster) container).clusterAttrs());
+    } else if (container.isSubgraph()) {
+      out.writeObject(((Subgraph) container).getRank());
+    }
+
+    writeTemplate(out, container.nodeAttrsMap);
+    writeTemplate(out, container.lineAttrsMap);
+    writeAll(out, container.nodes);
+    writeAll(out, container.lines);
+
+    out.writeInt(container.subgraphs().size());
+    for (Subgraph subgraph : container.subgraphs()) {
+      writeContainer(out, subgraph);
+    }
+    out.writeInt(container.clusters().size());
+    for (Cluster cluster : container.clusters()) {
+      writeContainer(out, cluster);
+    }
+  }
+
+  private static void writeTemplate(ObjectOutputStream out, Map<String, Object> template)
+      throws IOException {
+    // Sort by the attribute name, independent of the capacity history of map
+    out.writeObject(template != null ? new TreeMap<>(template) : null);
+  }
+
+  private static void writeAll(ObjectOutputStream out, Collection<?> items) throws IOException {
+    if (items == null) {
+      out.writeInt(0);
+      return;
+    }
+
+    out.writeInt(items.size());
+    for (Object item : items) {
+      // The repeated nodes are written as the handles of the first written
+      out.writeObject(item);
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+      chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+  private static class NullOutputStream extends OutputStream {
+
+    private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  }
+}
@@ -16,13 +16,21 @@
 
 package org.graphper.api;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.graphper.api.Html.LabelTag;
 import org.graphper.api.Html.Table;
 import org.graphper.api.attributes.Color;
@@ -33,9 +41,15 @@ import org.graphper.api.attributes.Layout;
 import org.graphper.api.attributes.Rankdir;
 import org.graphper.api.attributes.Splines;
 import org.graphper.def.FlatPoint.UnmodifyFlatPoint;
+import org.graphper.draw.DrawGraph;
 import org.graphper.draw.ExecuteException;
+import org.graphper.draw.LayoutCache;
+import org.graphper.draw.MetricsListener;
+import org.graphper.draw.RankSnapshot;
 import org.graphper.draw.common.CommonRenderEngine;
+import org.graphper.draw.raster.RasterRenderEngine;
 import org.graphper.util.Asserts;
+import org.graphper.util.EnvProp;
 import org.graphper.util.FontUtils;
 import org.graphper.util.GraphvizUtils;
 
@@ -67,7 +81,9 @@ public class Graphviz extends GraphContainer implements Serializable {
   // Whether is directed graph
   private final boolean isDirected;
 
-  private volatile GraphResource svg;
+  private transient volatile GraphResource svg;
+
+  private transient volatile String fingerprint;
 
   private Graphviz(boolean isDirected, GraphAttrs graphAttrs) {
     this.graphAttrs = graphAttrs;
@@ -126,6 +142,26 @@ public class Graphviz extends GraphContainer implements Serializable {
     return p;
   }
 
+  /**
+   * Returns a stable structural hash of the graph, calculated from all containers, nodes, lines,
+   * their attributes and the layout engine. Graphs with the same fingerprint have the same
+   * layout, even if they are different instances or built in different processes, so the
+   * fingerprint can be used as the key of {@link LayoutCache}.
+   *
+   * <p>Returns null if the graph can not be fingerprinted, e.g. some attributes can not be
+   * serialized or the graph has a {@link GraphAttrs#getRankSnapshot()}.
+   *
+   * @return the fingerprint of graph, or null if the graph can not be fingerprinted
+   */
+  public String fingerprint() {
+    String fp = fingerprint;
+    if (fp == null) {
+      fp = GraphFingerprint.of(this);
+      fingerprint = fp;
+    }
+    return fp;
+  }
+
   /**
    * Output svg resource content.
    *
@@ -162,16 +198,102 @@ public class Graphviz extends GraphContainer implements Serializable {
   }
 
   /**
-   * Returns the rendered graph file resource, return svg if {@code fileType} is null.
+   * Write the svg to the writer. The elements are written as soon as they are drawn instead of
+   * building the whole svg document in memory first, which is preferred for the large graphs. The
+   * written content is the same as {@link #toSvgStr()}, the writer is flushed but not closed.
+   *
+   * @param writer the writer to write svg
+   * @throws ExecuteException conversion execution error
+   */
+  public void toSvg(Writer writer) throws ExecuteException {
+    Asserts.nullArgument(writer, "writer");
+    CommonRenderEngine.getInstance().render(this, writer);
+  }
+
+  /**
+   * Write the svg to the output stream using UTF-8 encoding, the output stream is flushed but not
+   * closed.
+   *
+   * @param outputStream the output stream to write svg
+   * @throws ExecuteException conversion execution error
+   * @see #toSvg(Writer)
+   */
+  public void toSvg(OutputStream outputStream) throws ExecuteException {
+    Asserts.nullArgument(outputStream, "outputStream");
+    toSvg(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Returns the rendered graph file resource, return svg if {@code fileType} is null. The raster
+   * images are painted directly without the svg if the system property
+   * {@code graph.render.raster} is true.
    *
    * @param fileType image type
    * @return graph image
    * @throws ExecuteException conversion execution error
+   * @see RasterRenderEngine
    */
   public GraphResource toFile(FileType fileType) throws ExecuteException {
+    if (EnvProp.useRasterRender() && RasterRenderEngine.supportFileType(fileType)) {
+      return RasterRenderEngine.getInstance().render(this, fileType);
+    }
     return CommonRenderEngine.getInstance().render(this, fileType);
   }
 
+  /**
+   * Renders the svg asynchronously in {@link ForkJoinPool#commonPool()}.
+   *
+   * @return the future of svg graph resource
+   * @see #toSvgAsync(Executor)
+   */
+  public CompletableFuture<GraphResource> toSvgAsync() {
+    return toSvgAsync(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Renders the svg asynchronously in the executor, the future is completed exceptionally with
+   * {@link ExecuteException} if the rendering fails.
+   *
+   * @param executor the executor to render, e.g. a virtual thread executor
+   * @return the future of svg graph resource
+   * @throws NullPointerException executor is null
+   */
+  public CompletableFuture<GraphResource> toSvgAsync(Executor executor) {
+    return toFileAsync(null, executor);
+  }
+
+  /**
+   * Renders the graph file asynchronously in {@link ForkJoinPool#commonPool()}.
+   *
+   * @param fileType image type, svg if null
+   * @return the future of graph file resource
+   * @see #toFileAsync(FileType, Executor)
+   */
+  public CompletableFuture<GraphResource> toFileAsync(FileType fileType) {
+    return toFileAsync(fileType, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Renders the graph file asynchronously in the executor, the future is completed exceptionally
+   * with {@link ExecuteException} if the rendering fails. To render lots of graphs with bounded
+   * concurrency, use {@link GraphvizBatch}.
+   *
+   * @param fileType image type, svg if null
+   * @param executor the executor to render, e.g. a virtual thread executor
+   * @return the future of graph file resource
+   * @throws NullPointerException executor is null
+   */
+  public CompletableFuture<GraphResource> toFileAsync(FileType fileType, Executor executor) {
+    Asserts.nullArgument(executor, "executor");
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return toFile(fileType);
+      } catch (ExecuteException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
   // ------------------------------------------ static ---------------------------------------
 
   /**
@@ -516,6 +638,81 @@ public class Graphviz extends GraphContainer implements Serializable {
       return self();
     }
 
+    /**
+     * In the {@link Layout#DOT}, run the crossing minimization from multiple independent starting
+     * orders in parallel, and keep the order with the fewest crossings, ties are broken by the
+     * start number so the result is reproducible. The default value is 1, which means only the
+     * default start is run on the current thread. Graphs with clusters always use a single start.
+     *
+     * @param mcstarts the number of the starts of crossing minimization
+     * @return graphviz builder
+     * @throws IllegalArgumentException mcstarts less than 1
+     */
+    public GraphvizBuilder mcstarts(int mcstarts) {
+      Asserts.illegalArgument(mcstarts < 1, "mcstarts (" + mcstarts + ") can not less than 1");
+      graphAttrs.mcstarts = mcstarts;
+      return self();
+    }
+
+    /**
+     * Set the pool used to run the multiple starts of crossing minimization, if not set, use the
+     * {@link ForkJoinPool#commonPool()}. Only valid when {@link #mcstarts(int)} greater than 1.
+     *
+     * @param mcpool the pool of the starts of crossing minimization
+     * @return graphviz builder
+     */
+    public GraphvizBuilder mcpool(ForkJoinPool mcpool) {
+      graphAttrs.mcpool = mcpool;
+      return self();
+    }
+
+    /**
+     * Set whether to record the node ranks of the {@link Layout#DOT} layout for the warm start of
+     * the next layout, the ranks can be obtained by {@link DrawGraph#getRankSnapshot()}. Default
+     * is false and no snapshot is recorded.
+     *
+     * @param warmStart whether to record the rank snapshot
+     * @return graphviz builder
+     * @see #rankSnapshot(RankSnapshot)
+     */
+    public GraphvizBuilder warmStart(boolean warmStart) {
+      graphAttrs.warmStart = warmStart;
+      return self();
+    }
+
+    /**
+     * In the {@link Layout#DOT}, use the node ranks of a previous layout as the initial ranks of
+     * the network simplex, usually the previous layout is the same graph before a small
+     * modification. The snapshot can be obtained by {@link DrawGraph#getRankSnapshot()} of a
+     * layout with {@link #warmStart(boolean)} enabled. The final ranks are still optimal, but only
+     * the parts affected by the modification need to be re-optimized. Graphs with clusters or
+     * subgraphs ignore the snapshot. Setting a snapshot also enables {@link #warmStart(boolean)},
+     * so the next snapshot is recorded.
+     *
+     * @param rankSnapshot the node ranks of the previous layout
+     * @return graphviz builder
+     */
+    public GraphvizBuilder rankSnapshot(RankSnapshot rankSnapshot) {
+      graphAttrs.rankSnapshot = rankSnapshot;
+      if (rankSnapshot != null) {
+        graphAttrs.warmStart = true;
+      }
+      return self();
+    }
+
+    /**
+     * Set the listener which receives the duration of each phase of layout and render, and some
+     * counters of the layout, such as the virtual nodes created and the crossing number. The
+     * layout phases are not reported when the layout is taken from the {@link LayoutCache}.
+     *
+     * @param metrics the listener of the metrics, null means not to report
+     * @return graphviz builder
+     */
+    public GraphvizBuilder metrics(MetricsListener metrics) {
+      graphAttrs.metrics = metrics;
+      return self();
+    }
+
     /**
      * Set the font size of graphviz.
      *
@@ -611,6 +808,53 @@ public class Graphviz extends GraphContainer implements Serializable {
       return self();
     }
 
+    /**
+     * Sets the Barnes–Hut approximation threshold of the repulsive forces for the
+     * fdp({@link Layout#FDP}|{@link Layout#JFDP}|{@link Layout#GFDP}) series layout.
+     *
+     * <p>The nodes of a far region are treated as a single body when the size of the region
+     * divided by the distance is less than theta. Larger values are faster but less accurate,
+     * {@code 0} calculates the repulsive force of every pair of nodes exactly. The default value
+     * is 0.6.
+     *
+     * @param theta the approximation threshold, must be non-negative
+     * @return graphviz builder
+     * @throws IllegalArgumentException if {@code theta} is less than 0
+     */
+    public GraphvizBuilder theta(double theta) {
+      Asserts.illegalArgument(theta < 0, "theta (" + theta + ") can not be less than 0");
+      graphAttrs.theta = theta;
+      return self();
+    }
+
+    /**
+     * Calculate the repulsive forces of the
+     * fdp({@link Layout#FDP}|{@link Layout#JFDP}|{@link Layout#GFDP}) series layout in parallel,
+     * the nodes are split into ranges and every range is calculated by a task of the pool. Every
+     * node only accumulates its own force, so the result is exactly the same as the serial
+     * calculation. Recommended for the large graphs, small graphs are always calculated serially.
+     *
+     * @param fdpParallel {@code true} to calculate the forces in parallel
+     * @return graphviz builder
+     */
+    public GraphvizBuilder fdpParallel(boolean fdpParallel) {
+      graphAttrs.fdpParallel = fdpParallel;
+      return self();
+    }
+
+    /**
+     * Set the pool used to calculate the forces of fdp series layout, if not set, use the
+     * {@link ForkJoinPool#commonPool()}. Only valid when {@link #fdpParallel(boolean)} is
+     * {@code true}.
+     *
+     * @param fdpPool the pool of force calculation
+     * @return graphviz builder
+     */
+    public GraphvizBuilder fdpPool(ForkJoinPool fdpPool) {
+      graphAttrs.fdpPool = fdpPool;
+      return self();
+    }
+
     /**
      * Configures whether node overlaps are allowed in the fdp
      * ({@link Layout#FDP}|{@link Layout#JFDP}|{@link Layout#GFDP}) series layout.
@@ -716,6 +960,7 @@ public class Graphviz extends GraphContainer implements Serializable {
                         (s, f) -> setFather(graphviz, f, s), (c, f) -> setFather(graphviz, f, c),
                         null);
 
+      ContainerIndex.index(graphviz);
       return graphviz;
     }
 
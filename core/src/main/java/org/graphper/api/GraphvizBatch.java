@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.api;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import org.graphper.draw.ExecuteException;
+import org.graphper.util.Asserts;
+
+/**
+ * Renders lots of {@link Graphviz} with bounded concurrency. At most {@code concurrency} graphs
+ * are rendering or waiting to render in the executor at the same time, the next graph is taken
+ * from the source only when one of them is done, so the graphs can be built lazily and only a
+ * few of them are in memory.
+ *
+ * <pre>{@code
+ *     GraphvizBatch batch = new GraphvizBatch(executor, 8);
+ *     batch.render(graphs, FileType.PNG, (graphviz, resource) -> {
+ *       try (GraphResource r = resource) {
+ *         r.save(dir, name(graphviz));
+ *       } catch (IOException e) {
+ *         throw new UncheckedIOException(e);
+ *       }
+ *     });
+ * }</pre>
+ *
+ * @author Jamison Jiang
+ */
+public class GraphvizBatch {
+
+  private final Executor executor;
+
+  private final int concurrency;
+
+  /**
+   * Constructs a batch that renders in {@link ForkJoinPool#commonPool()}.
+   *
+   * @param concurrency the max number of graphs rendering at the same time
+   * @throws IllegalArgumentException concurrency is not positive
+   */
+  public GraphvizBatch(int concurrency) {
+    this(ForkJoinPool.commonPool(), concurrency);
+  }
+
+  /**
+   * Constructs a batch that renders in the executor.
+   *
+   * @param executor    the executor to render, e.g. a virtual thread executor
+   * @param concurrency the max number of graphs rendering at the same time
+   * @throws NullPointerException     executor is null
+   * @throws IllegalArgumentException concurrency is not positive
+   */
+  public GraphvizBatch(Executor executor, int concurrency) {
+    Asserts.nullArgument(executor, "executor");
+    Asserts.illegalArgument(concurrency <= 0,
+                            "concurrency (" + concurrency + ") must be greater than 0");
+    this.executor = executor;
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Renders all graphs and blocks until they are done.
+   *
+   * @param graphs   the graphs to render
+   * @param fileType image type, svg if null
+   * @param consumer receives each graph and its resource, called from the rendering threads and
+   *                 possibly concurrently, it is responsible for closing the resource
+   * @throws ExecuteException the first failure of rendering or consumer, no more graphs are
+   *                          rendered after a failure
+   * @see #render(Iterator, FileType, BiConsumer)
+   */
+  public void render(Iterable<Graphviz> graphs, FileType fileType,
+                     BiConsumer<Graphviz, GraphResource> consumer) throws ExecuteException {
+    Asserts.nullArgument(graphs, "graphs");
+    render(graphs.iterator(), fileType, consumer);
+  }
+
+  /**
+   * Renders all graphs of the iterator and blocks until they are done, the iterator is only
+   * accessed by the calling thread.
+   *
+   * @param graphs   the graphs to render
+   * @param fileType image type, svg if null
+   * @param consumer receives each graph and its resource, called from the rendering threads and
+   *                 possibly concurrently, it is responsible for closing the resource
+   * @throws ExecuteException the first failure of rendering or consumer, no more graphs are
+   *                          rendered after a failure
+   */
+  public void render(Iterator<Graphviz> graphs, FileType fileType,
+                     BiConsumer<Graphviz, GraphResource> consumer) throws ExecuteException {
+    Asserts.nullArgument(graphs, "graphs");
+    Asserts.nullArgument(consumer, "consumer");
+
+    Semaphore permits = new Semaphore(concurrency);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    try {
+      while (error.get() == null && graphs.hasNext()) {
+        Graphviz graphviz = graphs.next();
+        Asserts.nullArgument(graphviz, "graphviz");
+
+        // Wait until a rendering graph is done
+        permits.acquire();
+        if (error.get() != null) {
+          permits.release();
+          break;
+        }
+
+        try {
+          executor.execute(() -> {
+            try {
+              consumer.accept(graphviz, graphviz.toFile(fileType));
+            } catch (Throwable e) {
+              error.compareAndSet(null, e);
+            } finally {
+              permits.release();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          error.compareAndSet(null, e);
+        }
+      }
+
+      // Wait for all the rendering graphs
+      permits.acquire(concurrency);
+      permits.release(concurrency);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecuteException("Interrupted while rendering graphs", e);
+    }
+
+    Throwable e = error.get();
+    if (e instanceof ExecuteException) {
+      throw (ExecuteException) e;
+    }
+    if (e != null) {
+      throw new ExecuteException(e);
+    }
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+}
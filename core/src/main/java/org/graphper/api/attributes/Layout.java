@@ -21,6 +21,7 @@ import org.graphper.layout.dot.DotLayoutEngine;
 import org.graphper.layout.fdp.FdpLayoutEngine;
 import org.graphper.layout.fdp.GFdpLayoutEngine;
 import org.graphper.layout.fdp.JFdpLayoutEngine;
+import org.graphper.layout.fdp.MFdpLayoutEngine;
 import org.graphper.util.Asserts;
 import org.apache_gs.commons.lang3.StringUtils;
 
@@ -69,13 +70,25 @@ public enum Layout {
   /**
    * A specialized force-directed placement (GFDP) layout engine.
    * <p>
-   * This algorithm is another variant of FDP that focuses on localized node interactions,
-   * considering only the forces within the cell area of a node. This optimization reduces
-   * computational complexity and is particularly effective for dense graphs with limited
-   * interaction ranges.
+   * This algorithm is another variant of FDP using the classic Fruchterman-Reingold forces, the
+   * repulsion between all nodes is approximated by a Barnes-Hut quadtree, the far nodes in a cell
+   * of the tree repulse a node as one body at their center. This optimization reduces the
+   * repulsion of each iteration to about O(n log n) and is particularly effective for dense
+   * graphs.
    * </p>
    */
-  GFDP(new GFdpLayoutEngine());
+  GFDP(new GFdpLayoutEngine()),
+
+  /**
+   * A multilevel force-directed placement (MFDP) layout engine.
+   * <p>
+   * The graph is coarsened level by level by matching and collapsing edges, the coarsest graph is
+   * laid out first, then every finer level starts from the positions of the coarser level and is
+   * refined by the {@link #FDP} forces. Suitable for large sparse graphs, which converge slowly
+   * with a flat force-directed layout.
+   * </p>
+   */
+  MFDP(new MFdpLayoutEngine());
 
   private final LayoutEngine layoutEngine;
 
@@ -16,6 +16,7 @@
 
 package org.graphper.api.ext;
 
+import java.io.Serializable;
 import java.util.Objects;
 import org.graphper.util.Asserts;
 
@@ -24,7 +25,9 @@ import org.graphper.util.Asserts;
  *
  * @author Jamison Jiang
  */
-public class DefaultBox implements Box {
+public class DefaultBox implements Box, Serializable {
+
+  private static final long serialVersionUID = -6735093316591478512L;
 
   protected double leftBorder;
 
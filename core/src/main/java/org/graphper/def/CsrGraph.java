@@ -0,0 +1,471 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.def;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable graph in compressed sparse row (CSR) format, the vertices are numbered by dense int id
+ * in the order they are added, and the adjacency of every vertex is a continuous segment of an int
+ * array.
+ *
+ * <p>The graph keeps three adjacency views of the same edges, all in the insertion order of the
+ * edges:
+ * <ul>
+ *   <li>Out adjacency: edges whose tail is the vertex, {@link #outStart(int)} to
+ *   {@link #outEnd(int)};</li>
+ *   <li>In adjacency: edges whose head is the vertex, {@link #inStart(int)} to
+ *   {@link #inEnd(int)};</li>
+ *   <li>Undirected adjacency: edges which the vertex is either endpoint, same order as
+ *   {@link UndirectedEdgeGraph#adjacent(Object)}, {@link #adjStart(int)} to
+ *   {@link #adjEnd(int)}, a self-loop only appears once.</li>
+ * </ul>
+ * Every slot of adjacency stores the edge id, use {@link #edge(int)}, {@link #tail(int)},
+ * {@link #head(int)} and {@link #other(int, int)} to access the edge, the traversal not allocates
+ * any iterator:
+ * <pre>{@code
+ * int v = graph.indexOf(vertex);
+ * for (int i = graph.outStart(v); i < graph.outEnd(v); i++) {
+ *   int e = graph.outEdge(i);
+ *   E edge = graph.edge(e);
+ *   int w = graph.head(e);
+ * }
+ * }</pre>
+ *
+ * <p>The structure can not be modified after {@link Builder#build()}, it's suitable for the
+ * algorithms which only read the topology of the graph many times. Compared with
+ * {@link AbstractAdjGraph}, there is no adjacency list object and no hash lookup for every
+ * adjacency access, only {@link #indexOf(Object)} needs a hash lookup.
+ *
+ * <h3>Thread Safety</h3>
+ * <p>The graph is immutable and can be shared by multiple threads after built.
+ *
+ * @param <V> the type of vertex
+ * @param <E> the type of edge
+ * @author Jamison Jiang
+ */
+public class CsrGraph<V, E> implements Iterable<V> {
+
+  private static final int[] EMPTY = new int[0];
+
+  private final Object[] vertices;
+
+  private final Map<V, Integer> vertexIndex;
+
+  private final Object[] edges;
+
+  // Tail vertex id of edge
+  private final int[] tails;
+
+  // Head vertex id of edge
+  private final int[] heads;
+
+  private final int[] outOffsets;
+
+  private final int[] outEdges;
+
+  private final int[] inOffsets;
+
+  private final int[] inEdges;
+
+  private final int[] adjOffsets;
+
+  private final int[] adjEdges;
+
+  private CsrGraph(Builder<V, E> builder) {
+    int vertexNum = builder.vertexNum;
+    int edgeNum = builder.edgeNum;
+    this.vertices = Arrays.copyOf(builder.vertices, vertexNum);
+    this.vertexIndex = builder.vertexIndex;
+    this.edges = Arrays.copyOf(builder.edges, edgeNum);
+    this.tails = Arrays.copyOf(builder.tails, edgeNum);
+    this.heads = Arrays.copyOf(builder.heads, edgeNum);
+
+    this.outOffsets = new int[vertexNum + 1];
+    this.inOffsets = new int[vertexNum + 1];
+    this.adjOffsets = new int[vertexNum + 1];
+    int adjNum = 0;
+    for (int e = 0; e < edgeNum; e++) {
+      outOffsets[tails[e] + 1]++;
+      inOffsets[heads[e] + 1]++;
+      adjOffsets[tails[e] + 1]++;
+      adjNum++;
+      if (tails[e] != heads[e]) {
+        adjOffsets[heads[e] + 1]++;
+        adjNum++;
+      }
+    }
+    for (int v = 0; v < vertexNum; v++) {
+      outOffsets[v + 1] += outOffsets[v];
+      inOffsets[v + 1] += inOffsets[v];
+      adjOffsets[v + 1] += adjOffsets[v];
+    }
+
+    // Counting sort is stable, the edges of every vertex keep the insertion order
+    this.outEdges = edgeNum == 0 ? EMPTY : new int[edgeNum];
+    this.inEdges = edgeNum == 0 ? EMPTY : new int[edgeNum];
+    this.adjEdges = adjNum == 0 ? EMPTY : new int[adjNum];
+    int[] outCursor = Arrays.copyOf(outOffsets, vertexNum);
+    int[] inCursor = Arrays.copyOf(inOffsets, vertexNum);
+    int[] adjCursor = Arrays.copyOf(adjOffsets, vertexNum);
+    for (int e = 0; e < edgeNum; e++) {
+      outEdges[outCursor[tails[e]]++] = e;
+      inEdges[inCursor[heads[e]]++] = e;
+      adjEdges[adjCursor[tails[e]]++] = e;
+      if (tails[e] != heads[e]) {
+        adjEdges[adjCursor[heads[e]]++] = e;
+      }
+    }
+  }
+
+  /**
+   * Returns a new builder with the expected size of graph.
+   *
+   * @param vertexNum expected vertex number
+   * @param edgeNum   expected edge number
+   * @param <V>       the type of vertex
+   * @param <E>       the type of edge
+   * @return csr graph builder
+   */
+  public static <V, E> Builder<V, E> builder(int vertexNum, int edgeNum) {
+    return new Builder<>(vertexNum, edgeNum);
+  }
+
+  /**
+   * Returns a csr graph which have same vertices and edges as the specified directed graph, the
+   * vertex id follows the iteration order of digraph, and the edges are added by the out adjacency
+   * of every vertex, the tail of edge is the vertex which the edge is out adjacent to.
+   *
+   * @param digraph directed graph
+   * @param <V>     the type of vertex
+   * @param <E>     the type of directed edge
+   * @return csr graph of digraph
+   * @throws NullPointerException digraph is null
+   */
+  public static <V, E extends DirectedEdge<V, E>> CsrGraph<V, E> of(EdgeDedigraph<V, E> digraph) {
+    Objects.requireNonNull(digraph);
+    Builder<V, E> builder = builder(digraph.vertexNum(), digraph.edgeNum());
+    for (V v : digraph) {
+      builder.addVertex(v);
+    }
+    for (V v : digraph) {
+      for (E e : digraph.outAdjacent(v)) {
+        builder.addEdge(v, e.other(v), e);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of vertices.
+   *
+   * @return the number of vertices
+   */
+  public int vertexNum() {
+    return vertices.length;
+  }
+
+  /**
+   * Returns the number of edges.
+   *
+   * @return the number of edges
+   */
+  public int edgeNum() {
+    return edges.length;
+  }
+
+  /**
+   * Returns the vertex of id.
+   *
+   * @param v vertex id
+   * @return vertex
+   * @throws IndexOutOfBoundsException id out of range
+   */
+  @SuppressWarnings("unchecked")
+  public V vertex(int v) {
+    return (V) vertices[v];
+  }
+
+  /**
+   * Returns the id of vertex, or -1 if graph not contains the vertex.
+   *
+   * @param v vertex
+   * @return vertex id
+   */
+  public int indexOf(V v) {
+    Integer index = vertexIndex.get(v);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Returns the edge of id.
+   *
+   * @param e edge id
+   * @return edge
+   * @throws IndexOutOfBoundsException id out of range
+   */
+  @SuppressWarnings("unchecked")
+  public E edge(int e) {
+    return (E) edges[e];
+  }
+
+  /**
+   * Returns the tail vertex id of edge.
+   *
+   * @param e edge id
+   * @return tail vertex id
+   */
+  public int tail(int e) {
+    return tails[e];
+  }
+
+  /**
+   * Returns the head vertex id of edge.
+   *
+   * @param e edge id
+   * @return head vertex id
+   */
+  public int head(int e) {
+    return heads[e];
+  }
+
+  /**
+   * Returns another endpoint id of edge.
+   *
+   * @param e edge id
+   * @param v one endpoint id of edge
+   * @return another endpoint id
+   */
+  public int other(int e, int v) {
+    return tails[e] == v ? heads[e] : tails[e];
+  }
+
+  public int outStart(int v) {
+    return outOffsets[v];
+  }
+
+  public int outEnd(int v) {
+    return outOffsets[v + 1];
+  }
+
+  /**
+   * Returns the edge id of out adjacency slot.
+   *
+   * @param slot slot between {@link #outStart(int)} and {@link #outEnd(int)}
+   * @return edge id
+   */
+  public int outEdge(int slot) {
+    return outEdges[slot];
+  }
+
+  public int inStart(int v) {
+    return inOffsets[v];
+  }
+
+  public int inEnd(int v) {
+    return inOffsets[v + 1];
+  }
+
+  /**
+   * Returns the edge id of in adjacency slot.
+   *
+   * @param slot slot between {@link #inStart(int)} and {@link #inEnd(int)}
+   * @return edge id
+   */
+  public int inEdge(int slot) {
+    return inEdges[slot];
+  }
+
+  public int adjStart(int v) {
+    return adjOffsets[v];
+  }
+
+  public int adjEnd(int v) {
+    return adjOffsets[v + 1];
+  }
+
+  /**
+   * Returns the edge id of undirected adjacency slot.
+   *
+   * @param slot slot between {@link #adjStart(int)} and {@link #adjEnd(int)}
+   * @return edge id
+   */
+  public int adjEdge(int slot) {
+    return adjEdges[slot];
+  }
+
+  public int outDegree(int v) {
+    return outOffsets[v + 1] - outOffsets[v];
+  }
+
+  public int inDegree(int v) {
+    return inOffsets[v + 1] - inOffsets[v];
+  }
+
+  /**
+   * Returns the undirected degree of vertex, a self-loop is counted once.
+   *
+   * @param v vertex id
+   * @return undirected degree
+   */
+  public int degree(int v) {
+    return adjOffsets[v + 1] - adjOffsets[v];
+  }
+
+  /**
+   * Returns all vertices in the order of id.
+   *
+   * @param generator array generator
+   * @return vertex array
+   */
+  public V[] toArray(IntFunction<V[]> generator) {
+    V[] array = generator.apply(vertices.length);
+    System.arraycopy(vertices, 0, array, 0, vertices.length);
+    return array;
+  }
+
+  @Override
+  public Iterator<V> iterator() {
+    return new Iterator<V>() {
+      private int cursor;
+
+      @Override
+      public boolean hasNext() {
+        return cursor < vertices.length;
+      }
+
+      @Override
+      public V next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return vertex(cursor++);
+      }
+    };
+  }
+
+  /**
+   * Builder of {@link CsrGraph}, the vertex id is assigned when the vertex first added, directly
+   * or by an edge.
+   *
+   * @param <V> the type of vertex
+   * @param <E> the type of edge
+   */
+  public static class Builder<V, E> {
+
+    private Object[] vertices;
+
+    private final Map<V, Integer> vertexIndex;
+
+    private Object[] edges;
+
+    private int[] tails;
+
+    private int[] heads;
+
+    private int vertexNum;
+
+    private int edgeNum;
+
+    private boolean built;
+
+    private Builder(int vertexNum, int edgeNum) {
+      vertexNum = Math.max(vertexNum, 1);
+      edgeNum = Math.max(edgeNum, 1);
+      this.vertices = new Object[vertexNum];
+      this.vertexIndex = new HashMap<>(vertexNum * 4 / 3 + 1);
+      this.edges = new Object[edgeNum];
+      this.tails = new int[edgeNum];
+      this.heads = new int[edgeNum];
+    }
+
+    /**
+     * Add vertex if absent and returns the vertex id.
+     *
+     * @param v vertex
+     * @return vertex id
+     * @throws NullPointerException vertex is null
+     */
+    public int addVertex(V v) {
+      Objects.requireNonNull(v);
+      checkNotBuilt();
+      Integer index = vertexIndex.get(v);
+      if (index != null) {
+        return index;
+      }
+
+      if (vertexNum == vertices.length) {
+        vertices = Arrays.copyOf(vertices, vertexNum << 1);
+      }
+      vertices[vertexNum] = v;
+      vertexIndex.put(v, vertexNum);
+      return vertexNum++;
+    }
+
+    /**
+     * Add an edge from tail to head, add the endpoints if absent, and returns the edge id.
+     *
+     * @param tail tail vertex
+     * @param head head vertex
+     * @param edge edge
+     * @return edge id
+     * @throws NullPointerException any argument is null
+     */
+    public int addEdge(V tail, V head, E edge) {
+      Objects.requireNonNull(edge);
+      int t = addVertex(tail);
+      int h = addVertex(head);
+      if (edgeNum == edges.length) {
+        int capacity = edgeNum << 1;
+        edges = Arrays.copyOf(edges, capacity);
+        tails = Arrays.copyOf(tails, capacity);
+        heads = Arrays.copyOf(heads, capacity);
+      }
+      edges[edgeNum] = edge;
+      tails[edgeNum] = t;
+      heads[edgeNum] = h;
+      return edgeNum++;
+    }
+
+    public int vertexNum() {
+      return vertexNum;
+    }
+
+    /**
+     * Build the csr graph, the builder can not be used after built.
+     *
+     * @return csr graph
+     */
+    public CsrGraph<V, E> build() {
+      checkNotBuilt();
+      built = true;
+      return new CsrGraph<>(this);
+    }
+
+    private void checkNotBuilt() {
+      if (built) {
+        throw new IllegalStateException("Csr graph already built");
+      }
+    }
+  }
+}
@@ -170,6 +170,8 @@ public class RectangleTree<B extends Box> {
    */
   private class Node extends Rectangle {
 
+    private static final long serialVersionUID = -3980978836862802401L;
+
     private final B box;
     private Node parent;
     private List<Node> children;
@@ -17,6 +17,7 @@
 package org.graphper.draw;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import org.graphper.util.Asserts;
 
@@ -55,6 +56,18 @@ public abstract class AbstractPipelineTrigger<
    *                     corresponding type of element
    */
   public void trigger(Function<I, B> brushFactory) {
+    trigger(brushFactory, null);
+  }
+
+  /**
+   * Trigger all editors of the element, the order of triggering is equal to the iteration order of
+   * {@link #renderItems()}.
+   *
+   * @param brushFactory brush factory, which produces the corresponding {@link Brush} for the
+   *                     corresponding type of element
+   * @param finisher     accept the brush after all editors of the element finished, can be null
+   */
+  public void trigger(Function<I, B> brushFactory, Consumer<? super B> finisher) {
     Asserts.nullArgument(brushFactory, "brushFactory");
 
     // All graph items
@@ -70,6 +83,10 @@ public abstract class AbstractPipelineTrigger<
           break;
         }
       }
+
+      if (finisher != null) {
+        finisher.accept(brush);
+      }
     }
   }
 
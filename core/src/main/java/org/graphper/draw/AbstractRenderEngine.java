@@ -19,7 +19,6 @@ package org.graphper.draw;
 import org.graphper.api.GraphResource;
 import org.graphper.api.Graphviz;
 import org.graphper.api.attributes.Layout;
-import org.graphper.layout.LayoutEngine;
 import org.graphper.util.Asserts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +32,8 @@ public abstract class AbstractRenderEngine implements RenderEngine {
 
   private static final Logger log = LoggerFactory.getLogger(AbstractRenderEngine.class);
 
+  private volatile LayoutCache layoutCache;
+
   @Override
   public GraphResource render(Graphviz graphviz, Object attach) throws ExecuteException {
     Asserts.nullArgument(graphviz, "graphviz");
@@ -43,8 +44,7 @@ public abstract class AbstractRenderEngine implements RenderEngine {
     long startTime = System.currentTimeMillis();
 
     try {
-      LayoutEngine layoutEngine = layout.getLayoutEngine();
-      DrawGraph drawGraph = layoutEngine.layout(graphviz, this);
+      DrawGraph drawGraph = layout(graphviz, layout);
       drawGraph.setAttach(attach);
       return render0(drawGraph);
     } catch (Exception e) {
@@ -57,6 +57,48 @@ public abstract class AbstractRenderEngine implements RenderEngine {
     }
   }
 
+  /**
+   * Returns the cache of the layouts used by this engine.
+   *
+   * @return the cache of layouts, null if not set
+   */
+  public LayoutCache getLayoutCache() {
+    return layoutCache;
+  }
+
+  /**
+   * Set the cache of the layouts, the graph with the same {@link Graphviz#fingerprint()} as a
+   * cached layout is rendered directly without layout. If null, every render executes the layout.
+   *
+   * @param layoutCache the cache of layouts
+   */
+  public void setLayoutCache(LayoutCache layoutCache) {
+    this.layoutCache = layoutCache;
+  }
+
+  private DrawGraph layout(Graphviz graphviz, Layout layout) throws ExecuteException {
+    LayoutCache cache = layoutCache;
+    String fingerprint = cache != null ? graphviz.fingerprint() : null;
+    if (fingerprint == null) {
+      return layout.getLayoutEngine().layout(graphviz, this);
+    }
+
+    // The shifters of the render engine also change the layout
+    String key = fingerprint + "-" + Integer.toHexString(getClass().getName().hashCode());
+    LayoutGeometry geometry = cache.get(key);
+    DrawGraph drawGraph = geometry != null ? geometry.bind(graphviz) : null;
+    if (drawGraph != null) {
+      if (log.isDebugEnabled()) {
+        log.debug("Use the cached layout {}", key);
+      }
+      return drawGraph;
+    }
+
+    drawGraph = layout.getLayoutEngine().layout(graphviz, this);
+    cache.put(key, new LayoutGeometry(drawGraph));
+    return drawGraph;
+  }
+
   /**
    * Render the graph according to {@link DrawGraph} and return the rendered result.
    *
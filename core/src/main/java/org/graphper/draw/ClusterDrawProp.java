@@ -54,6 +54,21 @@ public class ClusterDrawProp extends ContainerDrawProp implements Serializable {
                       cluster.clusterAttrs().getLabelTag());
   }
 
+  /**
+   * Copy the laid out source for another cluster, the cluster can be null when the copy is only
+   * used to keep the geometry of layout.
+   *
+   * @param source  the laid out source
+   * @param cluster the cluster of copy
+   */
+  ClusterDrawProp(ClusterDrawProp source, Cluster cluster) {
+    super(source);
+    this.cluster = cluster;
+    this.clusterNo = source.clusterNo;
+    this.margin = source.margin;
+    this.clusterShape = source.clusterShape;
+  }
+
   /**
    * Returns current cluster.
    *
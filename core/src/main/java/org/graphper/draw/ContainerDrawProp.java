@@ -47,6 +47,27 @@ public abstract class ContainerDrawProp extends Rectangle implements ShapePositi
 
   protected Assemble assemble;
 
+  protected ContainerDrawProp() {
+  }
+
+  /**
+   * Copy the position and label of the source, the description attributes are provided by the
+   * subclass.
+   *
+   * @param source the source to copy
+   */
+  protected ContainerDrawProp(ContainerDrawProp source) {
+    Asserts.nullArgument(source, "source");
+    this.leftBorder = source.leftBorder;
+    this.rightBorder = source.rightBorder;
+    this.upBorder = source.upBorder;
+    this.downBorder = source.downBorder;
+    this.id = source.id;
+    this.labelCenter = source.labelCenter;
+    this.labelSize = source.labelSize;
+    this.assemble = source.assemble;
+  }
+
   public double topLowestHeight() {
     Asserts.nullArgument(margin(), "margin");
     Asserts.nullArgument(labelloc(), "labelloc");
@@ -30,6 +30,8 @@ import org.graphper.api.ext.ShapePosition;
  */
 public class DefaultShapePosition extends DefaultBox implements ShapePosition {
 
+  private static final long serialVersionUID = 9061583427202186281L;
+
   private final ShapePropCalc shapeProp;
 
   public DefaultShapePosition(double x, double y, double height,
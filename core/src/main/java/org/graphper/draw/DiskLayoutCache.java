@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.graphper.util.Asserts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LayoutCache} stored in a directory, every layout is a serialized {@link LayoutGeometry}
+ * file named by the key, so the layouts survive the restart of process. A file is written to a
+ * temporary file first and then moved to the target, the readers never see a partially written
+ * layout. The files which can not be read, e.g. written by an incompatible version, are deleted and
+ * treated as not cached.
+ *
+ * <p>The files are read by the java deserialization, only the classes of graph-support and the
+ * basic types and collections of JDK are allowed, a file containing any other class is rejected
+ * before the class is loaded. Even so, the directory should only be writable by the users trusted
+ * by the process, the layout of a tampered file is rendered as it is.
+ *
+ * @author Jamison Jiang
+ */
+public class DiskLayoutCache implements LayoutCache {
+
+  private static final Logger log = LoggerFactory.getLogger(DiskLayoutCache.class);
+
+  private static final String SUFFIX = ".layout";
+
+  private final Path directory;
+
+  public DiskLayoutCache(Path directory) {
+    Asserts.nullArgument(directory, "directory");
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.directory = directory;
+  }
+
+  @Override
+  public LayoutGeometry get(String key) {
+    Path file = file(key);
+    try (ObjectInputStream in = new LayoutInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      return (LayoutGeometry) in.readObject();
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      log.debug("Discard the unreadable layout cache {}", file, e);
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException ex) {
+        log.debug("Failed to delete the layout cache {}", file, ex);
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public void put(String key, LayoutGeometry layout) {
+    Asserts.nullArgument(layout, "layout");
+    Path file = file(key);
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory, key, ".tmp");
+      try (ObjectOutputStream out = new ObjectOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeObject(layout);
+      }
+
+      try {
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmp = null;
+    } catch (IOException e) {
+      // The cache is only an optimization, the render continues without it
+      log.debug("Failed to write the layout cache {}", file, e);
+    } finally {
+      if (tmp != null) {
+        try {
+          Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+          log.debug("Failed to delete the temporary layout cache {}", tmp, e);
+        }
+      }
+    }
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  private Path file(String key) {
+    Asserts.nullArgument(key, "key");
+    Asserts.illegalArgument(key.isEmpty() || key.indexOf('/') >= 0 || key.indexOf('\\') >= 0
+                                || key.startsWith("."), "Illegal layout cache key: " + key);
+    return directory.resolve(key + SUFFIX);
+  }
+
+  /*
+   * Only resolve the classes which can be contained by a layout, the java deserialization of any
+   * other class, e.g. a gadget of the classpath, is rejected.
+   */
+  private static class LayoutInputStream extends ObjectInputStream {
+
+    private static final String ALLOWED_PACKAGE = "org.graphper.";
+
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+        "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Double",
+        "java.lang.Enum", "java.lang.Float", "java.lang.Integer", "java.lang.Long",
+        "java.lang.Number", "java.lang.Short", "java.lang.String",
+        "java.util.ArrayList", "java.util.Arrays$ArrayList", "java.util.EnumMap",
+        "java.util.EnumSet$SerializationProxy", "java.util.HashMap", "java.util.HashSet",
+        "java.util.LinkedHashMap", "java.util.LinkedHashSet", "java.util.LinkedList",
+        "java.util.TreeMap", "java.util.TreeSet",
+        "java.util.Collections$EmptyList", "java.util.Collections$EmptyMap",
+        "java.util.Collections$EmptySet", "java.util.Collections$SingletonList",
+        "java.util.Collections$UnmodifiableCollection", "java.util.Collections$UnmodifiableList",
+        "java.util.Collections$UnmodifiableMap", "java.util.Collections$UnmodifiableSet",
+        "java.util.Collections$UnmodifiableRandomAccessList"
+    ));
+
+    private LayoutInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      if (!isAllowed(desc.getName())) {
+        throw new InvalidClassException(desc.getName(), "Not a class of layout");
+      }
+      return super.resolveClass(desc);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+      throw new InvalidClassException("Proxy class is not a class of layout");
+    }
+
+    private static boolean isAllowed(String name) {
+      int dims = 0;
+      while (dims < name.length() && name.charAt(dims) == '[') {
+        dims++;
+      }
+      if (dims > 0) {
+        // Primitive component, or the reference component like [Ljava.lang.String;
+        if (name.length() == dims + 1) {
+          return true;
+        }
+        if (name.charAt(dims) != 'L' || !name.endsWith(";")) {
+          return false;
+        }
+        name = name.substring(dims + 1, name.length() - 1);
+      }
+      return name.startsWith(ALLOWED_PACKAGE) || ALLOWED_CLASSES.contains(name);
+    }
+  }
+}
@@ -64,6 +64,15 @@ public interface DrawBoard<N extends Brush, L extends Brush, C extends Brush, G
    */
   L drawLine(LineDrawProp line);
 
+  /**
+   * Called after all editors of a graph element finished editing the brush, the brush will not be
+   * used anymore.
+   *
+   * @param brush the brush returned by the draw method of this board
+   */
+  default void drawFinish(Brush brush) {
+  }
+
   /**
    * Remove the corresponding node from the draw board.
    *
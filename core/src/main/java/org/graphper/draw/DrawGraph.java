@@ -55,9 +55,14 @@ public class DrawGraph extends Rectangle implements Serializable {
 
   private Map<Cluster, ClusterDrawProp> clusterDrawPropMap;
 
+  private RankSnapshot rankSnapshot;
+
   public DrawGraph(Graphviz graphviz) {
-    Asserts.nullArgument(graphviz, "graphviz");
-    this.graphvizDrawProp = new GraphvizDrawProp(graphviz);
+    this(new GraphvizDrawProp(graphviz));
+  }
+
+  DrawGraph(GraphvizDrawProp graphvizDrawProp) {
+    this.graphvizDrawProp = graphvizDrawProp;
     this.nodeDrawPropMap = new LinkedHashMap<>();
     this.lineDrawPropMap = new LinkedHashMap<>();
   }
@@ -110,6 +115,16 @@ public class DrawGraph extends Rectangle implements Serializable {
     return graphvizDrawProp.getGraphviz();
   }
 
+  /**
+   * Returns the metrics listener of the graph, never null.
+   *
+   * @return the metrics listener
+   */
+  public MetricsListener metrics() {
+    MetricsListener metrics = getGraphviz().graphAttrs().getMetrics();
+    return metrics != null ? metrics : MetricsListener.NOOP;
+  }
+
   public Rankdir rankdir() {
     return getGraphviz().graphAttrs().getRankdir();
   }
@@ -299,4 +314,19 @@ public class DrawGraph extends Rectangle implements Serializable {
   public void setAttach(Object attach) {
     this.attach = attach;
   }
+
+  /**
+   * Returns the node ranks of the {@link Layout#DOT} layout, which can be passed to the next layout
+   * of the modified graph as a warm start. Only recorded when the warm start is enabled by
+   * {@link Graphviz.GraphvizBuilder#warmStart(boolean)}, other layouts return null.
+   *
+   * @return the rank snapshot of the layout
+   */
+  public RankSnapshot getRankSnapshot() {
+    return rankSnapshot;
+  }
+
+  public void setRankSnapshot(RankSnapshot rankSnapshot) {
+    this.rankSnapshot = rankSnapshot;
+  }
 }
@@ -50,6 +50,19 @@ public class GraphvizDrawProp extends ContainerDrawProp implements Serializable
                       graphviz.graphAttrs().getLabelTag());
   }
 
+  /**
+   * Copy the laid out source for another graph, the graph can be null when the copy is only used
+   * to keep the geometry of layout.
+   *
+   * @param source   the laid out source
+   * @param graphviz the graph of copy
+   */
+  GraphvizDrawProp(GraphvizDrawProp source, Graphviz graphviz) {
+    super(source);
+    this.graphviz = graphviz;
+    this.grid = source.grid;
+  }
+
   /**
    * Returns the graphviz
    *
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import org.graphper.api.Graphviz;
+
+/**
+ * The cache of the {@link LayoutGeometry} after layout, used by {@link AbstractRenderEngine} to
+ * skip the layout of a graph which has been laid out before. The key is calculated from
+ * {@link Graphviz#fingerprint()}, so the different instances of the same graph, e.g. parsed from
+ * the same DOT text, share the same cached layout, and the renders to different file types also
+ * share the same cached layout.
+ *
+ * <p>The cached {@link LayoutGeometry} only keeps the geometry of layout, not the laid out graph,
+ * every render binds it to its own graph. Implementations must be thread-safe.
+ *
+ * @author Jamison Jiang
+ * @see LruLayoutCache
+ * @see DiskLayoutCache
+ */
+public interface LayoutCache {
+
+  /**
+   * Returns the cached layout of the key.
+   *
+   * @param key the key of layout
+   * @return the cached layout, or null if not cached
+   */
+  LayoutGeometry get(String key);
+
+  /**
+   * Cache the layout of the key.
+   *
+   * @param key    the key of layout
+   * @param layout the layout
+   */
+  void put(String key, LayoutGeometry layout);
+}
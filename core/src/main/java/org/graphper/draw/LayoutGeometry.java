@@ -0,0 +1,237 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.graphper.api.Cluster;
+import org.graphper.api.GraphContainer;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Line;
+import org.graphper.api.Node;
+import org.graphper.api.Subgraph;
+import org.graphper.util.Asserts;
+
+/**
+ * The geometry of a laid out {@link DrawGraph}, the value of {@link LayoutCache}. The geometry does
+ * not reference the laid out {@link Graphviz}, its nodes, lines and clusters are recorded by their
+ * positions in the graph, so a geometry can be bound to any graph with the same
+ * {@link Graphviz#fingerprint()}, and the bound {@link DrawGraph} uses the attributes and the
+ * {@link MetricsListener} of the bound graph.
+ *
+ * @author Jamison Jiang
+ */
+public final class LayoutGeometry implements Serializable {
+
+  private static final long serialVersionUID = -3391736315617920434L;
+
+  private final double leftBorder;
+
+  private final double rightBorder;
+
+  private final double upBorder;
+
+  private final double downBorder;
+
+  private final GraphvizDrawProp graphvizDrawProp;
+
+  // The position of node in graph, -1 if the node is a cell created by layout
+  private final int[] nodeIndexes;
+
+  private final NodeDrawProp[] nodes;
+
+  private final int[] lineIndexes;
+
+  private final LineDrawProp[] lines;
+
+  private final int[] clusterIndexes;
+
+  private final ClusterDrawProp[] clusters;
+
+  // The rank of the node in position, null if no rank snapshot
+  private final Map<Integer, Integer> ranks;
+
+  LayoutGeometry(DrawGraph drawGraph) {
+    Asserts.nullArgument(drawGraph, "drawGraph");
+    Graphviz graphviz = drawGraph.getGraphviz();
+    this.leftBorder = drawGraph.getLeftBorder();
+    this.rightBorder = drawGraph.getRightBorder();
+    this.upBorder = drawGraph.getUpBorder();
+    this.downBorder = drawGraph.getDownBorder();
+    this.graphvizDrawProp = new GraphvizDrawProp(drawGraph.getGraphvizDrawProp(), null);
+
+    Map<Node, Integer> nodePositions = positions(graphviz.nodes());
+    List<NodeDrawProp> nodeProps = new ArrayList<>(drawGraph.getNodeNum());
+    for (NodeDrawProp prop : drawGraph.nodes()) {
+      nodeProps.add(prop);
+    }
+    this.nodeIndexes = new int[nodeProps.size()];
+    this.nodes = new NodeDrawProp[nodeProps.size()];
+    int i = 0;
+    for (NodeDrawProp prop : nodeProps) {
+      int idx = position(nodePositions, prop.getNode());
+      nodeIndexes[i] = idx;
+      nodes[i++] = new NodeDrawProp(prop, idx >= 0 ? null : prop.getNode());
+    }
+
+    Map<Line, Integer> linePositions = positions(graphviz.lines());
+    Collection<LineDrawProp> lineProps = drawGraph.lines();
+    this.lineIndexes = new int[lineProps.size()];
+    this.lines = new LineDrawProp[lineProps.size()];
+    i = 0;
+    for (LineDrawProp prop : lineProps) {
+      int idx = position(linePositions, prop.getLine());
+      lineIndexes[i] = idx;
+      lines[i++] = new LineDrawProp(prop, idx >= 0 ? null : prop.getLine(), null);
+    }
+
+    Map<Cluster, Integer> clusterPositions = positions(allClusters(graphviz));
+    Collection<ClusterDrawProp> clusterProps = drawGraph.clusters();
+    this.clusterIndexes = new int[clusterProps.size()];
+    this.clusters = new ClusterDrawProp[clusterProps.size()];
+    i = 0;
+    for (ClusterDrawProp prop : clusterProps) {
+      int idx = position(clusterPositions, prop.getCluster());
+      clusterIndexes[i] = idx;
+      clusters[i++] = new ClusterDrawProp(prop, idx >= 0 ? null : prop.getCluster());
+    }
+
+    RankSnapshot rankSnapshot = drawGraph.getRankSnapshot();
+    if (rankSnapshot == null) {
+      this.ranks = null;
+      return;
+    }
+    this.ranks = new HashMap<>(rankSnapshot.size());
+    for (Entry<Node, Integer> entry : rankSnapshot.getRanks().entrySet()) {
+      int idx = position(nodePositions, entry.getKey());
+      if (idx >= 0) {
+        ranks.put(idx, entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Create a {@link DrawGraph} of the graph with this geometry. Every call creates new description
+   * objects, the renders of the bound graphs do not share any attachment.
+   *
+   * @param graphviz the graph with the same fingerprint as the laid out graph
+   * @return the laid out graph, or null if the graph does not match this geometry
+   */
+  DrawGraph bind(Graphviz graphviz) {
+    Asserts.nullArgument(graphviz, "graphviz");
+    DrawGraph drawGraph = new DrawGraph(new GraphvizDrawProp(graphvizDrawProp, graphviz));
+    drawGraph.setLeftBorder(leftBorder);
+    drawGraph.setRightBorder(rightBorder);
+    drawGraph.setUpBorder(upBorder);
+    drawGraph.setDownBorder(downBorder);
+
+    List<Node> graphNodes = elements(graphviz.nodes());
+    for (int i = 0; i < nodes.length; i++) {
+      Node node = element(graphNodes, nodeIndexes[i], nodes[i].getNode());
+      if (node == null) {
+        return null;
+      }
+      drawGraph.nodePut(node, new NodeDrawProp(nodes[i], node));
+    }
+
+    List<Line> graphLines = elements(graphviz.lines());
+    for (int i = 0; i < lines.length; i++) {
+      Line line = element(graphLines, lineIndexes[i], lines[i].getLine());
+      if (line == null) {
+        return null;
+      }
+      drawGraph.linePut(line, new LineDrawProp(lines[i], line, drawGraph));
+    }
+
+    List<Cluster> graphClusters = elements(allClusters(graphviz));
+    for (int i = 0; i < clusters.length; i++) {
+      Cluster cluster = element(graphClusters, clusterIndexes[i], clusters[i].getCluster());
+      if (cluster == null) {
+        return null;
+      }
+      drawGraph.clusterPut(cluster, new ClusterDrawProp(clusters[i], cluster));
+    }
+
+    if (ranks != null) {
+      Map<Node, Integer> nodeRanks = new HashMap<>(ranks.size());
+      for (Entry<Integer, Integer> entry : ranks.entrySet()) {
+        Node node = element(graphNodes, entry.getKey(), null);
+        if (node == null) {
+          return null;
+        }
+        nodeRanks.put(node, entry.getValue());
+      }
+      drawGraph.setRankSnapshot(new RankSnapshot(nodeRanks));
+    }
+    return drawGraph;
+  }
+
+  private static <T> Map<T, Integer> positions(Iterable<T> items) {
+    Map<T, Integer> positions = new IdentityHashMap<>();
+    for (T item : items) {
+      positions.putIfAbsent(item, positions.size());
+    }
+    return positions;
+  }
+
+  private static <T> int position(Map<T, Integer> positions, T item) {
+    Integer idx = positions.get(item);
+    return idx != null ? idx : -1;
+  }
+
+  private static <T> List<T> elements(Iterable<T> items) {
+    Set<T> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<T> elements = new ArrayList<>();
+    for (T item : items) {
+      if (visited.add(item)) {
+        elements.add(item);
+      }
+    }
+    return elements;
+  }
+
+  private static <T> T element(List<T> elements, int idx, T created) {
+    if (idx < 0) {
+      return created;
+    }
+    return idx < elements.size() ? elements.get(idx) : null;
+  }
+
+  private static List<Cluster> allClusters(GraphContainer container) {
+    List<Cluster> clusters = new ArrayList<>();
+    addClusters(container, clusters);
+    return clusters;
+  }
+
+  private static void addClusters(GraphContainer container, List<Cluster> clusters) {
+    for (Subgraph subgraph : container.subgraphs()) {
+      addClusters(subgraph, clusters);
+    }
+    for (Cluster cluster : container.clusters()) {
+      clusters.add(cluster);
+      addClusters(cluster, clusters);
+    }
+  }
+}
@@ -92,6 +92,40 @@ public class LineDrawProp extends ArrayList<FlatPoint> implements Serializable {
     convertTables();
   }
 
+  /**
+   * Copy the laid out source for another line, the line and graph can be null when the copy is
+   * only used to keep the geometry of layout. The router boxes are copied without the layout nodes.
+   *
+   * @param source    the laid out source
+   * @param line      the line of copy
+   * @param drawGraph the graph of copy
+   */
+  LineDrawProp(LineDrawProp source, Line line, DrawGraph drawGraph) {
+    super(source);
+    this.line = line;
+    this.drawGraph = drawGraph;
+    this.isHeadStart = source.isHeadStart;
+    this.start = source.start;
+    this.end = source.end;
+    this.labelSize = source.labelSize;
+    this.labelCenter = source.labelCenter;
+    this.arrowHead = source.arrowHead;
+    this.arrowTail = source.arrowTail;
+    this.lineAttrs = source.lineAttrs;
+    this.id = source.id;
+    this.isBesselCurve = source.isBesselCurve;
+    this.floatLabelFlatCenters = source.floatLabelFlatCenters;
+    this.assemble = source.assemble;
+    this.floatAssembles = source.floatAssembles;
+    if (source.routerBoxes != null) {
+      this.routerBoxes = new ArrayList<>(source.routerBoxes.size());
+      for (RouterBox box : source.routerBoxes) {
+        routerBoxes.add(new RouterBox(box.getLeftBorder(), box.getRightBorder(),
+                                      box.getUpBorder(), box.getDownBorder()));
+      }
+    }
+  }
+
   @Override
   public boolean addAll(Collection<? extends FlatPoint> c) {
     if (CollectionUtils.isEmpty(c)) {
@@ -143,7 +177,7 @@ public class LineDrawProp extends ArrayList<FlatPoint> implements Serializable {
   }
 
   private void refreshDrawGraphArea(FlatPoint point) {
-    if (point != null) {
+    if (point != null && drawGraph != null) {
       drawGraph.updateXAxisRange(point.getX() - 10);
       drawGraph.updateXAxisRange(point.getX() + 10);
       drawGraph.updateYAxisRange(point.getY() - 10);
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.graphper.util.Asserts;
+
+/**
+ * In-memory {@link LayoutCache} with a max number of layouts, the least recently used layout is
+ * evicted when the cache is full.
+ *
+ * @author Jamison Jiang
+ */
+public class LruLayoutCache implements LayoutCache {
+
+  private final int capacity;
+
+  private final Map<String, LayoutGeometry> cache;
+
+  public LruLayoutCache(int capacity) {
+    Asserts.illegalArgument(capacity <= 0, "capacity (" + capacity + ") must be greater than 0");
+    this.capacity = capacity;
+    this.cache = new LinkedHashMap<String, LayoutGeometry>(16, 0.75F, true) {
+
+      private static final long serialVersionUID = 1960219236218853474L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, LayoutGeometry> eldest) {
+        return size() > LruLayoutCache.this.capacity;
+      }
+    };
+  }
+
+  @Override
+  public synchronized LayoutGeometry get(String key) {
+    return cache.get(key);
+  }
+
+  @Override
+  public synchronized void put(String key, LayoutGeometry layout) {
+    Asserts.nullArgument(key, "key");
+    Asserts.nullArgument(layout, "layout");
+    cache.put(key, layout);
+  }
+
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public synchronized void clear() {
+    cache.clear();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import org.graphper.api.Graphviz.GraphvizBuilder;
+
+/**
+ * The listener of the phases of layout and render, receives the duration of each phase and some
+ * counters of the layout, used to find out why a specific graph is slow. The listener is set to
+ * the graph by {@link GraphvizBuilder#metrics(MetricsListener)}, and is called on the thread which
+ * executes the phase, the phases of different graphs may be reported concurrently if the same
+ * listener is shared.
+ *
+ * <p>All methods do nothing by default, the {@link SimpleMetricsCollector} is a simple collector
+ * which sums the durations and counters.
+ *
+ * @author Jamison Jiang
+ */
+public interface MetricsListener {
+
+  /**
+   * The listener do nothing.
+   */
+  MetricsListener NOOP = new MetricsListener() {
+  };
+
+  /**
+   * Report the duration of a phase, a phase may be reported multiple times in one render, e.g. the
+   * rank of each cluster and the routing of each router.
+   *
+   * @param phase  the phase
+   * @param detail the detail of phase, the router type for {@link Phase#ROUTING}, otherwise null
+   * @param nanos  the duration of phase in nanoseconds
+   */
+  default void phase(Phase phase, String detail, long nanos) {
+  }
+
+  /**
+   * Report a counter of layout.
+   *
+   * @param counter the counter
+   * @param value   the value added to counter
+   */
+  default void count(Counter counter, long value) {
+  }
+
+  /**
+   * The phases of layout and render.
+   */
+  enum Phase {
+    /**
+     * Initialize the attributes of the elements, include copy the templates and measure labels.
+     */
+    TEMPLATE_COPY,
+    /**
+     * Collapse the clusters and subgraphs and assign the ranks, include {@link #RANK}.
+     */
+    CONTAINER_COLLAPSE,
+    /**
+     * Assign the ranks of a graph or a collapsed cluster by network simplex.
+     */
+    RANK,
+    /**
+     * Minimize the crossings between ranks.
+     */
+    MIN_CROSS,
+    /**
+     * Insert the label nodes and flat lines.
+     */
+    LABEL_SUPPLEMENT,
+    /**
+     * Assign the coordinates of nodes.
+     */
+    COORDINATE,
+    /**
+     * Route the lines, the detail is the type of router.
+     */
+    ROUTING,
+    /**
+     * Clip the lines by the shapes of nodes.
+     */
+    LINE_CLIP,
+    /**
+     * Execute the editors of the elements.
+     */
+    EDITOR_PIPELINE,
+    /**
+     * Serialize or convert the draw board to the result.
+     */
+    SERIALIZATION
+  }
+
+  /**
+   * The counters of layout.
+   */
+  enum Counter {
+    /**
+     * The passes of crossing minimization.
+     */
+    MINCROSS_PASSES,
+    /**
+     * The iterations of crossing minimization.
+     */
+    MINCROSS_ITERATIONS,
+    /**
+     * The crossing number of the order after crossing minimization.
+     */
+    CROSSINGS,
+    /**
+     * The virtual nodes created by the layout.
+     */
+    VIRTUAL_NODES,
+    /**
+     * The vertices of the mazes built by orthogonal routing.
+     */
+    MAZE_VERTICES
+  }
+}
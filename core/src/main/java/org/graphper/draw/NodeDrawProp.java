@@ -66,6 +66,25 @@ public class NodeDrawProp extends ContainerDrawProp implements Serializable {
     convertToAssemble(nodeAttrs.getTable(), nodeAttrs.getLabelTag());
   }
 
+  /**
+   * Copy the laid out source for another node, the node can be null when the copy is only used to
+   * keep the geometry of layout. The cell container is only used by layout and not copied.
+   *
+   * @param source the laid out source
+   * @param node   the node of copy
+   */
+  NodeDrawProp(NodeDrawProp source, Node node) {
+    super(source);
+    this.node = node;
+    this.nodeAttrs = source.nodeAttrs;
+    this.id = source.id;
+    this.margin = source.margin;
+    this.labelHorOffset = source.labelHorOffset;
+    this.labelVerOffset = source.labelVerOffset;
+    this.cell = source.cell;
+    this.isCellProp = source.isCellProp;
+  }
+
   public Node getNode() {
     return node;
   }
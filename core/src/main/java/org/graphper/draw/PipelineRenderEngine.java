@@ -18,6 +18,7 @@ package org.graphper.draw;
 
 import java.util.List;
 import org.graphper.api.GraphResource;
+import org.graphper.draw.MetricsListener.Phase;
 import org.graphper.util.Asserts;
 
 /**
@@ -68,48 +69,78 @@ public abstract class PipelineRenderEngine<
 
     try {
       // Triggle all editors of graph items
+      MetricsListener metrics = drawGraph.metrics();
+      long start = System.nanoTime();
       DrawBoard<NB, LB, CB, GB> board = drawBoard(drawGraph);
-      graphExecutePipeline.trigger(board::drawGraph);
-      clusterExecutePipeline.trigger(board::drawCluster);
-      nodeExecutePipeline.trigger(board::drawNode);
-      lineExecutePipeline.trigger(board::drawLine);
-
-      return board.graphResource();
+      graphExecutePipeline.trigger(board::drawGraph, board::drawFinish);
+      clusterExecutePipeline.trigger(board::drawCluster, board::drawFinish);
+      nodeExecutePipeline.trigger(board::drawNode, board::drawFinish);
+      lineExecutePipeline.trigger(board::drawLine, board::drawFinish);
+      metrics.phase(Phase.EDITOR_PIPELINE, null, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      GraphResource resource = board.graphResource();
+      metrics.phase(Phase.SERIALIZATION, null, System.nanoTime() - start);
+      return resource;
     } catch (FailInitResourceException ex) {
       throw new ExecuteException(ex);
     }
   }
 
-  private synchronized List<NodeEditor<NB>> nodeEditors() {
-    if (nodeEditors == null) {
-      nodeEditors = initNodeEditors();
+  private List<NodeEditor<NB>> nodeEditors() {
+    List<NodeEditor<NB>> editors = nodeEditors;
+    if (editors == null) {
+      synchronized (this) {
+        if (nodeEditors == null) {
+          nodeEditors = initNodeEditors();
+        }
+        editors = nodeEditors;
+      }
     }
 
-    return nodeEditors;
+    return editors;
   }
 
-  private synchronized List<LineEditor<LB>> lineEditors() {
-    if (lineEditors == null) {
-      lineEditors = initLineEditors();
+  private List<LineEditor<LB>> lineEditors() {
+    List<LineEditor<LB>> editors = lineEditors;
+    if (editors == null) {
+      synchronized (this) {
+        if (lineEditors == null) {
+          lineEditors = initLineEditors();
+        }
+        editors = lineEditors;
+      }
     }
 
-    return lineEditors;
+    return editors;
   }
 
-  private synchronized List<ClusterEditor<CB>> clusterEditors() {
-    if (clusterEditors == null) {
-      clusterEditors = initClusterEditors();
+  private List<ClusterEditor<CB>> clusterEditors() {
+    List<ClusterEditor<CB>> editors = clusterEditors;
+    if (editors == null) {
+      synchronized (this) {
+        if (clusterEditors == null) {
+          clusterEditors = initClusterEditors();
+        }
+        editors = clusterEditors;
+      }
     }
 
-    return clusterEditors;
+    return editors;
   }
 
-  private synchronized List<GraphEditor<GB>> graphEditors() {
-    if (graphEditors == null) {
-      graphEditors = initGraphEditors();
+  private List<GraphEditor<GB>> graphEditors() {
+    List<GraphEditor<GB>> editors = graphEditors;
+    if (editors == null) {
+      synchronized (this) {
+        if (graphEditors == null) {
+          graphEditors = initGraphEditors();
+        }
+        editors = graphEditors;
+      }
     }
 
-    return graphEditors;
+    return editors;
   }
 
   protected abstract List<NodeEditor<NB>> initNodeEditors();
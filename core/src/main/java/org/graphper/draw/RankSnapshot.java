@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.graphper.api.Node;
+import org.graphper.api.attributes.Layout;
+import org.graphper.util.Asserts;
+
+/**
+ * The ranks of the nodes assigned by a previous {@link Layout#DOT} layout. A snapshot can be taken
+ * from {@link DrawGraph#getRankSnapshot()} of a layout with the warm start enabled and passed to the next layout of a slightly modified
+ * graph, the ranks are used as the initial feasible ranks of the network simplex, so only the
+ * parts affected by the modification need to be re-optimized.
+ *
+ * <p>Nodes are matched by {@link Node#equals(Object)}, the nodes removed from the graph are
+ * ignored and the nodes added to the graph are ranked relative to their neighbors.
+ *
+ * @author Jamison Jiang
+ */
+public class RankSnapshot implements Serializable {
+
+  private static final long serialVersionUID = -2305743117046397613L;
+
+  private final Map<Node, Integer> ranks;
+
+  public RankSnapshot(Map<Node, Integer> ranks) {
+    Asserts.nullArgument(ranks, "ranks");
+    this.ranks = Collections.unmodifiableMap(new HashMap<>(ranks));
+  }
+
+  /**
+   * Returns the rank of the node in the snapshot.
+   *
+   * @param node node
+   * @return the rank of node, or null if the node is not in the snapshot
+   */
+  public Integer getRank(Node node) {
+    return ranks.get(node);
+  }
+
+  /**
+   * Returns the ranks of all nodes in the snapshot.
+   *
+   * @return unmodifiable ranks of nodes
+   */
+  public Map<Node, Integer> getRanks() {
+    return ranks;
+  }
+
+  public int size() {
+    return ranks.size();
+  }
+
+  @Override
+  public String toString() {
+    return "RankSnapshot{" +
+        "ranks=" + ranks +
+        '}';
+  }
+}
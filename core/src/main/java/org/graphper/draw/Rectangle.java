@@ -20,6 +20,8 @@ import org.graphper.api.ext.DefaultBox;
 
 public class Rectangle extends DefaultBox {
 
+  private static final long serialVersionUID = -3849218339059293009L;
+
   public Rectangle() {
     init();
   }
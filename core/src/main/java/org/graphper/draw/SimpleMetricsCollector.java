@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A simple {@link MetricsListener} which sums the durations of phases and the counters, can be
+ * shared by the graphs rendered concurrently.
+ *
+ * @author Jamison Jiang
+ */
+public class SimpleMetricsCollector implements MetricsListener {
+
+  private final ConcurrentMap<String, LongAdder> nanos = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, LongAdder> times = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<Counter, LongAdder> counters = new ConcurrentHashMap<>();
+
+  @Override
+  public void phase(Phase phase, String detail, long nanos) {
+    if (phase == null) {
+      return;
+    }
+
+    add(this.nanos, phase.name(), nanos);
+    add(times, phase.name(), 1);
+    if (detail != null) {
+      String key = key(phase, detail);
+      add(this.nanos, key, nanos);
+      add(times, key, 1);
+    }
+  }
+
+  @Override
+  public void count(Counter counter, long value) {
+    if (counter != null) {
+      add(counters, counter, value);
+    }
+  }
+
+  /**
+   * Returns the total nanoseconds of the phase.
+   *
+   * @param phase the phase
+   * @return the total nanoseconds of phase
+   */
+  public long phaseNanos(Phase phase) {
+    return phase != null ? sum(nanos, phase.name()) : 0;
+  }
+
+  /**
+   * Returns the total nanoseconds of the phase with the specified detail, e.g. the routing of a
+   * router type.
+   *
+   * @param phase  the phase
+   * @param detail the detail of phase
+   * @return the total nanoseconds of phase with the detail
+   */
+  public long phaseNanos(Phase phase, String detail) {
+    return phase != null ? sum(nanos, key(phase, detail)) : 0;
+  }
+
+  /**
+   * Returns how many times the phase was reported.
+   *
+   * @param phase the phase
+   * @return the times of phase
+   */
+  public long phaseTimes(Phase phase) {
+    return phase != null ? sum(times, phase.name()) : 0;
+  }
+
+  /**
+   * Returns the total value of the counter.
+   *
+   * @param counter the counter
+   * @return the total value of counter
+   */
+  public long counter(Counter counter) {
+    return counter != null ? sum(counters, counter) : 0;
+  }
+
+  /**
+   * Clear all collected durations and counters.
+   */
+  public void reset() {
+    nanos.clear();
+    times.clear();
+    counters.clear();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("SimpleMetricsCollector{");
+    boolean first = true;
+    for (Entry<String, LongAdder> entry : new TreeMap<>(nanos).entrySet()) {
+      if (!first) {
+        sb.append(", ");
+      }
+      first = false;
+      sb.append(entry.getKey()).append('=').append(entry.getValue().sum() / 1000).append("us/")
+          .append(sum(times, entry.getKey()));
+    }
+    for (Entry<Counter, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+      if (!first) {
+        sb.append(", ");
+      }
+      first = false;
+      sb.append(entry.getKey()).append('=').append(entry.getValue().sum());
+    }
+    return sb.append('}').toString();
+  }
+
+  private static String key(Phase phase, String detail) {
+    return phase.name() + ":" + detail;
+  }
+
+  private static <K> void add(ConcurrentMap<K, LongAdder> map, K key, long value) {
+    map.computeIfAbsent(key, k -> new LongAdder()).add(value);
+  }
+
+  private static <K> long sum(Map<K, LongAdder> map, K key) {
+    LongAdder adder = map.get(key);
+    return adder != null ? adder.sum() : 0;
+  }
+}
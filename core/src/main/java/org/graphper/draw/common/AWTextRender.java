@@ -16,10 +16,12 @@
 
 package org.graphper.draw.common;
 
+import java.awt.BasicStroke;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.Stroke;
 import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
 import java.awt.font.TextAttribute;
@@ -31,7 +33,10 @@ import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
 import java.util.Objects;
 import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.attributes.FontStyle;
 import org.graphper.def.FlatPoint;
+import org.graphper.layout.AWTFontCache;
+import org.graphper.util.FontUtils;
 
 public class AWTextRender {
 
@@ -56,6 +61,99 @@ public class AWTextRender {
     this.g2d = g2d;
   }
 
+  /**
+   * Draw a line of text horizontally centered at {@code x} with the baseline {@code y}. The
+   * characters which can not be displayed by the font are drawn by the first font supporting them.
+   *
+   * @param g2d        the graphics context, the color of text is the current color
+   * @param text       the text of line
+   * @param x          the center x of text
+   * @param y          the baseline of text
+   * @param fontName   the font name, must exist
+   * @param fontSize   the font size
+   * @param fontStyle  the style of {@link Font}, like {@link Font#BOLD}
+   * @param decoration {@link FontStyle#OVERLINE}, {@link FontStyle#UNDERLINE},
+   *                   {@link FontStyle#STRIKETHROUGH} or null
+   */
+  public static void drawCenter(Graphics2D g2d, String text, double x, double y, String fontName,
+                                int fontSize, int fontStyle, FontStyle decoration) {
+    Font defaultFont = AWTFontCache.get(fontName, fontStyle, fontSize);
+
+    int pre = 0;
+    Font font = null;
+    FlatPoint size = FontUtils.measure(text, fontName, fontSize, 0, measureStyles(fontStyle));
+    x = x - (size.getWidth() / 2);
+    double startX = x;
+    double maxHeight = 0;
+
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (font != null && font.canDisplay(c)) {
+        continue;
+      }
+
+      if (font != null) {
+        AWTextRender awTextRender = new AWTextRender(font, text.substring(pre, i), x, y, g2d);
+        FlatPoint offset = awTextRender.draw();
+        x += offset.getWidth();
+        maxHeight = Math.max(maxHeight, offset.getHeight());
+        pre = i;
+      }
+
+      if (defaultFont.canDisplay(c)) {
+        font = defaultFont;
+      } else {
+        String supportFont = FontUtils.findFirstSupportFont(c);
+        font = supportFont != null ? AWTFontCache.get(supportFont, Font.PLAIN, fontSize) : null;
+      }
+    }
+
+    font = font != null ? font : defaultFont;
+    AWTextRender awTextRender = new AWTextRender(font, text.substring(pre), x, y, g2d);
+    FlatPoint finalOffset = awTextRender.draw();
+    x += finalOffset.getWidth();
+    maxHeight = Math.max(maxHeight, finalOffset.getHeight());
+
+    if (decoration == null) {
+      return;
+    }
+
+    // Set pen width for underline and strikethrough relative to font size
+    float strokeWidth = Math.max(1.0f, fontSize / 12.0f);
+    Stroke originalStroke = g2d.getStroke();
+    g2d.setStroke(new BasicStroke(strokeWidth));
+
+    if (decoration == FontStyle.OVERLINE) {
+      int overline = (int) (y - maxHeight + Math.max(1.0f, fontSize / 4.0f));
+      g2d.drawLine((int) startX, overline, (int) x, overline);
+    }
+
+    if (decoration == FontStyle.UNDERLINE) {
+      int underlineY = (int) (y + strokeWidth);
+      g2d.drawLine((int) startX, underlineY, (int) x, underlineY);
+    }
+
+    if (decoration == FontStyle.STRIKETHROUGH) {
+      double strikeThroughY = y - (maxHeight / 4.0);
+      g2d.drawLine((int) startX, (int) strikeThroughY, (int) x, (int) strikeThroughY);
+    }
+
+    g2d.setStroke(originalStroke);
+  }
+
+  private static FontStyle[] measureStyles(int fontStyle) {
+    boolean bold = (fontStyle & Font.BOLD) != 0;
+    boolean italic = (fontStyle & Font.ITALIC) != 0;
+    if (bold && italic) {
+      return new FontStyle[]{FontStyle.BOLD, FontStyle.ITALIC};
+    } else if (bold) {
+      return new FontStyle[]{FontStyle.BOLD};
+    } else if (italic) {
+      return new FontStyle[]{FontStyle.ITALIC};
+    }
+    return null;
+  }
+
   public FlatPoint draw() {
     if (StringUtils.containsRTL(text)) {
       return drawByNativeMethod();
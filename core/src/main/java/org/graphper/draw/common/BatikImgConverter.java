@@ -20,6 +20,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.FileType;
@@ -28,6 +30,7 @@ import org.graphper.draw.FailInitResourceException;
 import org.graphper.draw.DefaultGraphResource;
 import org.graphper.draw.svg.Document;
 import org.graphper.util.ClassUtils;
+import org.w3c.dom.DOMImplementation;
 
 /**
  * Implementation of {@link SvgConverter} that uses Apache Batik to convert SVG documents into
@@ -35,6 +38,11 @@ import org.graphper.util.ClassUtils;
  * Batik's transcoder classes. The environment must support the AWT {@link java.awt.Graphics2D} and
  * have Batik libraries available.
  *
+ * <p>If the Batik svg DOM implementation is available, the DOM of svg is built directly from the
+ * element tree of document, otherwise the xml of document is parsed by Batik. Every conversion
+ * creates its own transcoder, a transcoder keeps the document and the rendering context of its last
+ * conversion.
+ *
  * @author Jamison Jiang
  */
 public class BatikImgConverter implements SvgConverter {
@@ -45,6 +53,7 @@ public class BatikImgConverter implements SvgConverter {
   private static final String P_T_C = "org.apache.batik.transcoder.image.PNGTranscoder";
   private static final String J_T_C = "org.apache.batik.transcoder.image.JPEGTranscoder";
   private static final String TF_T_C = "org.apache.batik.transcoder.image.TIFFTranscoder";
+  private static final String SVG_DOM_C = "org.apache.batik.anim.dom.SVGDOMImplementation";
 
   /**
    * Returns the priority order of this converter. The default order is set to 0.
@@ -105,34 +114,36 @@ public class BatikImgConverter implements SvgConverter {
       throw new FailInitResourceException("Lack parameters to convert image");
     }
 
-    String svg = document.toXml();
-    if (StringUtils.isEmpty(svg)) {
-      throw new FailInitResourceException("Can not get svg");
-    }
-    try (InputStream is = new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8))) {
-      Object transcoder;
-      switch (fileType) {
-        case PNG:
-          transcoder = ClassUtils.newObject(Class.forName(P_T_C));
-          break;
-        case JPG:
-        case JPEG:
-          transcoder = ClassUtils.newObject(Class.forName(J_T_C));
-          break;
-        case TIFF:
-          transcoder = ClassUtils.newObject(Class.forName(TF_T_C));
-          break;
-        default:
-          transcoder = ClassUtils.newObject(Class.forName(P_T_C));
-          break;
-      }
-
-      return getFileGraphResource(drawGraph, fileType, is, transcoder);
+    try {
+      ByteArrayOutputStream baos = transcode(transcoderInput(document), newTranscoder(fileType));
+      String label = drawGraph.getGraphviz().graphAttrs().getLabel();
+      return new DefaultGraphResource(label, fileType.getType(), baos);
+    } catch (FailInitResourceException e) {
+      throw e;
     } catch (Exception e) {
       throw new FailInitResourceException(e);
     }
   }
 
+  /**
+   * Creates the Batik transcoder of the file type for a conversion.
+   *
+   * @param fileType the target file type for conversion
+   * @return the Batik transcoder object
+   * @throws Exception if the transcoder cannot be created
+   */
+  protected Object newTranscoder(FileType fileType) throws Exception {
+    switch (fileType) {
+      case JPG:
+      case JPEG:
+        return ClassUtils.newObject(Class.forName(J_T_C));
+      case TIFF:
+        return ClassUtils.newObject(Class.forName(TF_T_C));
+      default:
+        return ClassUtils.newObject(Class.forName(P_T_C));
+    }
+  }
+
   /**
    * Generates a {@link DefaultGraphResource} for the converted image.
    *
@@ -146,29 +157,76 @@ public class BatikImgConverter implements SvgConverter {
   protected DefaultGraphResource getFileGraphResource(DrawGraph drawGraph, FileType fileType,
                                                       InputStream is, Object transcoder)
       throws Exception {
-    ByteArrayOutputStream baos = transcodeAndReturnOS(is, transcoder);
+    ByteArrayOutputStream baos = transcode(Handles.STREAM_INPUT.newInstance(is), transcoder);
     String label = drawGraph.getGraphviz().graphAttrs().getLabel();
     return new DefaultGraphResource(label, fileType.getType(), baos);
   }
 
+  private Object transcoderInput(Document document) throws Exception {
+    if (Handles.DOM_IMPLEMENTATION != null) {
+      return Handles.DOCUMENT_INPUT.newInstance(
+          SvgDomBuilder.build(document, Handles.DOM_IMPLEMENTATION));
+    }
+
+    String svg = document.toXml();
+    if (StringUtils.isEmpty(svg)) {
+      throw new FailInitResourceException("Can not get svg");
+    }
+    InputStream is = new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8));
+    return Handles.STREAM_INPUT.newInstance(is);
+  }
+
   /**
-   * Transcodes the SVG data from the input stream and writes it to a
+   * Transcodes the SVG data of the transcoder input and writes it to a
    * {@link ByteArrayOutputStream}.
    *
-   * @param is         the input stream containing the SVG data
+   * @param input      the Batik transcoder input containing the SVG data
    * @param transcoder the Batik transcoder object used for conversion
    * @return a {@link ByteArrayOutputStream} containing the transcoded image data
    * @throws Exception if the transcoding process fails
    */
-  private ByteArrayOutputStream transcodeAndReturnOS(InputStream is, Object transcoder)
-      throws Exception {
-    Class<?> inputClazz = Class.forName(T_IN_C);
-    Class<?> outputClazz = Class.forName(T_OUT_C);
+  private ByteArrayOutputStream transcode(Object input, Object transcoder) throws Exception {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    Object input = ClassUtils.newObjectOne(inputClazz, InputStream.class, is);
-    Object output = ClassUtils.newObjectOne(outputClazz, OutputStream.class, baos);
-    ClassUtils.invoke(transcoder, "transcode",
-                      new Class[]{inputClazz, outputClazz}, input, output);
+    Object output = Handles.OUTPUT.newInstance(baos);
+    Handles.TRANSCODE.invoke(transcoder, input, output);
     return baos;
   }
-}
\ No newline at end of file
+
+  /**
+   * The reflective handles of Batik, initialized when first converting.
+   */
+  private static final class Handles {
+
+    private static final Constructor<?> STREAM_INPUT;
+
+    private static final Constructor<?> DOCUMENT_INPUT;
+
+    private static final Constructor<?> OUTPUT;
+
+    private static final Method TRANSCODE;
+
+    private static final DOMImplementation DOM_IMPLEMENTATION;
+
+    static {
+      try {
+        Class<?> inputClazz = Class.forName(T_IN_C);
+        Class<?> outputClazz = Class.forName(T_OUT_C);
+        STREAM_INPUT = inputClazz.getConstructor(InputStream.class);
+        DOCUMENT_INPUT = inputClazz.getConstructor(org.w3c.dom.Document.class);
+        OUTPUT = outputClazz.getConstructor(OutputStream.class);
+        TRANSCODE = Class.forName(T_C_C).getMethod("transcode", inputClazz, outputClazz);
+      } catch (Exception e) {
+        throw new IllegalStateException("Batik transcoder is not available", e);
+      }
+
+      DOMImplementation domImplementation;
+      try {
+        domImplementation = (DOMImplementation) ClassUtils
+            .invokeStatic(Class.forName(SVG_DOM_C), "getDOMImplementation");
+      } catch (Exception e) {
+        domImplementation = null;
+      }
+      DOM_IMPLEMENTATION = domImplementation;
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package org.graphper.draw.common;
 
+import java.io.Writer;
 import org.graphper.api.FileType;
 import org.graphper.draw.DefaultPipelineFactory;
 import org.graphper.draw.DrawBoard;
@@ -23,6 +24,7 @@ import org.graphper.draw.DrawGraph;
 import org.graphper.draw.PipelineFactory;
 import org.graphper.draw.svg.SvgBrush;
 import org.graphper.draw.svg.SvgRenderEngine;
+import org.graphper.draw.svg.SvgStreamDrawBoard;
 
 public class CommonRenderEngine extends SvgRenderEngine {
 
@@ -42,8 +44,12 @@ public class CommonRenderEngine extends SvgRenderEngine {
 
   @Override
   protected DrawBoard<SvgBrush, SvgBrush, SvgBrush, SvgBrush> drawBoard(DrawGraph drawGraph) {
-    CommonDrawBoard drawBoard = new CommonDrawBoard(drawGraph);
     Object attach = drawGraph.getAttach();
+    if (attach instanceof Writer) {
+      return new SvgStreamDrawBoard(drawGraph, (Writer) attach);
+    }
+
+    CommonDrawBoard drawBoard = new CommonDrawBoard(drawGraph);
     if (attach instanceof FileType) {
       drawBoard.setImageType((FileType) attach);
     }
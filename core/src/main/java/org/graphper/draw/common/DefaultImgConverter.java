@@ -24,7 +24,6 @@ import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.Shape;
-import java.awt.Stroke;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Ellipse2D;
@@ -246,64 +245,8 @@ public class DefaultImgConverter implements SvgConverter, SvgConstants {
 
     String fontName = ele.getAttribute(FONT_FAMILY);
     fontName = FontUtils.fontExists(fontName) ? fontName : DEFAULT_FONT;
-    Font defaultFont = new Font(fontName, toFontStyleTag(ele), fontSize);
-
-    int pre = 0;
-    Font font = null;
-    FlatPoint size = FontUtils.measure(text, fontName, fontSize, 0, toMeasureFontStyles(ele));
-    x = x - (size.getWidth() / 2);
-    double startX = x;
-    double maxHeight = 0;
-
-    for (int i = 0; i < text.length(); i++) {
-      char c = text.charAt(i);
-      if (font != null && font.canDisplay(c)) {
-        continue;
-      }
-
-      if (font != null) {
-        AWTextRender awTextRender = new AWTextRender(font, text.substring(pre, i), x, y, g2d);
-        FlatPoint offset = awTextRender.draw();
-        x += offset.getWidth();
-        maxHeight = Math.max(maxHeight, offset.getHeight());
-        pre = i;
-      }
-
-      if (defaultFont.canDisplay(c)) {
-        font = defaultFont;
-      } else {
-        String supportFont = FontUtils.findFirstSupportFont(c);
-        font = supportFont != null ? new Font(supportFont, Font.PLAIN, fontSize) : null;
-      }
-    }
-
-    font = font != null ? font : defaultFont;
-    AWTextRender awTextRender = new AWTextRender(font, text.substring(pre), x, y, g2d);
-    FlatPoint finalOffset = awTextRender.draw();
-    x += finalOffset.getWidth();
-    maxHeight = Math.max(maxHeight, finalOffset.getHeight());
-
-    // Set pen width for underline and strikethrough relative to font size
-    float strokeWidth = Math.max(1.0f, fontSize / 12.0f);
-    Stroke originalStroke = g2d.getStroke();
-    g2d.setStroke(new BasicStroke(strokeWidth));
-
-    if (haveFontOverline(ele)) {
-      int overline = (int) (y - maxHeight + Math.max(1.0f, fontSize / 4.0f));
-      g2d.drawLine((int) startX, overline, (int) x, overline);
-    }
-
-    if (haveFontUnderline(ele)) {
-      int underlineY = (int) (y + strokeWidth);
-      g2d.drawLine((int) startX, underlineY, (int) x, underlineY);
-    }
-
-    if (haveFontStrikeThrough(ele)) {
-      double strikeThroughY = y - (maxHeight / 4.0);
-      g2d.drawLine((int) startX, (int) strikeThroughY, (int) x, (int) strikeThroughY);
-    }
-
-    g2d.setStroke(originalStroke);
+    AWTextRender.drawCenter(g2d, text, x, y, fontName, fontSize, toFontStyleTag(ele),
+                            toDecoration(ele));
   }
 
   /**
@@ -550,15 +493,15 @@ public class DefaultImgConverter implements SvgConverter, SvgConstants {
     return fs;
   }
 
-  private FontStyle[] toMeasureFontStyles(Element textEle) {
-    boolean bold = isFontBold(textEle);
-    boolean italic = isFontItalic(textEle);
-    if (bold && italic) {
-      return new FontStyle[]{FontStyle.BOLD, FontStyle.ITALIC};
-    } else if (bold) {
-      return new FontStyle[]{FontStyle.BOLD};
-    } else if (italic) {
-      return new FontStyle[]{FontStyle.ITALIC};
+  private FontStyle toDecoration(Element textEle) {
+    if (haveFontOverline(textEle)) {
+      return FontStyle.OVERLINE;
+    }
+    if (haveFontUnderline(textEle)) {
+      return FontStyle.UNDERLINE;
+    }
+    if (haveFontStrikeThrough(textEle)) {
+      return FontStyle.STRIKETHROUGH;
     }
     return null;
   }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache_gs.commons.text.StringEscapeUtils;
+import org.graphper.draw.svg.Document;
+import org.graphper.draw.svg.SvgConstants;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Build the w3c DOM of svg directly from the element tree of {@link Document}, the xml of the
+ * document does not need to be generated and parsed again.
+ *
+ * @author Jamison Jiang
+ */
+final class SvgDomBuilder implements SvgConstants {
+
+  static final String SVG_NAMESPACE = "http://www.w3.org/2000/svg";
+
+  private static final String XLINK_NAMESPACE = "http://www.w3.org/1999/xlink";
+
+  private static final String XLINK_PREFIX = XLINK + COLON;
+
+  private SvgDomBuilder() {
+  }
+
+  /**
+   * Returns the w3c document created by the DOM implementation, which has the same elements as
+   * {@code document}.
+   *
+   * @param document          svg document
+   * @param domImplementation the DOM implementation used to create document
+   * @return w3c document
+   */
+  static org.w3c.dom.Document build(Document document, DOMImplementation domImplementation) {
+    org.w3c.dom.Document domDocument = domImplementation
+        .createDocument(SVG_NAMESPACE, SVG_ELE, null);
+    Element root = domDocument.getDocumentElement();
+    Map<org.graphper.draw.svg.Element, Element> domElements = new HashMap<>();
+
+    document.accessEles((ele, children) -> {
+      Element parent = ele.parent() != null ? domElements.get(ele.parent()) : null;
+      Element domElement;
+      if (parent == null && domElements.isEmpty() && SVG_ELE.equals(ele.tagName())) {
+        domElement = root;
+      } else {
+        domElement = domDocument.createElementNS(SVG_NAMESPACE, ele.tagName());
+        (parent != null ? parent : root).appendChild(domElement);
+      }
+      domElements.put(ele, domElement);
+
+      ele.accessAttrs((name, value) -> setAttribute(domElement, name, value));
+      String text = ele.textContext();
+      if (text != null) {
+        Node textNode = domDocument.createTextNode(StringEscapeUtils.unescapeXml(text));
+        domElement.appendChild(textNode);
+      }
+    });
+    return domDocument;
+  }
+
+  private static void setAttribute(Element domElement, String name, String value) {
+    // The namespace declarations are owned by document
+    if (XMLNS.equals(name) || XMLNS_XLINK.equals(name)) {
+      return;
+    }
+
+    value = StringEscapeUtils.unescapeXml(value);
+    if (name.startsWith(XLINK_PREFIX)) {
+      domElement.setAttributeNS(XLINK_NAMESPACE, name, value);
+    } else {
+      domElement.setAttributeNS(null, name, value);
+    }
+  }
+}
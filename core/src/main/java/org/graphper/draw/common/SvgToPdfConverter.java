@@ -16,15 +16,7 @@
 
 package org.graphper.draw.common;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.FileType;
-import org.graphper.draw.DrawGraph;
-import org.graphper.draw.FailInitResourceException;
-import org.graphper.draw.DefaultGraphResource;
-import org.graphper.draw.svg.Document;
 import org.graphper.util.ClassUtils;
 
 /**
@@ -90,49 +82,33 @@ public class SvgToPdfConverter extends BatikImgConverter {
   }
 
   /**
-   * Converts the given SVG document into a PDF. Uses Apache FOP's {@code PDFTranscoder} to handle
-   * the conversion.
+   * Creates the Apache FOP's {@code PDFTranscoder} used to convert SVG documents into PDF, the
+   * transcoder is cached and reused by the conversions of current thread.
    *
-   * @param document  the SVG document to convert
-   * @param drawGraph the drawing context with graph-related attributes
-   * @param fileType  the target file type for conversion, which must be PDF
-   * @return a {@link DefaultGraphResource} representing the converted PDF
-   * @throws FailInitResourceException if the conversion fails or if parameters are missing
+   * @param fileType the target file type for conversion, which must be PDF
+   * @return the {@code PDFTranscoder} object
+   * @throws Exception if the transcoder cannot be created
    */
   @Override
-  public DefaultGraphResource convert(Document document, DrawGraph drawGraph, FileType fileType)
-      throws FailInitResourceException {
-    if (document == null || drawGraph == null || fileType == null) {
-      throw new FailInitResourceException("Lack parameters to convert image");
-    }
-
-    String svg = document.toXml();
-    if (StringUtils.isEmpty(svg)) {
-      throw new FailInitResourceException("Can not get svg");
-    }
-
-    try (InputStream is = new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8))) {
-      Object transcoder = ClassUtils.newObject(PDF_TRANSCODER);
-      Object transcodingHints = ClassUtils.newObject(TRANSCODING_HINTS);
-      Class<?>[] paramTypes = {Object.class, Object.class};
-      ClassUtils.invoke(transcodingHints, "put", paramTypes,
-                        ClassUtils.getStaticField(SVG_A_TRANSCODER, "KEY_WIDTH"), 1000f);
-      ClassUtils.invoke(transcodingHints, "put", paramTypes,
-                        ClassUtils.getStaticField(SVG_A_TRANSCODER, "KEY_HEIGHT"), 1000f);
-      ClassUtils.invoke(transcodingHints, "put", paramTypes,
-                        ClassUtils.getStaticField(XML_A_TRANSCODER, "KEY_DOM_IMPLEMENTATION"),
-                        ClassUtils.invokeStatic(SVG_DOM_IMPL, "getDOMImplementation"));
-      ClassUtils.invoke(transcodingHints, "put", paramTypes,
-                        ClassUtils.getStaticField(XML_A_TRANSCODER,
-                                                  "KEY_DOCUMENT_ELEMENT_NAMESPACE_URI"),
-                        ClassUtils.getStaticField(SVG_DOM_IMPL, "SVG_NAMESPACE_URI"));
-      ClassUtils.invoke(transcodingHints, "put", paramTypes,
-                        ClassUtils.getStaticField(XML_A_TRANSCODER, "KEY_DOCUMENT_ELEMENT"),
-                        FileType.SVG.getType());
-      ClassUtils.invoke(transcoder, "setTranscodingHints", transcodingHints);
-      return getFileGraphResource(drawGraph, FileType.PDF, is, transcoder);
-    } catch (Exception e) {
-      throw new FailInitResourceException(e);
-    }
+  protected Object newTranscoder(FileType fileType) throws Exception {
+    Object transcoder = ClassUtils.newObject(PDF_TRANSCODER);
+    Object transcodingHints = ClassUtils.newObject(TRANSCODING_HINTS);
+    Class<?>[] paramTypes = {Object.class, Object.class};
+    ClassUtils.invoke(transcodingHints, "put", paramTypes,
+                      ClassUtils.getStaticField(SVG_A_TRANSCODER, "KEY_WIDTH"), 1000f);
+    ClassUtils.invoke(transcodingHints, "put", paramTypes,
+                      ClassUtils.getStaticField(SVG_A_TRANSCODER, "KEY_HEIGHT"), 1000f);
+    ClassUtils.invoke(transcodingHints, "put", paramTypes,
+                      ClassUtils.getStaticField(XML_A_TRANSCODER, "KEY_DOM_IMPLEMENTATION"),
+                      ClassUtils.invokeStatic(SVG_DOM_IMPL, "getDOMImplementation"));
+    ClassUtils.invoke(transcodingHints, "put", paramTypes,
+                      ClassUtils.getStaticField(XML_A_TRANSCODER,
+                                                "KEY_DOCUMENT_ELEMENT_NAMESPACE_URI"),
+                      ClassUtils.getStaticField(SVG_DOM_IMPL, "SVG_NAMESPACE_URI"));
+    ClassUtils.invoke(transcodingHints, "put", paramTypes,
+                      ClassUtils.getStaticField(XML_A_TRANSCODER, "KEY_DOCUMENT_ELEMENT"),
+                      FileType.SVG.getType());
+    ClassUtils.invoke(transcoder, "setTranscodingHints", transcodingHints);
+    return transcoder;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.awt.Graphics2D;
+import org.graphper.draw.Brush;
+import org.graphper.util.Asserts;
+
+/**
+ * Raster brush, all elements are painted directly on the {@link Graphics2D} of the board image.
+ *
+ * @author Jamison Jiang
+ */
+@SuppressWarnings("unchecked")
+public class RasterBrush implements Brush {
+
+  private final Graphics2D g2d;
+
+  private final RasterDrawBoard drawBoard;
+
+  RasterBrush(Graphics2D g2d, RasterDrawBoard drawBoard) {
+    Asserts.nullArgument(g2d, "g2d");
+    Asserts.nullArgument(drawBoard, "drawBoard");
+    this.g2d = g2d;
+    this.drawBoard = drawBoard;
+  }
+
+  /**
+   * Returns the graphics context of the board image.
+   *
+   * @return graphics context
+   */
+  public Graphics2D graphics() {
+    return g2d;
+  }
+
+  @Override
+  public RasterDrawBoard drawBoard() {
+    return drawBoard;
+  }
+}
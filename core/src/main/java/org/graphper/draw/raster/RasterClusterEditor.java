@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.awt.Shape;
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.ClusterAttrs;
+import org.graphper.api.attributes.ClusterShape;
+import org.graphper.api.attributes.ClusterShapeEnum;
+import org.graphper.api.attributes.ClusterStyle;
+import org.graphper.api.attributes.Color;
+import org.graphper.draw.ClusterDrawProp;
+import org.graphper.draw.ClusterEditor;
+import org.graphper.draw.svg.SvgEditor;
+import org.graphper.api.ext.RegularPolylinePropCalc;
+
+/**
+ * Paint the shape and label of cluster.
+ *
+ * @author Jamison Jiang
+ */
+class RasterClusterEditor implements ClusterEditor<RasterBrush> {
+
+  @Override
+  public boolean edit(ClusterDrawProp cluster, RasterBrush brush) {
+    ClusterAttrs clusterAttrs = cluster.getCluster().clusterAttrs();
+    if (clusterAttrs.getStyles().contains(ClusterStyle.INVIS)) {
+      return false;
+    }
+    cluster.check();
+
+    Shape shape = shape(cluster);
+    if (shape != null) {
+      double penWidth = SvgEditor.strokeWidth(
+          clusterAttrs.getPenWidth(), clusterAttrs.getStyles().contains(ClusterStyle.BOLD));
+      Color color = clusterAttrs.getColor() != null ? clusterAttrs.getColor() : Color.BLACK;
+      RasterEditor.draw(brush.graphics(), shape, clusterAttrs.getBgColor(), color, penWidth,
+                        dash(clusterAttrs));
+    }
+
+    String label = clusterAttrs.getLabel();
+    if (StringUtils.isNotEmpty(label)) {
+      RasterEditor.text(brush.graphics(), cluster.getLabelCenter(), clusterAttrs.getFontSize(),
+                        label, clusterAttrs.getFontColor(), clusterAttrs.getFontName(), null);
+    }
+    return true;
+  }
+
+  private Shape shape(ClusterDrawProp cluster) {
+    ClusterShape shape = cluster.getCluster().clusterAttrs().getShape();
+    // The regular polyline shapes with the specified sides are proxies of shape
+    if (shape.getShapePropCalc() instanceof RegularPolylinePropCalc) {
+      RegularPolylinePropCalc propCalc =
+          (RegularPolylinePropCalc) cluster.shapeProp().getShapePropCalc();
+      return RasterEditor.regular(propCalc.calcPoints(cluster));
+    }
+
+    double left = cluster.getLeftBorder();
+    double right = cluster.getRightBorder();
+    double up = cluster.getUpBorder();
+    double down = cluster.getDownBorder();
+    switch ((ClusterShapeEnum) shape) {
+      case ELLIPSE:
+        return RasterEditor.ellipse(cluster.getX(), cluster.getY(), cluster.getWidth() / 2,
+                                    cluster.getHeight() / 2);
+      case CIRCLE:
+        double radius = Math.min(cluster.getHeight() / 2, cluster.getWidth() / 2);
+        return RasterEditor.ellipse(cluster.getX(), cluster.getY(), radius, radius);
+      case RECT:
+        return RasterEditor.polygon(left, up, right, up, right, down, left, down, left, up);
+      case TRAPEZIUM:
+        return RasterEditor.polygon(left, down, left + cluster.getWidth() / 4, up,
+                                    right - cluster.getWidth() / 4, up, right, down, left, down);
+      case INVTRAPEZIUM:
+        return RasterEditor.polygon(left, up, left + cluster.getWidth() / 4, down,
+                                    right - cluster.getWidth() / 4, down, right, up, left, up);
+      case PARALLELOGRAM:
+        return RasterEditor.polygon(left, down, left + cluster.getWidth() / 5, up, right, up,
+                                    right - cluster.getWidth() / 5, down, left, down);
+      default:
+        return null;
+    }
+  }
+
+  private float[] dash(ClusterAttrs clusterAttrs) {
+    float[] dash = null;
+    for (ClusterStyle style : clusterAttrs.getStyles()) {
+      if (style == ClusterStyle.DASHED) {
+        dash = RasterEditor.DASHED;
+      } else if (style == ClusterStyle.DOTTED) {
+        dash = RasterEditor.DOTTED;
+      }
+    }
+    return dash;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.graphper.api.FileType;
+import org.graphper.api.GraphResource;
+import org.graphper.api.Line;
+import org.graphper.api.Node;
+import org.graphper.def.FlatPoint;
+import org.graphper.draw.ClusterDrawProp;
+import org.graphper.draw.DefaultGraphResource;
+import org.graphper.draw.DrawBoard;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.FailInitResourceException;
+import org.graphper.draw.GraphvizDrawProp;
+import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.NodeDrawProp;
+import org.graphper.util.Asserts;
+
+/**
+ * Raster draw board, paints the graph elements on a {@link BufferedImage} and encodes the image
+ * when the drawing is finished. The size and scale of image are the same as the image converted
+ * from the svg by {@link org.graphper.draw.common.DefaultImgConverter}.
+ *
+ * @author Jamison Jiang
+ */
+public class RasterDrawBoard
+    implements DrawBoard<RasterBrush, RasterBrush, RasterBrush, RasterBrush> {
+
+  private final DrawGraph drawGraph;
+
+  private final FileType imageType;
+
+  private final BufferedImage img;
+
+  private final RasterBrush brush;
+
+  public RasterDrawBoard(DrawGraph drawGraph, FileType imageType) {
+    Asserts.nullArgument(drawGraph, "DrawGraph");
+    Asserts.nullArgument(imageType, "imageType");
+    this.drawGraph = drawGraph;
+    this.imageType = imageType;
+
+    double width = drawGraph.width();
+    double height = drawGraph.height();
+    FlatPoint scale = drawGraph.getGraphviz().graphAttrs().getScale();
+    AffineTransform transform = new AffineTransform();
+    if (scale != null) {
+      width *= (scale.getX() / 10);
+      height *= (scale.getY() / 10);
+      transform.scale(scale.getX() * 0.13333, scale.getY() * 0.13333);
+    }
+
+    int w = (int) ((int) width * 1.3333);
+    int h = (int) ((int) height * 1.3333);
+    if (imageType == FileType.PNG) {
+      img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    } else {
+      img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+
+    Graphics2D g2d = img.createGraphics();
+    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g2d.setTransform(transform);
+    g2d.setBackground(Color.WHITE);
+    g2d.clearRect(0, 0, w, h);
+    brush = new RasterBrush(g2d, this);
+  }
+
+  @Override
+  public RasterBrush drawGraph(GraphvizDrawProp graphviz) {
+    return brush;
+  }
+
+  @Override
+  public RasterBrush drawCluster(ClusterDrawProp cluster) {
+    return brush;
+  }
+
+  @Override
+  public RasterBrush drawNode(NodeDrawProp node) {
+    return brush;
+  }
+
+  @Override
+  public RasterBrush drawLine(LineDrawProp line) {
+    return brush;
+  }
+
+  @Override
+  public boolean removeNode(Node node) {
+    return false;
+  }
+
+  @Override
+  public boolean removeLine(Line line) {
+    return false;
+  }
+
+  @Override
+  public synchronized GraphResource graphResource() throws FailInitResourceException {
+    brush.graphics().dispose();
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ImageIO.write(img, imageType.getType(), baos);
+      String label = drawGraph.getGraphviz().graphAttrs().getLabel();
+      return new DefaultGraphResource(label, imageType.getType(), baos);
+    } catch (IOException e) {
+      throw new FailInitResourceException(e);
+    }
+  }
+
+  public DrawGraph drawGraph() {
+    return drawGraph;
+  }
+}
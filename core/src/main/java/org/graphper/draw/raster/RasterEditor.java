@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import static org.graphper.util.FontUtils.DEFAULT_FONT;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.util.Collection;
+import java.util.List;
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.attributes.Color;
+import org.graphper.api.attributes.FontStyle;
+import org.graphper.def.FlatPoint;
+import org.graphper.draw.common.AWTextRender;
+import org.graphper.draw.svg.SvgEditor;
+import org.graphper.draw.svg.SvgEditor.TextAttribute;
+import org.graphper.util.CollectionUtils;
+import org.graphper.util.FontUtils;
+
+/**
+ * Raster paint help methods for graph element, keep the same appearance as the image converted
+ * from the svg elements.
+ *
+ * @author Jamison Jiang
+ */
+final class RasterEditor {
+
+  static final float[] DASHED = {5, 2};
+
+  static final float[] DOTTED = {1, 5};
+
+  private RasterEditor() {
+  }
+
+  /**
+   * Fill and stroke the shape, the stroke uses the fill color if no stroke color.
+   *
+   * @param g2d    graphics context
+   * @param shape  shape to draw, nothing is drawn if null
+   * @param fill   fill color, null means no fill
+   * @param stroke stroke color
+   * @param width  stroke width
+   * @param dash   dash pattern, null means solid line
+   */
+  static void draw(Graphics2D g2d, Shape shape, Color fill, Color stroke,
+                   double width, float[] dash) {
+    if (shape == null || (fill == null && stroke == null)) {
+      return;
+    }
+    if (width <= 0 && fill == null) {
+      return;
+    }
+
+    if (fill != null) {
+      g2d.setColor(awtColor(fill));
+      g2d.fill(shape);
+    }
+
+    if (dash != null) {
+      g2d.setStroke(new BasicStroke((float) width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND,
+                                    5.0f, dash, 0));
+    } else {
+      g2d.setStroke(new BasicStroke((float) width));
+    }
+    if (stroke != null) {
+      g2d.setColor(awtColor(stroke));
+    }
+    g2d.draw(shape);
+  }
+
+  /**
+   * Returns a closed polygon connecting the points in order.
+   *
+   * @param points the polygon points
+   * @return polygon shape
+   */
+  static Path2D polygon(double... points) {
+    Path2D.Double polygon = new Path2D.Double();
+    polygon.moveTo(points[0], points[1]);
+    for (int i = 2; i < points.length; i += 2) {
+      polygon.lineTo(points[i], points[i + 1]);
+    }
+    polygon.closePath();
+    return polygon;
+  }
+
+  /**
+   * Returns the ellipse of center and radius.
+   *
+   * @param cx center x
+   * @param cy center y
+   * @param rx horizontal radius
+   * @param ry vertical radius
+   * @return ellipse shape
+   */
+  static Ellipse2D ellipse(double cx, double cy, double rx, double ry) {
+    return new Ellipse2D.Double(cx - rx, cy - ry, 2 * rx, 2 * ry);
+  }
+
+  /**
+   * Returns the closed polygon of the points of regular shape.
+   *
+   * @param points the points of regular shape
+   * @return polygon shape, null if no points
+   */
+  static Path2D regular(List<FlatPoint> points) {
+    if (CollectionUtils.isEmpty(points)) {
+      return null;
+    }
+
+    double[] path = new double[points.size() * 2 + 2];
+    for (int i = 0; i < points.size(); i++) {
+      path[i * 2] = points.get(i).getX();
+      path[i * 2 + 1] = points.get(i).getY();
+    }
+    path[path.length - 2] = path[0];
+    path[path.length - 1] = path[1];
+    return polygon(path);
+  }
+
+  /**
+   * Returns the path of the points, every three points after the start point make up a cubic
+   * curve if the path is curve.
+   *
+   * @param points  path points
+   * @param isCurve if true, is a curve path
+   * @return path shape
+   */
+  static Path2D path(List<FlatPoint> points, boolean isCurve) {
+    Path2D.Double path = new Path2D.Double();
+    FlatPoint p = points.get(0);
+    if (isCurve) {
+      for (int i = 3; i < points.size(); i += 3) {
+        FlatPoint p1 = points.get(i - 3);
+        FlatPoint p2 = points.get(i - 2);
+        FlatPoint p3 = points.get(i - 1);
+        FlatPoint p4 = points.get(i);
+        path.append(new CubicCurve2D.Double(p1.getX(), p1.getY(), p2.getX(), p2.getY(),
+                                            p3.getX(), p3.getY(), p4.getX(), p4.getY()), true);
+      }
+      return path;
+    }
+
+    path.moveTo(p.getX(), p.getY());
+    for (int i = 1; i < points.size(); i++) {
+      p = points.get(i);
+      path.lineTo(p.getX(), p.getY());
+    }
+    return path;
+  }
+
+  /**
+   * Paint the label, each line of label is horizontally centered.
+   *
+   * @param g2d        graphics context
+   * @param center     label center
+   * @param fontSize   font size
+   * @param label      label content
+   * @param fontColor  font color, black if null
+   * @param fontName   font name
+   * @param fontStyles font styles of label, can be null
+   */
+  static void text(Graphics2D g2d, FlatPoint center, double fontSize, String label,
+                   Color fontColor, String fontName, Collection<FontStyle> fontStyles) {
+    int size = (int) fontSize;
+    int awtStyle = Font.PLAIN;
+    FontStyle decoration = null;
+    if (CollectionUtils.isNotEmpty(fontStyles)) {
+      for (FontStyle fontStyle : fontStyles) {
+        if (fontStyle == FontStyle.BOLD) {
+          awtStyle |= Font.BOLD;
+        } else if (fontStyle == FontStyle.ITALIC) {
+          awtStyle |= Font.ITALIC;
+        } else {
+          decoration = fontStyle;
+        }
+      }
+    }
+
+    java.awt.Color color = fontColor != null ? awtColor(fontColor) : java.awt.Color.BLACK;
+    int style = awtStyle;
+    FontStyle deco = decoration;
+    String name = StringUtils.isNotEmpty(fontName) && FontUtils.fontExists(fontName)
+        ? fontName : DEFAULT_FONT;
+    SvgEditor.text(new TextAttribute(center, fontSize, label, fontColor, fontName, line -> {
+      if (StringUtils.isEmpty(line.getLine())) {
+        return;
+      }
+
+      g2d.setColor(color);
+      g2d.setPaint(color);
+      // The spaces of svg text are written as no-break spaces
+      AWTextRender.drawCenter(g2d, line.getLine().replace(' ', '\u00A0'), line.getX(),
+                              line.getY(), name, size, style, deco);
+    }));
+  }
+
+  static java.awt.Color awtColor(Color color) {
+    String hex = color.value().substring(1);
+    if (hex.length() > 6) {
+      return new java.awt.Color((int) Long.parseLong(hex, 16), true);
+    }
+    return new java.awt.Color(Integer.parseInt(hex, 16));
+  }
+}
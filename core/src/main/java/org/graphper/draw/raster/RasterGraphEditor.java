@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.GraphAttrs;
+import org.graphper.api.attributes.Color;
+import org.graphper.draw.GraphEditor;
+import org.graphper.draw.GraphvizDrawProp;
+
+/**
+ * Paint the background and label of graph.
+ *
+ * @author Jamison Jiang
+ */
+class RasterGraphEditor implements GraphEditor<RasterBrush> {
+
+  @Override
+  public boolean edit(GraphvizDrawProp graphvizDrawProp, RasterBrush brush) {
+    GraphAttrs graphAttrs = graphvizDrawProp.getGraphviz().graphAttrs();
+
+    double leftBorder = graphvizDrawProp.getLeftBorder();
+    double rightBorder = graphvizDrawProp.getRightBorder();
+    double topBorder = graphvizDrawProp.getUpBorder();
+    double bottomBorder = graphvizDrawProp.getDownBorder();
+    Color bgColor = graphAttrs.getBgColor() != null ? graphAttrs.getBgColor() : Color.WHITE;
+    RasterEditor.draw(brush.graphics(),
+                      RasterEditor.polygon(leftBorder, topBorder, rightBorder, topBorder,
+                                           rightBorder, bottomBorder, leftBorder, bottomBorder,
+                                           leftBorder, topBorder),
+                      bgColor, null, 1, null);
+
+    String label = graphAttrs.getLabel();
+    if (StringUtils.isNotEmpty(label)) {
+      RasterEditor.text(brush.graphics(), graphvizDrawProp.getLabelCenter(),
+                        graphAttrs.getFontSize(), label, graphAttrs.getFontColor(),
+                        graphAttrs.getFontName(), null);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.LineAttrs;
+import org.graphper.api.attributes.ArrowShape;
+import org.graphper.api.attributes.Color;
+import org.graphper.api.attributes.LineStyle;
+import org.graphper.def.FlatPoint;
+import org.graphper.def.Vectors;
+import org.graphper.draw.ArrowDrawProp;
+import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.LineEditor;
+import org.graphper.draw.svg.SvgEditor;
+import org.graphper.util.CollectionUtils;
+
+/**
+ * Paint the path, arrows and label of line.
+ *
+ * @author Jamison Jiang
+ */
+class RasterLineEditor implements LineEditor<RasterBrush> {
+
+  @Override
+  public boolean edit(LineDrawProp lineDrawProp, RasterBrush brush) {
+    LineAttrs lineAttrs = lineDrawProp.lineAttrs();
+    if (lineAttrs.getStyles().contains(LineStyle.INVIS)) {
+      return false;
+    }
+
+    Graphics2D g2d = brush.graphics();
+    Color color = lineAttrs.getColor();
+    Double penWidth = lineAttrs.getPenWidth();
+    boolean haveBold = lineAttrs.getStyles().contains(LineStyle.BOLD);
+    if (penWidth != null) {
+      penWidth = SvgEditor.strokeWidth(penWidth, haveBold);
+    } else if (haveBold) {
+      penWidth = 2.0;
+    }
+    double width = penWidth != null ? penWidth : 1;
+
+    if (CollectionUtils.isNotEmpty(lineDrawProp)) {
+      List<FlatPoint> points = new ArrayList<>(lineDrawProp);
+      if (lineDrawProp.getStart() != null) {
+        points.set(0, lineDrawProp.getStart());
+      }
+      RasterEditor.draw(g2d, RasterEditor.path(points, lineDrawProp.isBesselCurve()), null,
+                        color, width, dash(lineAttrs));
+    }
+
+    if (lineDrawProp.getArrowHead() != null) {
+      drawArrow(g2d, lineDrawProp.getArrowHead(), lineAttrs.getArrowHead(), color, width);
+    }
+    if (lineDrawProp.getArrowTail() != null) {
+      drawArrow(g2d, lineDrawProp.getArrowTail(), lineAttrs.getArrowTail(), color, width);
+    }
+
+    String label = lineAttrs.getLabel();
+    if (StringUtils.isNotEmpty(label) && lineDrawProp.getLabelCenter() != null) {
+      Double fontSize = lineAttrs.getFontSize();
+      RasterEditor.text(g2d, lineDrawProp.getLabelCenter(), fontSize == null ? 0D : fontSize,
+                        label, lineAttrs.getFontColor(), lineAttrs.getFontName(), null);
+    }
+    return true;
+  }
+
+  private void drawArrow(Graphics2D g2d, ArrowDrawProp arrow, ArrowShape shape,
+                         Color color, double width) {
+    FlatPoint axisBegin = arrow.getAxisBegin();
+    FlatPoint axisEnd = arrow.getAxisEnd();
+    FlatPoint axis = Vectors.sub(axisBegin, axisEnd);
+    FlatPoint dirVector = new FlatPoint(-axis.getY(), axis.getX());
+    boolean posSlope = posSlope(axisBegin, axisEnd);
+    Color fill = shape.isNeedFill() ? color : Color.BLACK;
+
+    double offsetX;
+    double offsetY;
+    FlatPoint[] side;
+    switch (shape) {
+      case NORMAL:
+        offsetX = axis.dist() * Math.abs(dirVector.getX()) / (3 * dirVector.dist());
+        offsetY = axis.dist() * Math.abs(dirVector.getY()) / (3 * dirVector.dist());
+        side = arrowSide(posSlope, offsetX, offsetY, true, axisBegin);
+        RasterEditor.draw(g2d, RasterEditor.polygon(axisEnd.getX(), axisEnd.getY(),
+                                                    side[0].getX(), side[0].getY(),
+                                                    side[1].getX(), side[1].getY(),
+                                                    axisEnd.getX(), axisEnd.getY()),
+                          fill, color, width, null);
+        break;
+      case BOX:
+        offsetX = axis.dist() * Math.abs(dirVector.getX()) / (2 * dirVector.dist());
+        offsetY = axis.dist() * Math.abs(dirVector.getY()) / (2 * dirVector.dist());
+        side = arrowSide(posSlope, offsetX, offsetY, true, axisBegin);
+        FlatPoint[] endSide = arrowSide(posSlope, offsetX, offsetY, false, axisEnd);
+        RasterEditor.draw(g2d, RasterEditor.polygon(side[0].getX(), side[0].getY(),
+                                                    side[1].getX(), side[1].getY(),
+                                                    endSide[0].getX(), endSide[0].getY(),
+                                                    endSide[1].getX(), endSide[1].getY()),
+                          fill, color, width, null);
+        break;
+      case DOT:
+        double radius = axis.dist() / 2;
+        RasterEditor.draw(g2d, RasterEditor.ellipse((axisBegin.getX() + axisEnd.getX()) / 2,
+                                                    (axisBegin.getY() + axisEnd.getY()) / 2,
+                                                    radius, radius),
+                          fill, color, width, null);
+        break;
+      case VEE:
+        FlatPoint veeEndPoint = Vectors.add(axisBegin, axis);
+        axis.setX(axis.getX() * 2);
+        axis.setY(axis.getY() * 2);
+        dirVector = new FlatPoint(-axis.getY(), axis.getX());
+        offsetX = axis.dist() * Math.abs(dirVector.getX()) / (3 * dirVector.dist());
+        offsetY = axis.dist() * Math.abs(dirVector.getY()) / (3 * dirVector.dist());
+        side = arrowSide(posSlope, offsetX, offsetY, true, veeEndPoint);
+        RasterEditor.draw(g2d, RasterEditor.polygon(side[0].getX(), side[0].getY(),
+                                                    axisBegin.getX(), axisBegin.getY(),
+                                                    side[1].getX(), side[1].getY(),
+                                                    axisEnd.getX(), axisEnd.getY(),
+                                                    side[0].getX(), side[0].getY()),
+                          fill, color, width, null);
+        break;
+      case CURVE:
+        offsetX = axis.dist() * Math.abs(dirVector.getX()) / (2 * dirVector.dist());
+        offsetY = axis.dist() * Math.abs(dirVector.getY()) / (2 * dirVector.dist());
+        FlatPoint[] pair1 = arrowSide(posSlope, offsetX, offsetY, true, axisBegin);
+        FlatPoint[] pair2 = arrowSide(posSlope, offsetX, offsetY, true, axisEnd);
+        Color curveFill = shape.isNeedFill() ? color : null;
+        RasterEditor.draw(g2d, RasterEditor.path(
+                              Arrays.asList(pair1[0], pair1[0], pair2[0], axisEnd), true),
+                          curveFill, color, width, null);
+        RasterEditor.draw(g2d, RasterEditor.path(
+                              Arrays.asList(pair1[1], pair1[1], pair2[1], axisEnd), true),
+                          curveFill, color, width, null);
+        RasterEditor.draw(g2d, RasterEditor.path(Arrays.asList(axisBegin, axisEnd), false),
+                          curveFill, color, width, null);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private FlatPoint[] arrowSide(boolean posSlope, double offsetX, double offsetY,
+                                boolean pos, FlatPoint point) {
+    if (posSlope) {
+      if (pos) {
+        return new FlatPoint[]{
+            new FlatPoint(point.getX() - offsetX, point.getY() + offsetY),
+            new FlatPoint(point.getX() + offsetX, point.getY() - offsetY)
+        };
+      }
+
+      return new FlatPoint[]{
+          new FlatPoint(point.getX() + offsetX, point.getY() - offsetY),
+          new FlatPoint(point.getX() - offsetX, point.getY() + offsetY)
+      };
+    }
+
+    if (pos) {
+      return new FlatPoint[]{
+          new FlatPoint(point.getX() - offsetX, point.getY() - offsetY),
+          new FlatPoint(point.getX() + offsetX, point.getY() + offsetY)
+      };
+    }
+
+    return new FlatPoint[]{
+        new FlatPoint(point.getX() + offsetX, point.getY() + offsetY),
+        new FlatPoint(point.getX() - offsetX, point.getY() - offsetY)
+    };
+  }
+
+  private boolean posSlope(FlatPoint start, FlatPoint end) {
+    return start.getY() - end.getY() < 0 == start.getX() - end.getX() < 0;
+  }
+
+  private float[] dash(LineAttrs lineAttrs) {
+    float[] dash = null;
+    for (LineStyle style : lineAttrs.getStyles()) {
+      if (style == LineStyle.DASHED) {
+        dash = RasterEditor.DASHED;
+      } else if (style == LineStyle.DOTTED) {
+        dash = RasterEditor.DOTTED;
+      }
+    }
+    return dash;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.awt.Shape;
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.NodeAttrs;
+import org.graphper.api.attributes.Color;
+import org.graphper.api.attributes.NodeShape;
+import org.graphper.api.attributes.NodeShapeEnum;
+import org.graphper.api.attributes.NodeStyle;
+import org.graphper.api.ext.RegularPolylinePropCalc;
+import org.graphper.api.ext.StarPropCalc;
+import org.graphper.draw.NodeDrawProp;
+import org.graphper.draw.NodeEditor;
+import org.graphper.draw.svg.SvgEditor;
+
+/**
+ * Paint the shape and label of node.
+ *
+ * @author Jamison Jiang
+ */
+class RasterNodeEditor implements NodeEditor<RasterBrush> {
+
+  @Override
+  public boolean edit(NodeDrawProp nodeDrawProp, RasterBrush brush) {
+    NodeAttrs nodeAttrs = nodeDrawProp.nodeAttrs();
+    if (nodeAttrs.getStyles().contains(NodeStyle.INVIS)) {
+      return false;
+    }
+
+    NodeShape nodeShape = nodeAttrs.getShape();
+    if (nodeShape != NodeShapeEnum.PLAINTEXT && nodeShape != NodeShapeEnum.PLAIN) {
+      Color fillColor = nodeAttrs.getFillColor();
+      if (fillColor == null) {
+        fillColor = nodeShape.defaultFillColor();
+      }
+      RasterEditor.draw(brush.graphics(), shape(nodeDrawProp, nodeShape),
+                        fillColor, nodeAttrs.getColor(), penWidth(nodeAttrs), dash(nodeAttrs));
+    }
+
+    String label = nodeAttrs.getLabel();
+    if (StringUtils.isEmpty(label)
+        || nodeDrawProp.getLabelCenter() == null
+        || nodeShape.ignoreLabel()) {
+      return true;
+    }
+
+    double fontSize = nodeAttrs.getFontSize() == null ? 0D : nodeAttrs.getFontSize();
+    RasterEditor.text(brush.graphics(), nodeDrawProp.getLabelCenter(), fontSize, label,
+                      nodeAttrs.getFontColor(), nodeAttrs.getFontName(),
+                      nodeAttrs.getFontStyles());
+    return true;
+  }
+
+  private Shape shape(NodeDrawProp node, NodeShape nodeShape) {
+    // The regular polyline shapes with the specified sides are proxies of shape
+    if (nodeShape.getShapePropCalc() instanceof RegularPolylinePropCalc) {
+      RegularPolylinePropCalc propCalc = (RegularPolylinePropCalc) nodeShape.getShapePropCalc();
+      return RasterEditor.regular(propCalc.calcPoints(node));
+    }
+
+    double left = node.getLeftBorder();
+    double right = node.getRightBorder();
+    double up = node.getUpBorder();
+    double down = node.getDownBorder();
+    double x = node.getX();
+    double y = node.getY();
+    switch ((NodeShapeEnum) nodeShape) {
+      case ELLIPSE:
+        return RasterEditor.ellipse(x, y, node.getWidth() / 2, node.getHeight() / 2);
+      case CIRCLE:
+        double radius = Math.min(node.getHeight() / 2, node.getWidth() / 2);
+        return RasterEditor.ellipse(x, y, radius, radius);
+      case UNDERLINE:
+        return RasterEditor.polygon(left, down, right, down);
+      case BOX:
+      case RECT:
+        return RasterEditor.polygon(left, up, right, up, right, down, left, down, left, up);
+      case TRIANGLE:
+        return RasterEditor.polygon(x, up, left, down, right, down, x, up);
+      case INVTRIANGLE:
+        return RasterEditor.polygon(x, down, left, up, right, up, x, down);
+      case DIAMOND:
+        return RasterEditor.polygon(left, y, x, up, right, y, x, down, left, y);
+      case TRAPEZIUM:
+        return RasterEditor.polygon(left, down, left + node.getWidth() / 4, up,
+                                    right - node.getWidth() / 4, up, right, down, left, down);
+      case INVTRAPEZIUM:
+        return RasterEditor.polygon(left, up, left + node.getWidth() / 4, down,
+                                    right - node.getWidth() / 4, down, right, up, left, up);
+      case PARALLELOGRAM:
+        return RasterEditor.polygon(left, down, left + node.getWidth() / 5, up, right, up,
+                                    right - node.getWidth() / 5, down, left, down);
+      case STAR:
+        return star(node);
+      default:
+        return RasterEditor.ellipse(x, y, node.getHeight() / 2, node.getHeight() / 2);
+    }
+  }
+
+  private Shape star(NodeDrawProp node) {
+    double outerRadius = node.getHeight() / 2;
+    double innerRadius = outerRadius / StarPropCalc.IN_OUT_RATIO;
+
+    double arc = StarPropCalc.START_ARC;
+    double[] ps = new double[22];
+    for (int i = 0; i < 10; i++) {
+      double radius = i % 2 == 0 ? outerRadius : innerRadius;
+      ps[i * 2] = node.getX() + Math.cos(arc) * radius;
+      ps[i * 2 + 1] = node.getY() - Math.sin(arc) * radius;
+      arc += StarPropCalc.UNIT_ARC;
+    }
+    ps[20] = ps[0];
+    ps[21] = ps[1];
+    return RasterEditor.polygon(ps);
+  }
+
+  private double penWidth(NodeAttrs nodeAttrs) {
+    Double penWidth = nodeAttrs.getPenWidth();
+    boolean haveBold = nodeAttrs.getStyles().contains(NodeStyle.BOLD);
+    if (penWidth != null) {
+      return SvgEditor.strokeWidth(penWidth, haveBold);
+    }
+    return haveBold ? 2 : 1;
+  }
+
+  private float[] dash(NodeAttrs nodeAttrs) {
+    float[] dash = null;
+    for (NodeStyle style : nodeAttrs.getStyles()) {
+      if (style == NodeStyle.DASHED) {
+        dash = RasterEditor.DASHED;
+      } else if (style == NodeStyle.DOTTED) {
+        dash = RasterEditor.DOTTED;
+      }
+    }
+    return dash;
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.util.Collections;
+import java.util.List;
+import org.graphper.api.ClusterAttrs;
+import org.graphper.api.FileType;
+import org.graphper.api.GraphAttrs;
+import org.graphper.api.GraphResource;
+import org.graphper.api.LineAttrs;
+import org.graphper.api.NodeAttrs;
+import org.graphper.api.attributes.ClusterShape;
+import org.graphper.api.attributes.ClusterShapeEnum;
+import org.graphper.api.attributes.NodeShape;
+import org.graphper.api.attributes.NodeShapeEnum;
+import org.graphper.api.ext.RegularPolylinePropCalc;
+import org.graphper.draw.ClusterDrawProp;
+import org.graphper.draw.ClusterEditor;
+import org.graphper.draw.CustomizeShapeRender;
+import org.graphper.draw.DefaultPipelineFactory;
+import org.graphper.draw.DrawBoard;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.ExecuteException;
+import org.graphper.draw.GraphEditor;
+import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.LineEditor;
+import org.graphper.draw.NodeDrawProp;
+import org.graphper.draw.NodeEditor;
+import org.graphper.draw.PipelineFactory;
+import org.graphper.draw.PipelineRenderEngine;
+import org.graphper.draw.common.CommonRenderEngine;
+import org.graphper.draw.svg.shape.EllipseShapeRender;
+import org.graphper.layout.FlatShifterStrategy;
+import org.graphper.layout.ShifterStrategy;
+import org.graphper.util.CollectionUtils;
+
+/**
+ * Raster rendering engine, paints the {@link DrawGraph} directly on a {@link java.awt.Graphics2D}
+ * image without generating and parsing the svg document. The graphs using the features that
+ * only svg supports (records, tables, html labels, images, rounded shapes, custom shapes, etc.)
+ * and the non-raster file types are still rendered through {@link CommonRenderEngine}.
+ *
+ * @author Jamison Jiang
+ */
+public class RasterRenderEngine extends
+    PipelineRenderEngine<RasterBrush, RasterBrush, RasterBrush, RasterBrush> {
+
+  private static final RasterRenderEngine rasterRenderEngine;
+
+  static {
+    rasterRenderEngine = new RasterRenderEngine(new DefaultPipelineFactory());
+  }
+
+  protected RasterRenderEngine(PipelineFactory pipelineFactory) {
+    super(pipelineFactory);
+  }
+
+  public static RasterRenderEngine getInstance() {
+    return rasterRenderEngine;
+  }
+
+  /**
+   * Returns whether the file type can be painted by raster engine.
+   *
+   * @param fileType file type
+   * @return <tt>true</tt> if the file type is a raster image type
+   */
+  public static boolean supportFileType(FileType fileType) {
+    return fileType == FileType.PNG || fileType == FileType.JPG
+        || fileType == FileType.JPEG || fileType == FileType.GIF;
+  }
+
+  @Override
+  public GraphResource render0(DrawGraph drawGraph) throws ExecuteException {
+    Object attach = drawGraph.getAttach();
+    if (attach == null) {
+      drawGraph.setAttach(FileType.PNG);
+    } else if (!(attach instanceof FileType) || !supportFileType((FileType) attach)) {
+      return CommonRenderEngine.getInstance().render0(drawGraph);
+    }
+
+    if (!envSupport() || !supportGraph(drawGraph)) {
+      return CommonRenderEngine.getInstance().render0(drawGraph);
+    }
+    return super.render0(drawGraph);
+  }
+
+  @Override
+  protected List<NodeEditor<RasterBrush>> initNodeEditors() {
+    return Collections.singletonList(new RasterNodeEditor());
+  }
+
+  @Override
+  protected List<LineEditor<RasterBrush>> initLineEditors() {
+    return Collections.singletonList(new RasterLineEditor());
+  }
+
+  @Override
+  protected List<ClusterEditor<RasterBrush>> initClusterEditors() {
+    return Collections.singletonList(new RasterClusterEditor());
+  }
+
+  @Override
+  protected List<GraphEditor<RasterBrush>> initGraphEditors() {
+    return Collections.singletonList(new RasterGraphEditor());
+  }
+
+  @Override
+  protected DrawBoard<RasterBrush, RasterBrush, RasterBrush, RasterBrush> drawBoard(
+      DrawGraph drawGraph) {
+    return new RasterDrawBoard(drawGraph, (FileType) drawGraph.getAttach());
+  }
+
+  @Override
+  public List<ShifterStrategy> shifterStrategies(DrawGraph drawGraph) {
+    return Collections.singletonList(
+        new FlatShifterStrategy(-drawGraph.getMinX(), -drawGraph.getMinY())
+    );
+  }
+
+  @Override
+  public boolean needShift(DrawGraph drawGraph) {
+    if (drawGraph == null) {
+      return false;
+    }
+
+    return drawGraph.getLeftBorder() < 0 || drawGraph.getUpBorder() < 0;
+  }
+
+  private static boolean envSupport() {
+    try {
+      Class.forName("java.awt.Graphics2D");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  static boolean supportGraph(DrawGraph drawGraph) {
+    GraphAttrs graphAttrs = drawGraph.getGraphviz().graphAttrs();
+    if (graphAttrs.isShowGrid() || graphAttrs.getLabelTag() != null
+        || graphAttrs.getTable() != null || graphAttrs.getAssemble() != null
+        || drawGraph.getGraphvizDrawProp().getAssemble() != null) {
+      return false;
+    }
+
+    for (ClusterDrawProp cluster : drawGraph.clusters()) {
+      if (!supportCluster(cluster)) {
+        return false;
+      }
+    }
+    for (NodeDrawProp node : drawGraph.nodes()) {
+      if (!supportNode(node)) {
+        return false;
+      }
+    }
+    for (LineDrawProp line : drawGraph.lines()) {
+      if (!supportLine(line)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean supportCluster(ClusterDrawProp cluster) {
+    ClusterAttrs clusterAttrs = cluster.getCluster().clusterAttrs();
+    ClusterShape shape = clusterAttrs.getShape();
+    return (shape instanceof ClusterShapeEnum
+        || shape.getShapePropCalc() instanceof RegularPolylinePropCalc)
+        && builtInRender(shape.getName())
+        && !cluster.containsRounded()
+        && cluster.getAssemble() == null
+        && clusterAttrs.getLabelTag() == null
+        && clusterAttrs.getTable() == null
+        && clusterAttrs.getAssemble() == null;
+  }
+
+  private static boolean supportNode(NodeDrawProp node) {
+    NodeAttrs nodeAttrs = node.nodeAttrs();
+    NodeShape shape = nodeAttrs.getShape();
+    if (!builtInRender(shape.getName())) {
+      return false;
+    }
+    if (shape == NodeShapeEnum.NOTE || shape == NodeShapeEnum.CYLINDER
+        || shape == NodeShapeEnum.RECORD || shape == NodeShapeEnum.M_RECORD) {
+      return false;
+    }
+    if (!(shape instanceof NodeShapeEnum)
+        && !(shape.getShapePropCalc() instanceof RegularPolylinePropCalc)) {
+      return false;
+    }
+
+    return !node.containsRounded()
+        && node.isNotCellProp()
+        && node.getCell() == null
+        && node.getAssemble() == null
+        && nodeAttrs.getImage() == null
+        && nodeAttrs.getLabelTag() == null
+        && nodeAttrs.getTable() == null
+        && nodeAttrs.getAssemble() == null;
+  }
+
+  private static boolean supportLine(LineDrawProp line) {
+    LineAttrs lineAttrs = line.lineAttrs();
+    return CollectionUtils.isEmpty(line.getBoxes())
+        && !Boolean.TRUE.equals(lineAttrs.getControlPoints())
+        && line.getFloatLabelFlatCenters().isEmpty()
+        && lineAttrs.getLabelTag() == null
+        && lineAttrs.getTable() == null
+        && lineAttrs.getAssemble() == null
+        && line.getAssemble() == null
+        && !line.getFloatAssembles().iterator().hasNext();
+  }
+
+  private static boolean builtInRender(String shapeName) {
+    CustomizeShapeRender render = CustomizeShapeRender.getCustomizeShapeRender(shapeName);
+    return render == null || render.getClass().getName()
+        .startsWith(EllipseShapeRender.class.getPackage().getName() + ".");
+  }
+}
@@ -16,6 +16,9 @@
 
 package org.graphper.draw.svg;
 
+import java.util.function.BiConsumer;
+import org.graphper.util.Asserts;
+
 /**
  * The simplified {@link org.w3c.dom.Element} interface specially prepared for SVG settings. This
  * interface is intended for SVG-related use and is not recommended for general-purpose XML
@@ -91,6 +94,32 @@ public interface Element {
    */
   String toAttrStr();
 
+  /**
+   * Access all attributes of element in the order of setting, the values are escaped as
+   * {@link #toAttrStr()}. The default implementation reads the attributes back from
+   * {@link #toAttrStr()}.
+   *
+   * @param consumer attribute name and value consumer
+   */
+  default void accessAttrs(BiConsumer<String, String> consumer) {
+    Asserts.nullArgument(consumer, "consumer");
+    String attrs = toAttrStr();
+    if (attrs == null) {
+      return;
+    }
+
+    int start = 0;
+    int eq;
+    while ((eq = attrs.indexOf("=\"", start)) >= 0) {
+      int end = attrs.indexOf('"', eq + 2);
+      if (end < 0) {
+        return;
+      }
+      consumer.accept(attrs.substring(start, eq).trim(), attrs.substring(eq + 2, end));
+      start = end + 1;
+    }
+  }
+
   /**
    * Returns the text content of this element.
    *
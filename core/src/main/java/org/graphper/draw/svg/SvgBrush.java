@@ -126,6 +126,10 @@ public class SvgBrush implements Brush {
     return rootId;
   }
 
+  Element getElement() {
+    return element;
+  }
+
   /**
    * Retrieves a child element with the specified ID and tag name under the current root element
    * represented by this {@code SvgBrush}. If the element does not exist, it will be created and
@@ -74,22 +74,48 @@ public final class SvgDocument implements SvgConstants, Document, Serializable {
     StringBuilder xml = new StringBuilder();
     xml.append(XML_VERSION);
     xml.append(DOC_TYPE);
-    BiConsumer<Element, List<Element>> consumer = (ele, children) -> {
-      String attr = ele.toAttrStr();
-      xml.append(LT).append(ele.tagName());
-      if (attr != null) {
-        xml.append(attr);
-      }
-      xml.append(GT);
-      if (ele.textContext() != null) {
-        xml.append(ele.textContext());
-      }
-    };
-
-    accessEles(consumer, ele -> xml.append(LT).append(SLASH).append(ele.tagName()).append(GT));
+    accessEles((ele, children) -> appendStartTag(xml, ele), ele -> appendEndTag(xml, ele));
     return xml.toString();
   }
 
+  /**
+   * Returns the xml of the element and all its descendants, then remove them from the document.
+   * The document can be written element by element in this way, only the elements not written are
+   * kept in memory.
+   *
+   * @param element the element to write
+   * @return the xml of element
+   */
+  String detach(Element element) {
+    Asserts.nullArgument(element, "element");
+    StringBuilder xml = new StringBuilder();
+    accessEle(element, groupByParent(), (ele, children) -> appendStartTag(xml, ele), ele -> {
+      appendEndTag(xml, ele);
+      elementMap.remove(ele.id());
+    });
+    return xml.toString();
+  }
+
+  static String prolog() {
+    return XML_VERSION + DOC_TYPE;
+  }
+
+  static void appendStartTag(StringBuilder xml, Element ele) {
+    String attr = ele.toAttrStr();
+    xml.append(LT).append(ele.tagName());
+    if (attr != null) {
+      xml.append(attr);
+    }
+    xml.append(GT);
+    if (ele.textContext() != null) {
+      xml.append(ele.textContext());
+    }
+  }
+
+  static void appendEndTag(StringBuilder xml, Element ele) {
+    xml.append(LT).append(SLASH).append(ele.tagName()).append(GT);
+  }
+
   @Override
   public void accessEles(BiConsumer<Element, List<Element>> consumer) {
     accessEles(consumer, null);
@@ -101,6 +127,18 @@ public final class SvgDocument implements SvgConstants, Document, Serializable {
       return;
     }
 
+    Map<Element, List<Element>> groups = groupByParent();
+    List<Element> roots = groups.get(null);
+    if (CollectionUtils.isEmpty(roots)) {
+      return;
+    }
+
+    for (Element root : roots) {
+      accessEle(root, groups, preConsumer, postConsumer);
+    }
+  }
+
+  private Map<Element, List<Element>> groupByParent() {
     Map<Element, List<Element>> groups = new LinkedHashMap<>();
     for (SvgElement element : elementMap.values()) {
       groups.compute(element.parent(), (k, v) -> {
@@ -111,14 +149,7 @@ public final class SvgDocument implements SvgConstants, Document, Serializable {
         return v;
       });
     }
-    List<Element> roots = groups.get(null);
-    if (CollectionUtils.isEmpty(roots)) {
-      return;
-    }
-
-    for (Element root : roots) {
-      accessEle(root, groups, preConsumer, postConsumer);
-    }
+    return groups;
   }
 
   private void accessEle(Element element, Map<Element, List<Element>> groups,
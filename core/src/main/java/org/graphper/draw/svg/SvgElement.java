@@ -21,6 +21,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 import org.apache_gs.commons.text.StringEscapeUtils;
 import org.graphper.util.Asserts;
 
@@ -125,6 +126,15 @@ public final class SvgElement implements SvgConstants, Element, Serializable {
     return attrVal.toString();
   }
 
+  @Override
+  public void accessAttrs(BiConsumer<String, String> consumer) {
+    Asserts.nullArgument(consumer, "consumer");
+    if (attr == null) {
+      return;
+    }
+    attr.forEach(consumer);
+  }
+
   @Override
   public String textContext() {
     return textContent;
@@ -16,6 +16,7 @@
 
 package org.graphper.draw.svg;
 
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -123,6 +124,10 @@ public class SvgRenderEngine extends
 
   @Override
   protected DrawBoard<SvgBrush, SvgBrush, SvgBrush, SvgBrush> drawBoard(DrawGraph drawGraph) {
+    Object attach = drawGraph.getAttach();
+    if (attach instanceof Writer) {
+      return new SvgStreamDrawBoard(drawGraph, (Writer) attach);
+    }
     return new SvgDrawBoard(drawGraph);
   }
 
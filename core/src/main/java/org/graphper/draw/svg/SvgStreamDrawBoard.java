@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.svg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import org.graphper.api.FileType;
+import org.graphper.api.GraphResource;
+import org.graphper.draw.Brush;
+import org.graphper.draw.DefaultGraphResource;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.FailInitResourceException;
+import org.graphper.util.Asserts;
+
+/**
+ * Svg draw board which writes the svg to a {@link Writer} directly. When all editors of a graph
+ * element finished, the elements of the graph element are written and removed from the document,
+ * so the memory is only occupied by the graph element being drawn rather than the whole document.
+ * The written content is the same as {@link SvgDrawBoard}.
+ *
+ * <p>The {@link #graphResource()} completes the svg and flushes the writer, but the writer is not
+ * closed, and the returned resource is empty since the content has been written to the writer.
+ *
+ * @author Jamison Jiang
+ */
+public class SvgStreamDrawBoard extends SvgDrawBoard {
+
+  private final Writer writer;
+
+  private boolean started;
+
+  public SvgStreamDrawBoard(DrawGraph drawGraph, Writer writer) {
+    super(drawGraph);
+    Asserts.nullArgument(writer, "writer");
+    this.writer = writer;
+  }
+
+  @Override
+  public synchronized void drawFinish(Brush brush) {
+    Asserts.illegalArgument(!(brush instanceof SvgBrush), "Unsupported brush " + brush);
+    try {
+      writeStart();
+      writer.write(svgDocument.detach(((SvgBrush) brush).getElement()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized GraphResource graphResource() throws FailInitResourceException {
+    try {
+      writeStart();
+      StringBuilder xml = new StringBuilder();
+      SvgDocument.appendEndTag(xml, graphElement);
+      SvgDocument.appendEndTag(xml, graphElement.parent());
+      writer.write(xml.toString());
+      writer.flush();
+    } catch (IOException e) {
+      throw new FailInitResourceException(e);
+    }
+
+    String label = drawGraph.getGraphviz().graphAttrs().getLabel();
+    return new DefaultGraphResource(label != null ? label : "graphviz", FileType.SVG.getType(),
+                                    new ByteArrayOutputStream(0));
+  }
+
+  private void writeStart() throws IOException {
+    if (started) {
+      return;
+    }
+
+    // The attributes of graph root are completed when drawing the graph
+    StringBuilder xml = new StringBuilder(SvgDocument.prolog());
+    SvgDocument.appendStartTag(xml, graphElement.parent());
+    SvgDocument.appendStartTag(xml, graphElement);
+    writer.write(xml.toString());
+    started = true;
+  }
+}
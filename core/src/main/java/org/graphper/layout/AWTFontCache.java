@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout;
+
+import java.awt.Font;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of {@link Font} instances keyed by font name, style and size. Creating a
+ * {@code Font} is not free and the same few fonts are used by every label of a graph, so all text
+ * measurement and text drawing based on {@code java.awt} should get fonts from here.
+ *
+ * @author Jamison Jiang
+ */
+public final class AWTFontCache {
+
+  private static final Map<FontKey, Font> FONTS = new ConcurrentHashMap<>();
+
+  private AWTFontCache() {
+  }
+
+  /**
+   * Returns the cached font, the font is created at the first time.
+   *
+   * @param fontName the font name
+   * @param style    the style of font, like {@link Font#BOLD}
+   * @param size     the font size
+   * @return the font of the name, style and size
+   */
+  public static Font get(String fontName, int style, int size) {
+    return FONTS.computeIfAbsent(new FontKey(fontName, style, size),
+                                 k -> new Font(k.fontName, k.style, k.size));
+  }
+
+  /**
+   * Returns the number of cached fonts.
+   *
+   * @return cached font number
+   */
+  public static int size() {
+    return FONTS.size();
+  }
+
+  private static final class FontKey {
+
+    private final String fontName;
+
+    private final int style;
+
+    private final int size;
+
+    private FontKey(String fontName, int style, int size) {
+      this.fontName = fontName;
+      this.style = style;
+      this.size = size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      FontKey fontKey = (FontKey) o;
+      return style == fontKey.style && size == fontKey.size
+          && Objects.equals(fontName, fontKey.fontName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fontName, style, size);
+    }
+  }
+}
@@ -25,8 +25,6 @@ import java.awt.Font;
 import java.awt.GraphicsEnvironment;
 import java.awt.font.FontRenderContext;
 import java.awt.geom.Rectangle2D;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.attributes.FontStyle;
 import org.graphper.def.FlatPoint;
@@ -43,7 +41,7 @@ import org.graphper.def.FlatPoint;
  */
 public class AWTMeasureText extends AbstractFontSelector implements MeasureText, FontSelector {
 
-  private volatile Map<String, Font> fontCache;
+  private static final FontRenderContext RENDER_CONTEXT = new FontRenderContext(null, true, true);
 
   /**
    * Constructs an instance of {@code AWTMeasureText}.
@@ -98,8 +96,7 @@ public class AWTMeasureText extends AbstractFontSelector implements MeasureText,
     }
 
     fontName = exists(fontName) ? fontName : DEFAULT_FONT;
-    Font font = new Font(fontName, toFontStyleTag(fontStyles), (int) fontSize);
-    FontRenderContext renderContext = new FontRenderContext(null, true, true);
+    Font font = AWTFontCache.get(fontName, toFontStyleTag(fontStyles), (int) fontSize);
 
     String[] lines = text.split(NEW_LINE_SYMBOL);
     double maxWidth = 0;
@@ -107,7 +104,7 @@ public class AWTMeasureText extends AbstractFontSelector implements MeasureText,
 
     // Loop through each line and calculate max width and total height
     for (String line : lines) {
-      Rectangle2D bounds = font.getStringBounds(line, renderContext);
+      Rectangle2D bounds = font.getStringBounds(line, RENDER_CONTEXT);
       maxWidth = Math.max(bounds.getWidth(), maxWidth);
       totalHeight += bounds.getHeight();
     }
@@ -133,7 +130,8 @@ public class AWTMeasureText extends AbstractFontSelector implements MeasureText,
   /**
    * Checks if a specific font supports rendering a given character.
    *
-   * <p>This method uses a cache to store {@link Font} objects for efficient repeated checks.</p>
+   * <p>This method uses {@link AWTFontCache} to reuse {@link Font} objects for efficient repeated
+   * checks.</p>
    *
    * @param fontName the name of the font
    * @param c        the character to check
@@ -145,16 +143,7 @@ public class AWTMeasureText extends AbstractFontSelector implements MeasureText,
       return false;
     }
 
-    if (fontCache == null) {
-      synchronized (this) {
-        if (fontCache == null) {
-          fontCache = new ConcurrentHashMap<>();
-        }
-      }
-    }
-
-    Font font = fontCache.computeIfAbsent(fontName, fn -> new Font(fn, Font.PLAIN, 0));
-    return font.canDisplay(c);
+    return AWTFontCache.get(fontName, Font.PLAIN, 0).canDisplay(c);
   }
 
   private int toFontStyleTag(FontStyle... fontStyles) {
@@ -39,6 +39,22 @@ public abstract class AbstractFontSelector implements FontSelector {
 
   private LinkedHashSet<String> allAvailableFonts;
 
+  /*
+   * Coverage index of the first support font of every char, split into blocks of 256 chars which
+   * are created when the first char of block is queried. Data races only cause a char to be
+   * looked up again, the result is always the same.
+   */
+  private final String[][] firstSupportFonts = new String[BLOCK_COUNT][];
+
+  private static final int BLOCK_BITS = 8;
+
+  private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+  private static final int BLOCK_COUNT = (Character.MAX_VALUE + 1) >> BLOCK_BITS;
+
+  // Marks the char not supported by any font, must be compared by reference
+  private static final String NO_FONT = new String("");
+
   protected AbstractFontSelector() {
   }
   
@@ -101,13 +117,41 @@ public abstract class AbstractFontSelector implements FontSelector {
   @Override
   public String findFirstSupportFont(char c) {
     possiblyLoad();
+    String[] block = firstSupportFonts[c >> BLOCK_BITS];
+    if (block == null) {
+      block = new String[BLOCK_SIZE];
+      firstSupportFonts[c >> BLOCK_BITS] = block;
+    }
+
+    String font = block[c & (BLOCK_SIZE - 1)];
+    if (font == null) {
+      font = searchFirstSupportFont(c);
+      block[c & (BLOCK_SIZE - 1)] = font;
+    }
+    return font == NO_FONT ? null : font;
+  }
+
+  /**
+   * Builds the coverage index of all chars in the range, so that the font selection of these chars
+   * no longer checks the system fonts one by one.
+   *
+   * @param start the first char, inclusive
+   * @param end   the last char, inclusive
+   */
+  @Override
+  public void warmUp(char start, char end) {
+    for (int c = start; c <= end; c++) {
+      findFirstSupportFont((char) c);
+    }
+  }
+
+  private String searchFirstSupportFont(char c) {
     for (String font : allAvailableFonts) {
       if (fontSupport(font, c)) {
         return font;
       }
     }
-
-    return null;
+    return NO_FONT;
   }
 
   private void initFontComparator() {
@@ -16,8 +16,6 @@
 
 package org.graphper.layout;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -51,16 +49,15 @@ import org.graphper.draw.DrawGraph;
 import org.graphper.draw.ExecuteException;
 import org.graphper.draw.GraphvizDrawProp;
 import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.MetricsListener;
+import org.graphper.draw.MetricsListener.Phase;
 import org.graphper.draw.NodeDrawProp;
 import org.graphper.draw.RenderEngine;
 import org.graphper.layout.Cell.RootCell;
 import org.graphper.util.Asserts;
-import org.graphper.util.ClassUtils;
 import org.graphper.util.CollectionUtils;
 import org.graphper.util.FontUtils;
 import org.graphper.util.GraphvizUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Layout engine common template.
@@ -69,33 +66,6 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class AbstractLayoutEngine implements LayoutEngine {
 
-  private static final Logger log = LoggerFactory.getLogger(AbstractLayoutEngine.class);
-
-  /**
-   * Node default attribute value map.
-   */
-  private static final Map<String, Object> DEFAULT_NODE_ATTRS_MAP;
-
-  /**
-   * Node default attribute value map.
-   */
-  private static final Map<String, Object> DEFAULT_CELL_ATTRS_MAP;
-
-  /**
-   * Line default attribute value map.
-   */
-  private static final Map<String, Object> DEFAULT_LINE_ATTRS_MAP;
-
-  static {
-    try {
-      DEFAULT_NODE_ATTRS_MAP = ClassUtils.propValMap(DefaultVal.DEFAULT_NODE_ATTRS);
-      DEFAULT_CELL_ATTRS_MAP = ClassUtils.propValMap(DefaultVal.DEFAULT_CELL_ATTRS);
-      DEFAULT_LINE_ATTRS_MAP = ClassUtils.propValMap(DefaultVal.DEFAULT_LINE_ATTRS);
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException("Unable to set default properties", e);
-    }
-  }
-
   public static void nodeLabelSet(NodeDrawProp nodeDrawProp, DrawGraph drawGraph,
                                   boolean needSetCenter) {
     if (nodeDrawProp == null || drawGraph == null) {
@@ -177,6 +147,8 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
     Map<Node, Integer> nodeId = new HashMap<>(graphviz.nodeNum());
     Map<Line, Integer> lineId = new HashMap<>(graphviz.lineNum());
     Map<GraphContainer, Integer> clusterId = new HashMap<>(graphviz.clusters().size());
+    MetricsListener metrics = drawGraph.metrics();
+    long start = System.nanoTime();
 
     /*
      * For each container it recurses into, get all nodes and lines, and initialize node and line
@@ -202,6 +174,7 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
 
     // Graphviz handle
     handleGraphviz(attachment, nodeId, drawGraph);
+    metrics.phase(Phase.TEMPLATE_COPY, null, System.nanoTime() - start);
 
     // The corresponding layout engine executes.
     layout(drawGraph, attachment);
@@ -427,13 +400,12 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
 
     try {
       if (isCell) {
-        copyTempProperties(nodeAttrs, null, DEFAULT_CELL_ATTRS_MAP);
+        AttrsTemplate.CELL.apply(nodeAttrs, null);
       } else {
         // Set template properties
-        copyTempProperties(
+        AttrsTemplate.NODE.apply(
             nodeAttrs,
-            findFirstHaveTempParent(drawGraph.getGraphviz(), true, container),
-            DEFAULT_NODE_ATTRS_MAP
+            findFirstHaveTempParent(drawGraph.getGraphviz(), true, container)
         );
       }
     } catch (IllegalAccessException e) {
@@ -550,10 +522,9 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
 
     try {
       // Set template properties
-      copyTempProperties(
+      AttrsTemplate.LINE.apply(
           lineAttrs,
-          findFirstHaveTempParent(drawGraph.getGraphviz(), false, container),
-          DEFAULT_LINE_ATTRS_MAP
+          findFirstHaveTempParent(drawGraph.getGraphviz(), false, container)
       );
     } catch (IllegalAccessException e) {
       throw new IllegalArgumentException("Failed to access template property", e);
@@ -754,66 +725,6 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
     return nodeAttrs.getFontSize() != null ? nodeAttrs.getFontSize() : 0D;
   }
 
-  @SuppressWarnings("all")
-  private void copyTempProperties(Object attrs, GraphContainer container,
-                                  Map<String, Object> defaultVal) throws IllegalAccessException {
-    Objects.requireNonNull(defaultVal);
-    if (attrs == null) {
-      return;
-    }
-
-    NodeShape nodeShape = null;
-    Field nodeShapeField = null;
-    Class<?> cls = attrs.getClass();
-    Field[] fields = cls.getDeclaredFields();
-    for (Field field : fields) {
-      if (Modifier.isStatic(field.getModifiers())) {
-        continue;
-      }
-
-      field.setAccessible(true);
-      Object v = field.get(attrs);
-      if (v == null) {
-        Object propVal;
-        if (container == null) {
-          propVal = null;
-        } else if (attrs instanceof NodeAttrs) {
-          propVal = container.getNodeAttr(field.getName());
-        } else {
-          propVal = container.getLineAttr(field.getName());
-        }
-        propVal = propVal != null ? propVal : defaultVal.get(field.getName());
-
-        if (propVal == null) {
-          field.setAccessible(false);
-          continue;
-        } else if (Objects.equals("assemble", field.getName())
-            || Objects.equals("table", field.getName())) {
-          log.warn("Can not copy " + field.getName() + " attribute!");
-          field.setAccessible(false);
-          continue;
-        }
-
-        field.set(attrs, propVal);
-        field.setAccessible(false);
-        v = propVal;
-      }
-
-      if (v instanceof NodeShape) {
-        nodeShape = (NodeShape) v;
-        nodeShapeField = field;
-      }
-    }
-
-    // Compile a new NodeShape description function
-    if (nodeShape != null && attrs instanceof NodeAttrs) {
-      nodeShapeField.setAccessible(true);
-      // Node post shape
-      nodeShapeField.set(attrs, nodeShape.post((NodeAttrs) attrs));
-      nodeShapeField.setAccessible(false);
-    }
-  }
-
   private void moveGraph(DrawGraph drawGraph, RenderEngine renderEngine, LayoutAttach attach) {
     List<ShifterStrategy> layoutShifters = shifterStrategies(drawGraph);
 
@@ -908,6 +819,7 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
     }
 
     public void clipAllLines() {
+      long start = System.nanoTime();
       for (LineDrawProp line : drawGraph.lines()) {
         PathClip pathClip;
         if (line.isBesselCurve()) {
@@ -933,6 +845,7 @@ public abstract class AbstractLayoutEngine implements LayoutEngine {
       }
 
       drawGraph.syncToGraphvizBorder();
+      drawGraph.metrics().phase(Phase.LINE_CLIP, null, System.nanoTime() - start);
     }
   }
 }
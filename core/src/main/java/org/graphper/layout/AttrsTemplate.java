@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.graphper.api.GraphContainer;
+import org.graphper.api.LineAttrs;
+import org.graphper.api.NodeAttrs;
+import org.graphper.api.attributes.NodeShape;
+import org.graphper.util.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies the template attributes of container and the default attributes to the unset fields of
+ * {@link NodeAttrs} or {@link LineAttrs}. The fields of attributes class are resolved only once,
+ * and the template of each container is resolved into an array in the order of fields, so that
+ * applying the template to an attributes object only needs one read per field.
+ *
+ * @author Jamison Jiang
+ */
+final class AttrsTemplate {
+
+  private static final Logger log = LoggerFactory.getLogger(AttrsTemplate.class);
+
+  static final AttrsTemplate NODE = new AttrsTemplate(NodeAttrs.class, true,
+                                                      DefaultVal.DEFAULT_NODE_ATTRS);
+
+  static final AttrsTemplate CELL = new AttrsTemplate(NodeAttrs.class, true,
+                                                      DefaultVal.DEFAULT_CELL_ATTRS);
+
+  static final AttrsTemplate LINE = new AttrsTemplate(LineAttrs.class, false,
+                                                      DefaultVal.DEFAULT_LINE_ATTRS);
+
+  private final Field[] fields;
+
+  // Whether the field can be copied from template
+  private final boolean[] copyable;
+
+  private final boolean nodeTemp;
+
+  // The template values only have default values
+  private final Object[] defaultTemp;
+
+  // The template values of containers, the templates of built container never change. The map is
+  // never modified after published, so reads are lock free, and a write copies it under the lock
+  // and drops the collected containers
+  private volatile Map<ContainerRef, Object[]> containerTemps = Collections.emptyMap();
+
+  private AttrsTemplate(Class<?> attrsClass, boolean nodeTemp, Object defaultAttrs) {
+    List<Field> fieldList = new ArrayList<>();
+    for (Field field : attrsClass.getDeclaredFields()) {
+      if (Modifier.isStatic(field.getModifiers())) {
+        continue;
+      }
+      field.setAccessible(true);
+      fieldList.add(field);
+    }
+
+    this.fields = fieldList.toArray(new Field[0]);
+    this.copyable = new boolean[fields.length];
+    this.nodeTemp = nodeTemp;
+    this.defaultTemp = new Object[fields.length];
+    Map<String, Object> defaultVal;
+    try {
+      defaultVal = ClassUtils.propValMap(defaultAttrs);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Unable to set default properties", e);
+    }
+    for (int i = 0; i < fields.length; i++) {
+      String name = fields[i].getName();
+      copyable[i] = !"assemble".equals(name) && !"table".equals(name);
+      defaultTemp[i] = defaultVal.get(name);
+    }
+  }
+
+  /**
+   * Copies the template values of container to the unset fields of attributes, the default value
+   * is used if the container not have template value of field.
+   *
+   * @param attrs     node or line attributes
+   * @param container the container have template, null means only use default values
+   * @throws IllegalAccessException failed to access the field
+   */
+  void apply(Object attrs, GraphContainer container) throws IllegalAccessException {
+    if (attrs == null) {
+      return;
+    }
+
+    Object[] temp = container == null ? defaultTemp : containerTemp(container);
+    NodeShape nodeShape = null;
+    Field nodeShapeField = null;
+    for (int i = 0; i < fields.length; i++) {
+      Field field = fields[i];
+      Object v = field.get(attrs);
+      if (v == null) {
+        v = temp[i];
+        if (v == null) {
+          continue;
+        }
+        if (!copyable[i]) {
+          log.warn("Can not copy " + field.getName() + " attribute!");
+          continue;
+        }
+        field.set(attrs, v);
+      }
+
+      if (v instanceof NodeShape) {
+        nodeShape = (NodeShape) v;
+        nodeShapeField = field;
+      }
+    }
+
+    // Compile a new NodeShape description function
+    if (nodeShape != null && attrs instanceof NodeAttrs) {
+      // Node post shape
+      nodeShapeField.set(attrs, nodeShape.post((NodeAttrs) attrs));
+    }
+  }
+
+  private Object[] containerTemp(GraphContainer container) {
+    ContainerRef ref = new ContainerRef(container);
+    Object[] temp = containerTemps.get(ref);
+    if (temp != null) {
+      return temp;
+    }
+
+    temp = new Object[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      String name = fields[i].getName();
+      Object v = nodeTemp ? container.getNodeAttr(name) : container.getLineAttr(name);
+      temp[i] = v != null ? v : defaultTemp[i];
+    }
+    putContainerTemp(ref, temp);
+    return temp;
+  }
+
+  private synchronized void putContainerTemp(ContainerRef ref, Object[] temp) {
+    Map<ContainerRef, Object[]> temps = new HashMap<>(containerTemps.size() * 2 + 2);
+    for (Entry<ContainerRef, Object[]> entry : containerTemps.entrySet()) {
+      if (entry.getKey().get() != null) {
+        temps.put(entry.getKey(), entry.getValue());
+      }
+    }
+    temps.putIfAbsent(ref, temp);
+    containerTemps = temps;
+  }
+
+  // Weak key of container compared by identity
+  private static class ContainerRef extends WeakReference<GraphContainer> {
+
+    private final int hash;
+
+    ContainerRef(GraphContainer container) {
+      super(container);
+      this.hash = System.identityHashCode(container);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ContainerRef)) {
+        return false;
+      }
+      GraphContainer container = get();
+      return container != null && container == ((ContainerRef) o).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package org.graphper.layout;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -29,7 +30,9 @@ import org.graphper.def.FlatPoint;
 import org.graphper.draw.Rectangle;
 import org.graphper.util.CollectionUtils;
 
-public class Cell {
+public class Cell implements Serializable {
+
+  private static final long serialVersionUID = 3185927604315806274L;
 
   protected final boolean isHor;
 
@@ -207,6 +210,8 @@ public class Cell {
 
   public static class RootCell extends Cell {
 
+    private static final long serialVersionUID = -5271840496356815239L;
+
     private Map<String, Cell> idRecord;
 
     public RootCell(boolean isHor) {
@@ -63,4 +63,14 @@ public interface FontSelector extends EnvStrategy {
   default String findFirstSupportFont(char c) {
     return defaultFont();
   }
+
+  /**
+   * Prepares the font selection of the chars in the range, for example, building an index of the
+   * fonts which support each char. The default implementation does nothing.
+   *
+   * @param start the first char, inclusive
+   * @param end   the last char, inclusive
+   */
+  default void warmUp(char start, char end) {
+  }
 }
@@ -28,6 +28,7 @@ import org.graphper.def.UnaryConcatIterable;
 import org.graphper.def.FlatPoint;
 import org.graphper.draw.DrawGraph;
 import org.graphper.draw.GraphvizDrawProp;
+import org.graphper.draw.MetricsListener.Counter;
 import org.graphper.layout.Grid.GridAxis;
 import org.graphper.layout.Grid.GridBuilder;
 import org.graphper.layout.OrthoVisGraph.GridVertex;
@@ -80,6 +81,7 @@ public abstract class Maze {
     // Add obstacle record for grid
     if (checkMaze) {
       createOrthoVisGraph(gridBuilder);
+      drawGraph.metrics().count(Counter.MAZE_VERTICES, ovg.nodeNum());
     }
   }
 
@@ -16,6 +16,7 @@
 
 package org.graphper.layout;
 
+import java.io.Serializable;
 import java.util.Objects;
 import java.util.TreeSet;
 import org.graphper.api.attributes.Splines;
@@ -186,7 +187,9 @@ public class OrthoVisGraph {
 		}
 	}
 
-	public static class Segment {
+	public static class Segment implements Serializable {
+
+		private static final long serialVersionUID = -6021950911375422158L;
 
 		private FlatPoint start;
 		private FlatPoint end;
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A read-only view of the metrics of a TrueType/OpenType font file, only the tables used to
+ * measure text are read: {@code head}, {@code hhea}, {@code hmtx}, {@code cmap} and {@code name}.
+ * The font file is memory-mapped, and the advance of each char is cached after the first lookup.
+ *
+ * @author Jamison Jiang
+ */
+final class TrueTypeFont {
+
+  private static final int TTC_TAG = 0x74746366;
+
+  private static final int HEAD_TAG = 0x68656164;
+
+  private static final int HHEA_TAG = 0x68686561;
+
+  private static final int HMTX_TAG = 0x686D7478;
+
+  private static final int CMAP_TAG = 0x636D6170;
+
+  private static final int NAME_TAG = 0x6E616D65;
+
+  private static final int BLOCK_BITS = 8;
+
+  private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+  private final ByteBuffer buffer;
+
+  private final String family;
+
+  private final boolean bold;
+
+  private final boolean italic;
+
+  private final int unitsPerEm;
+
+  private final int lineHeight;
+
+  private final int hmtxOffset;
+
+  private final int numberOfHMetrics;
+
+  // cmap subtable offset, format 4 or format 12
+  private final int cmapOffset;
+
+  private final int cmapFormat;
+
+  // Advance in em of each BMP char, NaN means no glyph and 0 means not looked up yet, a zero
+  // advance is stored as -0, so a block read by other thread before its writes is still valid
+  private final float[][] advances = new float[(Character.MAX_VALUE + 1) >> BLOCK_BITS][];
+
+  private TrueTypeFont(ByteBuffer buffer, int offset) throws IOException {
+    this.buffer = buffer;
+    checkRange(offset, 12);
+    int numTables = u16(offset + 4);
+    checkRange(offset + 12, numTables * 16);
+    int head = -1;
+    int hhea = -1;
+    int hmtx = -1;
+    int cmap = -1;
+    int name = -1;
+    for (int i = 0; i < numTables; i++) {
+      int record = offset + 12 + i * 16;
+      int tableOffset = buffer.getInt(record + 8);
+      checkRange(tableOffset, 1);
+      switch (buffer.getInt(record)) {
+        case HEAD_TAG:
+          head = tableOffset;
+          break;
+        case HHEA_TAG:
+          hhea = tableOffset;
+          break;
+        case HMTX_TAG:
+          hmtx = tableOffset;
+          break;
+        case CMAP_TAG:
+          cmap = tableOffset;
+          break;
+        case NAME_TAG:
+          name = tableOffset;
+          break;
+        default:
+          break;
+      }
+    }
+    if (head < 0 || hhea < 0 || hmtx < 0 || cmap < 0 || name < 0) {
+      throw new IOException("Missing required font tables");
+    }
+
+    this.unitsPerEm = u16(head + 18);
+    int macStyle = u16(head + 44);
+    this.bold = (macStyle & 1) != 0;
+    this.italic = (macStyle & 2) != 0;
+    this.lineHeight = buffer.getShort(hhea + 4) - buffer.getShort(hhea + 6)
+        + buffer.getShort(hhea + 8);
+    this.numberOfHMetrics = u16(hhea + 34);
+    this.hmtxOffset = hmtx;
+    if (unitsPerEm == 0 || numberOfHMetrics == 0) {
+      throw new IOException("Illegal font metrics");
+    }
+    checkRange(hmtx, numberOfHMetrics * 4);
+
+    int subtable = unicodeSubtable(cmap);
+    if (subtable < 0) {
+      throw new IOException("Missing unicode cmap subtable");
+    }
+    this.cmapOffset = subtable;
+    this.cmapFormat = u16(subtable);
+    checkCmap();
+    this.family = family(name);
+    if (family == null) {
+      throw new IOException("Missing font family name");
+    }
+  }
+
+  /**
+   * Loads all fonts of a font file, a TrueType collection contains multiple fonts.
+   *
+   * @param path font file path
+   * @return fonts of file
+   * @throws IOException the file is unreadable or not a valid font file
+   */
+  static List<TrueTypeFont> load(Path path) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    try {
+      if (buffer.getInt(0) != TTC_TAG) {
+        return Collections.singletonList(new TrueTypeFont(buffer, 0));
+      }
+
+      int numFonts = buffer.getInt(8);
+      if (numFonts <= 0 || numFonts > (buffer.limit() - 12) / 4) {
+        throw new IOException("Illegal font number " + numFonts + " of font file " + path);
+      }
+      List<TrueTypeFont> fonts = new ArrayList<>(numFonts);
+      for (int i = 0; i < numFonts; i++) {
+        fonts.add(new TrueTypeFont(buffer, buffer.getInt(12 + i * 4)));
+      }
+      return fonts;
+    } catch (RuntimeException e) {
+      // The offsets of a broken file can point anywhere, skip the file instead of failing
+      throw new IOException("Truncated or illegal font file " + path, e);
+    }
+  }
+
+  String getFamily() {
+    return family;
+  }
+
+  boolean isBold() {
+    return bold;
+  }
+
+  boolean isItalic() {
+    return italic;
+  }
+
+  /**
+   * Returns the line height in em, the sum of ascender, descender and line gap.
+   *
+   * @return line height in em
+   */
+  double lineHeight() {
+    return (double) lineHeight / unitsPerEm;
+  }
+
+  boolean canDisplay(int codePoint) {
+    return !Float.isNaN(advance(codePoint));
+  }
+
+  /**
+   * Returns the advance width of the missing glyph in em.
+   *
+   * @return advance width of missing glyph
+   */
+  float missingAdvance() {
+    return (float) u16(hmtxOffset) / unitsPerEm;
+  }
+
+  /**
+   * Returns the advance width of char in em, or {@link Float#NaN} if the font can not display the
+   * char.
+   *
+   * @param codePoint the code point of char
+   * @return advance width in em
+   */
+  float advance(int codePoint) {
+    if (codePoint > Character.MAX_VALUE) {
+      return glyphAdvance(glyphId(codePoint));
+    }
+
+    float[] block = advances[codePoint >> BLOCK_BITS];
+    if (block == null) {
+      block = new float[BLOCK_SIZE];
+      advances[codePoint >> BLOCK_BITS] = block;
+    }
+
+    float advance = block[codePoint & (BLOCK_SIZE - 1)];
+    if (Float.floatToRawIntBits(advance) == 0) {
+      advance = glyphAdvance(glyphId(codePoint));
+      block[codePoint & (BLOCK_SIZE - 1)] = advance == 0 ? -0F : advance;
+    }
+    return advance;
+  }
+
+  private float glyphAdvance(int glyphId) {
+    if (glyphId == 0) {
+      return Float.NaN;
+    }
+    int metric = Math.min(glyphId, numberOfHMetrics - 1);
+    return (float) u16(hmtxOffset + metric * 4) / unitsPerEm;
+  }
+
+  private int glyphId(int codePoint) {
+    if (cmapFormat == 12) {
+      return format12GlyphId(codePoint);
+    }
+    return codePoint > Character.MAX_VALUE ? 0 : format4GlyphId(codePoint);
+  }
+
+  private int format4GlyphId(int c) {
+    int segCount = u16(cmapOffset + 6) / 2;
+    int endCodes = cmapOffset + 14;
+    int low = 0;
+    int high = segCount - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (u16(endCodes + mid * 2) < c) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    int startCodes = endCodes + segCount * 2 + 2;
+    int start = u16(startCodes + low * 2);
+    if (start > c || u16(endCodes + low * 2) < c) {
+      return 0;
+    }
+
+    int idDelta = buffer.getShort(startCodes + segCount * 2 + low * 2);
+    int rangeOffsetPos = startCodes + segCount * 4 + low * 2;
+    int idRangeOffset = u16(rangeOffsetPos);
+    if (idRangeOffset == 0) {
+      return (c + idDelta) & 0xFFFF;
+    }
+
+    int glyphPos = rangeOffsetPos + idRangeOffset + (c - start) * 2;
+    if (glyphPos > buffer.limit() - 2) {
+      throw new IndexOutOfBoundsException("Glyph index of char " + c + " out of font file range");
+    }
+    int glyph = u16(glyphPos);
+    return glyph == 0 ? 0 : (glyph + idDelta) & 0xFFFF;
+  }
+
+  private int format12GlyphId(int c) {
+    int numGroups = buffer.getInt(cmapOffset + 12);
+    int groups = cmapOffset + 16;
+    int low = 0;
+    int high = numGroups - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int group = groups + mid * 12;
+      if (buffer.getInt(group + 4) < c) {
+        low = mid + 1;
+      } else if (buffer.getInt(group) > c) {
+        high = mid - 1;
+      } else {
+        return buffer.getInt(group + 8) + c - buffer.getInt(group);
+      }
+    }
+    return 0;
+  }
+
+  // Check the part of cmap subtable read by every lookup
+  private void checkCmap() throws IOException {
+    if (cmapFormat == 12) {
+      checkRange(cmapOffset, 16);
+      int numGroups = buffer.getInt(cmapOffset + 12);
+      if (numGroups < 0 || numGroups > (buffer.limit() - cmapOffset - 16) / 12) {
+        throw new IOException("Font cmap groups out of file range");
+      }
+      return;
+    }
+
+    checkRange(cmapOffset, 14);
+    checkRange(cmapOffset + 14, u16(cmapOffset + 6) * 4 + 2);
+  }
+
+  private int unicodeSubtable(int cmap) {
+    int numTables = u16(cmap + 2);
+    int format4 = -1;
+    for (int i = 0; i < numTables; i++) {
+      int record = cmap + 4 + i * 8;
+      int platformId = u16(record);
+      int encodingId = u16(record + 2);
+      if (platformId != 0 && (platformId != 3 || (encodingId != 1 && encodingId != 10))) {
+        continue;
+      }
+
+      int subtable = cmap + buffer.getInt(record + 4);
+      int format = u16(subtable);
+      if (format == 12) {
+        return subtable;
+      }
+      if (format == 4 && format4 < 0) {
+        format4 = subtable;
+      }
+    }
+    return format4;
+  }
+
+  private String family(int name) {
+    int count = u16(name + 2);
+    int strings = name + u16(name + 4);
+    String family = null;
+    int familyRank = Integer.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      int record = name + 6 + i * 12;
+      int platformId = u16(record);
+      if (u16(record + 6) != 1) {
+        continue;
+      }
+
+      Charset charset;
+      if (platformId == 0 || platformId == 3) {
+        charset = StandardCharsets.UTF_16BE;
+      } else if (platformId == 1 && u16(record + 2) == 0) {
+        charset = StandardCharsets.ISO_8859_1;
+      } else {
+        continue;
+      }
+
+      // Prefer the Windows English name
+      int rank = (platformId == 3 ? 0 : 2) + (u16(record + 4) == 0x409 ? 0 : 1);
+      if (rank >= familyRank) {
+        continue;
+      }
+
+      byte[] bytes = new byte[u16(record + 8)];
+      int start = strings + u16(record + 10);
+      for (int j = 0; j < bytes.length; j++) {
+        bytes[j] = buffer.get(start + j);
+      }
+      family = new String(bytes, charset);
+      familyRank = rank;
+    }
+    return family;
+  }
+
+  private void checkRange(int offset, int length) throws IOException {
+    if (offset < 0 || length < 0 || offset > buffer.limit() - length) {
+      throw new IOException("Font table out of file range");
+    }
+  }
+
+  private int u16(int offset) {
+    return buffer.getShort(offset) & 0xFFFF;
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout;
+
+import static org.apache_gs.commons.lang3.StringUtils.NEW_LINE_SYMBOL;
+import static org.graphper.api.attributes.FontStyle.containsBold;
+import static org.graphper.api.attributes.FontStyle.containsItalic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache_gs.commons.lang3.StringUtils;
+import org.graphper.api.attributes.FontStyle;
+import org.graphper.def.FlatPoint;
+import org.graphper.util.EnvProp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures text size by the advance widths in the {@code hmtx} and {@code cmap} tables of
+ * TrueType/OpenType font files, without {@code java.awt}. The results only depend on the font
+ * files, so they are the same in headless containers, native images and desktop machines.
+ *
+ * <p>The font files are specified by the system property {@code graph.measure.font.path}, a list
+ * of font files or directories separated by {@link File#pathSeparator}, files with the suffix
+ * {@code .ttf}, {@code .otf} and {@code .ttc} in the directories are loaded. This implementation
+ * takes precedence over {@link AWTMeasureText} once any font is loaded, and the loaded fonts are
+ * also the only fonts that can be selected.
+ *
+ * @author Jamison Jiang
+ * @see MeasureText Interface for text measurement utilities
+ * @see FontSelector Interface for font selection utilities
+ */
+public class TrueTypeMeasureText extends AbstractFontSelector implements MeasureText,
+    FontSelector {
+
+  private static final Logger log = LoggerFactory.getLogger(TrueTypeMeasureText.class);
+
+  // Measures the text when the font file is broken in the part read lazily
+  private static final MeasureText FALLBACK = new RoughMeasureText();
+
+  // Lower case family name -> faces of family, the regular face is the first
+  private final Map<String, List<TrueTypeFont>> families;
+
+  /**
+   * Constructs an instance of {@code TrueTypeMeasureText} with the fonts specified by the system
+   * property {@code graph.measure.font.path}.
+   */
+  public TrueTypeMeasureText() {
+    super();
+    this.families = Fonts.FAMILIES;
+  }
+
+  TrueTypeMeasureText(String fontPath) {
+    super();
+    this.families = load(fontPath);
+  }
+
+  /**
+   * Returns the priority order of this implementation, it is preferred over all the built-in
+   * implementations.
+   *
+   * @return the priority order, default is {@code -1}
+   */
+  @Override
+  public int order() {
+    return -1;
+  }
+
+  /**
+   * Returns whether the system property {@code graph.measure.font.path} is set and any font is
+   * successfully loaded from it.
+   *
+   * @return {@code true} if any font is loaded
+   */
+  @Override
+  public boolean envSupport() {
+    return !families.isEmpty();
+  }
+
+  /**
+   * Measures the width and height of the specified text by summing the advance width of each char.
+   * The char which the font can not display is measured by the first loaded font that supports
+   * it. If the font file is found broken while measuring, the text is measured by
+   * {@link RoughMeasureText}.
+   *
+   * @param text       the text to measure
+   * @param fontName   the name of the font to use
+   * @param fontSize   the size of the font in points
+   * @param fontStyles the font styles of text
+   * @return a {@link FlatPoint} representing the height and width of the text
+   */
+  @Override
+  public FlatPoint measure(String text, String fontName, double fontSize, FontStyle... fontStyles) {
+    if (StringUtils.isEmpty(text) || fontSize <= 0) {
+      return new FlatPoint(0, 0);
+    }
+
+    String name = exists(fontName) ? fontName : defaultFont();
+    TrueTypeFont font = face(name, containsBold(fontStyles), containsItalic(fontStyles));
+    try {
+      return measure(text, font, fontSize);
+    } catch (IndexOutOfBoundsException e) {
+      log.debug("Font {} is broken, measure text roughly", name, e);
+      return FALLBACK.measure(text, fontName, fontSize, fontStyles);
+    }
+  }
+
+  private FlatPoint measure(String text, TrueTypeFont font, double fontSize) {
+    String[] lines = text.split(NEW_LINE_SYMBOL);
+    double maxWidth = 0;
+    for (String line : lines) {
+      double width = 0;
+      for (int i = 0; i < line.length(); ) {
+        int codePoint = line.codePointAt(i);
+        width += advance(font, codePoint);
+        i += Character.charCount(codePoint);
+      }
+      maxWidth = Math.max(maxWidth, width);
+    }
+
+    return new FlatPoint(lines.length * font.lineHeight() * fontSize, maxWidth * fontSize);
+  }
+
+  @Override
+  protected String[] listAllSystemFonts() {
+    return families.values().stream()
+        .map(faces -> faces.get(0).getFamily())
+        .toArray(String[]::new);
+  }
+
+  @Override
+  public boolean fontSupport(String fontName, char c) {
+    if (StringUtils.isEmpty(fontName)) {
+      return false;
+    }
+
+    List<TrueTypeFont> faces = families.get(fontName.toLowerCase(Locale.ROOT));
+    if (faces == null) {
+      return false;
+    }
+    try {
+      return faces.get(0).canDisplay(c);
+    } catch (IndexOutOfBoundsException e) {
+      log.debug("Font {} is broken", fontName, e);
+      return false;
+    }
+  }
+
+  private TrueTypeFont face(String fontName, boolean bold, boolean italic) {
+    List<TrueTypeFont> faces = families.get(fontName.toLowerCase(Locale.ROOT));
+    TrueTypeFont face = null;
+    int minMismatch = Integer.MAX_VALUE;
+    for (TrueTypeFont f : faces) {
+      int mismatch = (f.isBold() != bold ? 2 : 0) + (f.isItalic() != italic ? 1 : 0);
+      if (mismatch < minMismatch) {
+        face = f;
+        minMismatch = mismatch;
+      }
+    }
+    return face;
+  }
+
+  private float advance(TrueTypeFont font, int codePoint) {
+    float advance = font.advance(codePoint);
+    if (!Float.isNaN(advance)) {
+      return advance;
+    }
+
+    for (List<TrueTypeFont> faces : families.values()) {
+      advance = faces.get(0).advance(codePoint);
+      if (!Float.isNaN(advance)) {
+        return advance;
+      }
+    }
+    return font.missingAdvance();
+  }
+
+  private static Map<String, List<TrueTypeFont>> load(String fontPath) {
+    if (StringUtils.isEmpty(fontPath)) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, List<TrueTypeFont>> families = new LinkedHashMap<>();
+    for (String p : fontPath.split(File.pathSeparator)) {
+      if (StringUtils.isBlank(p)) {
+        continue;
+      }
+      for (Path file : fontFiles(Paths.get(p.trim()))) {
+        try {
+          for (TrueTypeFont font : TrueTypeFont.load(file)) {
+            List<TrueTypeFont> faces = families.computeIfAbsent(
+                font.getFamily().toLowerCase(Locale.ROOT), f -> new ArrayList<>(4));
+            if (!font.isBold() && !font.isItalic()) {
+              faces.add(0, font);
+            } else {
+              faces.add(font);
+            }
+          }
+        } catch (IOException e) {
+          log.debug("Skip the unreadable font file {}", file, e);
+        }
+      }
+    }
+    return families;
+  }
+
+  private static List<Path> fontFiles(Path path) {
+    if (!Files.isDirectory(path)) {
+      return Files.isRegularFile(path) ? Collections.singletonList(path)
+          : Collections.emptyList();
+    }
+
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+      for (Path file : stream) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (Files.isRegularFile(file)
+            && (name.endsWith(".ttf") || name.endsWith(".otf") || name.endsWith(".ttc"))) {
+          files.add(file);
+        }
+      }
+    } catch (IOException e) {
+      log.debug("Skip the unreadable font directory {}", path, e);
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  private static class Fonts {
+
+    private static final Map<String, List<TrueTypeFont>> FAMILIES =
+        load(EnvProp.trueTypeFontPath());
+  }
+}
@@ -16,7 +16,10 @@
 
 package org.graphper.layout.dot;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import org.graphper.draw.DrawGraph;
@@ -83,15 +86,27 @@ class Acyclic extends Mark<DNode> {
     return null;
   }
 
-  private DLine dfs(DNode v) {
-    mark(v);
-
-    accessStack.add(v);
+  // Depth-first visit with an explicit stack, returns the first line back to the access stack
+  private DLine dfs(DNode source) {
+    Deque<DNode> nodes = new ArrayDeque<>();
+    Deque<Iterator<DLine>> lines = new ArrayDeque<>();
+    mark(source);
+    accessStack.add(source);
+    nodes.push(source);
+    lines.push(digraph.adjacent(source).iterator());
+
+    while (!nodes.isEmpty()) {
+      DNode v = nodes.peek();
+      Iterator<DLine> iterator = lines.peek();
+      if (!iterator.hasNext()) {
+        accessStack.remove(v);
+        nodes.pop();
+        lines.pop();
+        continue;
+      }
 
-    DLine l;
-    for (DLine line : digraph.adjacent(v)) {
+      DLine line = iterator.next();
       DNode w = line.other(v);
-
       if (accessStack.contains(w)) {
         return line;
       }
@@ -100,13 +115,12 @@ class Acyclic extends Mark<DNode> {
         continue;
       }
 
-      if ((l = dfs(w)) != null) {
-        return l;
-      }
+      mark(w);
+      accessStack.add(w);
+      nodes.push(w);
+      lines.push(digraph.adjacent(w).iterator());
     }
 
-    accessStack.remove(v);
-
     return null;
   }
 }
@@ -29,6 +29,8 @@ import org.graphper.api.Graphviz;
 import org.graphper.api.Line;
 import org.graphper.api.LineAttrs;
 import org.graphper.draw.DrawGraph;
+import org.graphper.draw.MetricsListener.Phase;
+import org.graphper.draw.RankSnapshot;
 import org.graphper.layout.dot.RankContent.RankNode;
 import org.graphper.layout.dot.SubgraphMerge.MergeNode;
 
@@ -87,7 +89,16 @@ class ContainerCollapse {
 
     GraphAttrs graphAttrs = dotAttachment.getDrawGraph().getGraphviz().graphAttrs();
     // Hierarchy the nodes using the network simplex method.
-    FeasibleTree feasibleTree = new FeasibleTree(digraph);
+    long start = System.nanoTime();
+    RankSnapshot rankSnapshot = graphAttrs.getRankSnapshot();
+    FeasibleTree feasibleTree;
+    if (rankSnapshot != null && digraph == dotAttachment.getDotDigraph()) {
+      // Warm start from the ranks of the previous layout
+      feasibleTree = new FeasibleTree(digraph, n -> n.isVirtual()
+          ? null : rankSnapshot.getRank(n.getNode()));
+    } else {
+      feasibleTree = new FeasibleTree(digraph);
+    }
     SubgraphMerge subgraphMerge = subRankInfo != null ? subRankInfo.subgraphMerge : null;
     NetworkSimplex networkSimplex = new NetworkSimplex(
         feasibleTree,
@@ -96,6 +107,7 @@ class ContainerCollapse {
         // Let border node feature take effect
         nodes -> borderNodeHandle(nodes, subgraphMerge)
     );
+    dotAttachment.getDrawGraph().metrics().phase(Phase.RANK, null, System.nanoTime() - start);
 
     // RankContent maybe contain sub container's merge node,need restore
     return restoreRankContent(networkSimplex.getRankContent(), subRankInfo);
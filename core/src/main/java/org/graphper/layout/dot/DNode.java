@@ -86,6 +86,25 @@ class DNode extends ANode implements Box, ShapePosition {
     setFlatLabelSize(flatLabelLine);
   }
 
+  /**
+   * Copy a node with the same rank and order state, the copy can be reordered independently of
+   * the original node.
+   *
+   * @param node the node to copy
+   */
+  DNode(DNode node) {
+    this(node.nodeDrawProp, node.width, node.height, node.nodeSep, node.labelLine,
+         node.flatLabelLine);
+    this.width = node.width;
+    this.height = node.height;
+    this.container = node.container;
+    this.rank = node.rank;
+    this.rankIndex = node.rankIndex;
+    this.auxRank = node.auxRank;
+    this.median = node.median;
+    this.status = node.status;
+  }
+
   private void setFlatLabelSize(DLine flatLabelLine) {
     if (flatLabelLine == null) {
       return;
@@ -42,7 +42,11 @@ import org.graphper.draw.DrawGraph;
 import org.graphper.draw.ExecuteException;
 import org.graphper.draw.GraphvizDrawProp;
 import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.MetricsListener;
+import org.graphper.draw.MetricsListener.Counter;
+import org.graphper.draw.MetricsListener.Phase;
 import org.graphper.draw.NodeDrawProp;
+import org.graphper.draw.RankSnapshot;
 import org.graphper.layout.AbstractLayoutEngine;
 import org.graphper.layout.Cell;
 import org.graphper.layout.FlipShifterStrategy;
@@ -251,10 +255,13 @@ public class DotLayoutEngine extends AbstractLayoutEngine implements Serializabl
     DotDigraph dotDigraph = dotAttachment.getDotDigraph();
     Graphviz graphviz = drawGraph.getGraphviz();
     GraphAttrs graphAttrs = graphviz.graphAttrs();
+    MetricsListener metrics = drawGraph.metrics();
 
     // Collapse subgraphs and clusters, then assign the rank for per node
+    long start = System.nanoTime();
     ContainerCollapse containerCollapse = new ContainerCollapse(dotAttachment, graphviz);
     RankContent rankContent = containerCollapse.getRankContent();
+    metrics.phase(Phase.CONTAINER_COLLAPSE, null, System.nanoTime() - start);
 
     if (rankContent == null) {
       throw new ExecuteException("Graph is empty");
@@ -270,19 +277,31 @@ public class DotLayoutEngine extends AbstractLayoutEngine implements Serializabl
       // Primitive graph RankContent
       rankContent = new RankContent(dotDigraph, graphAttrs.getRankSep(), true, null);
     }
+    if (graphAttrs.isWarmStart()) {
+      drawGraph.setRankSnapshot(rankSnapshot(dotDigraph));
+    }
 
     // Best node sorting between ranks.
+    start = System.nanoTime();
     MinCross minCross = new MinCross(rankContent, dotAttachment, useQuickCoordinate);
     EdgeDedigraph<DNode, DLine> digraphProxy = minCross.getDigraphProxy();
+    metrics.phase(Phase.MIN_CROSS, null, System.nanoTime() - start);
 
     // Handle various line label.
+    start = System.nanoTime();
     new LabelSupplement(rankContent, dotAttachment, digraphProxy);
+    metrics.phase(Phase.LABEL_SUPPLEMENT, null, System.nanoTime() - start);
+    if (metrics != MetricsListener.NOOP) {
+      metrics.count(Counter.VIRTUAL_NODES, virtualNodeNum(digraphProxy));
+    }
 
+    start = System.nanoTime();
     if (useQuickCoordinate) {
       new QuickCoordinate(graphAttrs.getNslimit(), rankContent, dotAttachment, digraphProxy);
     } else {
       new ClassicCoordinate(graphAttrs.getNslimit(), rankContent, dotAttachment, digraphProxy);
     }
+    metrics.phase(Phase.COORDINATE, null, System.nanoTime() - start);
 
     // If cell not set port, auto generate port for line to get more reasonable routing
     autoGeneratePort(dotAttachment);
@@ -295,6 +314,27 @@ public class DotLayoutEngine extends AbstractLayoutEngine implements Serializabl
 
   // --------------------------------------------- private method ---------------------------------------------
 
+  private RankSnapshot rankSnapshot(DotDigraph dotDigraph) {
+    Map<Node, Integer> ranks = new HashMap<>(dotDigraph.vertexNum());
+    for (DNode node : dotDigraph) {
+      if (node.isVirtual()) {
+        continue;
+      }
+      ranks.put(node.getNode(), node.getRank());
+    }
+    return new RankSnapshot(ranks);
+  }
+
+  private int virtualNodeNum(EdgeDedigraph<DNode, DLine> digraphProxy) {
+    int num = 0;
+    for (DNode node : digraphProxy) {
+      if (node.isVirtual()) {
+        num++;
+      }
+    }
+    return num;
+  }
+
   private void handleLegalLine(DotDigraph dotDigraph, DrawGraph drawGraph) {
     List<DLine> reverseLines = null;
     List<DLine> selfLoopLines = null;
@@ -448,9 +488,12 @@ public class DotLayoutEngine extends AbstractLayoutEngine implements Serializabl
         continue;
       }
 
+      long start = System.nanoTime();
       LineRouter dotLineRouter = linesHandlerFactory.newInstance(drawGraph, dotDigraph,
                                                                  rankContent, digraphProxy);
       dotLineRouter.route();
+      drawGraph.metrics().phase(Phase.ROUTING, dotLineRouter.getClass().getSimpleName(),
+                                System.nanoTime() - start);
     }
   }
 
@@ -16,11 +16,14 @@
 
 package org.graphper.layout.dot;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Objects;
@@ -28,7 +31,9 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import org.graphper.def.CsrGraph;
 import org.graphper.layout.Mark;
 import org.graphper.util.CollectionUtils;
 
@@ -47,10 +52,13 @@ class FeasibleTree {
 
   private final DotDigraph dotDigraph;
 
-  // All tree edges with negative tangent
-  private Queue<ULine> negativeLine;
+  // All tree edges, the tree edge is located by the tree index of the edge
+  private final ULine[] treeLines;
 
-  private final DotGraph graph;
+  private int treeLineNum;
+
+  // Undirected graph, the topology not changed after the initial rank assignment
+  private final CsrGraph<DNode, ULine> graph;
 
   // Undirected tree
   private final DotGraph tree;
@@ -59,25 +67,57 @@ class FeasibleTree {
 
   private final Map<DNode, Integer> nodeConnectRecord;
 
+  // Queue of the latest half dfs, the first halfNum elements are the half component node ids
+  private int[] halfQueue;
+
+  // Node id is in the half component of the latest half dfs if the stamp equals halfStamp
+  private int[] halfStamps;
+
+  private int halfStamp;
+
+  private int halfNum;
+
   FeasibleTree(DotDigraph digraph) {
+    this(digraph, null);
+  }
+
+  /**
+   * Generate the feasible tree starting from the known ranks of nodes, usually the ranks of a
+   * previous layout of the same graph. The known ranks are repaired to be feasible and the spanning
+   * tree is grown from the edges that are already tight, so the network simplex only need to pivot
+   * around the modified parts.
+   *
+   * @param digraph   digraph
+   * @param initRanks the known rank of node, return null if the rank of node is unknown
+   */
+  FeasibleTree(DotDigraph digraph, Function<DNode, Integer> initRanks) {
     if (digraph == null || digraph.vertexNum() == 0) {
       throw new IllegalArgumentException("Graph can not be empty");
     }
     this.dotDigraph = digraph;
 
     // Initial rank assignment
-    RankInit rankInit = new RankInit(digraph);
+    RankInit rankInit = new RankInit(digraph, initRanks);
     this.graph = rankInit.graph;
     Collection<DNode> sources = rankInit.sources;
     this.tree = rankInit.tree;
     this.haveUnconnectedGraph = sources.size() > 1;
     this.nodeConnectRecord = rankInit.nodeConnectRecord;
 
+    // Parallel lines are equal, only the line instances in the tree adjacency are tree lines
+    this.treeLines = new ULine[graph.vertexNum()];
+    for (DNode node : tree) {
+      for (ULine uLine : tree.adjacent(node)) {
+        if (!uLine.inTree()) {
+          uLine.setTreeIndex(treeLineNum);
+          treeLines[treeLineNum++] = uLine;
+        }
+      }
+    }
+
     // Vertex (low, lim), initial rank assignment, initial cut value calculation of the edges of the spanning tree.
     if (digraph.edgeNum() != 0) {
-      PropInit propInit = new PropInit(digraph, graph, tree, sources);
-
-      this.negativeLine = propInit.negativeLine;
+      new PropInit(digraph, tree, sources);
     }
   }
 
@@ -105,16 +145,43 @@ class FeasibleTree {
   }
 
   /**
-   * If the spanning tree has an edge with negative tangency, return this edge, otherwise return
-   * null.
+   * Returns the number of the tree edges.
+   *
+   * @return the number of the tree edges
+   */
+  int treeLineNum() {
+    return treeLineNum;
+  }
+
+  /**
+   * Returns the tree edge of the tree index, the index of a tree edge not changed until the tree
+   * edge is exchanged.
    *
-   * @return the smallest edge with a negative tangent in the spanning tree
+   * @param i tree index
+   * @return tree edge
    */
-  Queue<ULine> negativeLine() {
-    return negativeLine;
+  ULine treeLine(int i) {
+    return treeLines[i];
   }
 
-  DotGraph graph() {
+  /**
+   * Replace the tree edge by a non-tree edge, the entering edge takes over the tree index of the
+   * leaving edge.
+   *
+   * @param outLine   the leaving tree edge
+   * @param enterLine the entering non-tree edge
+   */
+  void exchangeTreeLine(ULine outLine, ULine enterLine) {
+    int treeIndex = outLine.getTreeIndex();
+    outLine.setTreeIndex(-1);
+    enterLine.setTreeIndex(treeIndex);
+    treeLines[treeIndex] = enterLine;
+
+    tree.removeLine(outLine);
+    tree.addEdge(enterLine);
+  }
+
+  CsrGraph<DNode, ULine> graph() {
     return graph;
   }
 
@@ -181,11 +248,10 @@ class FeasibleTree {
   /**
    * Compute cut values by iterating only components with fewer nodes, avoiding scanning all edges.
    *
-   * @param graph    undirected graph
    * @param treeLine tree line
    * @return cut value of tree line
    */
-  static double halfDfsCalcCutVal(DotGraph graph, ULine treeLine) {
+  double halfDfsCalcCutVal(ULine treeLine) {
     double[] cutVal = new double[]{0D};
     Consumer<ULine> consumer = uLine ->
         cutVal[0] += lineCrossVal(
@@ -193,27 +259,27 @@ class FeasibleTree {
             uLine.getdLine()
         );
 
-    halfDfs(graph, treeLine, consumer);
+    halfDfs(treeLine, consumer);
 
     return cutVal[0];
   }
 
   /**
    * By iterating only components with fewer nodes, find all edges that straddle two components, and
-   * perform some consumption behavior, then returns all nodes of the half of components with fewer
-   * nodes.
+   * perform some consumption behavior, then record all nodes of the half of components with fewer
+   * nodes. The nodes can be accessed by {@link #halfNode(int)} and {@link #inHalf(DNode)} until
+   * the next search.
    *
-   * @param graph         undirected graph
    * @param treeLine      tree line
    * @param dLineConsumer cross line consumer
-   * @return component nodes
+   * @return the number of component nodes
    */
-  static Set<DNode> halfDfs(DotGraph graph, ULine treeLine, Consumer<ULine> dLineConsumer) {
-    Objects.requireNonNull(graph);
+  int halfDfs(ULine treeLine, Consumer<ULine> dLineConsumer) {
     Objects.requireNonNull(treeLine);
 
+    nextHalfStamp();
     if (dLineConsumer == null) {
-      return Collections.emptySet();
+      return 0;
     }
 
     DLine treeDLine = treeLine.getdLine();
@@ -223,34 +289,78 @@ class FeasibleTree {
     DNode tailNode = inTail(to, treeDLine) ? to : from;
     DNode headNode = to == tailNode ? from : to;
 
-    Set<DNode> queenRecord = new HashSet<>();
-    Queue<DNode> halfNodeQueen = new LinkedList<>();
-
     // Iterate the side components with fewer nodes
     DNode startNode = headNode.getLim() - headNode.getLow()
         < tailNode.getLim() - tailNode.getLow() ? headNode : tailNode;
-    halfNodeQueen.offer(startNode);
-    queenRecord.add(startNode);
+    int start = graph.indexOf(startNode);
+    halfQueue[halfNum++] = start;
+    halfStamps[start] = halfStamp;
 
-    while (!halfNodeQueen.isEmpty()) {
-      DNode node = halfNodeQueen.poll();
+    for (int i = 0; i < halfNum; i++) {
+      int v = halfQueue[i];
 
-      graph.forEachAdjacent(node, uLine -> {
+      for (int j = graph.adjStart(v); j < graph.adjEnd(v); j++) {
+        int e = graph.adjEdge(j);
+        ULine uLine = graph.edge(e);
         if (isCross(treeDLine, uLine.getdLine())) {
           dLineConsumer.accept(uLine);
-          return;
+          continue;
         }
 
-        DNode other = uLine.other(node);
-
-        if (!queenRecord.contains(other)) {
-          halfNodeQueen.offer(other);
-          queenRecord.add(other);
+        int w = graph.other(e, v);
+        if (halfStamps[w] != halfStamp) {
+          halfQueue[halfNum++] = w;
+          halfStamps[w] = halfStamp;
         }
-      });
+      }
     }
 
-    return queenRecord;
+    return halfNum;
+  }
+
+  /**
+   * Returns the number of nodes of the half component of the latest
+   * {@link #halfDfs(ULine, Consumer)}.
+   *
+   * @return the number of half component nodes
+   */
+  int halfNum() {
+    return halfNum;
+  }
+
+  /**
+   * Returns the node of the half component of the latest {@link #halfDfs(ULine, Consumer)}.
+   *
+   * @param i index of half component node, less than the result of latest half dfs
+   * @return half component node
+   */
+  DNode halfNode(int i) {
+    return graph.vertex(halfQueue[i]);
+  }
+
+  /**
+   * Returns whether the node is in the half component of the latest
+   * {@link #halfDfs(ULine, Consumer)}.
+   *
+   * @param node node
+   * @return <tt>true</tt> if node is in the half component
+   */
+  boolean inHalf(DNode node) {
+    int v = graph.indexOf(node);
+    return v >= 0 && halfStamps[v] == halfStamp;
+  }
+
+  private void nextHalfStamp() {
+    if (halfQueue == null) {
+      halfQueue = new int[graph.vertexNum()];
+      halfStamps = new int[graph.vertexNum()];
+    }
+
+    halfNum = 0;
+    if (++halfStamp == 0) {
+      Arrays.fill(halfStamps, 0);
+      halfStamp = 1;
+    }
   }
 
   /**
@@ -268,7 +378,7 @@ class FeasibleTree {
    * @param isTree   the logic for judging whether an edge is a tree edge
    * @return edge cut value
    */
-  static double calcCutValByAdjTreeLine(DotGraph graph, DNode node,
+  static double calcCutValByAdjTreeLine(CsrGraph<DNode, ULine> graph, DNode node,
                                         ULine treeLine, Predicate<ULine> isTree) {
     if (graph == null || node == null || treeLine == null || isTree == null) {
       throw new NullPointerException();
@@ -290,7 +400,9 @@ class FeasibleTree {
      * (2)The edge is a non-tree edge minus the weight value.
      * */
     double cutVal = 0;
-    for (ULine uLine : graph.adjacent(node)) {
+    int v = graph.indexOf(node);
+    for (int i = graph.adjStart(v); i < graph.adjEnd(v); i++) {
+      ULine uLine = graph.edge(graph.adjEdge(i));
       // Skip the tree edge to be computed now
       if (uLine.getdLine() == treeLine.getdLine()) {
         cutVal += treeLine.getdLine().weight();
@@ -332,7 +444,7 @@ class FeasibleTree {
    */
   private static class RankInit extends Mark<DNode> {
 
-    private final DotGraph graph;
+    private CsrGraph<DNode, ULine> graph;
 
     // Feasible spanning tree
     private final DotGraph tree;
@@ -342,20 +454,24 @@ class FeasibleTree {
 
     private Map<DNode, Integer> nodeConnectRecord;
 
-    public RankInit(DotDigraph dotDigraph) {
+    public RankInit(DotDigraph dotDigraph, Function<DNode, Integer> initRanks) {
       int edgeNum = dotDigraph.edgeNum();
-      this.graph = new DotGraph(dotDigraph.vertexNum(), edgeNum);
-
-      if (edgeNum == 0) {
-        this.tree = graph;
-      } else {
-        this.tree = new DotGraph(dotDigraph.vertexNum());
-      }
+      this.tree = new DotGraph(dotDigraph.vertexNum());
 
       Queue<ULine> minLines = new PriorityQueue<>(Comparator.comparing(ULine::reduceLen));
 
       // The initial level is generated to ensure that the level of the "from" is higher than that of the "to"
       initRank(dotDigraph, minLines);
+      if (initRanks != null) {
+        warmRank(initRanks, minLines);
+      }
+      connectSource();
+
+      if (edgeNum == 0) {
+        for (DNode node : graph) {
+          tree.add(node);
+        }
+      }
 
       // Generation of initial feasible tree
       generateTree(minLines);
@@ -364,64 +480,225 @@ class FeasibleTree {
     }
 
     private void initRank(DotDigraph dotDigraph, Queue<ULine> minLines) {
+      CsrGraph.Builder<DNode, ULine> builder = CsrGraph.builder(dotDigraph.vertexNum(),
+                                                                 dotDigraph.edgeNum());
       for (DNode node : dotDigraph) {
         if (isMark(node)) {
           continue;
         }
 
-        dfs(dotDigraph, minLines, node);
+        dfs(dotDigraph, builder, minLines, node);
       }
 
-      connectSource();
+      this.graph = builder.build();
+    }
+
+    /*
+     * Replace the initial ranks by the known ranks. The nodes are visited in topological order, a
+     * node is moved down until all in-edges are feasible, a new node is placed just below its
+     * predecessors, or just above its known successors if it is a source. Every edge is feasible
+     * after the visit, and the edges between unchanged nodes keep the tightness of known ranks.
+     */
+    private void warmRank(Function<DNode, Integer> initRanks, Queue<ULine> minLines) {
+      int vertexNum = graph.vertexNum();
+      int[] ranks = new int[vertexNum];
+      boolean[] known = new boolean[vertexNum];
+      int[] inDegree = new int[vertexNum];
+      boolean haveKnown = false;
+      for (int v = 0; v < vertexNum; v++) {
+        Integer rank = initRanks.apply(graph.vertex(v));
+        if (rank != null) {
+          ranks[v] = rank;
+          known[v] = haveKnown = true;
+        }
+
+        for (int i = graph.outStart(v); i < graph.outEnd(v); i++) {
+          int w = graph.head(graph.outEdge(i));
+          if (w != v) {
+            inDegree[w]++;
+          }
+        }
+      }
+
+      if (!haveKnown) {
+        return;
+      }
+
+      int[] queue = new int[vertexNum];
+      int[] predRanks = new int[vertexNum];
+      boolean[] havePred = new boolean[vertexNum];
+      int tail = 0;
+      for (int v = 0; v < vertexNum; v++) {
+        if (inDegree[v] == 0) {
+          queue[tail++] = v;
+        }
+      }
+
+      for (int i = 0; i < tail; i++) {
+        int v = queue[i];
+        if (havePred[v]) {
+          ranks[v] = known[v] ? Math.max(ranks[v], predRanks[v]) : predRanks[v];
+        } else if (!known[v]) {
+          ranks[v] = sourceRank(v, ranks, known);
+        }
+
+        for (int j = graph.outStart(v); j < graph.outEnd(v); j++) {
+          int e = graph.outEdge(j);
+          int w = graph.head(e);
+          if (w == v) {
+            continue;
+          }
+
+          int rank = ranks[v] + graph.edge(e).limit();
+          if (!havePred[w] || rank > predRanks[w]) {
+            predRanks[w] = rank;
+            havePred[w] = true;
+          }
+          if (--inDegree[w] == 0) {
+            queue[tail++] = w;
+          }
+        }
+      }
+
+      // Not acyclic, keep the initial ranks
+      if (tail < vertexNum) {
+        return;
+      }
+
+      for (int v = 0; v < vertexNum; v++) {
+        graph.vertex(v).setRank(ranks[v]);
+      }
+
+      // The tightness changed, find the min lines again
+      minLines.clear();
+      for (int v = 0; v < vertexNum; v++) {
+        ULine minLine = null;
+        for (int i = graph.outStart(v); i < graph.outEnd(v); i++) {
+          ULine uLine = graph.edge(graph.outEdge(i));
+          if (minLine == null || minLine.reduceLen() > uLine.reduceLen()) {
+            minLine = uLine;
+          }
+        }
+
+        if (minLine != null) {
+          minLines.add(minLine);
+        }
+      }
+    }
+
+    private int sourceRank(int v, int[] ranks, boolean[] known) {
+      Integer rank = null;
+      for (int i = graph.outStart(v); i < graph.outEnd(v); i++) {
+        int e = graph.outEdge(i);
+        int w = graph.head(e);
+        if (w == v || !known[w]) {
+          continue;
+        }
+
+        int r = ranks[w] - graph.edge(e).limit();
+        if (rank == null || r < rank) {
+          rank = r;
+        }
+      }
+      return rank != null ? rank : 0;
     }
 
     private void connectSource() {
       clear();
 
       Map<Integer, DNode> sourceMap = new HashMap<>(1);
+      boolean[] visited = new boolean[graph.vertexNum()];
       int connectNo = 1;
-      for (DNode node : graph) {
-        if (isMark(node)) {
+      for (int v = 0; v < graph.vertexNum(); v++) {
+        if (visited[v]) {
           continue;
         }
 
-        dfs(node, connectNo++, sourceMap);
+        dfs(v, visited, connectNo++, sourceMap);
       }
 
       sources = sourceMap.values();
     }
 
-    private void dfs(DotDigraph dotDigraph, Queue<ULine> minLines, DNode from) {
-      mark(from);
-      graph.add(from);
-      int minRank = 0;
+    /*
+     * Depth-first visit from the node with an explicit stack, a node is added when it is first
+     * visited and its rank is lowered after each of its adjacent nodes is done, the same order as
+     * the recursive visit.
+     */
+    private void dfs(DotDigraph dotDigraph, CsrGraph.Builder<DNode, ULine> builder,
+                     Queue<ULine> minLines, DNode source) {
+      Deque<RankFrame> stack = new ArrayDeque<>();
+      stack.push(rankFrame(dotDigraph, builder, source));
+
+      while (!stack.isEmpty()) {
+        RankFrame frame = stack.peek();
+        if (frame.pending != null) {
+          // The adjacent node is done
+          frame.accept(frame.pending);
+          frame.pending = null;
+        }
 
-      ULine minLine = null;
-      for (DLine dLine : dotDigraph.adjacent(from)) {
-        DNode to = dLine.other(from);
+        if (!frame.lines.hasNext()) {
+          stack.pop();
+          if (frame.minLine != null) {
+            minLines.add(frame.minLine);
+          }
+          continue;
+        }
 
+        DLine dLine = frame.lines.next();
+        DNode to = dLine.other(frame.node);
         ULine uLine = new ULine(dLine.from(), to, dLine, dLine.weight());
-        graph.addEdge(uLine);
+        builder.addEdge(dLine.from(), to, uLine);
 
-        if (!isMark(to)) {
-          dfs(dotDigraph, minLines, to);
+        if (isMark(to)) {
+          frame.accept(uLine);
+        } else {
+          frame.pending = uLine;
+          stack.push(rankFrame(dotDigraph, builder, to));
         }
+      }
+    }
 
-        minRank = Math.min(minRank, to.getRank() - dLine.limit());
-        from.setRank(minRank);
+    private RankFrame rankFrame(DotDigraph dotDigraph, CsrGraph.Builder<DNode, ULine> builder,
+                                DNode node) {
+      mark(node);
+      builder.addVertex(node);
+      return new RankFrame(node, dotDigraph.adjacent(node).iterator());
+    }
 
-        if (minLine == null || minLine.reduceLen() > uLine.reduceLen()) {
-          minLine = uLine;
+    private void dfs(int source, boolean[] visited, int connectNo,
+                     Map<Integer, DNode> sourceMap) {
+      // Pre-order visit with an explicit stack, cursor is the next adjacent index of vertex
+      int[] stack = new int[graph.vertexNum()];
+      int[] cursor = new int[graph.vertexNum()];
+      int top = 0;
+      stack[top++] = source;
+      cursor[source] = graph.adjStart(source);
+      connectVisit(source, visited, connectNo, sourceMap);
+
+      while (top > 0) {
+        int v = stack[top - 1];
+        if (cursor[v] == graph.adjEnd(v)) {
+          top--;
+          continue;
+        }
+
+        int w = graph.other(graph.adjEdge(cursor[v]++), v);
+        if (visited[w]) {
+          continue;
         }
-      }
 
-      if (minLine != null) {
-        minLines.add(minLine);
+        connectVisit(w, visited, connectNo, sourceMap);
+        cursor[w] = graph.adjStart(w);
+        stack[top++] = w;
       }
     }
 
-    private void dfs(DNode node, int connectNo, Map<Integer, DNode> sourceMap) {
-      mark(node);
+    private void connectVisit(int v, boolean[] visited, int connectNo,
+                              Map<Integer, DNode> sourceMap) {
+      visited[v] = true;
+      DNode node = graph.vertex(v);
 
       if (connectNo > 1) {
         if (nodeConnectRecord == null) {
@@ -434,16 +711,6 @@ class FeasibleTree {
       if (sn == null || node.getRank() < sn.getRank()) {
         sourceMap.put(connectNo, node);
       }
-
-      for (ULine uLine : graph.adjacent(node)) {
-        DNode other = uLine.other(node);
-
-        if (isMark(other)) {
-          continue;
-        }
-
-        dfs(other, connectNo, sourceMap);
-      }
     }
 
     private void generateTree(Queue<ULine> minLines) {
@@ -504,7 +771,9 @@ class FeasibleTree {
     }
 
     private void addAdjEdgesQueen(Queue<ULine> treeAdjacentEdges, ULine uLine, DNode node) {
-      for (ULine line : graph.adjacent(node)) {
+      int v = graph.indexOf(node);
+      for (int i = graph.adjStart(v); i < graph.adjEnd(v); i++) {
+        ULine line = graph.edge(graph.adjEdge(i));
         if (line == uLine ||
             (tree.containNode(line.getdLine().from()) && tree.containNode(line.getdLine().to()))) {
           continue;
@@ -531,14 +800,11 @@ class FeasibleTree {
   /**
    * Set the low and lim and cut value properties.
    */
-  private static class PropInit extends Mark<DNode> {
+  private class PropInit extends Mark<DNode> {
 
     // Reverse stack node count
     private int reserveCount = 0;
 
-    // Record the minimum value among subsequent nodes
-    private int low = Integer.MAX_VALUE;
-
     // All boundary nodes, that is, among the two components after breaking the tree edge, there
     // must be a component that contains only one vertex
     private Queue<DNode> cutQueen;
@@ -546,9 +812,6 @@ class FeasibleTree {
     // Calculate whether the tangent value of the edge has been calculated
     private Set<DLine> lineCache;
 
-    // All negative tangent tree edges
-    private Queue<ULine> negativeLine;
-
     private final DotDigraph dotDigraph;
 
     // Mark whether the vertex is a boundary node
@@ -561,8 +824,7 @@ class FeasibleTree {
     // have entered the queue for calculating cut values
     private Map<DNode, CutValRecord> nodeCountValRecord;
 
-    private PropInit(DotDigraph dotDigraph, DotGraph graph, DotGraph tree,
-                     Collection<DNode> sourceNodes) {
+    private PropInit(DotDigraph dotDigraph, DotGraph tree, Collection<DNode> sourceNodes) {
       super(dotDigraph.vertexNum());
       this.dotDigraph = dotDigraph;
       this.tree = tree;
@@ -576,58 +838,69 @@ class FeasibleTree {
       }
 
       // Calculate the tangent of all tree edges
-      computeCutVal(graph);
+      computeCutVal();
     }
 
-    private void dfs(DNode v) {
-      mark(v);
-      // Record the lim of the vertex with the smallest lim among the subsequent nodes of the current vertex
-      int tmpLow = Integer.MAX_VALUE;
-
-      for (ULine e : tree.adjacent(v)) {
-        DNode w = e.other(v);
-
-        if (isMark(w)) {
+    /*
+     * Post-order visit of the tree with an explicit stack, the lim of a vertex is assigned after
+     * all its subsequent vertexes, and the low is the smallest lim among them.
+     */
+    private void dfs(DNode source) {
+      Deque<LimFrame> stack = new ArrayDeque<>();
+      mark(source);
+      stack.push(new LimFrame(source, tree.adjacent(source).iterator()));
+
+      while (!stack.isEmpty()) {
+        LimFrame frame = stack.peek();
+        if (frame.lines.hasNext()) {
+          DNode w = frame.lines.next().other(frame.node);
+          if (!isMark(w)) {
+            mark(w);
+            stack.push(new LimFrame(w, tree.adjacent(w).iterator()));
+          }
           continue;
         }
 
-        dfs(w);
-        // Record the minimum value of the adjacent nodes of the current node so far
-        tmpLow = Math.min(tmpLow, low);
-        low = Integer.MAX_VALUE;
-      }
+        stack.pop();
+        DNode v = frame.node;
+        // The leaf node is a boundary node, or the source node has a degree of 1 in the spanning
+        // tree, and the source node is a boundary node
+        if (tree.degree(v) == 1) {
+          isBorder.add(v);
+          offerCutQueen(v);
+        }
 
-      // The leaf node is a boundary node, or the source node has a degree of 1 in the spanning tree,
-      // and the source node is a boundary node
-      if (tree.degree(v) == 1) {
-        isBorder.add(v);
-        offerCutQueen(v);
-      }
+        int lim = ++reserveCount;
+        int low = Math.min(frame.low, lim);
+        v.setLow(low);
+        v.setLim(lim);
 
-      int lim = ++reserveCount;
-      low = Math.min(tmpLow, lim);
-      v.setLow(low);
-      v.setLim(lim);
+        // Record the minimum value of the adjacent nodes of the parent node so far
+        LimFrame parent = stack.peek();
+        if (parent != null) {
+          parent.low = Math.min(parent.low, low);
+        }
+      }
     }
 
-    private void computeCutVal(DotGraph graph) {
+    private void computeCutVal() {
       // Starting from the boundary node of the tree edge, the cut value is calculated by entering the inner node layer by layer
       while (CollectionUtils.isNotEmpty(cutQueen)) {
         DNode node = cutQueen.poll();
 
         // Calculation logic of border nodes
         if (isBorder.contains(node)) {
-          calcBorderCutVal(graph, node);
+          calcBorderCutVal(node);
           continue;
         }
 
         // Ordinary node adjacent tree edge calculation
-        calcNormalCutVal(graph, node);
+        calcNormalCutVal(node);
       }
     }
 
     // Calculate the cut value of ordinary nodes
-    private void calcNormalCutVal(DotGraph graph, DNode node) {
+    private void calcNormalCutVal(DNode node) {
       int degreeThreshold = tree.degree(node) - 1;
       for (ULine uLine : tree.adjacent(node)) {
 
@@ -640,10 +913,10 @@ class FeasibleTree {
         DNode other = uLine.other(node);
         if (getNodeHavedCalcLineNum(nextNode = node) == degreeThreshold
             || getNodeHavedCalcLineNum(nextNode = other) == tree.degree(other) - 1) {
-          calcCutValByAdjNode(graph, nextNode, uLine);
+          calcCutValByAdjNode(nextNode, uLine);
         } else {
           // Directly loop over all edges straddling two components to compute the tangent
-          npCalcCutVal(graph, uLine);
+          npCalcCutVal(uLine);
         }
 
         offerCutQueen(other);
@@ -654,7 +927,7 @@ class FeasibleTree {
     /*-------------------------------------- Cut value calculation of various scenes near the tree --------------------------------------*/
 
     // Calculate the tangent value of the boundary node
-    private void calcBorderCutVal(DotGraph graph, DNode border) {
+    private void calcBorderCutVal(DNode border) {
       ULine uTreeLine = null;
       for (ULine uLine : tree.adjacent(border)) {
         uTreeLine = uLine;
@@ -674,7 +947,9 @@ class FeasibleTree {
 
       double cutVal = 0;
       boolean borderIsFrom = treeLine.from() == border;
-      for (ULine edge : graph.adjacent(border)) {
+      int v = graph.indexOf(border);
+      for (int i = graph.adjStart(v); i < graph.adjEnd(v); i++) {
+        ULine edge = graph.edge(graph.adjEdge(i));
 
         if (borderIsFrom == (edge.getdLine().from() == border)) {
           cutVal += edge.getdLine().weight();
@@ -691,17 +966,17 @@ class FeasibleTree {
     }
 
     // Directly calculate the tangent value through adjacent edges
-    private void calcCutValByAdjNode(DotGraph graph, DNode node, ULine treeLine) {
+    private void calcCutValByAdjNode(DNode node, ULine treeLine) {
       // Set the cut value and mark the tree edge as visited
       setCutValAndMarkTreeLine(
-          calcCutValByAdjTreeLine(graph, node, treeLine, tree::containEdge),
+          calcCutValByAdjTreeLine(graph, node, treeLine, ULine::inTree),
           treeLine
       );
     }
 
     // Computes the tangency of tree edges by exhaustively enumerating the edges spanning two components
-    private void npCalcCutVal(DotGraph graph, ULine treeLine) {
-      setCutValAndMarkTreeLine(halfDfsCalcCutVal(graph, treeLine), treeLine);
+    private void npCalcCutVal(ULine treeLine) {
+      setCutValAndMarkTreeLine(halfDfsCalcCutVal(treeLine), treeLine);
     }
 
     /*-------------------------------------- other computing operations --------------------------------------*/
@@ -744,13 +1019,6 @@ class FeasibleTree {
       lineCache.add(treeLine.getdLine());
       increaseNodeHavedCalcLineNum(treeLine.getdLine().from());
       increaseNodeHavedCalcLineNum(treeLine.getdLine().to());
-
-      if (cutVal < 0) {
-        if (negativeLine == null) {
-          negativeLine = new LinkedList<>();
-        }
-        negativeLine.offer(treeLine);
-      }
     }
 
     // Determine whether this edge has been calculated cut value
@@ -781,4 +1049,48 @@ class FeasibleTree {
 
     private boolean isInCutQueen;
   }
-}
\ No newline at end of file
+
+  private static class RankFrame {
+
+    private final DNode node;
+
+    private final Iterator<DLine> lines;
+
+    private int minRank;
+
+    private ULine minLine;
+
+    // The line to the adjacent node being visited
+    private ULine pending;
+
+    private RankFrame(DNode node, Iterator<DLine> lines) {
+      this.node = node;
+      this.lines = lines;
+    }
+
+    private void accept(ULine uLine) {
+      DLine dLine = uLine.getdLine();
+      minRank = Math.min(minRank, dLine.other(node).getRank() - dLine.limit());
+      node.setRank(minRank);
+
+      if (minLine == null || minLine.reduceLen() > uLine.reduceLen()) {
+        minLine = uLine;
+      }
+    }
+  }
+
+  private static class LimFrame {
+
+    private final DNode node;
+
+    private final Iterator<ULine> lines;
+
+    // The smallest lim among the subsequent nodes
+    private int low = Integer.MAX_VALUE;
+
+    private LimFrame(DNode node, Iterator<ULine> lines) {
+      this.node = node;
+      this.lines = lines;
+    }
+  }
+}
@@ -17,9 +17,11 @@
 package org.graphper.layout.dot;
 
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,11 +32,17 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import org.graphper.api.Cluster;
+import org.graphper.api.GraphAttrs;
 import org.graphper.api.GraphContainer;
 import org.graphper.api.Graphviz;
 import org.graphper.api.attributes.ClusterShape;
@@ -45,6 +53,9 @@ import org.graphper.def.FlatPoint;
 import org.graphper.draw.ClusterDrawProp;
 import org.graphper.draw.DrawGraph;
 import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.MetricsListener;
+import org.graphper.draw.MetricsListener.Counter;
+import org.graphper.draw.NodeDrawProp;
 import org.graphper.layout.PortHelper;
 import org.graphper.layout.dot.RankContent.RankNode;
 import org.graphper.layout.dot.RootCrossRank.CrossSnapshot;
@@ -77,6 +88,9 @@ class MinCross {
 
   private MinCrossDedigraph digraphProxy;
 
+  // The start number, 0 is the default start order and transpose schedule
+  private int seed;
+
   MinCross(RankContent rankContent, DotAttachment dotAttachment, boolean useQuickMode) {
     this.rankContent = rankContent;
     this.dotAttachment = dotAttachment;
@@ -98,6 +112,19 @@ class MinCross {
     this.clusterExpand = null;
   }
 
+  /*
+   * One start of the parallel mincross, works on the copies of the nodes and lines of parent, so
+   * that the order of nodes of parent will not be changed.
+   */
+  private MinCross(MinCross parent, int seed, Map<DNode, DNode> originals) {
+    this.rankContent = parent.rankContent;
+    this.dotAttachment = parent.dotAttachment;
+    this.useQuickMode = parent.useQuickMode;
+    this.seed = seed;
+    this.digraphProxy = parent.copyDigraphProxy(originals);
+    this.rootCrossRank = new RootCrossRank(dotAttachment.getDrawGraph(), digraphProxy);
+  }
+
   public EdgeDedigraph<DNode, DLine> getDigraphProxy() {
     return digraphProxy;
   }
@@ -259,17 +286,196 @@ class MinCross {
     if (clusterExpand != null) {
       clusterExpand.cluster = dotAttachment.getGraphviz();
     }
-    mincross(0, 2);
+
+    GraphAttrs graphAttrs = dotAttachment.getGraphviz().graphAttrs();
+    if (graphAttrs.getMcstarts() > 1 && !useQuickMode && !dotAttachment.haveClusters()) {
+      ForkJoinPool pool = graphAttrs.getMcpool();
+      parallelMincross(graphAttrs.getMcstarts(), pool != null ? pool : ForkJoinPool.commonPool());
+    } else {
+      mincross(0, 2);
+    }
 
     for (Cluster cluster : dotAttachment.clusters(dotAttachment.getGraphviz())) {
       mincrossCluster(cluster);
     }
 
+    MetricsListener metrics = dotAttachment.getDrawGraph().metrics();
+    if (metrics != MetricsListener.NOOP) {
+      metrics.count(Counter.CROSSINGS, rootCrossRank.crossSnapshot().getCrossNum());
+    }
+
     if (log.isDebugEnabled()) {
       log.debug("Mincross finished, using {}ms", System.currentTimeMillis() - start);
     }
   }
 
+  /*
+   * Seed 0 runs on the original graph in current thread first, so it is exactly the result of the
+   * single start. Then run the other starts in the pool, every start works on its own copy of the
+   * graph. All orders are measured again on the original graph and the one with the fewest
+   * crossings is kept, the original wins when the crossing numbers are same and the smaller seed
+   * wins between the starts, so the result is never worse than the single start and not depends
+   * on the thread scheduling.
+   */
+  private void parallelMincross(int starts, ForkJoinPool pool) {
+    mincross(0, 2);
+    CrossSnapshot best = rootCrossRank.crossSnapshot();
+
+    StartResult[] results = new StartResult[starts - 1];
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    CountDownLatch latch = new CountDownLatch(results.length);
+    generateHash();
+    for (int i = 0; i < results.length; i++) {
+      /*
+       * Copy the graph in current thread, the identity hash of nodes are generated by thread, copy
+       * in pool will make the order of hash containers of later phases unstable.
+       */
+      Map<DNode, DNode> originals = new HashMap<>(digraphProxy.vertexNum());
+      MinCross start = new MinCross(this, i + 1, originals);
+      int idx = i;
+      pool.execute(() -> {
+        try {
+          results[idx] = start.runStart(originals);
+        } catch (Throwable e) {
+          error.compareAndSet(null, e);
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+
+    /*
+     * Not use ForkJoinTask#join, the joining thread may steal and run the starts itself, then the
+     * identity hash sequence of current thread is changed by the scheduling, and the later phases
+     * will be unstable.
+     */
+    awaitStarts(latch);
+    if (error.get() != null) {
+      throw new IllegalStateException("Parallel mincross failed", error.get());
+    }
+
+    int bestSeed = 0;
+    for (StartResult result : results) {
+      CrossSnapshot snapshot = rootCrossRank.tryCacheCrossNum(result.order);
+      if (snapshot.getCrossNum() < best.getCrossNum()) {
+        best = snapshot;
+        bestSeed = result.seed;
+      }
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Parallel mincross finished, {} starts, best seed {} best_cross {}",
+                starts, bestSeed, best.getCrossNum());
+    }
+    rootCrossRank.updateCross(best);
+  }
+
+  private static void awaitStarts(CountDownLatch latch) {
+    try {
+      ForkJoinPool.managedBlock(new ManagedBlocker() {
+        @Override
+        public boolean block() throws InterruptedException {
+          latch.await();
+          return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+          return latch.getCount() == 0;
+        }
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parallel mincross interrupted", e);
+    }
+  }
+
+  /*
+   * Node#compareTo and Line#compareTo depend on the hash of the attributes, which contains the
+   * identity hash of enums, and the identity hash is generated by thread. Generate them in current
+   * thread before any start compares the nodes and lines, otherwise the result of mincross will be
+   * different each time.
+   */
+  private void generateHash() {
+    for (DNode node : digraphProxy) {
+      NodeDrawProp nodeDrawProp = node.getNodeDrawProp();
+      if (nodeDrawProp != null) {
+        nodeDrawProp.hashCode();
+        nodeDrawProp.nodeAttrs().hashCode();
+      }
+      if (node.getContainer() != null) {
+        node.getContainer().hashCode();
+      }
+      for (DLine line : digraphProxy.outAdjacent(node)) {
+        LineDrawProp lineDrawProp = line.getLineDrawProp();
+        if (lineDrawProp != null) {
+          lineDrawProp.hashCode();
+          lineDrawProp.getLine().hashCode();
+          lineDrawProp.lineAttrs().hashCode();
+        }
+      }
+    }
+  }
+
+  private StartResult runStart(Map<DNode, DNode> originals) {
+    mincross(0, 2);
+
+    BasicCrossRank order = new BasicCrossRank(dotAttachment.getGraphviz());
+    for (int i = rootCrossRank.minRank(); i <= rootCrossRank.maxRank(); i++) {
+      for (int j = 0; j < rootCrossRank.rankSize(i); j++) {
+        order.addNode(originals.get(rootCrossRank.getNode(i, j)));
+      }
+    }
+    return new StartResult(seed, order);
+  }
+
+  private MinCrossDedigraph copyDigraphProxy(Map<DNode, DNode> originals) {
+    DrawGraph drawGraph = dotAttachment.getDrawGraph();
+    Map<DNode, DNode> copies = new HashMap<>(digraphProxy.vertexNum());
+    MinCrossDedigraph copy = new MinCrossDedigraph(digraphProxy.vertexNum());
+    for (DNode node : digraphProxy) {
+      DNode n = new DNode(node);
+      copies.put(node, n);
+      originals.put(n, node);
+      copy.add(n);
+    }
+
+    for (DNode node : digraphProxy) {
+      for (DLine line : digraphProxy.outAdjacent(node)) {
+        DLine l = new DLine(copies.get(line.from()), copies.get(line.to()),
+                            line.getLineDrawProp(), line.weight(), line.limit(),
+                            line.getLabelSize());
+        // Keep the merged parallel edges, the weight and label of line depend on them
+        for (int i = 1; i < line.getParallelNums(); i++) {
+          l.addParallelEdge(line.parallelLine(i));
+        }
+        copy.addEdge(l, drawGraph);
+      }
+    }
+    return copy;
+  }
+
+  /*
+   * Shuffle the nodes of every rank by the seed before the dfs initial order, then the dfs will
+   * start from the different nodes.
+   */
+  private void shuffleStartOrder(CrossRank crossRank) {
+    if (seed == 0) {
+      return;
+    }
+
+    Random random = new Random(seed);
+    Map<DNode, Integer> position = new HashMap<>();
+    for (int i = crossRank.minRank(); i <= crossRank.maxRank(); i++) {
+      List<DNode> nodes = new ArrayList<>(crossRank.getNodes(i));
+      Collections.shuffle(nodes, random);
+      for (int j = 0; j < nodes.size(); j++) {
+        position.put(nodes.get(j), j);
+      }
+      crossRank.sort(i, Comparator.comparing(position::get), false);
+    }
+  }
+
   private void mincrossCluster(Cluster cluster) {
     SameRankAdjacentRecord sameRankAdjacentRecord = rootCrossRank.getSameRankAdjacentRecord();
 
@@ -509,8 +715,10 @@ class MinCross {
      * 1. Use the dfs initialize the default order to avoid obvious cross;
      * 2. Select less cross sequence between top-bottom and bottom-top access.
      */
+    boolean outFirst = seed % 2 == 0;
     BasicCrossRank c = optimal.getCrossRank().clone();
-    new InitSort(c, c.container(), dotAttachment.getDrawGraph(), true);
+    shuffleStartOrder(c);
+    new InitSort(c, c.container(), dotAttachment.getDrawGraph(), outFirst);
     CrossSnapshot cn = rootCrossRank.tryCacheCrossNum(c);
     if (c.container().haveChildCluster() || cn.getCrossNum() <= optimal.getCrossNum()) {
       optimal = cn;
@@ -518,7 +726,7 @@ class MinCross {
     }
 
     c = optimal.getCrossRank().clone();
-    new InitSort(c, c.container(), dotAttachment.getDrawGraph(), false);
+    new InitSort(c, c.container(), dotAttachment.getDrawGraph(), !outFirst);
     cn = rootCrossRank.tryCacheCrossNum(c);
     if (cn.getCrossNum() < optimal.getCrossNum()) {
       optimal = cn;
@@ -533,6 +741,9 @@ class MinCross {
       logQuickModeStep(2);
       mincrossStep(1);
       logQuickModeStep(3);
+      MetricsListener metrics = dotAttachment.getDrawGraph().metrics();
+      metrics.count(Counter.MINCROSS_PASSES, 1);
+      metrics.count(Counter.MINCROSS_ITERATIONS, 2);
     } else {
       runDotMincrossProcess(startPass, endPass, maxIter, minQuit, optimal);
     }
@@ -549,7 +760,9 @@ class MinCross {
   }
 
   private CrossSnapshot runDotMincrossProcess(int startPass, int endPass, int maxIter, int minQuit, CrossSnapshot optimal) {
+    MetricsListener metrics = dotAttachment.getDrawGraph().metrics();
     for (int pass = startPass; pass <= endPass; pass++) {
+      metrics.count(Counter.MINCROSS_PASSES, 1);
       if (pass <= 1) {
         flatOrder(optimal.getCrossRank());
         optimal = rootCrossRank.crossSnapshot();
@@ -567,6 +780,7 @@ class MinCross {
 
         int preOptimalCrossNum = optimal.getCrossNum();
         mincrossStep(i);
+        metrics.count(Counter.MINCROSS_ITERATIONS, 1);
         optimal = rootCrossRank.crossSnapshot();
 
         if (preOptimalCrossNum * CONVERGENCE <= optimal.getCrossNum()) {
@@ -583,7 +797,8 @@ class MinCross {
 
   private void mincrossStep(int iterNum) {
     rootCrossRank.vmedian(iterNum);
-    rootCrossRank.transpose(iterNum % 4 >= 2);
+    // Different seeds shift the schedule of reverse transpose
+    rootCrossRank.transpose((iterNum + seed / 2) % 4 >= 2);
   }
 
   private void flatOrder(CrossRank crossRank) {
@@ -629,36 +844,53 @@ class MinCross {
 
   private int postOrder(int connectNo, int[] no, DNode node, Set<DNode> mark,
                         Map<DNode, Map.Entry<Integer, Integer>> orderRecord) {
+    // Post-order visit with an explicit stack, the connect no of child is returned to its parent
+    Deque<PostOrderFrame> stack = new ArrayDeque<>();
     mark.add(node);
+    stack.push(new PostOrderFrame(node, outAdjacent(node), connectNo));
 
-    if (rootCrossRank.getSameRankAdjacentRecord() == null) {
-      orderRecord.put(node, new AbstractMap.SimpleEntry<>(connectNo, no[0]++));
-      return connectNo;
-    }
-
-    Set<DNode> adjacent = rootCrossRank.getSameRankAdjacentRecord().outAdjacent(node);
-    if (CollectionUtils.isNotEmpty(adjacent)) {
-      for (DNode dNode : adjacent) {
-        if (node.getContainer() != dNode.getContainer()) {
+    while (!stack.isEmpty()) {
+      PostOrderFrame frame = stack.peek();
+      if (frame.adjacent != null && frame.adjacent.hasNext()) {
+        DNode dNode = frame.adjacent.next();
+        if (frame.node.getContainer() != dNode.getContainer()) {
           continue;
         }
 
         if (mark.contains(dNode)) {
           Entry<Integer, Integer> accessOrder = orderRecord.get(dNode);
-          if (accessOrder != null) {
-            connectNo = accessOrder.getKey() != null ? accessOrder.getKey() : connectNo;
+          if (accessOrder != null && accessOrder.getKey() != null) {
+            frame.connectNo = accessOrder.getKey();
           }
           continue;
         }
 
-        connectNo = postOrder(connectNo, no, dNode, mark, orderRecord);
+        mark.add(dNode);
+        stack.push(new PostOrderFrame(dNode, outAdjacent(dNode), frame.connectNo));
+        continue;
       }
-    }
 
-    orderRecord.put(node, new AbstractMap.SimpleEntry<>(connectNo, no[0]++));
+      stack.pop();
+      orderRecord.put(frame.node, new AbstractMap.SimpleEntry<>(frame.connectNo, no[0]++));
+      PostOrderFrame parent = stack.peek();
+      if (parent != null) {
+        parent.connectNo = frame.connectNo;
+      }
+      connectNo = frame.connectNo;
+    }
     return connectNo;
   }
 
+  private Iterator<DNode> outAdjacent(DNode node) {
+    SameRankAdjacentRecord sameRankAdjacentRecord = rootCrossRank.getSameRankAdjacentRecord();
+    if (sameRankAdjacentRecord == null) {
+      return null;
+    }
+
+    Set<DNode> adjacent = sameRankAdjacentRecord.outAdjacent(node);
+    return CollectionUtils.isNotEmpty(adjacent) ? adjacent.iterator() : null;
+  }
+
   private class ClusterExpand implements ExpandInfoProvider {
 
     private GraphContainer cluster;
@@ -881,7 +1113,44 @@ class MinCross {
       crossRank.sort(comparator, false);
     }
 
-    private void dfs(DNode from, Function<DNode, Iterable<DLine>> adjacentFunc, ComOrder component) {
+    /*
+     * Depth-first visit with an explicit stack, a node is placed at the next index of its rank when
+     * it is first visited.
+     */
+    private void dfs(DNode source, Function<DNode, Iterable<DLine>> adjacentFunc,
+                     ComOrder component) {
+      Deque<InitSortFrame> stack = new ArrayDeque<>();
+      stack.push(visit(source, adjacentFunc, component));
+
+      while (!stack.isEmpty()) {
+        InitSortFrame frame = stack.peek();
+        DNode to;
+        DLine dLine;
+        if (frame.lines.hasNext()) {
+          dLine = frame.lines.next();
+          to = dLine.other(frame.from);
+        } else if (frame.clusterAdjRankNode != null) {
+          /*
+           * If from node in cluster, the rank of from node located possible
+           * no any edges with the merge node of adjacent rank, we should
+           * guarantee the next rank merge node accessed first even no any edges between them.
+           */
+          to = frame.clusterAdjRankNode;
+          dLine = null;
+          frame.clusterAdjRankNode = null;
+        } else {
+          stack.pop();
+          continue;
+        }
+
+        if (needVisit(frame, to, dLine, component)) {
+          stack.push(visit(to, adjacentFunc, component));
+        }
+      }
+    }
+
+    private InitSortFrame visit(DNode from, Function<DNode, Iterable<DLine>> adjacentFunc,
+                                ComOrder component) {
       mark(from, component);
 
       int idx = rankAccessIndex.getOrDefault(from.getRank(), 0);
@@ -891,52 +1160,37 @@ class MinCross {
       GraphContainer fromContainer = dotAttachment
           .clusterDirectContainer(crossRank.container(), from);
       fromContainer = fromContainer == null ? from.getContainer() : fromContainer;
-      int fromMin = 0;
-      int fromMax = 0;
-      DNode clusterAdjRankNode = null;
+      InitSortFrame frame = new InitSortFrame(from, fromContainer);
 
       if (fromContainer.isCluster() && clusterExpand != null
           && clusterExpand.clusterMerge != null) {
         Cluster cluster = (Cluster) fromContainer;
-        fromMin = clusterExpand.clusterMerge.minRank(cluster);
-        fromMax = clusterExpand.clusterMerge.maxRank(cluster);
+        frame.fromMin = clusterExpand.clusterMerge.minRank(cluster);
+        frame.fromMax = clusterExpand.clusterMerge.maxRank(cluster);
 
         /*
          * Get merge node of adjacent of cluster
          */
-        clusterAdjRankNode = clusterExpand.clusterMerge
+        frame.clusterAdjRankNode = clusterExpand.clusterMerge
             .clusterMergeAdjRankNode(cluster, from, isOutDirection);
       }
 
-      Iterable<DLine> adjacent = adjacentFunc.apply(from);
-      for (DLine dLine : adjacent) {
-        DNode to = dLine.other(from);
-        toDfs(from, adjacentFunc, fromContainer, fromMin, fromMax, to, dLine, component);
-      }
-
-      /*
-       * If from node in cluster, the rank of from node located possible
-       * no any edges with the merge node of adjacent rank, we should
-       * guarantee the next rank merge node accessed first even no any edges between them.
-       */
-      if (clusterAdjRankNode != null) {
-        toDfs(from, adjacentFunc, fromContainer, fromMin, fromMax, clusterAdjRankNode, null, component);
-      }
+      frame.lines = adjacentFunc.apply(from).iterator();
+      return frame;
     }
 
-    private void toDfs(DNode from, Function<DNode, Iterable<DLine>> adjacentFunc,
-                       GraphContainer fromContainer, int fromMin,
-                       int fromMax, DNode to, DLine dLine, ComOrder component) {
+    private boolean needVisit(InitSortFrame frame, DNode to, DLine dLine, ComOrder component) {
+      DNode from = frame.from;
       /*
        * 1. Make sure cluster of to not intersect with cluster of from;
        * 2. Make sure only access head or tail node when to node in different cluster.
        */
-      if (canNotAccessDiffCluster(from, fromContainer, fromMin, fromMax, to)) {
-        return;
+      if (canNotAccessDiffCluster(from, frame.fromContainer, frame.fromMin, frame.fromMax, to)) {
+        return false;
       }
 
       if (dotAttachment.notContains(graphContainer, to.getContainer())) {
-        return;
+        return false;
       }
 
       if (to.getRank() == from.getRank() && dLine != null) {
@@ -947,17 +1201,17 @@ class MinCross {
 
           sameRankAdjacentRecord.addOutAdjacent(from, dLine);
         }
-        return;
+        return false;
       }
 
       ComOrder toCom = nodeComOrderMap.get(to);
       if (toCom != null) {
         // addComponent order
         component.addRefCom(toCom);
-        return;
+        return false;
       }
 
-      dfs(to, adjacentFunc, component);
+      return true;
     }
 
     private boolean canNotAccessDiffCluster(DNode from, GraphContainer fromContainer,
@@ -1075,6 +1329,18 @@ class MinCross {
     }
   }
 
+  private static class StartResult {
+
+    private final int seed;
+
+    private final BasicCrossRank order;
+
+    private StartResult(int seed, BasicCrossRank order) {
+      this.seed = seed;
+      this.order = order;
+    }
+  }
+
   private static class ClusterRankRange {
 
     private int minRank = Integer.MAX_VALUE;
@@ -1207,6 +1473,41 @@ class MinCross {
     }
   }
 
+  private static class PostOrderFrame {
+
+    private final DNode node;
+
+    private final Iterator<DNode> adjacent;
+
+    private int connectNo;
+
+    private PostOrderFrame(DNode node, Iterator<DNode> adjacent, int connectNo) {
+      this.node = node;
+      this.adjacent = adjacent;
+      this.connectNo = connectNo;
+    }
+  }
+
+  private static class InitSortFrame {
+
+    private final DNode from;
+
+    private final GraphContainer fromContainer;
+
+    private int fromMin;
+
+    private int fromMax;
+
+    private DNode clusterAdjRankNode;
+
+    private Iterator<DLine> lines;
+
+    private InitSortFrame(DNode from, GraphContainer fromContainer) {
+      this.from = from;
+      this.fromContainer = fromContainer;
+    }
+  }
+
   private static class ComOrder implements Comparable<ComOrder> {
     private double order;
     private List<ComOrder> refComs;
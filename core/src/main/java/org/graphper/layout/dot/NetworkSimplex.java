@@ -16,20 +16,20 @@
 
 package org.graphper.layout.dot;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Set;
 import java.util.function.Consumer;
-import org.graphper.layout.Mark;
+import org.graphper.def.CsrGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.graphper.util.Asserts;
-import org.graphper.util.CollectionUtils;
 import org.graphper.layout.dot.RankContent.RankNode;
 
 /**
@@ -52,16 +52,30 @@ class NetworkSimplex {
 
   private static final Logger log = LoggerFactory.getLogger(NetworkSimplex.class);
 
+  // The max number of negative tree edges compared when searching a leaving edge
+  private static final int SEARCH_SIZE = 30;
+
   private RankContent rankContent;
 
   private final DotDigraph dotDigraph;
 
   private FeasibleTree feasibleTree;
 
-  private Queue<ULine> negativeLine;
+  // The tree index where the next leaving edge search starts
+  private int searchIndex;
+
+  // The leaving edge of the current entering edge search
+  private ULine searchOutLine;
+
+  // The entering edge with the least slack of the current search
+  private ULine minSlackLine;
+
+  private final Consumer<ULine> enterLineConsumer = this::acceptEnterLine;
 
   // The tree edge that needs to modify the cut value
-  private ArrayList<ULine> updateCutvalLines;
+  private final ArrayList<ULine> updateCutvalLines = new ArrayList<>();
+
+  private final Consumer<ULine> updateCutvalLineConsumer = updateCutvalLines::add;
 
   // The starting node of the path to recalculate the cut value
   private DNode calcCutvalHead;
@@ -95,7 +109,6 @@ class NetworkSimplex {
     Asserts.illegalArgument(rankSep < 0, "rankSpace (" + rankSep + ") must be > 0");
     this.feasibleTree = feasibleTree;
     this.dotDigraph = feasibleTree.getDotDigraph();
-    this.negativeLine = feasibleTree.negativeLine();
     this.positiveRank = positiveRank;
     this.rankSep = rankSep;
 
@@ -130,25 +143,21 @@ class NetworkSimplex {
 
     ULine out;
     int count = 0;
-    List<Set<DNode>> halfNodeRecord = null;
 
     /*
      * 1.Pop out edges with negative tangent;
      * 2.Find a replacement tree edge;
      * 3.Do this until there are no negative tangent tree edges or the iteration limit is reached.
      */
-    while ((out = negativeTreeLine()) != null && count++ < nsLimit) {
-      if (halfNodeRecord == null) {
-        halfNodeRecord = new ArrayList<>(1);
-      }
-      halfNodeRecord.clear();
-      ULine enter = findEnterLine(out, halfNodeRecord);
+    while ((out = leaveLine()) != null && count++ < nsLimit) {
+      ULine enter = findEnterLine(out);
 
       if (enter == null) {
-        continue;
+        log.debug("{} no entering line for {}", prefix, out);
+        break;
       }
 
-      enterLine(enter, out, halfNodeRecord.get(0));
+      enterLine(enter, out);
       if (log.isDebugEnabled() && count % 100 == 0) {
         log.debug("{} {}", prefix, count);
       }
@@ -160,32 +169,36 @@ class NetworkSimplex {
     }
   }
 
-  private ULine findEnterLine(ULine outLine, List<Set<DNode>> halfNodeRecord) {
-    ULine[] minSlackLine = new ULine[]{null};
-    int[] minSlack = new int[]{Integer.MAX_VALUE};
+  /*
+   * Find the enter line of the out line, the nodes of the half component which searched can be
+   * accessed from feasible tree until next search.
+   */
+  private ULine findEnterLine(ULine outLine) {
+    searchOutLine = outLine;
+    minSlackLine = null;
 
     // Find all edges that span the tail and head components, and get the edge with the least slack as a replacement edge.
-    Consumer<ULine> consumer = uLine -> {
-      // Remove edges that do not straddle tail and head.
-      if (!FeasibleTree.isCross(outLine.getdLine(), uLine.getdLine())
-          || FeasibleTree.inTail(uLine.getdLine().from(), outLine.getdLine())) {
-        return;
-      }
+    feasibleTree.halfDfs(outLine, enterLineConsumer);
+    ULine enter = minSlackLine;
+    searchOutLine = null;
+    minSlackLine = null;
+    return enter;
+  }
 
-      int slack = uLine.reduceLen();
-      // If the slack is less than the current minimum slack edge, the current edge becomes the minimum slack edge.
-      if (minSlackLine[0] == null || slack < minSlack[0]) {
-        minSlackLine[0] = uLine;
-        minSlack[0] = slack;
-      }
-    };
+  private void acceptEnterLine(ULine uLine) {
+    // Remove edges that do not straddle tail and head.
+    if (!FeasibleTree.isCross(searchOutLine.getdLine(), uLine.getdLine())
+        || FeasibleTree.inTail(uLine.getdLine().from(), searchOutLine.getdLine())) {
+      return;
+    }
 
-    // Add component nodes
-    halfNodeRecord.add(FeasibleTree.halfDfs(feasibleTree.graph(), outLine, consumer));
-    return minSlackLine[0];
+    // If the slack is less than the current minimum slack edge, the current edge becomes the minimum slack edge.
+    if (minSlackLine == null || uLine.reduceLen() < minSlackLine.reduceLen()) {
+      minSlackLine = uLine;
+    }
   }
 
-  private void enterLine(ULine enterLine, ULine outLine, Set<DNode> halfNodes) {
+  private void enterLine(ULine enterLine, ULine outLine) {
     /*
      * 1.Find all tree edges that need to change the cut value;
      * 2.Remove old tree edges and add new ones;
@@ -206,8 +219,7 @@ class NetworkSimplex {
       root = publicRoot(tree, root, largeLimNode, null);
     }
 
-    tree.removeLine(outLine);
-    tree.addEdge(enterLine);
+    feasibleTree.exchangeTreeLine(outLine, enterLine);
 
     // Reset rank
     if (enterLine.reduceLen() != 0) {
@@ -216,17 +228,18 @@ class NetworkSimplex {
       DNode t = FeasibleTree.inTail(outLine.either(), outLine.getdLine())
           ? outLine.either() : outLine.other(outLine.either());
 
-      if (halfNodes.contains(t)) {
+      if (feasibleTree.inHalf(t)) {
         r = -r;
       }
 
-      for (DNode halfNode : halfNodes) {
+      for (int i = 0; i < feasibleTree.halfNum(); i++) {
+        DNode halfNode = feasibleTree.halfNode(i);
         halfNode.setRank(halfNode.getRank() + r);
       }
     }
 
     // Change the value of low and lim, and reset the rank of some nodes.
-    new LowLimCalc(tree, root);
+    lowLim(tree, root);
 
     // update edge tangent.
     updateCutval();
@@ -242,7 +255,7 @@ class NetworkSimplex {
       lrBalance();
 
       if (needRankContent) {
-        this.rankContent = new RankContent(feasibleTree.graph(), rankSep,
+        this.rankContent = new RankContent(feasibleTree.graph().toArray(DNode[]::new), rankSep,
                                            positiveRank, sortNodesConsumer);
       }
       return null;
@@ -255,15 +268,17 @@ class NetworkSimplex {
    * Within each rank, this can have a better aspect ratio.
    * */
   private Map<Integer, DNode> tbBalance(Consumer<DNode[]> sortNodesConsumer) {
-    DotGraph dotGraph = feasibleTree.graph();
+    CsrGraph<DNode, ULine> graph = feasibleTree.graph();
 
     Map<Integer, DNode> connectLowRank = feasibleTree.isHaveUnconnectedGraph()
         ? new HashMap<>()
         : null;
-    this.rankContent = new RankContent(dotGraph, rankSep, positiveRank, sortNodesConsumer);
+    this.rankContent = new RankContent(graph.toArray(DNode[]::new), rankSep, positiveRank,
+                                       sortNodesConsumer);
 
     // Each node has a greedy way to obtain the most balanced rank allocation in the current situation.
-    for (DNode node : dotGraph) {
+    for (int v = 0; v < graph.vertexNum(); v++) {
+      DNode node = graph.vertex(v);
       int connectNo = feasibleTree.getConnectNo(node);
       if (connectLowRank != null) {
         connectLowRank.compute(connectNo, (c, n) -> {
@@ -293,7 +308,8 @@ class NetworkSimplex {
       boolean canNotMove = false;
 
       // Cycle all in- and out-degree edges of a node.
-      for (ULine uLine : dotGraph.adjacent(node)) {
+      for (int i = graph.adjStart(v); i < graph.adjEnd(v); i++) {
+        ULine uLine = graph.edge(graph.adjEdge(i));
         DNode other = uLine.other(node);
         int otherRank = other.getRank();
 
@@ -376,7 +392,6 @@ class NetworkSimplex {
   }
 
   private void lrBalance() {
-    List<Set<DNode>> halfNodeRecord = null;
     Set<ULine> lineMarks = new HashSet<>(feasibleTree.tree().edgeNum());
     for (DNode n : feasibleTree.tree()) {
       for (ULine e : feasibleTree.tree().adjacent(n)) {
@@ -386,13 +401,7 @@ class NetworkSimplex {
 
         lineMarks.add(e);
 
-        if (halfNodeRecord == null) {
-          halfNodeRecord = new ArrayList<>();
-        } else {
-          halfNodeRecord.clear();
-        }
-
-        ULine enter = findEnterLine(e, halfNodeRecord);
+        ULine enter = findEnterLine(e);
         if (enter == null) {
           continue;
         }
@@ -403,14 +412,14 @@ class NetworkSimplex {
         }
 
         DNode from = enter.getdLine().from();
-        Set<DNode> halfNodes = halfNodeRecord.get(0);
-        if (halfNodes.contains(from)) {
+        if (feasibleTree.inHalf(from)) {
           delta /= -2;
         } else {
           delta /= 2;
         }
 
-        for (DNode halfNode : halfNodes) {
+        for (int i = 0; i < feasibleTree.halfNum(); i++) {
+          DNode halfNode = feasibleTree.halfNode(i);
           halfNode.setRank(halfNode.getRank() - delta);
         }
       }
@@ -428,7 +437,7 @@ class NetworkSimplex {
     DNode current = calcCutvalHead = from;
 
     // Find the common node of the two nodes of the replacement edge, and add from to the path of this node
-    current = publicRoot(tree, to, current, this::addUpdateCutvalLines);
+    current = publicRoot(tree, to, current, updateCutvalLineConsumer);
     DNode root = current;
 
     // Add public nodes to the path "to"
@@ -441,7 +450,7 @@ class NetworkSimplex {
 
         current = other;
 
-        addUpdateCutvalLines(uLine);
+        updateCutvalLines.add(uLine);
         break;
       }
     }
@@ -473,12 +482,6 @@ class NetworkSimplex {
    * these tree edges can be calculated by the tangent values of adjacent tree edges.
    * */
   private void updateCutval() {
-    if (CollectionUtils.isEmpty(updateCutvalLines)) {
-      return;
-    }
-
-    DotGraph tree = feasibleTree.tree();
-
     // Calculate from the head of the node list composed of the edge paths that change the cut value.
     DNode current = calcCutvalHead;
     for (int i = 0; i < updateCutvalLines.size(); i++) {
@@ -487,16 +490,11 @@ class NetworkSimplex {
           feasibleTree.graph(),
           current,
           updateCutvalLine,
-          tree::containEdge
+          ULine::inTree
       );
 
       updateCutvalLine.getdLine().setCutVal(cutval);
       current = updateCutvalLine.other(current);
-
-      // If the modified tree edge cut value is less than 0, re-throw it into the queue for calculating the cut value.
-      if (cutval < 0) {
-        negativeLine.offer(updateCutvalLine);
-      }
     }
   }
 
@@ -505,31 +503,35 @@ class NetworkSimplex {
     return source.getLow() > target.getLim() || source.getLim() < target.getLim();
   }
 
-  private void addUpdateCutvalLines(ULine uLine) {
-    if (updateCutvalLines == null) {
-      updateCutvalLines = new ArrayList<>();
-    }
-
-    updateCutvalLines.add(uLine);
-  }
-
   /*
-   * Finding negatively weighted edges in a tree.
+   * Find the leaving tree edge with negative cut value. The search starts at the tree index where
+   * the last search stopped and goes around all tree edges, stops after SEARCH_SIZE negative tree
+   * edges are found, and returns the most negative one of them.
    */
-  private ULine negativeTreeLine() {
-    if (CollectionUtils.isEmpty(negativeLine)) {
-      return null;
-    }
+  private ULine leaveLine() {
+    int treeLineNum = feasibleTree.treeLineNum();
+    ULine leave = null;
+    int count = 0;
+    for (int i = 0, idx = searchIndex; i < treeLineNum; i++, idx++) {
+      if (idx == treeLineNum) {
+        idx = 0;
+      }
+
+      ULine treeLine = feasibleTree.treeLine(idx);
+      if (treeLine.cutVal() >= 0) {
+        continue;
+      }
 
-    ULine negative;
-    do {
-      if (CollectionUtils.isEmpty(negativeLine)) {
-        return null;
+      if (leave == null || treeLine.cutVal() < leave.cutVal()) {
+        leave = treeLine;
       }
-      negative = negativeLine.poll();
-    } while (negative != null && negative.getdLine().getCutVal() >= 0);
+      if (++count >= SEARCH_SIZE) {
+        searchIndex = idx;
+        break;
+      }
+    }
 
-    return negative;
+    return leave;
   }
 
   private boolean isInEdge(DNode node, ULine uLine) {
@@ -560,76 +562,105 @@ class NetworkSimplex {
     }
   }
 
-  private void dfs(Set<DNode> mark, DNode node, int rankOffset) {
-    mark.add(node);
-    RankNode sourceRankNode = rankContent.get(node.getRank());
-    RankNode targetRankNode = rankContent.get(node.getRank() - rankOffset);
-    if (sourceRankNode == targetRankNode) {
-      return;
+  // Pre-order visit of tree with an explicit stack, the subtree of a node without moving is skipped
+  private void dfs(Set<DNode> mark, DNode source, int rankOffset) {
+    Deque<TreeFrame> stack = new ArrayDeque<>();
+    if (moveRank(mark, source, rankOffset)) {
+      stack.push(new TreeFrame(source, null, feasibleTree.tree().adjacent(source).iterator()));
     }
 
-    updateRank(node, sourceRankNode, targetRankNode);
-
-    for (ULine uLine : feasibleTree.tree().adjacent(node)) {
-      DNode other = uLine.other(node);
+    while (!stack.isEmpty()) {
+      TreeFrame frame = stack.peek();
+      if (!frame.lines.hasNext()) {
+        stack.pop();
+        continue;
+      }
 
-      if (mark.contains(other)) {
+      ULine uLine = frame.lines.next();
+      DNode other = uLine.other(frame.node);
+      if (mark.contains(other) || !moveRank(mark, other, rankOffset)) {
         continue;
       }
 
-      dfs(mark, other, rankOffset);
+      stack.push(new TreeFrame(other, uLine, feasibleTree.tree().adjacent(other).iterator()));
+    }
+  }
+
+  private boolean moveRank(Set<DNode> mark, DNode node, int rankOffset) {
+    mark.add(node);
+    RankNode sourceRankNode = rankContent.get(node.getRank());
+    RankNode targetRankNode = rankContent.get(node.getRank() - rankOffset);
+    if (sourceRankNode == targetRankNode) {
+      return false;
     }
+
+    updateRank(node, sourceRankNode, targetRankNode);
+    return true;
   }
 
   private void clear() {
-    updateCutvalLines = null;
-    negativeLine = null;
     feasibleTree = null;
   }
 
-  private static class LowLimCalc extends Mark<DNode> {
-
-    private int reserveCount;
-
-    private int low = Integer.MAX_VALUE;
-
-    private final DNode root;
+  /*
+   * Renumber the (low, lim) of the subtree of root, the subtree keeps the same nodes after the
+   * exchange of tree edges, so the numbers start from the low of root.
+   */
+  private void lowLim(DotGraph tree, DNode root) {
+    int rootLow = root.getLow();
+    int rootLim = root.getLim();
+    int lim = rootLow - 1;
+
+    // Post-order visit of the subtree with an explicit stack
+    Deque<TreeFrame> stack = new ArrayDeque<>();
+    stack.push(new TreeFrame(root, null, tree.adjacent(root).iterator()));
+    while (!stack.isEmpty()) {
+      TreeFrame frame = stack.peek();
+      if (frame.lines.hasNext()) {
+        ULine e = frame.lines.next();
+        if (e == frame.parent) {
+          continue;
+        }
 
-    private LowLimCalc(DotGraph tree, DNode node) {
-      super(tree.vertexNum());
+        // The parent of root is not in the subtree
+        DNode w = e.other(frame.node);
+        if (w.getLim() < rootLow || w.getLim() >= rootLim) {
+          continue;
+        }
 
-      this.root = node;
+        stack.push(new TreeFrame(w, e, tree.adjacent(w).iterator()));
+        continue;
+      }
 
-      reserveCount = node.getLow() - 1;
+      stack.pop();
+      DNode v = frame.node;
+      lim++;
+      v.setLow(Math.min(frame.low, lim));
+      v.setLim(lim);
 
-      dfs(tree, node);
+      TreeFrame parent = stack.peek();
+      if (parent != null) {
+        parent.low = Math.min(parent.low, v.getLow());
+      }
     }
+  }
 
-    private void dfs(DotGraph tree, DNode v) {
-      mark(v);
-      int tmpLow = Integer.MAX_VALUE;
-
-      for (ULine e : tree.adjacent(v)) {
-        DNode w = e.other(v);
+  private static class TreeFrame {
 
-        if (isMark(w) || !isRightNode(w)) {
-          continue;
-        }
+    private final DNode node;
 
-        dfs(tree, w);
-        tmpLow = Math.min(tmpLow, low);
-        low = Integer.MAX_VALUE;
-      }
+    // The tree edge from parent node
+    private final ULine parent;
 
-      int lim = ++reserveCount;
-      low = Math.min(tmpLow, lim);
+    private final Iterator<ULine> lines;
 
-      v.setLow(low);
-      v.setLim(lim);
-    }
+    // The smallest low among the children
+    private int low = Integer.MAX_VALUE;
 
-    private boolean isRightNode(DNode node) {
-      return node != root && node.getLim() >= root.getLow() && node.getLim() < root.getLim();
+    private TreeFrame(DNode node, ULine parent, Iterator<ULine> lines) {
+      this.node = node;
+      this.parent = parent;
+      this.lines = lines;
     }
   }
 }
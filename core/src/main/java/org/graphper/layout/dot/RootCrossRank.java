@@ -16,6 +16,7 @@
 
 package org.graphper.layout.dot;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import java.util.function.Consumer;
 import java.util.function.IntConsumer;
 import org.graphper.api.GraphContainer;
 import org.graphper.api.attributes.Layout;
+import org.graphper.def.CsrGraph;
 import org.graphper.def.DedirectedEdgeGraph;
 import org.graphper.def.EdgeDedigraph;
 import org.graphper.draw.DrawGraph;
@@ -35,6 +37,7 @@ import org.graphper.layout.PortHelper;
 import org.graphper.layout.dot.MinCross.ClusterMerge;
 import org.graphper.util.Asserts;
 import org.graphper.util.CollectionUtils;
+import org.graphper.util.EnvProp;
 
 class RootCrossRank implements CrossRank {
 
@@ -48,11 +51,17 @@ class RootCrossRank implements CrossRank {
 
   private final EdgeDedigraph<DNode, DLine> digraphProxy;
 
+  // Index snapshot of digraphProxy, rebuild when used after digraphProxy changed
+  private CsrGraph<DNode, DLine> adjacency;
+
   // Cross Number Cache
   private CrossCache crossCache;
 
-  // Reusable consumer for cross calculations
-  private final CrossCalc crossCalc;
+  // Counter of crossings between two adjacent ranks
+  private final CrossCounter crossCounter;
+
+  // The original pairwise counter, used as fallback and for quality check
+  private final CrossCounter pairCrossCounter;
 
   private SameRankAdjacentRecord sameRankAdjacentRecord;
 
@@ -64,7 +73,8 @@ class RootCrossRank implements CrossRank {
     this.root = new BasicCrossRank(drawGraph.getGraphviz());
     this.digraphProxy = new DedirectedEdgeGraph<>();
     this.crossCache = new CrossCache();
-    this.crossCalc = new CrossCalc();
+    this.pairCrossCounter = new PairCrossCounter();
+    this.crossCounter = newCrossCounter();
     this.clusterMerge = clusterMerge;
   }
 
@@ -75,7 +85,8 @@ class RootCrossRank implements CrossRank {
     this.root = new BasicCrossRank(drawGraph.getGraphviz());
     this.digraphProxy = digraphProxy;
     this.crossCache = new CrossCache();
-    this.crossCalc = new CrossCalc();
+    this.pairCrossCounter = new PairCrossCounter();
+    this.crossCounter = newCrossCounter();
     for (DNode node : digraphProxy) {
       addNode(node, Boolean.FALSE);
     }
@@ -139,6 +150,13 @@ class RootCrossRank implements CrossRank {
     return digraphProxy;
   }
 
+  private CsrGraph<DNode, DLine> adjacency() {
+    if (adjacency == null) {
+      adjacency = CsrGraph.of(digraphProxy);
+    }
+    return adjacency;
+  }
+
   BasicCrossRank getBasicCrossRank() {
     return childCrossRank != null ? childCrossRank : root;
   }
@@ -239,12 +257,14 @@ class RootCrossRank implements CrossRank {
   void addNode(DNode node, boolean proxyGraphAdd) {
     if (proxyGraphAdd) {
       digraphProxy.add(node);
+      adjacency = null;
     }
     root.addNode(node);
   }
 
   void addEdge(DLine line) {
     digraphProxy.addEdge(line);
+    adjacency = null;
   }
 
   BasicCrossRank expand(ExpandInfoProvider expandInfoProvider) {
@@ -266,6 +286,7 @@ class RootCrossRank implements CrossRank {
      * */
     for (DNode expandNode : expandNodes) {
       digraphProxy.remove(expandNode);
+      adjacency = null;
 
       List<DNode> nodes = root.getNodes(expandNode.getRank());
       Asserts.illegalArgument(
@@ -460,29 +481,23 @@ class RootCrossRank implements CrossRank {
   }
 
   private int[] adjPosition(DNode v, boolean direction) {
-    int degree;
-    if (direction) {
-      degree = digraphProxy.inDegree(v);
-    } else {
-      degree = digraphProxy.outDegree(v);
+    CsrGraph<DNode, DLine> graph = adjacency();
+    int idx = graph.indexOf(v);
+    if (idx < 0) {
+      return null;
     }
 
-    if (degree == 0) {
+    int start = direction ? graph.inStart(idx) : graph.outStart(idx);
+    int end = direction ? graph.inEnd(idx) : graph.outEnd(idx);
+    if (start == end) {
       return null;
     }
 
-    int i = 0;
-    int[] adjPos = new int[degree];
-    if (direction) {
-      for (DLine line : digraphProxy.inAdjacent(v)) {
-        DNode w = line.other(v);
-        adjPos[i++] = getRankIndex(w);
-      }
-    } else {
-      for (DLine line : digraphProxy.outAdjacent(v)) {
-        DNode w = line.other(v);
-        adjPos[i++] = getRankIndex(w);
-      }
+    int[] adjPos = new int[end - start];
+    for (int i = start; i < end; i++) {
+      int e = direction ? graph.inEdge(i) : graph.outEdge(i);
+      DNode w = graph.edge(e).other(v);
+      adjPos[i - start] = getRankIndex(w);
     }
 
     return adjPos;
@@ -696,49 +711,66 @@ class RootCrossRank implements CrossRank {
     }
   }
 
+  private CrossCounter newCrossCounter() {
+    if (EnvProp.usePairwiseCrossCounter()) {
+      return pairCrossCounter;
+    }
+    return new AccumulatorCrossCounter();
+  }
+
   private int computeCrossNum(int rank, boolean refreshRankIdx) {
     if (rank == maxRank()) {
       return 0;
     }
 
-    int crossNum = 0;
-    int rankSize = rankSize(rank);
-    for (int i = 0; i < rankSize; i++) {
-      DNode current = getNode(rank, i);
-      if (refreshRankIdx) {
-        current.setRankIndex(i);
-      }
-
-      for (int j = i + 1; j < rankSize; j++) {
-        DNode next = getNode(rank, j);
-        if (refreshRankIdx) {
-          next.setRankIndex(j);
-        }
+    int crossNum = crossCounter.count(rank, refreshRankIdx);
+    if (crossCounter != pairCrossCounter && EnvProp.qualityCheck()) {
+      int expected = pairCrossCounter.count(rank, false);
+      Asserts.illegalArgument(expected != crossNum,
+                              "Rank " + rank + " cross number is " + crossNum
+                                  + ", but pairwise count is " + expected);
+    }
+    return crossNum;
+  }
 
-        // current node adjacent nodes
-        Iterable<DLine> curIter = digraphProxy.outAdjacent(current);
-        // next node adjacent nodes
-        Iterable<DLine> nextIter = digraphProxy.outAdjacent(next);
+  private int inCross(DNode n, DNode w) {
+    CsrGraph<DNode, DLine> graph = adjacency();
+    int u = graph.indexOf(n);
+    int v = graph.indexOf(w);
+    if (u < 0 || v < 0) {
+      return 0;
+    }
 
-        for (DLine curAdjLine : curIter) {
-          for (DLine nextAdjLine : nextIter) {
-            if (isCross(curAdjLine, nextAdjLine, false)) {
-              crossNum++;
-            }
-          }
+    int crossNum = 0;
+    for (int i = graph.inStart(u); i < graph.inEnd(u); i++) {
+      DLine l1 = graph.edge(graph.inEdge(i));
+      for (int j = graph.inStart(v); j < graph.inEnd(v); j++) {
+        if (isCross(l1, graph.edge(graph.inEdge(j)), true)) {
+          crossNum++;
         }
       }
     }
-
     return crossNum;
   }
 
-  private int inCross(DNode n, DNode w) {
-    return crossCalc.inCross(n, w);
-  }
-
   private int outCross(DNode n, DNode w) {
-    return crossCalc.outCross(n, w);
+    CsrGraph<DNode, DLine> graph = adjacency();
+    int u = graph.indexOf(n);
+    int v = graph.indexOf(w);
+    if (u < 0 || v < 0) {
+      return 0;
+    }
+
+    int crossNum = 0;
+    for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+      DLine l1 = graph.edge(graph.outEdge(i));
+      for (int j = graph.outStart(v); j < graph.outEnd(v); j++) {
+        if (isCross(l1, graph.edge(graph.outEdge(j)), true)) {
+          crossNum++;
+        }
+      }
+    }
+    return crossNum;
   }
 
   private boolean isCross(DLine line1, DLine line2, boolean useRankIdx) {
@@ -982,57 +1014,259 @@ class RootCrossRank implements CrossRank {
   }
 
   /**
-   * Reusable consumer for cross calculations to avoid creating consumer objects
+   * Strategy to count the crossings of the lines between rank and rank + 1.
    */
-  private class CrossCalc {
-    private DNode w;
-    private int crossNum;
-    private DLine currentL1; // Current line from outer loop
-    
-    private final Consumer<DLine> inOuterConsumer = this::inOuterAccept;
-    private final Consumer<DLine> innerConsumer = this::innerAccept;
-    private final Consumer<DLine> outOuterConsumer = this::outOuterAccept;
+  interface CrossCounter {
+
+    /**
+     * Returns the crossing number of the lines which start from the specified rank.
+     *
+     * @param rank           the upper rank
+     * @param refreshRankIdx whether to sync the rank index of the nodes in rank
+     * @return crossing number
+     */
+    int count(int rank, boolean refreshRankIdx);
+  }
+
+  /**
+   * Compare every two lines of every two nodes in rank, O(n² · d²).
+   */
+  private class PairCrossCounter implements CrossCounter {
+
+    @Override
+    public int count(int rank, boolean refreshRankIdx) {
+      int crossNum = 0;
+      int rankSize = rankSize(rank);
+      for (int i = 0; i < rankSize; i++) {
+        DNode current = getNode(rank, i);
+        if (refreshRankIdx) {
+          current.setRankIndex(i);
+        }
+
+        for (int j = i + 1; j < rankSize; j++) {
+          DNode next = getNode(rank, j);
+          if (refreshRankIdx) {
+            next.setRankIndex(j);
+          }
+
+          // current node adjacent nodes
+          Iterable<DLine> curIter = digraphProxy.outAdjacent(current);
+          // next node adjacent nodes
+          Iterable<DLine> nextIter = digraphProxy.outAdjacent(next);
 
-    int inCross(DNode n, DNode w) {
-      this.w = w;
-      this.crossNum = 0;
-      
-      digraphProxy.forEachInAdjacent(n, inOuterConsumer);
-      int result = crossNum;
-      reset();
-      return result;
+          for (DLine curAdjLine : curIter) {
+            for (DLine nextAdjLine : nextIter) {
+              if (isCross(curAdjLine, nextAdjLine, false)) {
+                crossNum++;
+              }
+            }
+          }
+        }
+      }
+
+      return crossNum;
     }
+  }
 
-    int outCross(DNode n, DNode w) {
-      this.w = w;
-      this.crossNum = 0;
-      
-      digraphProxy.forEachOutAdjacent(n, outOuterConsumer);
-      int result = crossNum;
-      reset();
-      return result;
+  /**
+   * Accumulator tree counter of Barth, Jünger and Mutzel, O(E log V). The lines are sorted by
+   * the tail index, then the crossings are the inversions of the head order, every head key is
+   * accumulated to a complete binary tree and the greater keys which already inserted are the
+   * crossings. The head order takes the port compare number into account when two lines have the
+   * same head, same as {@link #isCross(DLine, DLine, boolean)}. The flat lines only cross the flat
+   * lines which have the same head, they are compared pairwise.
+   *
+   * <p>If some line of rank is neither flat nor to the next rank, fallback to the pairwise
+   * counter.
+   */
+  private class AccumulatorCrossCounter implements CrossCounter {
+
+    private int[] headKeys = new int[16];
+
+    private double[] ports = new double[16];
+
+    private int[] tails = new int[16];
+
+    private int[] tree = new int[16];
+
+    private Integer[] order;
+
+    @Override
+    public int count(int rank, boolean refreshRankIdx) {
+      CsrGraph<DNode, DLine> graph = adjacency();
+      int rankSize = rankSize(rank);
+      int edgeNum = 0;
+      boolean havePort = false;
+      boolean needFallback = false;
+      List<DLine> flatLines = null;
+
+      for (int i = 0; i < rankSize; i++) {
+        DNode node = getNode(rank, i);
+        if (refreshRankIdx) {
+          node.setRankIndex(i);
+        }
+        if (needFallback) {
+          continue;
+        }
+
+        int v = graph.indexOf(node);
+        int end = v < 0 ? 0 : graph.outEnd(v);
+        for (int j = v < 0 ? 0 : graph.outStart(v); j < end; j++) {
+          DLine line = graph.edge(graph.outEdge(j));
+          DNode head = line.to();
+          if (head.getRank() == rank) {
+            if (flatLines == null) {
+              flatLines = new ArrayList<>();
+            }
+            flatLines.add(line);
+            continue;
+          }
+          if (head.getRank() != rank + 1 || line.from() != node) {
+            needFallback = true;
+            break;
+          }
+
+          ensureEdgeCapacity(edgeNum + 1);
+          double port = getCompareNo(line, head);
+          tails[edgeNum] = i;
+          headKeys[edgeNum] = getRankIndex(head);
+          ports[edgeNum] = port;
+          havePort |= port != 0;
+          edgeNum++;
+        }
+      }
+
+      if (needFallback) {
+        return pairCrossCounter.count(rank, false);
+      }
+
+      int keyNum = havePort ? portHeadKeys(edgeNum) : maxHeadKey(edgeNum) + 1;
+      sortTailSegments(edgeNum);
+      return accumulate(edgeNum, keyNum) + flatCross(flatLines);
     }
 
-    private void inOuterAccept(DLine l1) {
-      this.currentL1 = l1;
-      digraphProxy.forEachInAdjacent(w, innerConsumer);
+    private int accumulate(int edgeNum, int keyNum) {
+      if (edgeNum <= 1) {
+        return 0;
+      }
+
+      int firstIndex = 1;
+      while (firstIndex < keyNum) {
+        firstIndex <<= 1;
+      }
+      int treeSize = 2 * firstIndex - 1;
+      firstIndex--;
+      if (tree.length < treeSize) {
+        tree = new int[treeSize];
+      } else {
+        Arrays.fill(tree, 0, treeSize, 0);
+      }
+
+      int crossNum = 0;
+      for (int k = 0; k < edgeNum; k++) {
+        int index = headKeys[k] + firstIndex;
+        tree[index]++;
+        while (index > 0) {
+          // Left child, all keys of right sibling are greater than current key
+          if ((index & 1) != 0) {
+            crossNum += tree[index + 1];
+          }
+          index = (index - 1) >> 1;
+          tree[index]++;
+        }
+      }
+      return crossNum;
     }
 
-    private void outOuterAccept(DLine l1) {
-      this.currentL1 = l1;
-      digraphProxy.forEachOutAdjacent(w, innerConsumer);
+    private int maxHeadKey(int edgeNum) {
+      int max = 0;
+      for (int i = 0; i < edgeNum; i++) {
+        max = Math.max(max, headKeys[i]);
+      }
+      return max;
     }
 
-    private void innerAccept(DLine l2) {
-      if (isCross(currentL1, l2, true)) {
-        crossNum++;
+    /*
+     * Replace the head keys with the dense order of (head index, port compare number), the lines
+     * which have the same head index and port share the same key.
+     */
+    private int portHeadKeys(int edgeNum) {
+      if (order == null || order.length < edgeNum) {
+        order = new Integer[headKeys.length];
       }
+      for (int i = 0; i < edgeNum; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, 0, edgeNum, (l, r) -> {
+        int c = Integer.compare(headKeys[l], headKeys[r]);
+        return c != 0 ? c : Double.compare(ports[l], ports[r]);
+      });
+
+      int[] keys = new int[edgeNum];
+      int key = -1;
+      for (int i = 0; i < edgeNum; i++) {
+        int idx = order[i];
+        if (i == 0 || headKeys[idx] != headKeys[order[i - 1]]
+            || ports[idx] != ports[order[i - 1]]) {
+          key++;
+        }
+        keys[idx] = key;
+      }
+      System.arraycopy(keys, 0, headKeys, 0, edgeNum);
+      return key + 1;
     }
 
-    void reset() {
-      this.w = null;
-      this.crossNum = 0;
-      this.currentL1 = null;
+    /*
+     * Lines already ordered by tail, the lines of same tail never cross each other, sort them by
+     * head key ascending then they will not be counted by accumulator tree.
+     */
+    private void sortTailSegments(int edgeNum) {
+      for (int i = 1; i < edgeNum; i++) {
+        int tail = tails[i];
+        int key = headKeys[i];
+        int j = i - 1;
+        while (j >= 0 && tails[j] == tail && headKeys[j] > key) {
+          headKeys[j + 1] = headKeys[j];
+          j--;
+        }
+        headKeys[j + 1] = key;
+      }
+    }
+
+    private int flatCross(List<DLine> flatLines) {
+      if (flatLines == null || flatLines.size() < 2) {
+        return 0;
+      }
+
+      Map<DNode, List<DLine>> headGroups = new HashMap<>(flatLines.size());
+      for (DLine line : flatLines) {
+        headGroups.computeIfAbsent(line.to(), h -> new ArrayList<>(2)).add(line);
+      }
+
+      int crossNum = 0;
+      for (List<DLine> lines : headGroups.values()) {
+        for (int i = 0; i < lines.size(); i++) {
+          DLine l1 = lines.get(i);
+          for (int j = i + 1; j < lines.size(); j++) {
+            DLine l2 = lines.get(j);
+            if (l1.from() != l2.from() && isCross(l1, l2, false)) {
+              crossNum++;
+            }
+          }
+        }
+      }
+      return crossNum;
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+      if (capacity <= headKeys.length) {
+        return;
+      }
+
+      int newCapacity = Math.max(capacity, headKeys.length << 1);
+      headKeys = Arrays.copyOf(headKeys, newCapacity);
+      ports = Arrays.copyOf(ports, newCapacity);
+      tails = Arrays.copyOf(tails, newCapacity);
     }
   }
 }
@@ -25,6 +25,9 @@ class ULine extends AbstractUndirectedEdge<DNode, ULine> {
 
   private final DLine dLine;
 
+  // Index in the tree lines of the feasible tree, -1 if the line is not a tree line
+  private int treeIndex = -1;
+
   public ULine(DNode left, DNode right, DLine dLine, double weight) {
     super(left, right, weight);
     Objects.requireNonNull(dLine);
@@ -47,6 +50,18 @@ class ULine extends AbstractUndirectedEdge<DNode, ULine> {
     return dLine.getCutVal();
   }
 
+  int getTreeIndex() {
+    return treeIndex;
+  }
+
+  void setTreeIndex(int treeIndex) {
+    this.treeIndex = treeIndex;
+  }
+
+  boolean inTree() {
+    return treeIndex >= 0;
+  }
+
   @Override
   public ULine copy() {
     return new ULine(left, right, dLine, weight);
@@ -17,7 +17,9 @@
 package org.graphper.layout.fdp;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -26,6 +28,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.Assemble;
 import org.graphper.api.Cluster;
@@ -43,6 +46,7 @@ import org.graphper.draw.ContainerDrawProp;
 import org.graphper.draw.DrawGraph;
 import org.graphper.draw.GraphvizDrawProp;
 import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.MetricsListener.Phase;
 import org.graphper.draw.NodeDrawProp;
 import org.graphper.layout.AbstractLayoutEngine;
 import org.graphper.layout.LayoutAttach;
@@ -95,9 +99,12 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
    * @param k           the ideal edge length factor
    * @param width       the width of the layout area
    * @param height      the height of the layout area
+   * @param theta       the Barnes–Hut approximation threshold of the repulsive forces
+   * @param pool        the pool to calculate the repulsive forces, null means the current thread
    */
   protected abstract void fdpLayout(AreaGraph graph, int iterations, double temperature,
-                                    double k, double width, double height);
+                                    double k, double width, double height, double theta,
+                                    ForkJoinPool pool);
 
   @Override
   protected List<ShifterStrategy> shifterStrategies(DrawGraph drawGraph) {
@@ -247,7 +254,8 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
         (width * height) * graphAttrs.getK() * edgeCount / (vertexCount * vertexCount));
 
     initPos(graph, drawGraph, iterations, width, height);
-    fdpLayout(graph, iterations, temperature, k, width, height);
+    fdpLayout(graph, iterations, temperature, k, width, height, graphAttrs.getTheta(),
+              forcePool(graphAttrs));
     tryDecreaseDensity(graph, graphAttrs);
     refreshGraph(graph);
   }
@@ -417,14 +425,21 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
       return;
     }
 
+    // Mark the connected component with an explicit stack, the order does not matter
+    Deque<FNode> stack = new ArrayDeque<>();
     mark.put(v, connectNo);
-    for (FLine line : areaGraph.adjacent(v)) {
-      FNode w = line.other(v);
-      if (mark.get(w) != null) {
-        continue;
-      }
+    stack.push(v);
+    while (!stack.isEmpty()) {
+      FNode n = stack.pop();
+      for (FLine line : areaGraph.adjacent(n)) {
+        FNode w = line.other(n);
+        if (mark.get(w) != null) {
+          continue;
+        }
 
-      dfs(areaGraph, w, mark, connectNo);
+        mark.put(w, connectNo);
+        stack.push(w);
+      }
     }
   }
 
@@ -571,6 +586,14 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
     }
   }
 
+  private static ForkJoinPool forcePool(GraphAttrs graphAttrs) {
+    if (!graphAttrs.isFdpParallel()) {
+      return null;
+    }
+    ForkJoinPool pool = graphAttrs.getFdpPool();
+    return pool != null ? pool : ForkJoinPool.commonPool();
+  }
+
   void tryDecreaseDensity(AreaGraph graph, GraphAttrs graphAttrs) {
     if (graphAttrs.isOverlap()) {
       return;
@@ -587,10 +610,13 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
     double temperature = Graphviz.PIXEL;
     int maxLoopNum = Math.max(graphAttrs.getMaxiter() / 2, 1);
     double expand = graphAttrs.getK() * ((double) edgeNum / nodeNum);
+    BarnesHutTree tree = new BarnesHutTree(nodeNum);
+    AdjustForce force = new AdjustForce(graph, tree);
+    ForkJoinPool pool = forcePool(graphAttrs);
     for (int i = 0; i < 9; i++) {
       double k2 = k * k;
-      double xOv = 6 * k2;
-      double xNonov = xOv * expand / nodeNum;
+      force.xOv = 6 * k2;
+      force.xNonov = force.xOv * expand / nodeNum;
 
       for (int j = 0; j < maxLoopNum; j++) {
         double temp = temperature * (maxLoopNum - j) / maxLoopNum;
@@ -598,11 +624,11 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
           break;
         }
 
-        overlap = adjust(graph, k, temp, xOv, xNonov);
+        overlap = adjust(graph, tree, force, graphAttrs.getTheta(), pool, k, temp);
         if (overlap == 0) {
           break;
         }
-        xNonov *= 1.1;
+        force.xNonov *= 1.1;
       }
 
       k += k;
@@ -611,18 +637,20 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
     resolveOverlaps(graph);
   }
 
-  private int adjust(AreaGraph graph, double k, double temp, double xOv, double xNonov) {
-    for (FNode node : graph) {
-      node.setRepulsionX(0);
-      node.setRepulsionY(0);
+  private int adjust(AreaGraph graph, BarnesHutTree tree, AdjustForce force, double theta,
+                     ForkJoinPool pool, double k, double temp) {
+    tree.build(graph);
+    Arrays.fill(force.overlaps, 0);
+    double[] repulsion = tree.forces(theta, force, pool);
+    int overlap = 0;
+    for (int i = 0; i < tree.bodyNum(); i++) {
+      FNode node = tree.body(i);
+      node.setRepulsionX(repulsion[i * 3]);
+      node.setRepulsionY(repulsion[i * 3 + 1]);
+      overlap += force.overlaps[i];
     }
 
-    int overlap = 0;
     for (FNode n = graph.start(); n != null; n = graph.next(n)) {
-      for (FNode w = graph.next(n); w != null; w = graph.next(w)) {
-        overlap += applyRepulsive(n, w, xOv, xNonov, graph);
-      }
-
       for (FLine edge : graph.outAdjacent(n)) {
         if (edge.isSelf()) {
           continue;
@@ -654,31 +682,6 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
     return overlap;
   }
 
-  private double applyRepulsive(FNode p, FNode q, double xOv, double xNonov, AreaGraph areaGraph) {
-    double deltaX = q.getX() - p.getX();
-    double deltaY = q.getY() - p.getY();
-    double dist2 = deltaX * deltaX + deltaY * deltaY;
-
-    if (dist2 == 0) {
-      dist2 = 50;
-    }
-
-    double force;
-    boolean overlap = isOverlapOrNotFixMineLen(p, q, areaGraph);
-    if (overlap) {
-      force = xOv / dist2;
-    } else {
-      force = xNonov / dist2;
-    }
-
-    q.setRepulsionX(q.getRepulsionX() + deltaX * force);
-    q.setRepulsionY(q.getRepulsionY() + deltaY * force);
-    p.setRepulsionX(p.getRepulsionX() - deltaX * force);
-    p.setRepulsionY(p.getRepulsionY() - deltaY * force);
-
-    return overlap ? 1 : 0;
-  }
-
   private void applyAttractive(FNode p, FNode q, double k, AreaGraph areaGraph) {
     if (isOverlapOrNotFixMineLen(p, q, areaGraph)) {
       return;
@@ -748,7 +751,7 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
     return overlap;
   }
 
-  private boolean isOverlapOrNotFixMineLen(FNode n, FNode w, AreaGraph areaGraph) {
+  private static boolean isOverlapOrNotFixMineLen(FNode n, FNode w, AreaGraph areaGraph) {
     if (n.isOverlap(w)) {
       return true;
     }
@@ -831,8 +834,101 @@ abstract class AbstractFdpLayout extends AbstractLayoutEngine implements Seriali
         continue;
       }
 
+      long start = System.nanoTime();
       LineRouter lineRouter = linesHandlerFactory.newInstance(drawGraph, fdpGraph);
       lineRouter.route();
+      drawGraph.metrics().phase(Phase.ROUTING, lineRouter.getClass().getSimpleName(),
+                                System.nanoTime() - start);
+    }
+  }
+
+  /*
+   * The repulsive force of adjust, overlapping nodes or nodes closer than the minlen of the line
+   * between them repulse stronger. A region can only be approximated if no node inside it can
+   * overlap or violate the minlen with the node.
+   */
+  private static class AdjustForce implements BarnesHutTree.Force {
+
+    private final AreaGraph graph;
+
+    private final BarnesHutTree tree;
+
+    // The half size of every node, in the node order of graph
+    private final double[] w2;
+
+    private final double[] h2;
+
+    // The max minlen distance of the lines of every node, in the node order of graph
+    private final double[] reach;
+
+    // The overlap number of every node with the nodes after it, written by the task of the node
+    private final int[] overlaps;
+
+    private double xOv;
+
+    private double xNonov;
+
+    private AdjustForce(AreaGraph graph, BarnesHutTree tree) {
+      this.graph = graph;
+      this.tree = tree;
+      this.w2 = new double[graph.vertexNum()];
+      this.h2 = new double[graph.vertexNum()];
+      this.reach = new double[graph.vertexNum()];
+      this.overlaps = new int[graph.vertexNum()];
+
+      FdpGraph fdpGraph = graph.getFdpGraph();
+      int i = 0;
+      for (FNode node : graph) {
+        w2[i] = node.wd2();
+        h2[i] = node.ht2();
+        if (fdpGraph == null) {
+          i++;
+          continue;
+        }
+
+        for (FLine line : graph.adjacent(node)) {
+          Integer minlen = fdpGraph.maxMinLen(node, line.other(node));
+          if (minlen != null) {
+            reach[i] = Math.max(reach[i], minlen * Graphviz.PIXEL);
+          }
+        }
+        i++;
+      }
+    }
+
+    @Override
+    public double repulsive(double dist2) {
+      return xNonov / dist2;
+    }
+
+    @Override
+    public double repulsive(int body, int other, double dist2) {
+      FNode n = tree.body(body);
+      FNode w = tree.body(other);
+      // Same as isOverlapOrNotFixMineLen, only look up the minlen of the close nodes
+      boolean isOverlap = Math.abs(n.getX() - w.getX()) <= w2[body] + w2[other]
+          && Math.abs(n.getY() - w.getY()) <= h2[body] + h2[other];
+      if (!isOverlap && dist2 < reach[body] * reach[body]) {
+        isOverlap = isOverlapOrNotFixMineLen(n, w, graph);
+      }
+      // Count the pair once
+      if (isOverlap && body < other) {
+        overlaps[body]++;
+      }
+
+      if (dist2 == 0) {
+        dist2 = 50;
+      }
+      return (isOverlap ? xOv : xNonov) / dist2;
+    }
+
+    @Override
+    public boolean separated(int body, double minX, double minY, double maxX, double maxY) {
+      FNode node = tree.body(body);
+      double width = Math.max(w2[body], reach[body]);
+      double height = Math.max(h2[body], reach[body]);
+      return node.getX() + width < minX || node.getX() - width > maxX
+          || node.getY() + height < minY || node.getY() - height > maxY;
     }
   }
 
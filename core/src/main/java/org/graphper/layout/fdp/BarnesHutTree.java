@@ -0,0 +1,460 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout.fdp;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.graphper.util.Asserts;
+
+/**
+ * Barnes–Hut quadtree of the node positions, used to calculate the repulsive forces of the fdp
+ * series layouts. The nodes of a far enough cell are approximated by a single body at the center
+ * of mass of the cell, so one node only interacts with O(log n) cells instead of all other nodes.
+ * A cell is far enough when the size of the cell divided by the distance to the center of mass is
+ * less than the <tt>theta</tt>, the <tt>theta</tt> of 0 means all nodes are calculated exactly.
+ *
+ * <p>All arrays of the tree are pooled, rebuilding the tree in every iteration does not allocate
+ * after the first build. After the tree is built, calculating the forces only reads the tree, so
+ * the forces of different bodies can be calculated by different threads, see
+ * {@link #forces(double, Force, ForkJoinPool)}.
+ *
+ * @author Jamison Jiang
+ */
+class BarnesHutTree {
+
+  // The nodes with almost the same position are kept in the same leaf below this depth
+  private static final int MAX_DEPTH = 48;
+
+  private static final int NONE = -1;
+
+  // The min number of bodies calculated by one task
+  private static final int PARALLEL_THRESHOLD = 256;
+
+  private FNode[] bodies;
+
+  private double[] bodyX;
+
+  private double[] bodyY;
+
+  private double[] bodyW2;
+
+  private double[] bodyH2;
+
+  // The next body in the same leaf
+  private int[] nextBody;
+
+  private int bodyNum;
+
+  // The left, top and size of square cells
+  private double[] cellLeft;
+
+  private double[] cellTop;
+
+  private double[] cellSize;
+
+  // The mass and the center of mass of cells
+  private int[] mass;
+
+  private double[] massX;
+
+  private double[] massY;
+
+  // The range of the boxes of all bodies in cells
+  private double[] minX;
+
+  private double[] minY;
+
+  private double[] maxX;
+
+  private double[] maxY;
+
+  // Four children of cells, NONE if the child is empty
+  private int[] children;
+
+  // The first body of leaf, NONE if the cell is not a leaf or empty
+  private int[] firstBody;
+
+  private boolean[] leaf;
+
+  private int cellNum;
+
+  // The output of all bodies, three values for every body
+  private double[] forces;
+
+  BarnesHutTree(int capacity) {
+    capacity = Math.max(capacity, 1);
+    bodies = new FNode[capacity];
+    bodyX = new double[capacity];
+    bodyY = new double[capacity];
+    bodyW2 = new double[capacity];
+    bodyH2 = new double[capacity];
+    nextBody = new int[capacity];
+    forces = new double[capacity * 3];
+
+    int cellCapacity = capacity * 2;
+    cellLeft = new double[cellCapacity];
+    cellTop = new double[cellCapacity];
+    cellSize = new double[cellCapacity];
+    mass = new int[cellCapacity];
+    massX = new double[cellCapacity];
+    massY = new double[cellCapacity];
+    minX = new double[cellCapacity];
+    minY = new double[cellCapacity];
+    maxX = new double[cellCapacity];
+    maxY = new double[cellCapacity];
+    children = new int[cellCapacity * 4];
+    firstBody = new int[cellCapacity];
+    leaf = new boolean[cellCapacity];
+  }
+
+  /**
+   * Rebuild the tree by the current positions of nodes, the index of node is the iteration order
+   * of nodes.
+   *
+   * @param nodes all nodes
+   */
+  void build(Iterable<FNode> nodes) {
+    Asserts.nullArgument(nodes, "nodes");
+    bodyNum = 0;
+    cellNum = 0;
+
+    double left = Double.MAX_VALUE;
+    double top = Double.MAX_VALUE;
+    double right = -Double.MAX_VALUE;
+    double bottom = -Double.MAX_VALUE;
+    for (FNode node : nodes) {
+      if (bodyNum == bodies.length) {
+        growBodies(bodyNum * 2);
+      }
+
+      int b = bodyNum++;
+      bodies[b] = node;
+      bodyX[b] = node.getX();
+      bodyY[b] = node.getY();
+      bodyW2[b] = node.wd2();
+      bodyH2[b] = node.ht2();
+      left = Math.min(left, bodyX[b]);
+      top = Math.min(top, bodyY[b]);
+      right = Math.max(right, bodyX[b]);
+      bottom = Math.max(bottom, bodyY[b]);
+    }
+
+    if (bodyNum == 0) {
+      return;
+    }
+
+    double size = Math.max(right - left, bottom - top);
+    newCell(left, top, size > 0 ? size : 1);
+    for (int b = 0; b < bodyNum; b++) {
+      insert(b);
+    }
+
+    for (int c = 0; c < cellNum; c++) {
+      massX[c] /= mass[c];
+      massY[c] /= mass[c];
+    }
+  }
+
+  int bodyNum() {
+    return bodyNum;
+  }
+
+  FNode body(int i) {
+    return bodies[i];
+  }
+
+  /**
+   * Calculate the total repulsive force of all other bodies to the body.
+   *
+   * @param body  the index of body
+   * @param theta the max ratio of cell size to distance that a cell can be approximated
+   * @param force the force of a pair of bodies
+   * @param out   the output, index 0 and 1 are the x and y of force, index 2 is the number of the
+   *              other bodies at the same position of the body
+   */
+  void force(int body, double theta, Force force, double[] out) {
+    force(body, theta * theta, force, out, 0);
+  }
+
+  /**
+   * Calculate the total repulsive forces of all bodies, the output of body i is at index
+   * <tt>3i</tt>, <tt>3i+1</tt> and <tt>3i+2</tt> of the returned array, same as the output of
+   * {@link #force(int, double, Force, double[])}. The returned array is reused by the next call.
+   *
+   * <p>If the pool is not null, the bodies are split into ranges calculated by the tasks of the
+   * pool, the force must be able to be called concurrently. Every body only writes its own output,
+   * so the result is the same as the serial calculation.
+   *
+   * @param theta the max ratio of cell size to distance that a cell can be approximated
+   * @param force the force of a pair of bodies
+   * @param pool  the pool to calculate the forces, null means the current thread
+   * @return the forces of all bodies
+   */
+  double[] forces(double theta, Force force, ForkJoinPool pool) {
+    if (pool == null || bodyNum < PARALLEL_THRESHOLD * 2) {
+      forces(0, bodyNum, theta * theta, force);
+    } else {
+      pool.invoke(new ForceTask(0, bodyNum, theta * theta, force));
+    }
+    return forces;
+  }
+
+  private void forces(int from, int to, double theta2, Force force) {
+    for (int b = from; b < to; b++) {
+      force(b, theta2, force, forces, b * 3);
+    }
+  }
+
+  private void force(int body, double theta2, Force force, double[] out, int offset) {
+    out[offset] = 0;
+    out[offset + 1] = 0;
+    out[offset + 2] = 0;
+    if (cellNum > 0) {
+      force(0, body, theta2, force, out, offset);
+    }
+  }
+
+  private void force(int c, int body, double theta2, Force force, double[] out, int offset) {
+    double x = bodyX[body];
+    double y = bodyY[body];
+
+    if (leaf[c]) {
+      for (int b = firstBody[c]; b != NONE; b = nextBody[b]) {
+        if (b == body) {
+          continue;
+        }
+
+        double dx = x - bodyX[b];
+        double dy = y - bodyY[b];
+        double dist2 = dx * dx + dy * dy;
+        double f = force.repulsive(body, b, dist2);
+        if (dist2 == 0) {
+          out[offset + 2]++;
+        } else {
+          out[offset] += dx * f;
+          out[offset + 1] += dy * f;
+        }
+      }
+      return;
+    }
+
+    double dx = x - massX[c];
+    double dy = y - massY[c];
+    double dist2 = dx * dx + dy * dy;
+    double size = cellSize[c];
+    if (dist2 > 0 && size * size < theta2 * dist2 && !inCell(c, x, y)
+        && force.separated(body, minX[c], minY[c], maxX[c], maxY[c])) {
+      double f = force.repulsive(dist2) * mass[c];
+      out[offset] += dx * f;
+      out[offset + 1] += dy * f;
+      return;
+    }
+
+    for (int i = c * 4; i < c * 4 + 4; i++) {
+      if (children[i] != NONE) {
+        force(children[i], body, theta2, force, out, offset);
+      }
+    }
+  }
+
+  private boolean inCell(int c, double x, double y) {
+    return x >= cellLeft[c] && x <= cellLeft[c] + cellSize[c]
+        && y >= cellTop[c] && y <= cellTop[c] + cellSize[c];
+  }
+
+  private void insert(int b) {
+    int c = 0;
+    for (int depth = 0; ; depth++) {
+      accumulate(c, b);
+
+      if (leaf[c]) {
+        int first = firstBody[c];
+        if (first == NONE || depth >= MAX_DEPTH) {
+          nextBody[b] = first;
+          firstBody[c] = b;
+          return;
+        }
+
+        // Split the leaf, the body of leaf moves to the child
+        leaf[c] = false;
+        firstBody[c] = NONE;
+        int child = child(c, first);
+        accumulate(child, first);
+        nextBody[first] = NONE;
+        firstBody[child] = first;
+      }
+
+      c = child(c, b);
+    }
+  }
+
+  // Returns the child of cell containing the body, create the child if it is empty
+  private int child(int c, int b) {
+    double half = cellSize[c] / 2;
+    int quadrant = 0;
+    double left = cellLeft[c];
+    double top = cellTop[c];
+    if (bodyX[b] >= left + half) {
+      quadrant |= 1;
+      left += half;
+    }
+    if (bodyY[b] >= top + half) {
+      quadrant |= 2;
+      top += half;
+    }
+
+    int i = c * 4 + quadrant;
+    if (children[i] == NONE) {
+      int child = newCell(left, top, half);
+      children[i] = child;
+    }
+    return children[i];
+  }
+
+  private void accumulate(int c, int b) {
+    mass[c]++;
+    massX[c] += bodyX[b];
+    massY[c] += bodyY[b];
+    minX[c] = Math.min(minX[c], bodyX[b] - bodyW2[b]);
+    minY[c] = Math.min(minY[c], bodyY[b] - bodyH2[b]);
+    maxX[c] = Math.max(maxX[c], bodyX[b] + bodyW2[b]);
+    maxY[c] = Math.max(maxY[c], bodyY[b] + bodyH2[b]);
+  }
+
+  private int newCell(double left, double top, double size) {
+    if (cellNum == leaf.length) {
+      growCells(cellNum * 2);
+    }
+
+    int c = cellNum++;
+    cellLeft[c] = left;
+    cellTop[c] = top;
+    cellSize[c] = size;
+    mass[c] = 0;
+    massX[c] = 0;
+    massY[c] = 0;
+    minX[c] = Double.MAX_VALUE;
+    minY[c] = Double.MAX_VALUE;
+    maxX[c] = -Double.MAX_VALUE;
+    maxY[c] = -Double.MAX_VALUE;
+    firstBody[c] = NONE;
+    leaf[c] = true;
+    Arrays.fill(children, c * 4, c * 4 + 4, NONE);
+    return c;
+  }
+
+  private void growBodies(int capacity) {
+    bodies = Arrays.copyOf(bodies, capacity);
+    bodyX = Arrays.copyOf(bodyX, capacity);
+    bodyY = Arrays.copyOf(bodyY, capacity);
+    bodyW2 = Arrays.copyOf(bodyW2, capacity);
+    bodyH2 = Arrays.copyOf(bodyH2, capacity);
+    nextBody = Arrays.copyOf(nextBody, capacity);
+    forces = Arrays.copyOf(forces, capacity * 3);
+  }
+
+  private void growCells(int capacity) {
+    cellLeft = Arrays.copyOf(cellLeft, capacity);
+    cellTop = Arrays.copyOf(cellTop, capacity);
+    cellSize = Arrays.copyOf(cellSize, capacity);
+    mass = Arrays.copyOf(mass, capacity);
+    massX = Arrays.copyOf(massX, capacity);
+    massY = Arrays.copyOf(massY, capacity);
+    minX = Arrays.copyOf(minX, capacity);
+    minY = Arrays.copyOf(minY, capacity);
+    maxX = Arrays.copyOf(maxX, capacity);
+    maxY = Arrays.copyOf(maxY, capacity);
+    children = Arrays.copyOf(children, capacity * 4);
+    firstBody = Arrays.copyOf(firstBody, capacity);
+    leaf = Arrays.copyOf(leaf, capacity);
+  }
+
+  private class ForceTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 4184633719536282453L;
+
+    private final int from;
+
+    private final int to;
+
+    private final double theta2;
+
+    private final Force force;
+
+    private ForceTask(int from, int to, double theta2, Force force) {
+      this.from = from;
+      this.to = to;
+      this.theta2 = theta2;
+      this.force = force;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        forces(from, to, theta2, force);
+        return;
+      }
+
+      int mid = (from + to) >>> 1;
+      invokeAll(new ForceTask(from, mid, theta2, force), new ForceTask(mid, to, theta2, force));
+    }
+  }
+
+  /**
+   * The repulsive force between bodies, the force is the returned scale of the vector between the
+   * positions of two bodies.
+   */
+  interface Force {
+
+    /**
+     * Returns the repulsive force scale of a unit mass at the squared distance, used by the
+     * approximated cells.
+     *
+     * @param dist2 squared distance, greater than 0
+     * @return the force scale
+     */
+    double repulsive(double dist2);
+
+    /**
+     * Returns the repulsive force scale between two bodies, the result is ignored if the squared
+     * distance is 0.
+     *
+     * @param body  the index of the body
+     * @param other the index of the other body
+     * @param dist2 squared distance
+     * @return the force scale
+     */
+    default double repulsive(int body, int other, double dist2) {
+      return dist2 > 0 ? repulsive(dist2) : 0;
+    }
+
+    /**
+     * Returns whether the bodies inside the range can be approximated for the body.
+     *
+     * @param body the index of the body
+     * @param minX the min x of the boxes of bodies
+     * @param minY the min y of the boxes of bodies
+     * @param maxX the max x of the boxes of bodies
+     * @param maxY the max y of the boxes of bodies
+     * @return <tt>true</tt> if the bodies can be approximated
+     */
+    default boolean separated(int body, double minX, double minY, double maxX, double maxY) {
+      return true;
+    }
+  }
+}
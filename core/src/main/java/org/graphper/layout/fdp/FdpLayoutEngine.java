@@ -16,6 +16,7 @@
 
 package org.graphper.layout.fdp;
 
+import java.util.concurrent.ForkJoinPool;
 import org.graphper.def.FlatPoint;
 import org.graphper.draw.DrawGraph;
 import org.graphper.layout.fdp.FdpGraph.AreaGraph;
@@ -36,30 +37,22 @@ public class FdpLayoutEngine extends AbstractFdpLayout {
   private static final long serialVersionUID = 4639188492816085348L;
 
   protected void fdpLayout(AreaGraph graph, int iterations, double temperature,
-                           double k, double width, double height) {
+                           double k, double width, double height, double theta,
+                           ForkJoinPool pool) {
     double ksqaure = k * k;
     double gravityStrength = 0.1;
+    BarnesHutTree tree = new BarnesHutTree(graph.vertexNum());
+    BarnesHutTree.Force force = dist2 -> ksqaure / dist2;
 
     // Force-directed algorithm
     for (int i = 0; i < iterations; i++) {
       // Calculate repulsive forces
-      for (FNode n : graph) {
-        n.setRepulsionX(0);
-        n.setRepulsionY(0);
-        for (FNode t : graph) {
-          if (n == t) {
-            continue;
-          }
-
-          double deltaX = n.getX() - t.getX();
-          double deltaY = n.getY() - t.getY();
-          double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-          if (distance > 0) {
-            double repulsiveForce = ksqaure / distance;
-            n.setRepulsionX(n.getRepulsionX() + (deltaX / distance) * repulsiveForce);
-            n.setRepulsionY(n.getRepulsionY() + (deltaY / distance) * repulsiveForce);
-          }
-        }
+      tree.build(graph);
+      double[] repulsion = tree.forces(theta, force, pool);
+      for (int j = 0; j < tree.bodyNum(); j++) {
+        FNode n = tree.body(j);
+        n.setRepulsionX(repulsion[j * 3]);
+        n.setRepulsionY(repulsion[j * 3 + 1]);
       }
 
       if (k == 0) {
@@ -16,17 +16,16 @@
 
 package org.graphper.layout.fdp;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.graphper.layout.fdp.FdpGraph.AreaGraph;
 
 /**
  * A specialized force-directed placement (GFDP) layout engine.
  * <p>
- * This algorithm is another variant of FDP that focuses on localized node interactions,
- * considering only the forces within the cell area of a node. This optimization reduces
- * computational complexity and is particularly effective for dense graphs with limited
- * interaction ranges.
+ * This algorithm is another variant of FDP using the classic Fruchterman-Reingold forces, the
+ * repulsion between all nodes is approximated by a {@link BarnesHutTree}, the far nodes in a cell
+ * of the tree repulse a node as one body at their center. This optimization reduces computational
+ * complexity and is particularly effective for dense graphs.
  * </p>
  *
  * @author Jamison Jiang
@@ -37,55 +36,17 @@ public class GFdpLayoutEngine extends AbstractFdpLayout {
 
   @Override
   protected void fdpLayout(AreaGraph graph, int iterations, double temperature,
-                           double k, double width, double height) {
-    int gridSize = graph.vertexNum() * 10;
-    int gridWidth = (int) width;
-    int gridHeight = (int) height;
+                           double k, double width, double height, double theta,
+                           ForkJoinPool pool) {
+    BarnesHutTree tree = new BarnesHutTree(graph.vertexNum());
+    BarnesHutTree.Force force = dist2 -> k * k / dist2;
 
     for (int i = 0; i < iterations; i++) {
-      // Initialize grid
-      Cell[][] grid = new Cell[gridWidth][gridHeight];
-      for (int x = 0; x < gridWidth; x++) {
-        for (int y = 0; y < gridHeight; y++) {
-          grid[x][y] = new Cell();
-        }
-      }
-
-      for (FNode v : graph) {
-        int gridX = Math.min((int) Math.abs(v.getX() / gridSize), gridWidth - 1);
-        int gridY = Math.min((int) Math.abs(v.getY() / gridSize), gridHeight - 1);
-        grid[gridX][gridY].vertices.add(v);
-      }
-
       // Calculate repulsive forces
-      for (int x = 0; x < gridWidth; x++) {
-        for (int y = 0; y < gridHeight; y++) {
-          Cell cell = grid[x][y];
-          for (FNode v : cell.vertices) {
-            v.setRepulsionLocation(0, 0);
-            for (int dx = -1; dx <= 1; dx++) {
-              for (int dy = -1; dy <= 1; dy++) {
-                int nx = x + dx;
-                int ny = y + dy;
-                if (nx >= 0 && ny >= 0 && nx < gridWidth && ny < gridHeight) {
-                  for (FNode u : grid[nx][ny].vertices) {
-                    if (v != u) {
-                      double deltaX = v.getX() - u.getX();
-                      double deltaY = v.getY() - u.getY();
-                      double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-                      if (distance > 0) {
-                        double repulsiveForce = k * k / distance;
-                        v.setRepulsionLocation(
-                            v.getRepulsionX() + (deltaX / distance) * repulsiveForce,
-                            v.getRepulsionY() + (deltaY / distance) * repulsiveForce);
-                      }
-                    }
-                  }
-                }
-              }
-            }
-          }
-        }
+      tree.build(graph);
+      double[] repulsion = tree.forces(theta, force, pool);
+      for (int j = 0; j < tree.bodyNum(); j++) {
+        tree.body(j).setRepulsionLocation(repulsion[j * 3], repulsion[j * 3 + 1]);
       }
 
       // Calculate attractive forces
@@ -124,9 +85,4 @@ public class GFdpLayoutEngine extends AbstractFdpLayout {
       }
     }
   }
-
-  private static class Cell {
-
-    List<FNode> vertices = new ArrayList<>();
-  }
 }
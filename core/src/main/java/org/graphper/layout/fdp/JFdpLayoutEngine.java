@@ -16,6 +16,7 @@
 
 package org.graphper.layout.fdp;
 
+import java.util.concurrent.ForkJoinPool;
 import org.graphper.layout.fdp.FdpGraph.AreaGraph;
 
 /**
@@ -33,9 +34,12 @@ public class JFdpLayoutEngine extends AbstractFdpLayout {
 
   @Override
   protected void fdpLayout(AreaGraph graph, int iterations, double temperature,
-                           double k, double width, double height) {
+                           double k, double width, double height, double theta,
+                           ForkJoinPool pool) {
     width = Math.max(800, graph.edgeNum() + graph.vertexNum());
     height = width;
+    BarnesHutTree tree = new BarnesHutTree(graph.vertexNum());
+    BarnesHutTree.Force force = dist2 -> 1 / dist2;
     for (int i = 0; i < iterations; i++) {
       for (FNode node : graph) {
         node.setDx(node.getDx() / 4);
@@ -76,26 +80,13 @@ public class JFdpLayoutEngine extends AbstractFdpLayout {
         }
       }
 
-      // Calculate repulsive forces
-      for (FNode n : graph) {
-        double dx = 0;
-        double dy = 0;
-        for (FNode t : graph) {
-          if (n == t) {
-            continue;
-          }
-
-          double vx = n.getX() - t.getX();
-          double vy = n.getY() - t.getY();
-          double distanceSq = vx * vx + vy * vy;
-          if (distanceSq == 0) {
-            dx += 0.1;
-            dy += 0.1;
-          } else {
-            dx += vx / distanceSq;
-            dy += vy / distanceSq;
-          }
-        }
+      // Calculate repulsive forces, the nodes at the same position push by a small constant
+      tree.build(graph);
+      double[] repulsion = tree.forces(theta, force, pool);
+      for (int j = 0; j < tree.bodyNum(); j++) {
+        FNode n = tree.body(j);
+        double dx = repulsion[j * 3] + 0.1 * repulsion[j * 3 + 2];
+        double dy = repulsion[j * 3 + 1] + 0.1 * repulsion[j * 3 + 2];
 
         double dlen = dx * dx + dy * dy;
         if (dlen > 0) {
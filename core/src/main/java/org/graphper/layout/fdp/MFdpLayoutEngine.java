@@ -0,0 +1,210 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout.fdp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.graphper.layout.fdp.FdpGraph.AreaGraph;
+
+/**
+ * Multilevel Force-Directed Placement (MFDP) Layout Engine.
+ *
+ * <p>The graph is repeatedly coarsened by matching every node with a free neighbor and collapsing
+ * the remaining leaves into their neighbors, until the graph is small enough or can not shrink
+ * anymore. The coarsest graph is laid out by the {@link FdpLayoutEngine} force model, then every
+ * finer level starts from the positions of the coarser level and is refined by the same force
+ * model with fewer iterations. Large sparse graphs converge in far fewer iterations than a flat
+ * layout, graphs not larger than the coarsest size are laid out the same as {@link
+ * FdpLayoutEngine}.
+ *
+ * @author Jamison Jiang
+ */
+public class MFdpLayoutEngine extends FdpLayoutEngine {
+
+  private static final long serialVersionUID = -3354851305237765108L;
+
+  // Stop coarsening when the graph is not larger than this size
+  private static final int COARSEST_SIZE = 50;
+
+  // Stop coarsening when a level can not shrink the graph to this ratio
+  private static final double MIN_SHRINK = 0.8;
+
+  // The iterations of the finer levels is the iterations of the coarsest level divided by this
+  private static final int REFINE_RATIO = 5;
+
+  @Override
+  protected void fdpLayout(AreaGraph graph, int iterations, double temperature,
+                           double k, double width, double height, double theta,
+                           ForkJoinPool pool) {
+    List<Level> levels = new ArrayList<>();
+    AreaGraph fine = graph;
+    while (fine.vertexNum() > COARSEST_SIZE) {
+      Level level = coarsen(fine);
+      if (level.coarse.vertexNum() > fine.vertexNum() * MIN_SHRINK) {
+        break;
+      }
+      levels.add(level);
+      fine = level.coarse;
+    }
+
+    int vertexNum = graph.vertexNum();
+    int edgeNum = Math.max(1, graph.edgeNum());
+    int refineIterations = Math.max(iterations / REFINE_RATIO, 1);
+    for (int i = levels.size(); i >= 0; i--) {
+      AreaGraph g = i == 0 ? graph : levels.get(i - 1).coarse;
+      if (i < levels.size()) {
+        prolong(levels.get(i), k * edgeScale(g, vertexNum, edgeNum));
+      }
+
+      // Same parameters as the flat layout of a graph with the size of the level
+      double scale = (double) vertexNum / g.vertexNum();
+      super.fdpLayout(g, i == levels.size() ? iterations : refineIterations,
+                      temperature * scale, k * edgeScale(g, vertexNum, edgeNum),
+                      width, height, theta, pool);
+    }
+  }
+
+  private static double edgeScale(AreaGraph g, int vertexNum, int edgeNum) {
+    return Math.sqrt((double) Math.max(1, g.edgeNum()) / edgeNum)
+        * vertexNum / g.vertexNum();
+  }
+
+  private static Level coarsen(AreaGraph fine) {
+    Map<FNode, FNode> parent = new HashMap<>(fine.vertexNum());
+    AreaGraph coarse = new AreaGraph(fine.vertexNum() / 2 + 1);
+
+    // Match every node with the free neighbor of the min degree
+    for (FNode node : fine) {
+      if (parent.containsKey(node)) {
+        continue;
+      }
+
+      FNode mate = null;
+      for (FLine line : fine.adjacent(node)) {
+        FNode other = line.other(node);
+        if (other == node || parent.containsKey(other)) {
+          continue;
+        }
+        if (mate == null || fine.degree(other) < fine.degree(mate)) {
+          mate = other;
+        }
+      }
+
+      if (mate == null && fine.degree(node) > 0) {
+        continue;
+      }
+
+      FNode c = newCoarseNode(coarse, node, mate);
+      parent.put(node, c);
+      if (mate != null) {
+        parent.put(mate, c);
+      }
+    }
+
+    // The remaining nodes have no free neighbor, collapse the leaves into the neighbor
+    for (FNode node : fine) {
+      if (parent.containsKey(node)) {
+        continue;
+      }
+
+      FNode c = null;
+      if (fine.degree(node) == 1) {
+        c = parent.get(fine.adjacent(node).iterator().next().other(node));
+      }
+      parent.put(node, c != null ? c : newCoarseNode(coarse, node, null));
+    }
+
+    Map<FNode, Set<FNode>> coarseAdj = new HashMap<>();
+    for (FNode node : fine) {
+      for (FLine line : fine.outAdjacent(node)) {
+        FNode from = parent.get(line.from());
+        FNode to = parent.get(line.to());
+        if (from == to || coarseAdj.computeIfAbsent(to, n -> new HashSet<>()).contains(from)
+            || !coarseAdj.computeIfAbsent(from, n -> new HashSet<>()).add(to)) {
+          continue;
+        }
+        coarse.addEdge(new FLine(from, to, line.getLineDrawProp()));
+      }
+    }
+
+    return new Level(fine, coarse, parent);
+  }
+
+  private static FNode newCoarseNode(AreaGraph coarse, FNode node, FNode mate) {
+    FNode c = new FNode(null);
+    double x = node.getX();
+    double y = node.getY();
+    double w = node.getAreaWidth();
+    double h = node.getAreaHeight();
+    if (mate != null) {
+      x = (x + mate.getX()) / 2;
+      y = (y + mate.getY()) / 2;
+      w = Math.max(w, mate.getAreaWidth());
+      h = Math.max(h, mate.getAreaHeight());
+    }
+    c.setWidth(w);
+    c.setHeight(h);
+    c.setLocation(x, y);
+    coarse.add(c);
+    return c;
+  }
+
+  // Place the nodes of the fine level around the positions of their coarse nodes
+  private static void prolong(Level level, double k) {
+    Map<FNode, Integer> childNum = new HashMap<>(level.coarse.vertexNum());
+    for (FNode node : level.fine) {
+      childNum.merge(level.parent.get(node), 1, Integer::sum);
+    }
+
+    Map<FNode, Integer> childNo = new HashMap<>(level.coarse.vertexNum());
+    double radius = Math.max(k / 2, 1);
+    for (FNode node : level.fine) {
+      FNode c = level.parent.get(node);
+      int num = childNum.get(c);
+      if (num == 1) {
+        level.fine.setNodeLocation(node, c.getX(), c.getY());
+        continue;
+      }
+
+      int no = childNo.merge(c, 1, Integer::sum);
+      double angle = 2 * Math.PI * no / num;
+      level.fine.setNodeLocation(node, c.getX() + radius * Math.cos(angle),
+                                 c.getY() + radius * Math.sin(angle));
+    }
+  }
+
+  private static class Level {
+
+    private final AreaGraph fine;
+
+    private final AreaGraph coarse;
+
+    // The coarse node of every fine node
+    private final Map<FNode, FNode> parent;
+
+    Level(AreaGraph fine, AreaGraph coarse, Map<FNode, FNode> parent) {
+      this.fine = fine;
+      this.coarse = coarse;
+      this.parent = parent;
+    }
+  }
+}
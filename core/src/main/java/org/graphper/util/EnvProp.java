@@ -35,6 +35,38 @@ public final class EnvProp {
     return Boolean.TRUE.toString().equals(System.getProperty("use.local.img.converter"));
   }
 
+  public static boolean useRasterRender() {
+    return Boolean.TRUE.toString().equals(System.getProperty("graph.render.raster"));
+  }
+
+  public static int measureCacheSize() {
+    String size = System.getProperty("graph.measure.cache.size");
+    if (size == null) {
+      return 8192;
+    }
+    try {
+      return Integer.parseInt(size.trim());
+    } catch (NumberFormatException e) {
+      return 8192;
+    }
+  }
+
+  public static int htmlLabelCacheSize() {
+    String size = System.getProperty("graph.html.label.cache.size");
+    if (size == null) {
+      return 1024;
+    }
+    try {
+      return Integer.parseInt(size.trim());
+    } catch (NumberFormatException e) {
+      return 1024;
+    }
+  }
+
+  public static String trueTypeFontPath() {
+    return System.getProperty("graph.measure.font.path");
+  }
+
   public static Rankdir defaultRankdir() {
     return Rankdir.rankdir(System.getProperty("graph.rankdir"));
   }
@@ -47,6 +79,11 @@ public final class EnvProp {
     return Boolean.TRUE.toString().equalsIgnoreCase(System.getProperty("dot.coordinate.v1"));
   }
 
+  public static boolean usePairwiseCrossCounter() {
+    return Boolean.TRUE.toString()
+        .equalsIgnoreCase(System.getProperty("dot.mincross.pairwise.counter"));
+  }
+
   public static boolean parallelLineDistinction() {
     return Boolean.TRUE.toString()
         .equalsIgnoreCase(System.getProperty("parallel.lines.case.distinction"));
@@ -19,7 +19,10 @@ package org.graphper.util;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.attributes.FontStyle;
 import org.graphper.def.FlatPoint;
@@ -40,6 +43,7 @@ public class FontUtils {
 
   private static final MeasureText MEASURE_TEXT = selectMeasureText();
   private static final FontSelector FONT_SELECTOR = selectFontSelector();
+  private static final MeasureCache MEASURE_CACHE = new MeasureCache(EnvProp.measureCacheSize());
 
   /**
    * Default font to use when no suitable font is specified or found.
@@ -93,6 +97,10 @@ public class FontUtils {
   /**
    * Measures the actual size of a label's bounding box based on its content, font, and size.
    *
+   * <p>The results of the same text, font, size and styles are memoized, the max number of
+   * memoized results is controlled by the system property {@code graph.measure.cache.size}, a
+   * non-positive value disables it.
+   *
    * @param label      the label content to measure
    * @param fontName   the name of the font used for the label
    * @param fontSize   the size of the font
@@ -103,15 +111,44 @@ public class FontUtils {
    */
   public static FlatPoint measure(String label, String fontName, double fontSize,
                                   double widthIncr, FontStyle... fontStyles) {
-    FlatPoint size = MEASURE_TEXT.measure(label, fontName, fontSize, fontStyles);
+    FlatPoint size = MEASURE_CACHE.get(label, fontName, fontSize, fontStyles);
     if (size == null) {
-      throw new RuntimeException(
-          "Unexpected error: MeasureText returned null for label size");
+      size = MEASURE_TEXT.measure(label, fontName, fontSize, fontStyles);
+      if (size == null) {
+        throw new RuntimeException(
+            "Unexpected error: MeasureText returned null for label size");
+      }
+      MEASURE_CACHE.put(label, fontName, fontSize, fontStyles, size);
     }
     size.setWidth(size.getWidth() + widthIncr);
     return size;
   }
 
+  /**
+   * Returns the number of {@link #measure} calls served by the memoized results.
+   *
+   * @return the hit count of measurement cache
+   */
+  public static long measureCacheHitCount() {
+    return MEASURE_CACHE.hits.sum();
+  }
+
+  /**
+   * Returns the number of {@link #measure} calls which had to measure the text.
+   *
+   * @return the miss count of measurement cache
+   */
+  public static long measureCacheMissCount() {
+    return MEASURE_CACHE.misses.sum();
+  }
+
+  /**
+   * Clears the memoized measurement results and the hit/miss counts.
+   */
+  public static void clearMeasureCache() {
+    MEASURE_CACHE.clear();
+  }
+
   /**
    * Checks if a specific font exists in the current environment.
    *
@@ -133,6 +170,20 @@ public class FontUtils {
     return FONT_SELECTOR.findFirstSupportFont(c);
   }
 
+  /**
+   * Prepares the font selection of the chars in the range ahead of time, after that
+   * {@link #findFirstSupportFont(char)} and {@link #selectFont(String, String)} of these chars are
+   * simple lookups. For example, {@code warmUpFonts((char) 0x4E00, (char) 0x9FFF)} for
+   * CJK labels.
+   *
+   * @param start the first char, inclusive
+   * @param end   the last char, inclusive
+   */
+  public static void warmUpFonts(char start, char end) {
+    Asserts.illegalArgument(start > end, "start char is greater than end char");
+    FONT_SELECTOR.warmUp(start, end);
+  }
+
   /**
    * Selects an appropriate font for the given text. If the specified font supports all characters
    * in the text, it is returned. Otherwise, the font that supports the most characters in the text
@@ -187,4 +238,100 @@ public class FontUtils {
 
     return maxSupportFont == null ? DEFAULT_FONT : maxSupportFont;
   }
+
+  private static final class MeasureCache {
+
+    private final int capacity;
+
+    private final Map<MeasureKey, FlatPoint> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private MeasureCache(int capacity) {
+      this.capacity = capacity;
+      this.cache = capacity > 0 ? new ConcurrentHashMap<>() : null;
+    }
+
+    private FlatPoint get(String text, String fontName, double fontSize,
+                          FontStyle[] fontStyles) {
+      if (cache == null) {
+        return null;
+      }
+      FlatPoint size = cache.get(new MeasureKey(text, fontName, fontSize, fontStyles));
+      if (size == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      // FlatPoint is mutable, never expose the cached one
+      return new FlatPoint(size.getHeight(), size.getWidth());
+    }
+
+    private void put(String text, String fontName, double fontSize, FontStyle[] fontStyles,
+                     FlatPoint size) {
+      if (cache == null) {
+        return;
+      }
+      // Drop everything when full, the labels still in use are measured again very soon
+      if (cache.size() >= capacity) {
+        cache.clear();
+      }
+      cache.put(new MeasureKey(text, fontName, fontSize, fontStyles),
+                new FlatPoint(size.getHeight(), size.getWidth()));
+    }
+
+    private void clear() {
+      if (cache != null) {
+        cache.clear();
+      }
+      hits.reset();
+      misses.reset();
+    }
+  }
+
+  private static final class MeasureKey {
+
+    private final String text;
+
+    private final String fontName;
+
+    private final double fontSize;
+
+    private final int styles;
+
+    private MeasureKey(String text, String fontName, double fontSize, FontStyle[] fontStyles) {
+      this.text = text;
+      this.fontName = fontName;
+      this.fontSize = fontSize;
+      int s = 0;
+      if (fontStyles != null) {
+        for (FontStyle fontStyle : fontStyles) {
+          if (fontStyle != null) {
+            s |= 1 << fontStyle.ordinal();
+          }
+        }
+      }
+      this.styles = s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      MeasureKey that = (MeasureKey) o;
+      return Double.compare(that.fontSize, fontSize) == 0 && styles == that.styles
+          && Objects.equals(text, that.text) && Objects.equals(fontName, that.fontName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(text, fontName, fontSize, styles);
+    }
+  }
 }
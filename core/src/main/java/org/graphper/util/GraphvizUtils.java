@@ -16,6 +16,11 @@
 
 package org.graphper.util;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -76,6 +81,11 @@ public class GraphvizUtils {
         subgraphConsumer, clusterConsumer, continueDfsPredicate);
   }
 
+  /*
+   * Depth-first visit of the container tree with an explicit stack. Each child is consumed before
+   * or after the visit of its own children depending on preConsumer, the same order as the
+   * recursive visit.
+   */
   private static void dfs(boolean preConsumer,
                           int depth, int maxDepth,
                           Set<GraphContainer> path,
@@ -84,6 +94,45 @@ public class GraphvizUtils {
                           BiConsumer<Subgraph, GraphContainer> subgraphConsumer,
                           BiConsumer<Cluster, GraphContainer> clusterConsumer,
                           Predicate<GraphContainer> continueDfsPredicate) {
+    Deque<ContainerFrame> stack = new ArrayDeque<>();
+    if (enter(depth, maxDepth, path, accessStack, container)) {
+      stack.push(new ContainerFrame(container, null, depth));
+    }
+
+    while (!stack.isEmpty()) {
+      ContainerFrame frame = stack.peek();
+      if (!frame.children.hasNext()) {
+        stack.pop();
+        if (accessStack != null) {
+          accessStack.remove(frame.container);
+        }
+        if (!preConsumer && frame.father != null) {
+          consumerContainer(frame.father, frame.container, subgraphConsumer, clusterConsumer);
+        }
+        continue;
+      }
+
+      GraphContainer child = frame.children.next();
+      if (preConsumer) {
+        consumerContainer(frame.container, child, subgraphConsumer, clusterConsumer);
+      }
+
+      // continue dfs ?
+      if ((continueDfsPredicate == null
+          || Objects.equals(Boolean.TRUE, continueDfsPredicate.test(child)))
+          && enter(frame.depth + 1, maxDepth, path, accessStack, child)) {
+        stack.push(new ContainerFrame(child, frame.container, frame.depth + 1));
+        continue;
+      }
+
+      if (!preConsumer) {
+        consumerContainer(frame.container, child, subgraphConsumer, clusterConsumer);
+      }
+    }
+  }
+
+  private static boolean enter(int depth, int maxDepth, Set<GraphContainer> path,
+                               Set<GraphContainer> accessStack, GraphContainer container) {
     Asserts.illegalArgument(
         depth > maxDepth,
         "The depth of the subgraph exceeds the maximum depth " + maxDepth
@@ -98,53 +147,12 @@ public class GraphvizUtils {
 
     if (path != null) {
       if (path.contains(container)) {
-        return;
+        return false;
       }
 
       path.add(container);
     }
-
-    // Subgraphs dfs
-    for (Subgraph subgraph : container.subgraphs()) {
-      consumerContainer(preConsumer, depth, maxDepth, path,
-                        accessStack, subgraphConsumer, clusterConsumer,
-                        continueDfsPredicate, subgraph, container);
-    }
-
-    // Clusters dfs
-    for (Cluster cluster : container.clusters()) {
-      consumerContainer(preConsumer, depth, maxDepth, path,
-                        accessStack, subgraphConsumer, clusterConsumer,
-                        continueDfsPredicate, cluster, container);
-    }
-
-    if (accessStack != null) {
-      accessStack.remove(container);
-    }
-  }
-
-  private static void consumerContainer(boolean preConsumer,
-                                        int depth, int maxDepth,
-                                        Set<GraphContainer> path,
-                                        Set<GraphContainer> accessStack,
-                                        BiConsumer<Subgraph, GraphContainer> subgraphConsumer,
-                                        BiConsumer<Cluster, GraphContainer> clusterConsumer,
-                                        Predicate<GraphContainer> continueDfsPredicate,
-                                        GraphContainer container, GraphContainer father) {
-    if (preConsumer) {
-      consumerContainer(father, container, subgraphConsumer, clusterConsumer);
-    }
-
-    // continue dfs ?
-    if (continueDfsPredicate == null ||
-        Objects.equals(Boolean.TRUE, continueDfsPredicate.test(container))) {
-      dfs(preConsumer, depth + 1, maxDepth, path, accessStack, container,
-          subgraphConsumer, clusterConsumer, continueDfsPredicate);
-    }
-
-    if (!preConsumer) {
-      consumerContainer(father, container, subgraphConsumer, clusterConsumer);
-    }
+    return true;
   }
 
   private static void consumerContainer(GraphContainer father, GraphContainer container,
@@ -156,4 +164,27 @@ public class GraphvizUtils {
       clusterConsumer.accept((Cluster) container, father);
     }
   }
+
+  private static class ContainerFrame {
+
+    private final GraphContainer container;
+
+    private final GraphContainer father;
+
+    private final int depth;
+
+    // Subgraphs first, then clusters
+    private final Iterator<GraphContainer> children;
+
+    private ContainerFrame(GraphContainer container, GraphContainer father, int depth) {
+      this.container = container;
+      this.father = father;
+      this.depth = depth;
+      List<GraphContainer> c = new ArrayList<>(container.subgraphs().size()
+                                                   + container.clusters().size());
+      c.addAll(container.subgraphs());
+      c.addAll(container.clusters());
+      this.children = c.iterator();
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.graphper.draw.ExecuteException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GraphvizBatchTest {
+
+  @Test
+  public void testAsync() throws ExecuteException, ExecutionException, InterruptedException,
+      IOException {
+    Graphviz graphviz = graph(1);
+    String svg = graphviz.toSvgStr();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      GraphResource resource = graphviz.toFileAsync(FileType.SVG, executor).get();
+      Assertions.assertEquals(svg, new String(resource.bytes(), StandardCharsets.UTF_8));
+      resource = graphviz.toSvgAsync().get();
+      Assertions.assertEquals(svg, new String(resource.bytes(), StandardCharsets.UTF_8));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testBoundedConcurrency() throws ExecuteException {
+    int total = 30;
+    int concurrency = 3;
+    AtomicInteger pending = new AtomicInteger();
+    AtomicInteger maxPending = new AtomicInteger();
+    Map<Integer, String> results = new ConcurrentHashMap<>();
+
+    Iterator<Graphviz> graphs = new Iterator<Graphviz>() {
+      int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < total;
+      }
+
+      @Override
+      public Graphviz next() {
+        int p = pending.incrementAndGet();
+        maxPending.accumulateAndGet(p, Math::max);
+        return graph(i++);
+      }
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      new GraphvizBatch(executor, concurrency).render(graphs, null, (graphviz, resource) -> {
+        try (GraphResource r = resource) {
+          results.put(graphviz.nodeNum(), new String(r.bytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+        pending.decrementAndGet();
+      });
+    } finally {
+      executor.shutdown();
+    }
+
+    Assertions.assertEquals(total, results.size());
+    Assertions.assertEquals(0, pending.get());
+    // The rendering graphs and the one waiting for a free slot
+    Assertions.assertTrue(maxPending.get() <= concurrency + 1);
+    for (int i = 0; i < total; i++) {
+      Assertions.assertEquals(graph(i).toSvgStr(), results.get(i + 2));
+    }
+  }
+
+  @Test
+  public void testFailure() {
+    GraphvizBatch batch = new GraphvizBatch(2);
+    AtomicInteger count = new AtomicInteger();
+    ExecuteException e = Assertions.assertThrows(ExecuteException.class, () -> batch.render(
+        () -> new Iterator<Graphviz>() {
+          int i = 0;
+
+          @Override
+          public boolean hasNext() {
+            return i < 1000;
+          }
+
+          @Override
+          public Graphviz next() {
+            return graph(i++);
+          }
+        }, null, (graphviz, resource) -> {
+          if (count.incrementAndGet() == 3) {
+            throw new IllegalStateException("consumer failed");
+          }
+        }));
+
+    Assertions.assertEquals("consumer failed", e.getCause().getMessage());
+    Assertions.assertTrue(count.get() < 1000);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new GraphvizBatch(0));
+  }
+
+  private static Graphviz graph(int n) {
+    Graphviz.GraphvizBuilder builder = Graphviz.digraph();
+    Node pre = Node.builder().label("0").build();
+    for (int i = 1; i < n + 2; i++) {
+      Node node = Node.builder().label(String.valueOf(i)).build();
+      builder.addLine(pre, node);
+      pre = node;
+    }
+    return builder.build();
+  }
+}
@@ -19,6 +19,7 @@ package org.graphper.api;
 import helper.DocumentUtils;
 import helper.SerialHelper;
 import java.io.IOException;
+import java.util.Set;
 import java.util.concurrent.Phaser;
 import org.graphper.api.Cluster;
 import org.graphper.api.GraphAttrs;
@@ -184,6 +185,66 @@ public class GraphvizTest {
         });
   }
 
+  @Test
+  public void testMembershipIndex() {
+    Node a = Node.builder().label("a").build();
+    Node b = Node.builder().label("b").build();
+    Node c = Node.builder().label("c").build();
+    Node d = Node.builder().label("d").build();
+    Node e = Node.builder().label("e").build();
+    Subgraph s1 = Subgraph.builder().addLine(c, d).build();
+    Cluster c1 = Cluster.builder().addLine(a, c).subgraph(s1).build();
+    Cluster c2 = Cluster.builder().addNode(e).build();
+    Graphviz graphviz = Graphviz.digraph()
+        .addLine(a, b)
+        .addLine(b, e)
+        .cluster(c1)
+        .cluster(c2)
+        .build();
+
+    // The repeated nodes of sub containers are counted repeatedly
+    Assertions.assertEquals(8, graphviz.nodeNum());
+    Assertions.assertEquals(4, graphviz.lineNum());
+    Assertions.assertEquals(1, graphviz.directNodes().size());
+    Assertions.assertTrue(graphviz.directNodes().contains(b));
+    Assertions.assertTrue(graphviz.subContains(a));
+    Assertions.assertFalse(graphviz.subContains(b));
+    Assertions.assertTrue(c1.containsNode(d));
+    Assertions.assertFalse(c1.containsNode(e));
+    Assertions.assertFalse(c1.subContains(a));
+    Assertions.assertTrue(c1.subContains(c));
+
+    // Same as the queries without index
+    GraphContainer[] containers = {graphviz, s1, c1, c2};
+    Node[] nodes = {a, b, c, d, e};
+    for (GraphContainer container : containers) {
+      ContainerIndex index = container.index;
+      Assertions.assertNotNull(index);
+      int nodeNum = container.nodeNum();
+      int lineNum = container.lineNum();
+      Set<Node> directNodes = container.directNodes();
+      boolean[] contains = new boolean[nodes.length];
+      boolean[] subContains = new boolean[nodes.length];
+      for (int i = 0; i < nodes.length; i++) {
+        contains[i] = container.containsNode(nodes[i]);
+        subContains[i] = container.subContains(nodes[i]);
+      }
+
+      container.index = null;
+      try {
+        Assertions.assertEquals(nodeNum, container.nodeNum());
+        Assertions.assertEquals(lineNum, container.lineNum());
+        Assertions.assertEquals(directNodes, container.directNodes());
+        for (int i = 0; i < nodes.length; i++) {
+          Assertions.assertEquals(contains[i], container.containsNode(nodes[i]));
+          Assertions.assertEquals(subContains[i], container.subContains(nodes[i]));
+        }
+      } finally {
+        container.index = index;
+      }
+    }
+  }
+
   private void build(GraphContainerBuilder c, int a, int b) {
     if (a > b) {
       return;
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.def;
+
+import static org.graphper.def.GEdge.newEdge;
+import static org.graphper.def.GNode.newNode;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsrGraphTest {
+
+  private final GNode n1 = newNode("n1");
+  private final GNode n2 = newNode("n2");
+  private final GNode n3 = newNode("n3");
+  private final GNode n4 = newNode("n4");
+
+  @Test
+  void testBuild() {
+    CsrGraph.Builder<GNode, GEdge> builder = CsrGraph.builder(1, 1);
+    GEdge e1 = newEdge(n1, n2);
+    GEdge e2 = newEdge(n2, n3);
+    GEdge e3 = newEdge(n1, n3);
+    GEdge e4 = newEdge(n3, n3);
+    builder.addVertex(n1);
+    builder.addEdge(n1, n2, e1);
+    builder.addEdge(n2, n3, e2);
+    builder.addEdge(n1, n3, e3);
+    builder.addEdge(n3, n3, e4);
+    builder.addVertex(n4);
+    CsrGraph<GNode, GEdge> graph = builder.build();
+
+    assertEquals(4, graph.vertexNum());
+    assertEquals(4, graph.edgeNum());
+    assertArrayEquals(new GNode[]{n1, n2, n3, n4}, graph.toArray(GNode[]::new));
+    assertEquals(2, graph.indexOf(n3));
+    assertEquals(-1, graph.indexOf(newNode("n5")));
+
+    int v1 = graph.indexOf(n1);
+    int v3 = graph.indexOf(n3);
+    assertEquals(2, graph.outDegree(v1));
+    assertEquals(0, graph.inDegree(v1));
+    assertEquals(3, graph.inDegree(v3));
+    assertEquals(1, graph.outDegree(v3));
+    assertEquals(3, graph.degree(v3));
+    assertEquals(0, graph.degree(graph.indexOf(n4)));
+
+    List<GEdge> out = new ArrayList<>();
+    for (int i = graph.outStart(v1); i < graph.outEnd(v1); i++) {
+      out.add(graph.edge(graph.outEdge(i)));
+    }
+    assertEquals(Arrays.asList(e1, e3), out);
+
+    List<GEdge> adj = new ArrayList<>();
+    for (int i = graph.adjStart(v3); i < graph.adjEnd(v3); i++) {
+      int e = graph.adjEdge(i);
+      adj.add(graph.edge(e));
+      assertEquals(e == 3 ? v3 : graph.tail(e), graph.other(e, v3));
+    }
+    assertEquals(Arrays.asList(e2, e3, e4), adj);
+    assertThrows(IllegalStateException.class, () -> builder.addVertex(n4));
+  }
+
+  @Test
+  void testOfDigraph() {
+    DedirectedEdgeGraph<GNode, GEdge> digraph = new DedirectedEdgeGraph<>();
+    digraph.add(n4);
+    digraph.addEdge(newEdge(n1, n2));
+    digraph.addEdge(newEdge(n2, n3));
+    digraph.addEdge(newEdge(n4, n3));
+    digraph.addEdge(newEdge(n1, n3));
+
+    CsrGraph<GNode, GEdge> graph = CsrGraph.of(digraph);
+    assertEquals(digraph.vertexNum(), graph.vertexNum());
+    assertEquals(digraph.edgeNum(), graph.edgeNum());
+    for (GNode node : digraph) {
+      int v = graph.indexOf(node);
+      assertSame(node, graph.vertex(v));
+      assertEquals(digraph.outDegree(node), graph.outDegree(v));
+      assertEquals(digraph.inDegree(node), graph.inDegree(v));
+      for (int i = graph.inStart(v); i < graph.inEnd(v); i++) {
+        GEdge edge = graph.edge(graph.inEdge(i));
+        assertSame(node, edge.to());
+        assertSame(edge.from(), graph.vertex(graph.tail(graph.inEdge(i))));
+      }
+    }
+  }
+}
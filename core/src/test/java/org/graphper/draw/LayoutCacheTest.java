@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import helper.DocumentUtils;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.graphper.api.FileType;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Node;
+import org.graphper.api.attributes.Color;
+import org.graphper.api.attributes.Layout;
+import org.graphper.draw.MetricsListener.Phase;
+import org.graphper.draw.common.CommonRenderEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LayoutCacheTest {
+
+  @Test
+  public void testFingerprint() {
+    String fingerprint = graph("b").fingerprint();
+    Assertions.assertNotNull(fingerprint);
+    Assertions.assertEquals(fingerprint, graph("b").fingerprint());
+    Assertions.assertNotEquals(fingerprint, graph("c").fingerprint());
+
+    Node a = Node.builder().label("a").build();
+    Node b = Node.builder().label("b").color(Color.RED).build();
+    Assertions.assertNotEquals(fingerprint,
+                               Graphviz.digraph().addLine(a, b).build().fingerprint());
+    Assertions.assertNotEquals(fingerprint, Graphviz.digraph().layout(Layout.DOTQ)
+        .addLine(Node.builder().label("a").build(), Node.builder().label("b").build())
+        .build().fingerprint());
+  }
+
+  @Test
+  public void testLruCache() throws ExecuteException {
+    CountLayoutCache cache = new CountLayoutCache(new LruLayoutCache(2));
+    String svg;
+    CommonRenderEngine.getInstance().setLayoutCache(cache);
+    try {
+      svg = graph("b").toSvgStr();
+      Assertions.assertEquals(0, cache.hit.get());
+      // Another instance of the same graph
+      Assertions.assertEquals(svg, graph("b").toSvgStr());
+      Assertions.assertEquals(1, cache.hit.get());
+      // Another file type
+      Assertions.assertNotNull(graph("b").toFile(FileType.SVG));
+      Assertions.assertEquals(2, cache.hit.get());
+
+      graph("c").toSvgStr();
+      graph("d").toSvgStr();
+      // Evicted
+      graph("b").toSvgStr();
+      Assertions.assertEquals(2, cache.hit.get());
+    } finally {
+      CommonRenderEngine.getInstance().setLayoutCache(null);
+    }
+
+    LruLayoutCache lru = (LruLayoutCache) cache.cache;
+    Assertions.assertEquals(2, lru.size());
+    Assertions.assertEquals(svg, graph("b").toSvgStr());
+  }
+
+  @Test
+  public void testDiskCache() throws ExecuteException, IOException {
+    Path directory = Paths.get(DocumentUtils.getTestSerialPath(), "layout");
+    if (Files.exists(directory)) {
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+    }
+    DiskLayoutCache disk = new DiskLayoutCache(directory);
+    CountLayoutCache cache = new CountLayoutCache(disk);
+    CommonRenderEngine.getInstance().setLayoutCache(cache);
+    try {
+      Graphviz graphviz = graph("b");
+      String svg = graphviz.toSvgStr();
+      // Read from the disk
+      Assertions.assertEquals(svg, graph("b").toSvgStr());
+      Assertions.assertEquals(1, cache.hit.get());
+
+      Assertions.assertNull(disk.get("missing"));
+      Assertions.assertThrows(IllegalArgumentException.class, () -> disk.get("../missing"));
+    } finally {
+      CommonRenderEngine.getInstance().setLayoutCache(null);
+    }
+  }
+
+  @Test
+  public void testBindCurrentGraph() throws ExecuteException {
+    CountLayoutCache cache = new CountLayoutCache(new LruLayoutCache(2));
+    SimpleMetricsCollector first = new SimpleMetricsCollector();
+    SimpleMetricsCollector second = new SimpleMetricsCollector();
+    CommonRenderEngine.getInstance().setLayoutCache(cache);
+    try {
+      String svg = graph("b", first).toSvgStr();
+      Graphviz graphviz = graph("b", second);
+      Assertions.assertEquals(svg, graphviz.toSvgStr());
+      Assertions.assertEquals(1, first.phaseTimes(Phase.SERIALIZATION));
+      // The render of cached layout is reported to the current graph
+      Assertions.assertEquals(1, second.phaseTimes(Phase.SERIALIZATION));
+      Assertions.assertEquals(0, second.phaseTimes(Phase.RANK));
+
+      Assertions.assertEquals(1, cache.hit.get());
+      DrawGraph drawGraph = cache.last.bind(graphviz);
+      Assertions.assertSame(graphviz, drawGraph.getGraphviz());
+      Assertions.assertSame(second, drawGraph.metrics());
+      for (Node node : graphviz.nodes()) {
+        Assertions.assertSame(node, drawGraph.getNodeDrawProp(node).getNode());
+      }
+      for (LineDrawProp line : drawGraph.lines()) {
+        Assertions.assertTrue(graphviz.containsLine(line.getLine()));
+      }
+    } finally {
+      CommonRenderEngine.getInstance().setLayoutCache(null);
+    }
+  }
+
+  @Test
+  public void testDiskCacheRejectOtherClass() throws IOException {
+    Path directory = Paths.get(DocumentUtils.getTestSerialPath(), "layout-reject");
+    DiskLayoutCache disk = new DiskLayoutCache(directory);
+    Path file = directory.resolve("other.layout");
+    try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+      out.writeObject(new URI("https://graph-support/layout"));
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+
+    Assertions.assertNull(disk.get("other"));
+    Assertions.assertFalse(Files.exists(file));
+  }
+
+  private static Graphviz graph(String head) {
+    return graph(head, null);
+  }
+
+  private static Graphviz graph(String head, MetricsListener metrics) {
+    Node a = Node.builder().label("a").build();
+    Node b = Node.builder().label(head).build();
+    Node c = Node.builder().label("z").build();
+    return Graphviz.digraph().metrics(metrics)
+        .addLine(a, b).addLine(b, c).addLine(a, c).build();
+  }
+
+  private static class CountLayoutCache implements LayoutCache {
+
+    private final LayoutCache cache;
+
+    private final AtomicInteger hit = new AtomicInteger();
+
+    private volatile LayoutGeometry last;
+
+    private CountLayoutCache(LayoutCache cache) {
+      this.cache = cache;
+    }
+
+    @Override
+    public LayoutGeometry get(String key) {
+      LayoutGeometry layout = cache.get(key);
+      if (layout != null) {
+        hit.incrementAndGet();
+      }
+      return layout;
+    }
+
+    @Override
+    public void put(String key, LayoutGeometry layout) {
+      last = layout;
+      cache.put(key, layout);
+    }
+  }
+}
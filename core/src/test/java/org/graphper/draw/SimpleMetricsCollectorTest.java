@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw;
+
+import org.graphper.api.Graphviz;
+import org.graphper.api.Node;
+import org.graphper.api.attributes.Layout;
+import org.graphper.api.attributes.Splines;
+import org.graphper.draw.MetricsListener.Counter;
+import org.graphper.draw.MetricsListener.Phase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SimpleMetricsCollectorTest {
+
+  @Test
+  public void testDotPhases() throws ExecuteException {
+    SimpleMetricsCollector collector = new SimpleMetricsCollector();
+    Graphviz graphviz = graph(Layout.DOT, Splines.ORTHO, collector);
+    String svg = graphviz.toSvgStr();
+
+    for (Phase phase : Phase.values()) {
+      Assertions.assertTrue(collector.phaseTimes(phase) > 0, phase.name());
+    }
+    Assertions.assertTrue(collector.phaseNanos(Phase.ROUTING, "OrthogonalRouter") > 0);
+    Assertions.assertTrue(collector.counter(Counter.MINCROSS_PASSES) > 0);
+    Assertions.assertTrue(collector.counter(Counter.VIRTUAL_NODES) > 0);
+    Assertions.assertTrue(collector.counter(Counter.MAZE_VERTICES) > 0);
+    Assertions.assertTrue(collector.counter(Counter.CROSSINGS) >= 0);
+
+    // The listener not change the result
+    Assertions.assertEquals(graph(Layout.DOT, Splines.ORTHO, null).toSvgStr(), svg);
+
+    collector.reset();
+    Assertions.assertEquals(0, collector.phaseTimes(Phase.MIN_CROSS));
+    Assertions.assertEquals(0, collector.counter(Counter.MINCROSS_PASSES));
+  }
+
+  @Test
+  public void testFdpPhases() throws ExecuteException {
+    SimpleMetricsCollector collector = new SimpleMetricsCollector();
+    graph(Layout.FDP, Splines.LINE, collector).toSvgStr();
+
+    Assertions.assertTrue(collector.phaseTimes(Phase.TEMPLATE_COPY) > 0);
+    Assertions.assertTrue(collector.phaseTimes(Phase.ROUTING) > 0);
+    Assertions.assertTrue(collector.phaseTimes(Phase.LINE_CLIP) > 0);
+    Assertions.assertTrue(collector.phaseTimes(Phase.SERIALIZATION) > 0);
+    Assertions.assertEquals(0, collector.phaseTimes(Phase.MIN_CROSS));
+    Assertions.assertTrue(collector.toString().contains("ROUTING"));
+  }
+
+  private static Graphviz graph(Layout layout, Splines splines, MetricsListener metrics) {
+    Node a = Node.builder().label("a").build();
+    Node b = Node.builder().label("b").build();
+    Node c = Node.builder().label("c").build();
+    Node d = Node.builder().label("d").build();
+    return Graphviz.digraph()
+        .layout(layout)
+        .splines(splines)
+        .metrics(metrics)
+        .addLine(a, b)
+        .addLine(b, c)
+        .addLine(c, d)
+        .addLine(a, d)
+        .addLine(b, d)
+        .build();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.common;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Node;
+import org.graphper.draw.DefaultPipelineFactory;
+import org.graphper.draw.DrawBoard;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.svg.Document;
+import org.graphper.draw.svg.SvgBrush;
+import org.graphper.draw.svg.SvgDrawBoard;
+import org.graphper.draw.svg.SvgRenderEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
+
+public class SvgDomBuilderTest {
+
+  @Test
+  public void testSameAsParse() throws Exception {
+    Node a = Node.builder().label("a b").href("https://a.com?x=1&y=2").build();
+    Node b = Node.builder().label("b & <c>").build();
+    Graphviz graphviz = Graphviz.digraph().label("graph").addLine(a, b).build();
+    CaptureRenderEngine renderEngine = new CaptureRenderEngine();
+    renderEngine.render(graphviz, null);
+    Document document = renderEngine.board.document();
+
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    DocumentBuilder builder = factory.newDocumentBuilder();
+    org.w3c.dom.Document expect = builder.parse(
+        new ByteArrayInputStream(document.toXml().getBytes(StandardCharsets.UTF_8)));
+    org.w3c.dom.Document actual = SvgDomBuilder.build(document, builder.getDOMImplementation());
+
+    assertSame(expect.getDocumentElement(), actual.getDocumentElement());
+  }
+
+  private static void assertSame(Element expect, Element actual) {
+    Assertions.assertEquals(SvgDomBuilder.SVG_NAMESPACE, actual.getNamespaceURI());
+    Assertions.assertEquals(expect.getTagName(), actual.getTagName());
+
+    NamedNodeMap attrs = expect.getAttributes();
+    for (int i = 0; i < attrs.getLength(); i++) {
+      org.w3c.dom.Node attr = attrs.item(i);
+      if (attr.getNodeName().startsWith("xmlns")) {
+        continue;
+      }
+      Assertions.assertEquals(attr.getNodeValue(), actual.getAttribute(attr.getNodeName()));
+      Assertions.assertEquals(attr.getNamespaceURI(),
+                              actual.getAttributeNode(attr.getNodeName()).getNamespaceURI());
+    }
+
+    NodeList expectChildren = expect.getChildNodes();
+    NodeList actualChildren = actual.getChildNodes();
+    Assertions.assertEquals(expectChildren.getLength(), actualChildren.getLength());
+    for (int i = 0; i < expectChildren.getLength(); i++) {
+      org.w3c.dom.Node e = expectChildren.item(i);
+      org.w3c.dom.Node c = actualChildren.item(i);
+      Assertions.assertEquals(e.getNodeType(), c.getNodeType());
+      if (e instanceof Element) {
+        assertSame((Element) e, (Element) c);
+      } else {
+        Assertions.assertEquals(e.getNodeValue(), c.getNodeValue());
+      }
+    }
+  }
+
+  private static class CaptureRenderEngine extends SvgRenderEngine {
+
+    private DocumentBoard board;
+
+    private CaptureRenderEngine() {
+      super(new DefaultPipelineFactory());
+    }
+
+    @Override
+    protected DrawBoard<SvgBrush, SvgBrush, SvgBrush, SvgBrush> drawBoard(DrawGraph drawGraph) {
+      board = new DocumentBoard(drawGraph);
+      return board;
+    }
+  }
+
+  private static class DocumentBoard extends SvgDrawBoard {
+
+    private DocumentBoard(DrawGraph drawGraph) {
+      super(drawGraph);
+    }
+
+    private Document document() {
+      return svgDocument;
+    }
+  }
+}
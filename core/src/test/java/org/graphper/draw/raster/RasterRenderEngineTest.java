@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.raster;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.imageio.ImageIO;
+import org.graphper.api.Cluster;
+import org.graphper.api.FileType;
+import org.graphper.api.GraphResource;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Line;
+import org.graphper.api.Node;
+import org.graphper.api.attributes.ArrowShape;
+import org.graphper.api.attributes.ClusterStyle;
+import org.graphper.api.attributes.Color;
+import org.graphper.api.attributes.Layout;
+import org.graphper.api.attributes.LineStyle;
+import org.graphper.api.attributes.NodeShapeEnum;
+import org.graphper.api.attributes.NodeStyle;
+import org.graphper.draw.ExecuteException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class RasterRenderEngineTest {
+
+  private static final String LOCAL_CONVERTER = "use.local.img.converter";
+
+  private static String localConverter;
+
+  @BeforeAll
+  public static void before() {
+    localConverter = System.getProperty(LOCAL_CONVERTER);
+    System.setProperty(LOCAL_CONVERTER, "true");
+  }
+
+  @AfterAll
+  public static void after() {
+    if (localConverter == null) {
+      System.clearProperty(LOCAL_CONVERTER);
+    } else {
+      System.setProperty(LOCAL_CONVERTER, localConverter);
+    }
+  }
+
+  @Test
+  public void testSameAsSvgConvert() throws ExecuteException, IOException {
+    Node a = Node.builder().label("a b").shape(NodeShapeEnum.BOX).fillColor(Color.YELLOW).build();
+    Node b = Node.builder().label("b").shape(NodeShapeEnum.DIAMOND).style(NodeStyle.DASHED)
+        .build();
+    Node c = Node.builder().label("c").shape(NodeShapeEnum.CIRCLE).style(NodeStyle.BOLD).build();
+    Node d = Node.builder().label("d").shape(NodeShapeEnum.HEXAGON).build();
+    Node e = Node.builder().label("e").shape(NodeShapeEnum.STAR).build();
+    Node f = Node.builder().label("f").shape(NodeShapeEnum.PLAIN).build();
+    Node g = Node.builder().label("g").shape(NodeShapeEnum.PLAINTEXT).build();
+    Graphviz graphviz = Graphviz.digraph()
+        .label("raster")
+        .scale(2)
+        .addLine(a, b)
+        .addLine(Line.builder(a, c).label("ac").arrowHead(ArrowShape.DOT).build())
+        .addLine(Line.builder(b, d).style(LineStyle.DOTTED).arrowHead(ArrowShape.VEE).build())
+        .addLine(Line.builder(c, e).color(Color.RED).arrowHead(ArrowShape.BOX).build())
+        .addLine(e, f)
+        .addLine(f, g)
+        .cluster(Cluster.builder().label("cluster").style(ClusterStyle.DASHED)
+                     .addLine(d, e).build())
+        .build();
+    Assertions.assertTrue(RasterRenderEngine.supportGraph(Layout.DOT.getLayoutEngine()
+                              .layout(graphviz, RasterRenderEngine.getInstance())));
+
+    BufferedImage expect = image(graphviz.toFile(FileType.PNG));
+    BufferedImage actual = image(RasterRenderEngine.getInstance().render(graphviz, FileType.PNG));
+    Assertions.assertEquals(expect.getWidth(), actual.getWidth());
+    Assertions.assertEquals(expect.getHeight(), actual.getHeight());
+
+    int diff = 0;
+    for (int x = 0; x < expect.getWidth(); x++) {
+      for (int y = 0; y < expect.getHeight(); y++) {
+        if (expect.getRGB(x, y) != actual.getRGB(x, y)) {
+          diff++;
+        }
+      }
+    }
+    Assertions.assertEquals(0, diff);
+  }
+
+  @Test
+  public void testFallback() throws ExecuteException, IOException {
+    Node a = Node.builder().label("{a|b}").shape(NodeShapeEnum.RECORD).build();
+    Node b = Node.builder().label("b").build();
+    Graphviz graphviz = Graphviz.digraph().addLine(a, b).build();
+    Assertions.assertFalse(RasterRenderEngine.supportGraph(Layout.DOT.getLayoutEngine()
+                               .layout(graphviz, RasterRenderEngine.getInstance())));
+
+    BufferedImage expect = image(graphviz.toFile(FileType.PNG));
+    BufferedImage actual = image(RasterRenderEngine.getInstance().render(graphviz, FileType.PNG));
+    Assertions.assertEquals(expect.getWidth(), actual.getWidth());
+    Assertions.assertEquals(expect.getHeight(), actual.getHeight());
+
+    GraphResource svg = RasterRenderEngine.getInstance().render(graphviz, FileType.SVG);
+    Assertions.assertEquals("." + FileType.SVG.getType(), svg.suffix());
+    Assertions.assertTrue(new String(svg.bytes(), StandardCharsets.UTF_8).contains("<svg"));
+  }
+
+  private static BufferedImage image(GraphResource resource) throws IOException {
+    Assertions.assertEquals("." + FileType.PNG.getType(), resource.suffix());
+    return ImageIO.read(new ByteArrayInputStream(resource.bytes()));
+  }
+}
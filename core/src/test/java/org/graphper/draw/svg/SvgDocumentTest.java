@@ -19,6 +19,8 @@ package org.graphper.draw.svg;
 import helper.DocumentUtils;
 import helper.SerialHelper;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.graphper.draw.svg.Element;
 import org.graphper.draw.svg.SvgConstants;
 import org.graphper.draw.svg.SvgDocument;
@@ -100,6 +102,45 @@ public class SvgDocumentTest {
     Assertions.assertFalse(svgDocument.toXml().contains("polygon"));
   }
 
+  @Test
+  public void testDetach() {
+    SvgDocument svgDocument = new SvgDocument();
+    SvgElement svg = svgDocument.createElement("svg");
+    Element g = svg.createChildElement("g");
+    Element title = g.createChildElement("title");
+    title.setTextContent("G");
+    Element text = svg.createChildElement("text");
+
+    Assertions.assertEquals("<g><title>G</title></g>", svgDocument.detach(g));
+    Assertions.assertNull(svgDocument.getElementById(g.id()));
+    Assertions.assertNull(svgDocument.getElementById(title.id()));
+    Assertions.assertEquals(text, svgDocument.getElementById(text.id()));
+    Assertions.assertEquals(
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?><!DOCTYPE svg PUBLIC \"-//W3C//DTD SVG 1.1//EN\" \"http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd\"><svg><text></text></svg>",
+        svgDocument.toXml()
+    );
+  }
+
+  @Test
+  public void testDefaultAccessAttrs() {
+    SvgDocument svgDocument = new SvgDocument();
+    SvgElement text = svgDocument.createElement("text");
+    text.setAttribute("x", "1.5");
+    text.setAttribute("font-family", "a \"b\" & c");
+    text.setAttribute("fill", "");
+
+    Map<String, String> expect = new LinkedHashMap<>();
+    text.accessAttrs(expect::put);
+    Map<String, String> actual = new LinkedHashMap<>();
+    new AttrStrElement(text.toAttrStr()).accessAttrs(actual::put);
+    Assertions.assertEquals(3, expect.size());
+    Assertions.assertIterableEquals(expect.entrySet(), actual.entrySet());
+
+    actual.clear();
+    new AttrStrElement(null).accessAttrs(actual::put);
+    Assertions.assertTrue(actual.isEmpty());
+  }
+
   @Test
   public void testSerial() throws IOException, ClassNotFoundException {
     SvgDocument svgDocument = new SvgDocument();
@@ -121,4 +162,66 @@ public class SvgDocumentTest {
         }
     );
   }
+
+  // The element only implements the attribute string
+  private static class AttrStrElement implements Element {
+
+    private final String attrStr;
+
+    private AttrStrElement(String attrStr) {
+      this.attrStr = attrStr;
+    }
+
+    @Override
+    public String id() {
+      return null;
+    }
+
+    @Override
+    public void setId(String id) {
+    }
+
+    @Override
+    public String tagName() {
+      return null;
+    }
+
+    @Override
+    public Element parent() {
+      return null;
+    }
+
+    @Override
+    public Element createChildElement(String tagName) {
+      return null;
+    }
+
+    @Override
+    public void setTextContent(String textContent) {
+    }
+
+    @Override
+    public void setAttribute(String attrName, String value) {
+    }
+
+    @Override
+    public String getAttribute(String attrName) {
+      return null;
+    }
+
+    @Override
+    public String toAttrStr() {
+      return attrStr;
+    }
+
+    @Override
+    public String textContext() {
+      return null;
+    }
+
+    @Override
+    public Document getDocument() {
+      return null;
+    }
+  }
 }
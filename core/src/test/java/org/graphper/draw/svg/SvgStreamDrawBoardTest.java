@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.draw.svg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.graphper.api.Cluster;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Node;
+import org.graphper.api.attributes.NodeStyle;
+import org.graphper.draw.ExecuteException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SvgStreamDrawBoardTest {
+
+  @Test
+  public void testSameAsDocument() throws ExecuteException {
+    Graphviz graphviz = graph();
+    StringWriter writer = new StringWriter();
+    graphviz.toSvg(writer);
+    Assertions.assertTrue(writer.toString().endsWith("</g></svg>"));
+    Assertions.assertEquals(graphviz.toSvgStr(), writer.toString());
+  }
+
+  @Test
+  public void testOutputStream() throws ExecuteException {
+    Graphviz graphviz = graph();
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    graphviz.toSvg(os);
+    Assertions.assertEquals(graphviz.toSvgStr(), new String(os.toByteArray(),
+                                                            StandardCharsets.UTF_8));
+  }
+
+  private static Graphviz graph() {
+    Node a = Node.builder().label("a").href("https://a.com").build();
+    Node b = Node.builder().label("b & \"c\"").build();
+    Node c = Node.builder().label("c").style(NodeStyle.INVIS).build();
+    Node d = Node.builder().label("d").build();
+    return Graphviz.digraph()
+        .label("graph")
+        .href("https://graph.com")
+        .addLine(a, b)
+        .addLine(b, c)
+        .addLine(a, d)
+        .cluster(Cluster.builder().label("cluster").addLine(b, d).build())
+        .build();
+  }
+}
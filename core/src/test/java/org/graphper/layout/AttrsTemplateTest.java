@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.graphper.api.Cluster;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Line;
+import org.graphper.api.LineAttrs;
+import org.graphper.api.Node;
+import org.graphper.api.NodeAttrs;
+import org.graphper.api.attributes.Color;
+import org.graphper.api.attributes.Layout;
+import org.graphper.api.attributes.NodeShapeEnum;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.ExecuteException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AttrsTemplateTest {
+
+  @Test
+  public void testContainerTemplate() throws ExecuteException {
+    Node a = Node.builder().label("a").build();
+    Node b = Node.builder().label("b").color(Color.BLUE).build();
+    Node c = Node.builder().label("c").build();
+    Node d = Node.builder().label("d").build();
+    Line ab = Line.builder(a, b).build();
+    Line cd = Line.builder(c, d).color(Color.BLUE).build();
+
+    Graphviz graphviz = Graphviz.digraph()
+        .tempNode(Node.builder().color(Color.RED).build())
+        .tempLine(Line.tempLine().color(Color.RED).build())
+        .addLine(ab)
+        .cluster(
+            Cluster.builder()
+                .tempNode(Node.builder().shape(NodeShapeEnum.BOX).build())
+                .addNode(c)
+                .cluster(Cluster.builder().addLine(cd).build())
+                .build()
+        )
+        .build();
+
+    DrawGraph drawGraph = Layout.DOT.getLayoutEngine().layout(graphviz);
+    NodeAttrs aAttrs = drawGraph.getNodeDrawProp(a).nodeAttrs();
+    NodeAttrs bAttrs = drawGraph.getNodeDrawProp(b).nodeAttrs();
+    NodeAttrs cAttrs = drawGraph.getNodeDrawProp(c).nodeAttrs();
+    NodeAttrs dAttrs = drawGraph.getNodeDrawProp(d).nodeAttrs();
+    Assertions.assertEquals(Color.RED, aAttrs.getColor());
+    Assertions.assertEquals(Color.BLUE, bAttrs.getColor());
+    Assertions.assertEquals(NodeShapeEnum.ELLIPSE, aAttrs.getShape());
+
+    // Only the template of the nearest container is used
+    Assertions.assertEquals(Color.BLACK, cAttrs.getColor());
+    Assertions.assertEquals(NodeShapeEnum.BOX, cAttrs.getShape());
+    Assertions.assertEquals(NodeShapeEnum.BOX, dAttrs.getShape());
+    Assertions.assertNotNull(dAttrs.getFontSize());
+
+    LineAttrs abAttrs = drawGraph.getLineDrawProp(ab).lineAttrs();
+    LineAttrs cdAttrs = drawGraph.getLineDrawProp(cd).lineAttrs();
+    Assertions.assertEquals(Color.RED, abAttrs.getColor());
+    Assertions.assertEquals(Color.BLUE, cdAttrs.getColor());
+
+    // The original attributes are not changed
+    Assertions.assertEquals(Color.BLACK, a.nodeAttrs().getColor());
+  }
+
+  @Test
+  public void testConcurrentContainers() throws InterruptedException, ExecutionException {
+    Color[] colors = {Color.RED, Color.BLUE, Color.GREEN, Color.ORANGE};
+    ExecutorService executor = Executors.newFixedThreadPool(colors.length);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Color color : colors) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 20; i++) {
+            Node a = Node.builder().label("a" + i).build();
+            Line line = Line.builder(a, Node.builder().label("b" + i).build()).build();
+            Graphviz graphviz = Graphviz.digraph()
+                .tempNode(Node.builder().color(color).build())
+                .tempLine(Line.tempLine().color(color).build())
+                .addLine(line)
+                .build();
+
+            DrawGraph drawGraph = Layout.DOT.getLayoutEngine().layout(graphviz);
+            Assertions.assertEquals(color, drawGraph.getNodeDrawProp(a).nodeAttrs().getColor());
+            Assertions.assertEquals(color, drawGraph.getLineDrawProp(line).lineAttrs().getColor());
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.graphper.api.attributes.FontStyle;
+import org.graphper.def.FlatPoint;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TrueTypeMeasureTextTest {
+
+  private static final String FONT_DIR = "/usr/share/fonts/truetype/dejavu";
+
+  private static final String FONT = "DejaVu Sans";
+
+  @Test
+  public void testSameAsAWT() {
+    AWTMeasureText awtMeasureText = new AWTMeasureText();
+    // Only run on the hosts which have the font
+    Assumptions.assumeTrue(new File(FONT_DIR, "DejaVuSans.ttf").isFile()
+                               && awtMeasureText.exists(FONT), FONT + " is not installed");
+
+    TrueTypeMeasureText measureText = new TrueTypeMeasureText(FONT_DIR);
+
+    Assertions.assertTrue(measureText.envSupport());
+    Assertions.assertTrue(measureText.exists(FONT));
+    Assertions.assertTrue(measureText.fontSupport(FONT, 'a'));
+    Assertions.assertFalse(measureText.fontSupport(FONT, '\u4e2d'));
+
+    String[] texts = {"a", "Hello World", "graph-support\nmulti line label", "{x: 1, y: 2}"};
+    for (String text : texts) {
+      assertSameSize(awtMeasureText.measure(text, FONT, 14), measureText.measure(text, FONT, 14));
+      assertSameSize(awtMeasureText.measure(text, FONT, 20, FontStyle.BOLD),
+                     measureText.measure(text, FONT, 20, FontStyle.BOLD));
+    }
+
+    FlatPoint bold = measureText.measure("Hello World", FONT, 14, FontStyle.BOLD);
+    FlatPoint plain = measureText.measure("Hello World", FONT, 14);
+    Assertions.assertTrue(bold.getWidth() > plain.getWidth());
+    Assertions.assertEquals(0, measureText.measure("", FONT, 14).getWidth());
+  }
+
+  @Test
+  public void testNoFonts() {
+    TrueTypeMeasureText measureText = new TrueTypeMeasureText(FONT_DIR + "/not_exists");
+    Assertions.assertFalse(measureText.envSupport());
+  }
+
+  @Test
+  public void testIllegalFontFiles(@TempDir Path dir) throws IOException {
+    // Collection header with a negative font number
+    ByteBuffer ttc = ByteBuffer.allocate(12);
+    ttc.putInt(0x74746366).putInt(0x00010000).putInt(-1);
+    Files.write(dir.resolve("negative.ttc"), ttc.array());
+
+    // Collection header with a font offset out of the file
+    ttc = ByteBuffer.allocate(16);
+    ttc.putInt(0x74746366).putInt(0x00010000).putInt(1).putInt(Integer.MAX_VALUE);
+    Files.write(dir.resolve("offset.ttc"), ttc.array());
+
+    // Table directory with a table offset out of the file
+    ByteBuffer ttf = ByteBuffer.allocate(28);
+    ttf.putInt(0x00010000).putShort((short) 1).putShort((short) 0)
+        .putShort((short) 0).putShort((short) 0)
+        .putInt(0x68656164).putInt(0).putInt(-100).putInt(54);
+    Files.write(dir.resolve("table.ttf"), ttf.array());
+    Files.write(dir.resolve("truncated.ttf"), new byte[]{0, 1, 0});
+
+    Assertions.assertThrows(IOException.class,
+                            () -> TrueTypeFont.load(dir.resolve("negative.ttc")));
+    Assertions.assertThrows(IOException.class,
+                            () -> TrueTypeFont.load(dir.resolve("offset.ttc")));
+    Assertions.assertThrows(IOException.class,
+                            () -> TrueTypeFont.load(dir.resolve("table.ttf")));
+    Assertions.assertThrows(IOException.class,
+                            () -> TrueTypeFont.load(dir.resolve("truncated.ttf")));
+
+    // The broken files are skipped
+    TrueTypeMeasureText measureText = new TrueTypeMeasureText(dir.toString());
+    Assertions.assertFalse(measureText.envSupport());
+  }
+
+  @Test
+  public void testBrokenGlyphIndex(@TempDir Path dir) throws IOException {
+    ByteBuffer ttf = ByteBuffer.allocate(260);
+    ttf.putInt(0x00010000).putShort((short) 5).putShort((short) 0)
+        .putShort((short) 0).putShort((short) 0);
+    int[][] tables = {{0x68656164, 92, 54}, {0x68686561, 146, 36}, {0x686d7478, 182, 4},
+        {0x636d6170, 186, 44}, {0x6e616d65, 230, 30}};
+    for (int[] table : tables) {
+      ttf.putInt(table[0]).putInt(0).putInt(table[1]).putInt(table[2]);
+    }
+    // head: unitsPerEm, hhea: ascender, descender and numberOfHMetrics, hmtx: one advance
+    ttf.putShort(92 + 18, (short) 1000);
+    ttf.putShort(146 + 4, (short) 800).putShort(146 + 6, (short) -200)
+        .putShort(146 + 34, (short) 1);
+    ttf.putShort(182, (short) 500);
+    // cmap: format 4 with the glyph index of 'a'-'z' out of the file
+    ttf.position(186);
+    ttf.putShort((short) 0).putShort((short) 1)
+        .putShort((short) 3).putShort((short) 1).putInt(12)
+        .putShort((short) 4).putShort((short) 32).putShort((short) 0).putShort((short) 4)
+        .putShort((short) 0).putShort((short) 0).putShort((short) 0)
+        .putShort((short) 'z').putShort((short) 0xFFFF).putShort((short) 0)
+        .putShort((short) 'a').putShort((short) 0xFFFF)
+        .putShort((short) 0).putShort((short) 1)
+        .putShort((short) 0x7FF0).putShort((short) 0);
+    // name: the family name
+    ttf.putShort((short) 0).putShort((short) 1).putShort((short) 18)
+        .putShort((short) 3).putShort((short) 1).putShort((short) 0x409).putShort((short) 1)
+        .putShort((short) 12).putShort((short) 0);
+    ttf.put("Broken".getBytes(StandardCharsets.UTF_16BE));
+    Files.write(dir.resolve("broken.ttf"), ttf.array());
+
+    TrueTypeMeasureText measureText = new TrueTypeMeasureText(dir.toString());
+    Assertions.assertTrue(measureText.envSupport());
+    Assertions.assertFalse(measureText.fontSupport("Broken", 'a'));
+
+    // Fall back to the rough measurer instead of failing the layout
+    FlatPoint expect = new RoughMeasureText().measure("abc", "Broken", 14);
+    FlatPoint actual = measureText.measure("abc", "Broken", 14);
+    Assertions.assertEquals(expect.getWidth(), actual.getWidth());
+    Assertions.assertEquals(expect.getHeight(), actual.getHeight());
+  }
+
+  // Only the float rounding of the summed advances may differ
+  private static void assertSameSize(FlatPoint expect, FlatPoint actual) {
+    Assertions.assertEquals(expect.getWidth(), actual.getWidth(), 1e-6);
+    Assertions.assertEquals(expect.getHeight(), actual.getHeight(), 1e-6);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout.dot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Line;
+import org.graphper.api.Node;
+import org.graphper.api.Subgraph;
+import org.graphper.api.attributes.Layout;
+import org.graphper.api.attributes.Port;
+import org.graphper.api.attributes.Rank;
+import org.graphper.def.DedirectedEdgeGraph;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.ExecuteException;
+import org.graphper.draw.MetricsListener.Counter;
+import org.graphper.draw.SimpleMetricsCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CrossCounterTest {
+
+  private static final String PAIRWISE_COUNTER = "dot.mincross.pairwise.counter";
+
+  private static final String QUALITY_CHECK = "graph.quality.check";
+
+  @AfterEach
+  public void clear() {
+    System.clearProperty(PAIRWISE_COUNTER);
+    System.clearProperty(QUALITY_CHECK);
+  }
+
+  @Test
+  public void testSimpleCross() {
+    DedirectedEdgeGraph<DNode, DLine> digraph = new DedirectedEdgeGraph<>();
+    DNode a = newNode(0, digraph);
+    DNode b = newNode(0, digraph);
+    DNode c = newNode(1, digraph);
+    DNode d = newNode(1, digraph);
+
+    digraph.addEdge(new DLine(a, d, null, 1, 1));
+    digraph.addEdge(new DLine(b, c, null, 1, 1));
+    Assertions.assertEquals(1, crossNum(digraph));
+
+    digraph.addEdge(new DLine(a, c, null, 1, 1));
+    digraph.addEdge(new DLine(b, d, null, 1, 1));
+    Assertions.assertEquals(1, crossNum(digraph));
+  }
+
+  @Test
+  public void testSameWithPairwiseCounter() {
+    Random random = new Random(17);
+    for (int t = 0; t < 50; t++) {
+      DedirectedEdgeGraph<DNode, DLine> digraph = new DedirectedEdgeGraph<>();
+      int rankNum = 2 + random.nextInt(5);
+      List<List<DNode>> ranks = new ArrayList<>(rankNum);
+      for (int i = 0; i < rankNum; i++) {
+        int size = 1 + random.nextInt(20);
+        List<DNode> nodes = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+          nodes.add(newNode(i, digraph));
+        }
+        ranks.add(nodes);
+      }
+
+      for (int i = 0; i < rankNum - 1; i++) {
+        List<DNode> upper = ranks.get(i);
+        List<DNode> lower = ranks.get(i + 1);
+        int lineNum = random.nextInt(upper.size() * lower.size() + 1);
+        for (int j = 0; j < lineNum; j++) {
+          DNode from = upper.get(random.nextInt(upper.size()));
+          DNode to = lower.get(random.nextInt(lower.size()));
+          digraph.addEdge(new DLine(from, to, null, 1, 1));
+        }
+      }
+
+      int crossNum = crossNum(digraph);
+      System.setProperty(PAIRWISE_COUNTER, Boolean.TRUE.toString());
+      Assertions.assertEquals(crossNum(digraph), crossNum);
+      System.clearProperty(PAIRWISE_COUNTER);
+    }
+  }
+
+  @Test
+  public void testFlatLinesSameWithPairwiseCounter() throws ExecuteException {
+    Random random = new Random(23);
+    for (int t = 0; t < 20; t++) {
+      Node[] nodes = newNodes(8 + random.nextInt(12));
+      Graphviz.GraphvizBuilder builder = Graphviz.digraph();
+      randomLines(builder, nodes, random, false);
+
+      /*
+       * Same rank nodes with the flat lines between them and the lines to the other ranks, the
+       * flat lines from different tails to the same head cross each other by the head ports
+       */
+      Port[] ports = Port.values();
+      Subgraph.SubgraphBuilder same = Subgraph.builder().rank(Rank.SAME);
+      Node head = nodes[random.nextInt(nodes.length)];
+      for (int i = 0; i < 3 + random.nextInt(3); i++) {
+        Node tail = nodes[random.nextInt(nodes.length)];
+        if (tail != head) {
+          same.addLine(Line.builder(tail, head)
+                           .headPort(ports[random.nextInt(ports.length)])
+                           .build());
+        }
+      }
+      builder.subgraph(same.build());
+
+      assertSameWithPairwiseCounter(builder);
+    }
+  }
+
+  @Test
+  public void testPortsSameWithPairwiseCounter() throws ExecuteException {
+    Random random = new Random(29);
+    for (int t = 0; t < 20; t++) {
+      Node[] nodes = newNodes(8 + random.nextInt(12));
+      Graphviz.GraphvizBuilder builder = Graphviz.digraph();
+      randomLines(builder, nodes, random, true);
+      assertSameWithPairwiseCounter(builder);
+    }
+  }
+
+  private static Node[] newNodes(int num) {
+    Node[] nodes = new Node[num];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = Node.builder().label(String.valueOf(i)).build();
+    }
+    return nodes;
+  }
+
+  private static void randomLines(Graphviz.GraphvizBuilder builder, Node[] nodes, Random random,
+                                  boolean usePort) {
+    Port[] ports = Port.values();
+    for (int i = 0; i < nodes.length * 2; i++) {
+      int tail = random.nextInt(nodes.length - 1);
+      int head = tail + 1 + random.nextInt(Math.min(3, nodes.length - tail - 1));
+      Line.LineBuilder line = Line.builder(nodes[tail], nodes[head]);
+      if (usePort) {
+        line.tailPort(ports[random.nextInt(ports.length)])
+            .headPort(ports[random.nextInt(ports.length)]);
+      }
+      builder.addLine(line.build());
+    }
+  }
+
+  /*
+   * The quality check validates every rank count of the accumulator counter against the pairwise
+   * counter during the layout, and the total crossings are same with the pairwise counter.
+   */
+  private static void assertSameWithPairwiseCounter(Graphviz.GraphvizBuilder builder)
+      throws ExecuteException {
+    System.setProperty(QUALITY_CHECK, Boolean.TRUE.toString());
+    long crossNum = layoutCrossNum(builder);
+    System.setProperty(PAIRWISE_COUNTER, Boolean.TRUE.toString());
+    Assertions.assertEquals(layoutCrossNum(builder), crossNum);
+    System.clearProperty(PAIRWISE_COUNTER);
+    System.clearProperty(QUALITY_CHECK);
+  }
+
+  private static long layoutCrossNum(Graphviz.GraphvizBuilder builder) throws ExecuteException {
+    SimpleMetricsCollector collector = new SimpleMetricsCollector();
+    Layout.DOT.getLayoutEngine().layout(builder.metrics(collector).build());
+    return collector.counter(Counter.CROSSINGS);
+  }
+
+  private static DNode newNode(int rank, DedirectedEdgeGraph<DNode, DLine> digraph) {
+    DNode node = new DNode(null, 20, 20, 20);
+    node.setRank(rank);
+    digraph.add(node);
+    return node;
+  }
+
+  private static int crossNum(DedirectedEdgeGraph<DNode, DLine> digraph) {
+    DrawGraph drawGraph = new DrawGraph(Graphviz.digraph().build());
+    RootCrossRank rootCrossRank = new RootCrossRank(drawGraph, digraph);
+    return rootCrossRank.crossSnapshot().getCrossNum();
+  }
+}
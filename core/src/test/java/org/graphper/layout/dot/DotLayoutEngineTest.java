@@ -31,7 +31,10 @@ import org.graphper.api.attributes.Layout;
 import org.graphper.api.attributes.NodeStyle;
 import org.graphper.draw.DrawGraph;
 import org.graphper.draw.LineDrawProp;
+import org.graphper.draw.MetricsListener.Counter;
 import org.graphper.draw.NodeDrawProp;
+import org.graphper.draw.RankSnapshot;
+import org.graphper.draw.SimpleMetricsCollector;
 
 public class DotLayoutEngineTest {
 
@@ -162,4 +165,132 @@ public class DotLayoutEngineTest {
     Assertions.assertEquals(c1, bn.getContainer());
     Assertions.assertEquals(c2, cn.getContainer());
   }
+
+  @Test
+  public void testMultiStartMincross() throws ExecuteException {
+    Node[] nodes = new Node[12];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = Node.builder().label(String.valueOf(i)).build();
+    }
+
+    Graphviz.GraphvizBuilder builder = Graphviz.digraph().mcstarts(4);
+    for (int i = 0; i < nodes.length - 3; i++) {
+      builder.addLine(nodes[i], nodes[(i * 5 + 3) % (nodes.length - i - 1) + i + 1]);
+      builder.addLine(nodes[i], nodes[i + 3]);
+    }
+    Graphviz graphviz = builder.build();
+
+    DrawGraph first = Layout.DOT.getLayoutEngine().layout(graphviz);
+    DrawGraph second = Layout.DOT.getLayoutEngine().layout(graphviz);
+    for (Node node : nodes) {
+      NodeDrawProp p1 = first.getNodeDrawProp(node);
+      NodeDrawProp p2 = second.getNodeDrawProp(node);
+      Assertions.assertEquals(p1.getX(), p2.getX(), 0);
+      Assertions.assertEquals(p1.getY(), p2.getY(), 0);
+    }
+  }
+
+  @Test
+  public void testMultiStartNotWorse() throws ExecuteException {
+    for (int n = 8; n <= 24; n += 4) {
+      Node[] nodes = new Node[n];
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i] = Node.builder().label(String.valueOf(i)).build();
+      }
+
+      Graphviz.GraphvizBuilder builder = Graphviz.digraph();
+      for (int i = 0; i < nodes.length - 3; i++) {
+        Node to = nodes[(i * 5 + 3) % (nodes.length - i - 1) + i + 1];
+        // Parallel edges are merged in mincross
+        builder.addLine(nodes[i], to);
+        builder.addLine(nodes[i], to);
+        builder.addLine(nodes[i], nodes[i + 2]);
+        builder.addLine(nodes[i + 3], nodes[i]);
+      }
+
+      Assertions.assertTrue(crossings(builder, 4) <= crossings(builder, 1), "nodes " + n);
+    }
+  }
+
+  private static long crossings(Graphviz.GraphvizBuilder builder, int mcstarts)
+      throws ExecuteException {
+    SimpleMetricsCollector collector = new SimpleMetricsCollector();
+    Graphviz graphviz = builder.mcstarts(mcstarts).metrics(collector).build();
+    Layout.DOT.getLayoutEngine().layout(graphviz);
+    return collector.counter(Counter.CROSSINGS);
+  }
+
+  @Test
+  public void testRankSnapshot() throws ExecuteException {
+    Node[] nodes = new Node[20];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = Node.builder().label(String.valueOf(i)).build();
+    }
+
+    Graphviz.GraphvizBuilder builder = Graphviz.digraph();
+    for (int i = 0; i < nodes.length - 4; i++) {
+      builder.addLine(nodes[i], nodes[(i * 7 + 3) % (nodes.length - i - 1) + i + 1]);
+      builder.addLine(nodes[i], nodes[i + 2]);
+    }
+    // Not recorded unless the warm start is enabled
+    Assertions.assertNull(Layout.DOT.getLayoutEngine().layout(builder.build()).getRankSnapshot());
+
+    builder.warmStart(true);
+    Graphviz graphviz = builder.build();
+    RankSnapshot snapshot = Layout.DOT.getLayoutEngine().layout(graphviz).getRankSnapshot();
+    Assertions.assertEquals(graphviz.nodeNum(), snapshot.size());
+
+    Node added = Node.builder().label("added").build();
+    builder.addLine(added, nodes[10]);
+    builder.addLine(nodes[1], nodes[18]);
+    Graphviz cold = builder.build();
+    Graphviz warm = builder.rankSnapshot(snapshot).build();
+
+    RankSnapshot coldRanks = Layout.DOT.getLayoutEngine().layout(cold).getRankSnapshot();
+    RankSnapshot warmRanks = Layout.DOT.getLayoutEngine().layout(warm).getRankSnapshot();
+    Assertions.assertEquals(graphviz.nodeNum() + 1, warmRanks.size());
+
+    int coldLen = 0;
+    int warmLen = 0;
+    for (Line line : warm.lines()) {
+      int len = warmRanks.getRank(line.head()) - warmRanks.getRank(line.tail());
+      Assertions.assertTrue(len >= 1);
+      warmLen += len;
+      coldLen += coldRanks.getRank(line.head()) - coldRanks.getRank(line.tail());
+    }
+    Assertions.assertEquals(coldLen, warmLen);
+  }
+
+  @Test
+  public void testDeepChainOnSmallStack() throws InterruptedException {
+    Node[] nodes = new Node[1500];
+    Graphviz.GraphvizBuilder builder = Graphviz.digraph();
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = Node.builder().label(String.valueOf(i)).build();
+      if (i > 0) {
+        builder.addLine(nodes[i - 1], nodes[i]);
+      }
+    }
+    builder.addLine(nodes[nodes.length - 1], nodes[0]);
+    Graphviz graphviz = builder.build();
+
+    Throwable[] error = new Throwable[1];
+    DrawGraph[] drawGraph = new DrawGraph[1];
+    Thread thread = new Thread(null, () -> {
+      try {
+        drawGraph[0] = Layout.DOT.getLayoutEngine().layout(graphviz);
+      } catch (Throwable e) {
+        error[0] = e;
+      }
+    }, "small-stack-layout", 256 * 1024);
+    thread.start();
+    thread.join();
+
+    Assertions.assertNull(error[0]);
+    for (int i = 1; i < nodes.length; i++) {
+      NodeDrawProp pre = drawGraph[0].getNodeDrawProp(nodes[i - 1]);
+      NodeDrawProp cur = drawGraph[0].getNodeDrawProp(nodes[i]);
+      Assertions.assertTrue(pre.getY() < cur.getY());
+    }
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout.fdp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class BarnesHutTreeTest {
+
+  private static final BarnesHutTree.Force FORCE = dist2 -> 1 / dist2;
+
+  @Test
+  void testExact() {
+    List<FNode> nodes = randomNodes(200, 1);
+    BarnesHutTree tree = new BarnesHutTree(4);
+    tree.build(nodes);
+    assertEquals(nodes.size(), tree.bodyNum());
+
+    double[] out = new double[3];
+    for (int i = 0; i < nodes.size(); i++) {
+      assertSame(nodes.get(i), tree.body(i));
+      tree.force(i, 0, FORCE, out);
+      double[] expected = bruteForce(nodes, i);
+      assertEquals(expected[0], out[0], 1e-9);
+      assertEquals(expected[1], out[1], 1e-9);
+      assertEquals(expected[2], out[2]);
+    }
+  }
+
+  @Test
+  void testApproximate() {
+    List<FNode> nodes = randomNodes(2000, 2);
+    BarnesHutTree tree = new BarnesHutTree(nodes.size());
+    // Rebuild the pooled tree
+    tree.build(randomNodes(500, 3));
+    tree.build(nodes);
+
+    double[] out = new double[3];
+    for (int i = 0; i < nodes.size(); i += 7) {
+      tree.force(i, 0.6, FORCE, out);
+      double[] expected = bruteForce(nodes, i);
+      double len = Math.hypot(expected[0], expected[1]);
+      double error = Math.hypot(expected[0] - out[0], expected[1] - out[1]);
+      assertTrue(error <= 0.1 * len + 1e-6, "Force error " + error + " of " + len);
+    }
+  }
+
+  @Test
+  void testParallel() {
+    List<FNode> nodes = randomNodes(3000, 4);
+    BarnesHutTree tree = new BarnesHutTree(nodes.size());
+    tree.build(nodes);
+    double[] serial = tree.forces(0.6, FORCE, null).clone();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int i = 0; i < 3; i++) {
+        assertArrayEquals(serial, tree.forces(0.6, FORCE, pool));
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    double[] out = new double[3];
+    for (int i = 0; i < nodes.size(); i += 11) {
+      tree.force(i, 0.6, FORCE, out);
+      assertEquals(out[0], serial[i * 3]);
+      assertEquals(out[1], serial[i * 3 + 1]);
+      assertEquals(out[2], serial[i * 3 + 2]);
+    }
+  }
+
+  private static List<FNode> randomNodes(int num, long seed) {
+    Random random = new Random(seed);
+    List<FNode> nodes = new ArrayList<>(num);
+    for (int i = 0; i < num; i++) {
+      FNode node = new FNode(null);
+      // Some nodes share the same position
+      if (i > 0 && i % 50 == 0) {
+        FNode pre = nodes.get(i - 1);
+        node.setLocation(pre.getX(), pre.getY());
+      } else {
+        node.setLocation(random.nextDouble() * 1000, random.nextDouble() * 600);
+      }
+      nodes.add(node);
+    }
+    return nodes;
+  }
+
+  private static double[] bruteForce(List<FNode> nodes, int i) {
+    double[] force = new double[3];
+    FNode n = nodes.get(i);
+    for (FNode t : nodes) {
+      if (t == n) {
+        continue;
+      }
+      double dx = n.getX() - t.getX();
+      double dy = n.getY() - t.getY();
+      double dist2 = dx * dx + dy * dy;
+      if (dist2 == 0) {
+        force[2]++;
+      } else {
+        force[0] += dx / dist2;
+        force[1] += dy / dist2;
+      }
+    }
+    return force;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.layout.fdp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.graphper.api.Graphviz;
+import org.graphper.api.Graphviz.GraphvizBuilder;
+import org.graphper.api.Node;
+import org.graphper.api.attributes.Layout;
+import org.graphper.draw.DrawGraph;
+import org.graphper.draw.ExecuteException;
+import org.graphper.draw.NodeDrawProp;
+import org.junit.jupiter.api.Test;
+
+class MFdpLayoutEngineTest {
+
+  @Test
+  void testSmallGraph() throws ExecuteException {
+    Node[] nodes = nodes(20);
+    GraphvizBuilder builder = Graphviz.graph();
+    for (int i = 1; i < nodes.length; i++) {
+      builder.addLine(nodes[i / 2], nodes[i]);
+    }
+    Graphviz graphviz = builder.build();
+
+    // Not coarsened, same as fdp
+    DrawGraph fdp = Layout.FDP.getLayoutEngine().layout(graphviz);
+    DrawGraph mfdp = Layout.MFDP.getLayoutEngine().layout(graphviz);
+    for (Node node : nodes) {
+      assertEquals(fdp.getNodeDrawProp(node).getX(), mfdp.getNodeDrawProp(node).getX());
+      assertEquals(fdp.getNodeDrawProp(node).getY(), mfdp.getNodeDrawProp(node).getY());
+    }
+  }
+
+  @Test
+  void testGrid() throws ExecuteException {
+    int n = 12;
+    Node[] nodes = nodes(n * n);
+    GraphvizBuilder builder = Graphviz.graph().layout(Layout.MFDP);
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (j + 1 < n) {
+          builder.addLine(nodes[i * n + j], nodes[i * n + j + 1]);
+        }
+        if (i + 1 < n) {
+          builder.addLine(nodes[i * n + j], nodes[(i + 1) * n + j]);
+        }
+      }
+    }
+    Graphviz graphviz = builder.build();
+
+    DrawGraph drawGraph = Layout.MFDP.getLayoutEngine().layout(graphviz);
+    NodeDrawProp[] props = new NodeDrawProp[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      props[i] = drawGraph.getNodeDrawProp(nodes[i]);
+      assertNotNull(props[i]);
+      assertFalse(Double.isNaN(props[i].getX()) || Double.isNaN(props[i].getY()));
+    }
+
+    for (int i = 0; i < props.length; i++) {
+      for (int j = i + 1; j < props.length; j++) {
+        assertFalse(props[i].isOverlap(props[j]), "Node " + i + " overlaps node " + j);
+      }
+    }
+  }
+
+  private static Node[] nodes(int num) {
+    Node[] nodes = new Node[num];
+    for (int i = 0; i < num; i++) {
+      nodes[i] = Node.builder().label(String.valueOf(i)).build();
+    }
+    return nodes;
+  }
+}
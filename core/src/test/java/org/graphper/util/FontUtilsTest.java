@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.util;
+
+import org.graphper.api.attributes.FontStyle;
+import org.graphper.def.FlatPoint;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FontUtilsTest {
+
+  @Test
+  public void testMeasureCache() {
+    FontUtils.clearMeasureCache();
+    FlatPoint first = FontUtils.measure("measure cache", FontUtils.DEFAULT_FONT, 14, 0);
+    Assertions.assertEquals(0, FontUtils.measureCacheHitCount());
+    Assertions.assertEquals(1, FontUtils.measureCacheMissCount());
+
+    first.setWidth(first.getWidth() + 100);
+    FlatPoint second = FontUtils.measure("measure cache", FontUtils.DEFAULT_FONT, 14, 10);
+    Assertions.assertEquals(1, FontUtils.measureCacheHitCount());
+    Assertions.assertEquals(first.getWidth() - 90, second.getWidth(), 0.0001);
+    Assertions.assertEquals(first.getHeight(), second.getHeight(), 0.0001);
+
+    FontUtils.measure("measure cache", FontUtils.DEFAULT_FONT, 14, 0, FontStyle.BOLD);
+    FontUtils.measure("measure cache", FontUtils.DEFAULT_FONT, 15, 0);
+    Assertions.assertEquals(1, FontUtils.measureCacheHitCount());
+    Assertions.assertEquals(3, FontUtils.measureCacheMissCount());
+
+    FontUtils.measure("measure cache", FontUtils.DEFAULT_FONT, 14, 0, FontStyle.BOLD);
+    Assertions.assertEquals(2, FontUtils.measureCacheHitCount());
+  }
+
+  @Test
+  public void testFontCoverageIndex() {
+    String text = "a\u4e2d\u0416\u05d0\uffff";
+    String[] fonts = new String[text.length()];
+    for (int i = 0; i < text.length(); i++) {
+      fonts[i] = FontUtils.findFirstSupportFont(text.charAt(i));
+      if (fonts[i] != null) {
+        Assertions.assertTrue(FontUtils.fontExists(fonts[i]));
+      }
+    }
+
+    FontUtils.warmUpFonts((char) 0, (char) 0x7FF);
+    FontUtils.warmUpFonts((char) 0x4E00, (char) 0x4EFF);
+    for (int i = 0; i < text.length(); i++) {
+      Assertions.assertEquals(fonts[i], FontUtils.findFirstSupportFont(text.charAt(i)));
+    }
+    Assertions.assertThrows(IllegalArgumentException.class,
+                            () -> FontUtils.warmUpFonts('b', 'a'));
+  }
+}
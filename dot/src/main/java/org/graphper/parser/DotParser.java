@@ -23,9 +23,17 @@ import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.Graphviz;
@@ -46,15 +54,69 @@ import org.graphper.util.Asserts;
  * // Parsing from a String
  * String dotSource = "digraph G { a -> b; }";
  * Graphviz graphFromString = DotParser.parse(dotSource);
+ *
+ * // Parsing a large file without keeping the parse tree
+ * Graphviz largeGraph = DotParser.parseStreaming(new File("path/to/large.dot"));
+ *
+ * // Priming the parser at startup, makes the first requests as fast as the later ones
+ * DotParser.warmUp();
  * }</pre>
  *
  * @author johannes
  */
 public class DotParser {
 
+    /**
+     * The representative scripts of {@link #warmUp()}, cover the statements, ports, subgraphs and
+     * the HTML-like labels.
+     */
+    private static final String[] WARM_UP_DOTS = {"digraph G {\n"
+        + "  graph [rankdir=LR, label=\"warm up\", fontsize=12];\n"
+        + "  node [shape=record, style=\"rounded,filled\"]; edge [color=\"#333333\"];\n"
+        + "  a [label=\"{<p0> a | <p1> b}\"]; b; nodesep = 0.5;\n"
+        + "  a:p0 -> b:n -> c:s [label=<line <b>label</b>>, taillabel=\"t\", headlabel=h];\n"
+        + "  subgraph cluster_0 { label=<<i>cluster</i>>; e -> f; { rank=same; f; g } }\n"
+        + "  subgraph { e; h } -> { a b };\n"
+        + "  t [shape=plaintext, label=<<table border=\"0\" cellborder=\"1\">"
+        + "<tr><td port=\"p\" bgcolor=\"grey\">1</td><td rowspan=\"2\"><font color=\"red\">2"
+        + "</font><br/>3</td></tr><tr><td><s>4</s></td></tr></table>>];\n"
+        + "  t:p -> a:p1:e;\n"
+        + "}",
+        "strict graph U { u -- v -- w; u -- w [weight=2] }"};
+
     private DotParser() {
     }
 
+    /**
+     * Primes the parser with the built-in representative DOT scripts, see
+     * {@link #warmUp(String...)}.
+     */
+    public static void warmUp() {
+        warmUp(WARM_UP_DOTS);
+    }
+
+    /**
+     * Primes the parser with the given DOT scripts, it is intended to be called once at startup.
+     *
+     * <p>The lookahead DFA of ANTLR is shared by all parse calls but it is built lazily, the first
+     * parses of an application are much slower than the later ones. Parsing the scripts which are
+     * similar to the production inputs fills the DFA of DOT and HTML-like label grammars ahead of
+     * time. Only the graph model is built, no layout is done.</p>
+     *
+     * @param dots the representative DOT scripts
+     * @throws ParseException if a DOT script contains syntax errors
+     */
+    public static void warmUp(String... dots) {
+        if (dots == null) {
+            return;
+        }
+        for (String dot : dots) {
+            if (StringUtils.isNotEmpty(dot)) {
+                parse(dot, "warm up");
+            }
+        }
+    }
+
     /**
      * Reads DOT input from the specified file and returns a {@link Graphviz} representation of the
      * parsed graph.
@@ -171,9 +233,10 @@ public class DotParser {
      * {@link Graphviz} instance, applying optional post-graph modifications.
      *
      * <p>It uses ANTLR to tokenize and parse the input via {@link DOTLexer} and {@link DOTParser},
-     * then walks the parse tree to extract nodes and build a {@code Graphviz} model. If
-     * {@code postGraphComponents} is provided, it is used to adjust or augment the parse results
-     * before returning the final model.</p>
+     * the faster SLL prediction is tried first and the full LL prediction is used only when SLL
+     * reports an error. Then walks the parse tree to extract nodes and build a {@code Graphviz}
+     * model. If {@code postGraphComponents} is provided, it is used to adjust or augment the parse
+     * results before returning the final model.</p>
      *
      * @param charStream          the DOT input stream to parse
      * @param postGraphComponents an optional post-processing hook applied after parsing
@@ -183,6 +246,36 @@ public class DotParser {
      */
     public static Graphviz parse(CharStream charStream, PostGraphComponents postGraphComponents) {
         Asserts.nullArgument(charStream);
+        DOTParser p = newParser(charStream);
+        DOTParser.GraphContext graphCtx = TwoStageParser.parse(p, DOTParser::graph);
+        return toGraphviz(graphCtx, postGraphComponents);
+    }
+
+    /**
+     * Parses all graphs of the DOT data, a DOT file may contain several graphs one after another.
+     * Unlike {@link #parse(CharStream, PostGraphComponents)} which only reads the first graph, the
+     * whole input must be valid DOT.
+     *
+     * @param charStream          the DOT input stream to parse
+     * @param postGraphComponents an optional post-processing hook applied after parsing
+     * @return the graphs in the order of the input
+     * @throws NullPointerException if {@code CharStream} is null
+     * @throws ParseException       if dot script is illegal
+     */
+    public static List<Graphviz> parseAll(CharStream charStream,
+                                          PostGraphComponents postGraphComponents) {
+        Asserts.nullArgument(charStream);
+        DOTParser p = newParser(charStream);
+        DOTParser.GraphsContext graphsCtx = TwoStageParser.parse(p, DOTParser::graphs);
+
+        List<Graphviz> graphs = new ArrayList<>(graphsCtx.graph().size());
+        for (DOTParser.GraphContext graphCtx : graphsCtx.graph()) {
+            graphs.add(toGraphviz(graphCtx, postGraphComponents));
+        }
+        return graphs;
+    }
+
+    private static DOTParser newParser(CharStream charStream) {
         DOTLexer lexer = new DOTLexer(charStream);
         DOTParser p = new DOTParser(new CommonTokenStream(lexer));
 
@@ -192,8 +285,11 @@ public class DotParser {
         DotSyntaxErrorListener dotSyntaxErrorListener = new DotSyntaxErrorListener();
         p.addErrorListener(dotSyntaxErrorListener);
         lexer.addErrorListener(dotSyntaxErrorListener);
+        return p;
+    }
 
-        DOTParser.GraphContext graphCtx = p.graph();
+    private static Graphviz toGraphviz(DOTParser.GraphContext graphCtx,
+                                       PostGraphComponents postGraphComponents) {
         ParseTreeWalker parseTreeWalker = new ParseTreeWalker();
         NodeExtractor nodeExtractor = new NodeExtractor(postGraphComponents);
         parseTreeWalker.walk(nodeExtractor, graphCtx);
@@ -202,4 +298,94 @@ public class DotParser {
         parseTreeWalker.walk(gl, graphCtx);
         return gl.getGraphviz();
     }
+
+    /**
+     * Reads DOT input from the specified file in streaming mode, see
+     * {@link #parseStreaming(Reader, String, PostGraphComponents)}.
+     *
+     * @param file the file containing DOT data
+     * @return a {@code Graphviz} object representing the parsed graph
+     * @throws NullPointerException if {@code File} is null
+     * @throws IOException          if an I/O error occurs while reading the file
+     * @throws ParseException       if the DOT script contains syntax errors
+     */
+    public static Graphviz parseStreaming(File file) throws IOException {
+        Asserts.nullArgument(file);
+        return parseStreaming(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads DOT input from the specified {@link InputStream} using the given charset in streaming
+     * mode, see {@link #parseStreaming(Reader, String, PostGraphComponents)}.
+     *
+     * @param in      the {@link InputStream} containing DOT data
+     * @param charset the character set to use for reading the stream
+     * @return a {@code Graphviz} object representing the parsed graph
+     * @throws NullPointerException if {@code InputStream} is null
+     * @throws IOException          if an I/O error occurs while reading the stream
+     * @throws ParseException       if the DOT script contains syntax errors
+     */
+    public static Graphviz parseStreaming(InputStream in, Charset charset) throws IOException {
+        Asserts.nullArgument(in);
+        charset = charset == null ? StandardCharsets.UTF_8 : charset;
+        try (Reader r = new InputStreamReader(in, charset)) {
+            return parseStreaming(r, "anonymous InputStream", null);
+        }
+    }
+
+    /**
+     * Parses DOT data from the given {@link Reader} in a single pass and returns the same
+     * {@code Graphviz} as {@link #parse(CharStream, PostGraphComponents)}.
+     *
+     * <p>The chars and tokens are read through unbuffered streams and the parse tree is not built,
+     * the nodes, lines and containers are recorded while parsing and the {@code Graphviz} is built
+     * after the graph ends, so the memory is bounded by the graph rather than the size of script.
+     * It is intended for large machine-generated DOT files, the syntax error messages do not
+     * contain the source line since the input is not kept. The reader is not closed.</p>
+     *
+     * @param reader              the reader of DOT input
+     * @param sourceName          a descriptive name for the input (e.g., file path or identifier)
+     * @param postGraphComponents an optional post-processing hook applied after parsing
+     * @return a {@code Graphviz} object representing the parsed graph
+     * @throws NullPointerException if {@code Reader} is null
+     * @throws ParseException       if dot script is illegal
+     */
+    public static Graphviz parseStreaming(Reader reader, String sourceName,
+                                          PostGraphComponents postGraphComponents) {
+        Asserts.nullArgument(reader);
+        UnbufferedCharStream charStream = new UnbufferedCharStream(reader);
+        charStream.name = sourceName;
+        DOTLexer lexer = new DOTLexer(charStream);
+        // The chars are released once the token is created, the token must copy its text
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        DOTParser p = new DOTParser(new UnbufferedTokenStream<>(lexer));
+        p.setBuildParseTree(false);
+        p.setErrorHandler(new StreamingErrorStrategy());
+
+        p.removeErrorListeners();
+        lexer.removeErrorListeners();
+
+        DotSyntaxErrorListener dotSyntaxErrorListener = new DotSyntaxErrorListener();
+        p.addErrorListener(dotSyntaxErrorListener);
+        lexer.addErrorListener(dotSyntaxErrorListener);
+
+        DotStreamListener listener = new DotStreamListener(postGraphComponents);
+        p.addParseListener(listener);
+        p.graph();
+        return listener.getGraphviz();
+    }
+
+    /**
+     * The unbuffered token stream can not get the text of the tokens which are released, report
+     * the offending token only.
+     */
+    private static class StreamingErrorStrategy extends DefaultErrorStrategy {
+
+        @Override
+        protected void reportNoViableAlternative(Parser recognizer, NoViableAltException e) {
+            String msg = "no viable alternative at input "
+                + getTokenErrorDisplay(e.getOffendingToken());
+            recognizer.notifyErrorListeners(e.getOffendingToken(), msg, e);
+        }
+    }
 }
@@ -0,0 +1,532 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.parser;
+
+import static org.graphper.parser.DotTempAttrListener.combineAttrs;
+import static org.graphper.parser.ParserUtils.clusterAttribute;
+import static org.graphper.parser.ParserUtils.graphAttribute;
+import static org.graphper.parser.ParserUtils.lineAttributes;
+import static org.graphper.parser.ParserUtils.nodeAttributes;
+import static org.graphper.parser.ParserUtils.parseAttrs;
+import static org.graphper.parser.ParserUtils.setLinePort;
+import static org.graphper.parser.ParserUtils.subgraphAttribute;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.graphper.api.Cluster;
+import org.graphper.api.Cluster.ClusterBuilder;
+import org.graphper.api.GraphContainer;
+import org.graphper.api.GraphContainer.GraphContainerBuilder;
+import org.graphper.api.Graphviz;
+import org.graphper.api.Graphviz.GraphvizBuilder;
+import org.graphper.api.Line;
+import org.graphper.api.Node;
+import org.graphper.api.Node.NodeBuilder;
+import org.graphper.api.Subgraph;
+import org.graphper.api.Subgraph.SubgraphBuilder;
+import org.graphper.parser.grammar.DOTParser;
+import org.graphper.parser.grammar.DOTParser.A_listContext;
+import org.graphper.parser.grammar.DOTParser.Attr_listContext;
+import org.graphper.parser.grammar.DOTParser.Attr_stmtContext;
+import org.graphper.parser.grammar.DOTParser.EdgeRHSContext;
+import org.graphper.parser.grammar.DOTParser.Edge_stmtContext;
+import org.graphper.parser.grammar.DOTParser.GraphContext;
+import org.graphper.parser.grammar.DOTParser.Graph_a_listContext;
+import org.graphper.parser.grammar.DOTParser.Id_Context;
+import org.graphper.parser.grammar.DOTParser.Node_idContext;
+import org.graphper.parser.grammar.DOTParser.Node_stmtContext;
+import org.graphper.parser.grammar.DOTParser.PortContext;
+import org.graphper.parser.grammar.DOTParser.StmtContext;
+import org.graphper.parser.grammar.DOTParser.Stmt_listContext;
+import org.graphper.parser.grammar.DOTParser.SubgraphContext;
+import org.graphper.parser.grammar.DOTParserBaseListener;
+
+/**
+ * Builds a {@link Graphviz} in a single pass as the parse listener of a {@link DOTParser} which
+ * does not build the parse tree, produces the same {@code Graphviz} as {@link NodeExtractor} and
+ * {@link GraphvizListener} walking the parse tree.
+ *
+ * <p>Without the parse tree, a rule context only contains its own tokens when it exits, so the
+ * ids, ports and attribute lists are collected from the tokens of the exited rules and handed to
+ * the enclosing statement. The attributes of a node may be declared after the lines using the node,
+ * so the statements are recorded into the containers as lightweight records, and the nodes, lines
+ * and containers are built from the records after the graph ends, when the attributes of every
+ * node are known. The memory of parsing is bounded by the records, which have the same size as the
+ * built {@code Graphviz}, rather than the size of the script.
+ *
+ * @author Jamison Jiang
+ */
+class DotStreamListener extends DOTParserBaseListener {
+
+  private final PostGraphComponents postGraphComponents;
+
+  private final TempAttrsScope nodeTempAttrs = new TempAttrsScope();
+
+  private final TempAttrsScope lineTempAttrs = new TempAttrsScope();
+
+  private final Map<String, NodeRecord> nodeRecords = new HashMap<>();
+
+  private final Deque<ContainerRecord> containerStack = new ArrayDeque<>();
+
+  // The endpoints of the nested edge statements
+  private final Deque<List<Object>> edgeStack = new ArrayDeque<>();
+
+  // The tokens of the ids of the current a_list
+  private final List<Token> aListIds = new ArrayList<>();
+
+  // The ids of the current "id = id" statement
+  private final List<String> stmtIds = new ArrayList<>(2);
+
+  // The id of the graph or subgraph, which is used when the container opens
+  private String containerId;
+
+  private String nodeId;
+
+  private List<String> portIds;
+
+  // The endpoint of the last exited node_id
+  private Object endpoint;
+
+  // The pairs and the number of a_list of the current attr_list
+  private List<String[]> attrPairs;
+
+  private int aListNum;
+
+  // The attributes of the last exited attr_list
+  private Map<String, String> attrs;
+
+  private Graphviz graphviz;
+
+  DotStreamListener(PostGraphComponents postGraphComponents) {
+    this.postGraphComponents = postGraphComponents;
+  }
+
+  Graphviz getGraphviz() {
+    return graphviz;
+  }
+
+  @Override
+  public void visitTerminal(TerminalNode node) {
+    ParseTree parent = node.getParent();
+    if (parent instanceof Stmt_listContext) {
+      // The separators of statements are useless, not keep them in the context of whole graph
+      ((Stmt_listContext) parent).removeLastChild();
+      return;
+    }
+
+    if (node.getSymbol().getType() != DOTParser.LB) {
+      return;
+    }
+
+    // The id of graph or subgraph is before the left brace
+    String id = containerId;
+    containerId = null;
+    if (parent instanceof GraphContext) {
+      GraphContext ctx = (GraphContext) parent;
+      GraphvizBuilder graphvizBuilder;
+      if (ctx.GRAPH() != null) {
+        graphvizBuilder = Graphviz.graph();
+      } else if (ctx.DIGRAPH() != null) {
+        graphvizBuilder = Graphviz.digraph();
+      } else {
+        throw new ParseException("invalid graph");
+      }
+
+      if (id != null) {
+        graphvizBuilder.id(id);
+      }
+      containerStack.push(new ContainerRecord(graphvizBuilder, null));
+    } else if (parent instanceof SubgraphContext) {
+      GraphContainerBuilder builder = id != null && id.startsWith("cluster")
+          ? Cluster.builder() : Subgraph.builder();
+      containerStack.push(new ContainerRecord(builder, id));
+    }
+  }
+
+  @Override
+  public void exitGraph(GraphContext ctx) {
+    ContainerRecord root = containerStack.pop();
+    GraphvizBuilder graphvizBuilder = (GraphvizBuilder) root.builder;
+    addItems(root);
+    if (postGraphComponents != null) {
+      postGraphComponents.postGraphviz(graphvizBuilder);
+    }
+    graphviz = graphvizBuilder.build();
+  }
+
+  @Override
+  public void exitId_(Id_Context ctx) {
+    ParserRuleContext parent = ctx.getParent();
+    Token id = ctx.getStart();
+    if (parent instanceof A_listContext) {
+      aListIds.add(id);
+    } else if (parent instanceof Node_idContext) {
+      nodeId = id.getText();
+    } else if (parent instanceof PortContext) {
+      if (portIds == null) {
+        portIds = new ArrayList<>(2);
+      }
+      portIds.add(id.getText());
+    } else if (parent instanceof GraphContext || parent instanceof SubgraphContext) {
+      containerId = id.getText();
+    } else if (parent instanceof StmtContext) {
+      stmtIds.add(id.getText());
+    }
+  }
+
+  @Override
+  public void exitA_list(A_listContext ctx) {
+    if (ctx.getParent() instanceof Graph_a_listContext) {
+      parseAttrs(aListIds, containerAttribute());
+    } else {
+      if (attrPairs == null) {
+        attrPairs = new ArrayList<>();
+      }
+      parseAttrs(aListIds, (key, value) -> attrPairs.add(new String[]{key, value}));
+      aListNum++;
+    }
+    aListIds.clear();
+  }
+
+  @Override
+  public void exitAttr_list(Attr_listContext ctx) {
+    // Same capacity as the map of parse tree, the attributes are applied in the same order
+    attrs = new HashMap<>(ctx.getChildCount() + aListNum);
+    if (attrPairs != null) {
+      for (String[] pair : attrPairs) {
+        attrs.put(pair[0], pair[1]);
+      }
+    }
+    attrPairs = null;
+    aListNum = 0;
+  }
+
+  @Override
+  public void exitStmt(StmtContext ctx) {
+    if (stmtIds.isEmpty()) {
+      return;
+    }
+
+    String key = stmtIds.get(0);
+    String value = stmtIds.size() > 1 ? stmtIds.get(1) : null;
+    stmtIds.clear();
+    ContainerRecord current = containerStack.peek();
+    if (value == null || current == null) {
+      return;
+    }
+
+    if (current.builder instanceof SubgraphBuilder) {
+      subgraphAttribute(key, value, (SubgraphBuilder) current.builder);
+    } else if (current.builder instanceof ClusterBuilder) {
+      ContainerRecord cluster = containerStack.pop();
+      ContainerRecord parent = containerStack.peek();
+      if (parent != null && parent.builder instanceof SubgraphBuilder) {
+        subgraphAttribute(key, value, (SubgraphBuilder) parent.builder);
+      }
+      containerStack.push(cluster);
+    }
+  }
+
+  @Override
+  public void exitAttr_stmt(Attr_stmtContext ctx) {
+    Map<String, String> stmtAttrs = takeAttrs();
+    if (ctx.NODE() != null) {
+      nodeTempAttrs.pushTemplate(stmtAttrs);
+    } else if (ctx.EDGE() != null) {
+      lineTempAttrs.pushTemplate(stmtAttrs);
+    } else if (ctx.GRAPH() != null) {
+      stmtAttrs.forEach(containerAttribute());
+    }
+  }
+
+  @Override
+  public void exitNode_id(Node_idContext ctx) {
+    NodeRecord record = nodeRecords.computeIfAbsent(nodeId, NodeRecord::new);
+    if (portIds == null) {
+      endpoint = record;
+    } else {
+      endpoint = new NodePort(record, portIds.get(0), portIds.size() > 1 ? portIds.get(1) : null);
+    }
+    nodeId = null;
+    portIds = null;
+
+    ParserRuleContext parent = ctx.getParent();
+    if (parent instanceof Edge_stmtContext || parent instanceof EdgeRHSContext) {
+      edgeStack.peek().add(endpoint);
+      mergeNodeAttrs(record, Collections.emptyMap());
+    }
+  }
+
+  @Override
+  public void exitNode_stmt(Node_stmtContext ctx) {
+    NodeRecord record = endpoint instanceof NodePort
+        ? ((NodePort) endpoint).record : (NodeRecord) endpoint;
+    mergeNodeAttrs(record, takeAttrs());
+    containerStack.peek().items.add(record);
+  }
+
+  @Override
+  public void enterEdge_stmt(Edge_stmtContext ctx) {
+    edgeStack.push(new ArrayList<>(2));
+  }
+
+  @Override
+  public void exitEdge_stmt(Edge_stmtContext ctx) {
+    List<Object> endpoints = edgeStack.pop();
+    Map<String, String> lineAttrs = combineAttrs(lineTempAttrs.current(), takeAttrs());
+    containerStack.peek().items.add(new EdgeRecord(endpoints.toArray(), lineAttrs));
+  }
+
+  @Override
+  public void enterSubgraph(SubgraphContext ctx) {
+    nodeTempAttrs.pushScope(ctx);
+    lineTempAttrs.pushScope(ctx);
+  }
+
+  @Override
+  public void exitSubgraph(SubgraphContext ctx) {
+    nodeTempAttrs.poll();
+    ContainerRecord child = containerStack.pop();
+    // Same as GraphvizListener, the edge scope of an empty subgraph is not removed
+    if (!child.items.isEmpty()) {
+      containerStack.peek().items.add(child);
+      lineTempAttrs.poll();
+    }
+
+    ParserRuleContext parent = ctx.getParent();
+    if (parent instanceof Edge_stmtContext || parent instanceof EdgeRHSContext) {
+      edgeStack.peek().add(child);
+    }
+  }
+
+  // ------------------------------------------ build ---------------------------------------
+
+  private void addItems(ContainerRecord record) {
+    GraphContainerBuilder builder = record.builder;
+    for (Object item : record.items) {
+      if (item instanceof NodeRecord) {
+        builder.addNode(node((NodeRecord) item));
+      } else if (item instanceof EdgeRecord) {
+        addLines(builder, (EdgeRecord) item);
+      } else {
+        GraphContainer gc = build((ContainerRecord) item);
+        if (gc == null) {
+          continue;
+        }
+
+        if (gc.isCluster()) {
+          builder.cluster((Cluster) gc);
+        } else if (gc.isSubgraph()) {
+          builder.subgraph((Subgraph) gc);
+        }
+      }
+    }
+    record.items = null;
+  }
+
+  private GraphContainer build(ContainerRecord record) {
+    addItems(record);
+    GraphContainerBuilder builder = record.builder;
+    if (record.id != null) {
+      builder.id(record.id);
+    }
+    if (postGraphComponents != null && builder instanceof ClusterBuilder) {
+      postGraphComponents.postCluster((ClusterBuilder) builder);
+    }
+
+    GraphContainer gc = builder.build();
+    if (gc.isEmpty()) {
+      return null;
+    }
+    record.container = gc;
+    return gc;
+  }
+
+  private void addLines(GraphContainerBuilder builder, EdgeRecord edge) {
+    Object first = edge.endpoints[0];
+    for (int i = 1; i < edge.endpoints.length; i++) {
+      Object second = edge.endpoints[i];
+      addLines(builder, first, second, edge.attrs);
+      first = second;
+    }
+  }
+
+  private void addLines(GraphContainerBuilder builder, Object first, Object second,
+                        Map<String, String> lineAttrs) {
+    if (!(first instanceof ContainerRecord) && !(second instanceof ContainerRecord)) {
+      addLine(builder, lineAttrs, node(first), node(second), first, second);
+    } else if (!(second instanceof ContainerRecord)) {
+      Node right = node(second);
+      for (Node left : nodes((ContainerRecord) first)) {
+        addLine(builder, lineAttrs, left, right, null, second);
+      }
+    } else if (!(first instanceof ContainerRecord)) {
+      Node left = node(first);
+      for (Node right : nodes((ContainerRecord) second)) {
+        addLine(builder, lineAttrs, left, right, first, null);
+      }
+    } else {
+      for (Node left : nodes((ContainerRecord) first)) {
+        for (Node right : nodes((ContainerRecord) second)) {
+          addLine(builder, lineAttrs, left, right, null, null);
+        }
+      }
+    }
+  }
+
+  private void addLine(GraphContainerBuilder builder, Map<String, String> lineAttrs,
+                       Node left, Node right, Object leftEndpoint, Object rightEndpoint) {
+    Line.LineBuilder lineBuilder = Line.builder(left, right);
+    lineAttributes(lineAttrs, lineBuilder);
+    if (leftEndpoint instanceof NodePort) {
+      NodePort port = (NodePort) leftEndpoint;
+      setLinePort(lineBuilder, port.first, port.second, true);
+    }
+    if (rightEndpoint instanceof NodePort) {
+      NodePort port = (NodePort) rightEndpoint;
+      setLinePort(lineBuilder, port.first, port.second, false);
+    }
+
+    if (postGraphComponents != null) {
+      postGraphComponents.postLine(lineBuilder);
+    }
+    builder.addLine(lineBuilder.build());
+  }
+
+  private Iterable<Node> nodes(ContainerRecord record) {
+    if (record.container == null) {
+      throw new IllegalStateException("Cannot found subgraph container");
+    }
+    return record.container.nodes();
+  }
+
+  private Node node(Object endpoint) {
+    NodeRecord record = endpoint instanceof NodePort
+        ? ((NodePort) endpoint).record : (NodeRecord) endpoint;
+    if (record.node != null) {
+      return record.node;
+    }
+
+    NodeBuilder builder = Node.builder();
+    builder.id(record.id);
+    if (record.attrs != null) {
+      nodeAttributes(builder, record.attrs);
+    }
+    if (postGraphComponents != null) {
+      postGraphComponents.postNode(builder);
+    }
+
+    record.node = builder.build();
+    record.attrs = null;
+    return record.node;
+  }
+
+  // ------------------------------------------ helper ---------------------------------------
+
+  private void mergeNodeAttrs(NodeRecord record, Map<String, String> stmtAttrs) {
+    // The later statement has higher priority, then the templates of current scope
+    Map<String, String> nodeAttrs = combineAttrs(record.attrs, stmtAttrs);
+    record.attrs = combineAttrs(nodeTempAttrs.current(), nodeAttrs);
+  }
+
+  private Map<String, String> takeAttrs() {
+    Map<String, String> a = attrs;
+    attrs = null;
+    return a != null ? a : Collections.emptyMap();
+  }
+
+  private BiConsumer<String, String> containerAttribute() {
+    GraphContainerBuilder builder = containerStack.peek().builder;
+    if (builder instanceof GraphvizBuilder) {
+      return (key, value) -> graphAttribute(key, value, (GraphvizBuilder) builder);
+    }
+    if (builder instanceof SubgraphBuilder) {
+      return (key, value) -> subgraphAttribute(key, value, (SubgraphBuilder) builder);
+    }
+    return (key, value) -> clusterAttribute(key, value, (ClusterBuilder) builder);
+  }
+
+  private static class NodeRecord {
+
+    private final String id;
+
+    // The merged attributes, released after the node is built
+    private Map<String, String> attrs;
+
+    private Node node;
+
+    NodeRecord(String id) {
+      this.id = id;
+    }
+  }
+
+  private static class NodePort {
+
+    private final NodeRecord record;
+
+    private final String first;
+
+    private final String second;
+
+    NodePort(NodeRecord record, String first, String second) {
+      this.record = record;
+      this.first = first;
+      this.second = second;
+    }
+  }
+
+  private static class EdgeRecord {
+
+    // NodeRecord, NodePort or ContainerRecord
+    private final Object[] endpoints;
+
+    // Shared by all lines of the edge statement
+    private final Map<String, String> attrs;
+
+    EdgeRecord(Object[] endpoints, Map<String, String> attrs) {
+      this.endpoints = endpoints;
+      this.attrs = attrs;
+    }
+  }
+
+  private static class ContainerRecord {
+
+    private final GraphContainerBuilder builder;
+
+    private final String id;
+
+    // NodeRecord, EdgeRecord or ContainerRecord in the order of statements
+    private List<Object> items = new ArrayList<>();
+
+    private GraphContainer container;
+
+    ContainerRecord(GraphContainerBuilder builder, String id) {
+      this.builder = builder;
+      this.id = id;
+    }
+  }
+}
@@ -21,6 +21,7 @@ import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.UnbufferedCharStream;
 
 /**
  * An ANTLR listener that intercepts syntax errors when parsing DOT input and
@@ -36,7 +37,7 @@ public class DotSyntaxErrorListener extends BaseErrorListener {
                           int line, int charPositionInLine,
                           String msg,
                           RecognitionException e) {
-    if (offendingSymbol == null) {
+    if (offendingSymbol == null || isUnbuffered(offendingSymbol)) {
       throw new ParseException("line " + line + ":" + charPositionInLine + " " + msg);
     }
 
@@ -76,4 +77,11 @@ public class DotSyntaxErrorListener extends BaseErrorListener {
     // Throw a ParseCancellationException with the detailed error message
     throw new ParseException(errorBuilder.toString());
   }
+
+  private static boolean isUnbuffered(Object offendingSymbol) {
+    // The input of streaming parse is released, the source line is not available
+    return offendingSymbol instanceof CommonToken
+        && ((CommonToken) offendingSymbol).getTokenSource().getInputStream()
+        instanceof UnbufferedCharStream;
+  }
 }
@@ -16,13 +16,9 @@
 
 package org.graphper.parser;
 
-import static org.graphper.draw.svg.SvgConstants.ID;
 import static org.graphper.parser.ParserUtils.getAttrMap;
 
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
 import org.graphper.parser.grammar.DOTParser;
 import org.graphper.parser.grammar.DOTParser.Attr_listContext;
@@ -96,10 +92,9 @@ import org.graphper.parser.grammar.DOTParserBaseListener;
 public abstract class DotTempAttrListener extends DOTParserBaseListener {
 
   /**
-   * A stack-like deque that tracks nested attribute contexts. Each {@link GraphTempAttrs}
-   * represents a subgraph or block of attributes.
+   * The nested attribute contexts of the focused statement type.
    */
-  private Deque<GraphTempAttrs> tempNodeAttrsDeque;
+  private final TempAttrsScope tempAttrsScope = new TempAttrsScope();
 
   /**
    * Indicates whether this listener cares about a specific attribute statement type,
@@ -123,12 +118,7 @@ public abstract class DotTempAttrListener extends DOTParserBaseListener {
       return;
     }
 
-    GraphTempAttrs graphTempAttrs = peekGraphTempAttrs();
-    if (graphTempAttrs == null) {
-      pushTempNodeAttrs(null, getAttrMap(ctx.attr_list()));
-    } else {
-      pushTempNodeAttrs(graphTempAttrs.graphContext, getAttrMap(ctx.attr_list()));
-    }
+    tempAttrsScope.pushTemplate(getAttrMap(ctx.attr_list()));
   }
 
   /**
@@ -137,7 +127,7 @@ public abstract class DotTempAttrListener extends DOTParserBaseListener {
    */
   @Override
   public void enterSubgraph(SubgraphContext ctx) {
-    pushTempNodeAttrs(ctx, null);
+    tempAttrsScope.pushScope(ctx);
   }
 
   /**
@@ -146,7 +136,7 @@ public abstract class DotTempAttrListener extends DOTParserBaseListener {
    */
   @Override
   public void exitSubgraph(SubgraphContext ctx) {
-    pollTempAttrs();
+    tempAttrsScope.poll();
   }
 
   /**
@@ -155,8 +145,7 @@ public abstract class DotTempAttrListener extends DOTParserBaseListener {
    * @return the current map of temporary node attributes, or {@code null} if none exist
    */
   protected Map<String, String> currentTempAttrs() {
-    GraphTempAttrs graphTempAttrs = peekGraphTempAttrs();
-    return graphTempAttrs == null ? null : graphTempAttrs.tempNodeAttrs;
+    return tempAttrsScope.current();
   }
 
   /**
@@ -193,73 +182,4 @@ public abstract class DotTempAttrListener extends DOTParserBaseListener {
     sourceAttrs.forEach(targetAttrs::putIfAbsent);
     return targetAttrs;
   }
-
-  /**
-   * Pushes a new {@link GraphTempAttrs} context onto the stack, merging
-   * attributes with the current scope if necessary.
-   *
-   * @param subgraphContext optional subgraph context
-   * @param tempAttrs       the attribute map to add
-   */
-  private void pushTempNodeAttrs(SubgraphContext subgraphContext, Map<String, String> tempAttrs) {
-    if (tempAttrs != null && !tempAttrs.isEmpty()) {
-      tempAttrs.remove(ID);
-    }
-
-    if (tempNodeAttrsDeque == null) {
-      tempNodeAttrsDeque = new LinkedList<>();
-    }
-
-    GraphTempAttrs currentTempAttr = tempNodeAttrsDeque.peek();
-    if (currentTempAttr != null && currentTempAttr.graphContext == subgraphContext) {
-      // If the top of the stack is the same subgraph context, merge with it
-      tempAttrs = combineAttrs(currentTempAttr.tempNodeAttrs, tempAttrs);
-      tempNodeAttrsDeque.poll();
-    } else {
-      // Otherwise, merge with all existing contexts
-      Iterator<GraphTempAttrs> iterator = tempNodeAttrsDeque.iterator();
-      while (iterator.hasNext()) {
-        currentTempAttr = iterator.next();
-        tempAttrs = combineAttrs(currentTempAttr.tempNodeAttrs, tempAttrs);
-      }
-    }
-
-    tempNodeAttrsDeque.push(new GraphTempAttrs(subgraphContext, tempAttrs));
-  }
-
-  /**
-   * Retrieves the {@link GraphTempAttrs} at the top of the stack (if any).
-   *
-   * @return the top-most {@link GraphTempAttrs}, or {@code null} if the stack is empty
-   */
-  private GraphTempAttrs peekGraphTempAttrs() {
-    return tempNodeAttrsDeque == null ? null : tempNodeAttrsDeque.peek();
-  }
-
-  /**
-   * Removes and returns the top-most {@link GraphTempAttrs} from the stack.
-   *
-   * @return the popped attribute map, or {@code null} if the stack is empty
-   */
-  private Map<String, String> pollTempAttrs() {
-    if (tempNodeAttrsDeque == null) {
-      return null;
-    }
-    GraphTempAttrs graphTempAttrs = tempNodeAttrsDeque.poll();
-    if (graphTempAttrs == null) {
-      return null;
-    }
-    return graphTempAttrs.tempNodeAttrs;
-  }
-
-  private static class GraphTempAttrs {
-
-    private final SubgraphContext graphContext;
-    private final Map<String, String> tempNodeAttrs;
-
-    GraphTempAttrs(SubgraphContext graphContext, Map<String, String> tempNodeAttrs) {
-      this.graphContext = graphContext;
-      this.tempNodeAttrs = tempNodeAttrs;
-    }
-  }
-}
\ No newline at end of file
+}
@@ -19,6 +19,9 @@ package org.graphper.parser;
 import static org.graphper.draw.svg.SvgConstants.GT;
 import static org.graphper.draw.svg.SvgConstants.LT;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -27,6 +30,7 @@ import org.graphper.api.Html.LabelTag;
 import org.graphper.api.Html.Table;
 import org.graphper.parser.grammar.HTMLLexer;
 import org.graphper.parser.grammar.HTMLParser;
+import org.graphper.util.EnvProp;
 
 /**
  * Provides a utility for parsing HTML-like strings and generating an {@link HtmlListener}
@@ -36,6 +40,8 @@ import org.graphper.parser.grammar.HTMLParser;
  */
 public class HtmlParser {
 
+  private static final LabelCache LABEL_CACHE = new LabelCache(EnvProp.htmlLabelCacheSize());
+
   private HtmlParser() {
   }
 
@@ -76,8 +82,104 @@ public class HtmlParser {
     lexer.addErrorListener(htmlSyntaxErrorListener);
 
     HtmlListener listener = new HtmlListener();
-    new ParseTreeWalker().walk(listener, p.htmlTag());
+    new ParseTreeWalker().walk(listener, TwoStageParser.parse(p, HTMLParser::htmlTag));
 
     return listener;
   }
-}
\ No newline at end of file
+
+  /**
+   * Same as {@link #parse(String)}, but the results are memoized by the HTML-like string, the
+   * same label used by many nodes or lines is parsed only once. The returned {@link HtmlListener}
+   * and its {@link Table} or {@link LabelTag} are shared by all callers and must not be modified,
+   * the layout only reads them.
+   *
+   * <p>The cache is bounded by the system property {@code graph.html.label.cache.size} (1024
+   * labels by default), a non-positive value disables it.</p>
+   *
+   * @param htmlStr a string containing an HTML-like snippet enclosed in {@code '<' '>'}
+   * @return an {@link HtmlListener} containing the parsed result, or {@code null} if validation
+   * fails
+   */
+  public static HtmlListener parseCached(String htmlStr) {
+    HtmlListener listener = LABEL_CACHE.get(htmlStr);
+    if (listener == null) {
+      listener = parse(htmlStr);
+      LABEL_CACHE.put(htmlStr, listener);
+    }
+    return listener;
+  }
+
+  /**
+   * Returns the number of {@link #parseCached} calls served by the memoized results.
+   *
+   * @return the hit count of label cache
+   */
+  public static long labelCacheHitCount() {
+    return LABEL_CACHE.hits.sum();
+  }
+
+  /**
+   * Returns the number of {@link #parseCached} calls which had to parse the label.
+   *
+   * @return the miss count of label cache
+   */
+  public static long labelCacheMissCount() {
+    return LABEL_CACHE.misses.sum();
+  }
+
+  /**
+   * Clears the memoized labels and the hit/miss counts.
+   */
+  public static void clearLabelCache() {
+    LABEL_CACHE.clear();
+  }
+
+  private static final class LabelCache {
+
+    private final int capacity;
+
+    private final Map<String, HtmlListener> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private LabelCache(int capacity) {
+      this.capacity = capacity;
+      this.cache = capacity > 0 ? new ConcurrentHashMap<>() : null;
+    }
+
+    private HtmlListener get(String htmlStr) {
+      if (cache == null || htmlStr == null) {
+        return null;
+      }
+      HtmlListener listener = cache.get(htmlStr);
+      if (listener == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      return listener;
+    }
+
+    private void put(String htmlStr, HtmlListener listener) {
+      // Not an HTML-like string, it is cheap to check again
+      if (cache == null || htmlStr == null || listener == null) {
+        return;
+      }
+      // Drop everything when full, the labels still in use are parsed again very soon
+      if (cache.size() >= capacity) {
+        cache.clear();
+      }
+      cache.put(htmlStr, listener);
+    }
+
+    private void clear() {
+      if (cache != null) {
+        cache.clear();
+      }
+      hits.reset();
+      misses.reset();
+    }
+  }
+}
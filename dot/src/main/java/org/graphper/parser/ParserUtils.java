@@ -17,6 +17,7 @@ package org.graphper.parser;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -24,6 +25,7 @@ import java.util.function.DoubleConsumer;
 import java.util.function.Function;
 import java.util.function.IntConsumer;
 import java.util.stream.Stream;
+import org.antlr.v4.runtime.Token;
 import org.apache_gs.commons.lang3.ArrayUtils;
 import org.apache_gs.commons.lang3.StringUtils;
 import org.graphper.api.Cluster;
@@ -103,21 +105,45 @@ public class ParserUtils {
         }
     }
 
+    /**
+     * Parses the key-value pairs from the tokens of ids in an {@code a_list}, used when the parse
+     * tree is not built.
+     *
+     * @param ids          the tokens of ids in order
+     * @param pairConsumer the consumer of pairs
+     */
+    static void parseAttrs(List<Token> ids, BiConsumer<String, String> pairConsumer) {
+        for (int i = 0; i < ids.size(); i += 2) {
+            String key = parseId(ids.get(i), false);
+
+            if (i == ids.size() - 1) {
+                continue;
+            }
+
+            pairConsumer.accept(key, parseId(ids.get(i + 1), isLabel(key)));
+        }
+    }
+
     private static String parseId(DOTParser.Id_Context idCtx, boolean isLabel) {
+        // The id_ rule always matches exactly one token
+        return parseId(idCtx.getStart(), isLabel);
+    }
+
+    private static String parseId(Token id, boolean isLabel) {
         // Depending on the type of the ID, return the appropriate text
-        if (idCtx.ID() != null) {
-            return idCtx.ID().getText(); // For standard IDs like 'label'
-        } else if (idCtx.STRING() != null) {
-            if (isLabel) {
-                return "\"" + idCtx.STRING().getText() + "\"";
-            }
-            return idCtx.STRING().getText(); // For string values
-        } else if (idCtx.NUMBER() != null) {
-            return idCtx.NUMBER().getText(); // For numeric values
-        } else if (idCtx.HTML_STRING() != null) {
-            return idCtx.HTML_STRING().getText();
+        switch (id.getType()) {
+            case DOTParser.ID:
+            case DOTParser.NUMBER:
+            case DOTParser.HTML_STRING:
+                return id.getText();
+            case DOTParser.STRING:
+                if (isLabel) {
+                    return "\"" + id.getText() + "\"";
+                }
+                return id.getText();
+            default:
+                return "";
         }
-        return "";
     }
 
     public static void subgraphAttributes(DOTParser.Attr_listContext attr_list, Subgraph.SubgraphBuilder l) {
@@ -222,6 +248,9 @@ public class ParserUtils {
             case "mclimit":
                 setInteger(gb::mclimit, value);
                 break;
+            case "mcstarts":
+                setInteger(gb::mcstarts, value);
+                break;
             case "fontsize":
                 setDouble(gb::fontSize, value);
                 break;
@@ -241,6 +270,12 @@ public class ParserUtils {
             case "k":
                 setDouble(gb::k, value);
                 break;
+            case "theta":
+                setDouble(gb::theta, value);
+                break;
+            case "fdpparallel":
+                setBoolean(gb::fdpParallel, value);
+                break;
             case "overlap":
                 setBoolean(gb::overlap, value);
                 break;
@@ -826,7 +861,7 @@ public class ParserUtils {
                                     Consumer<Table> tableConsumer,
                                     Consumer<LabelTag> labelTagConsumer,
                                     String label) {
-        HtmlListener htmlListener = HtmlParser.parse(label);
+        HtmlListener htmlListener = HtmlParser.parseCached(label);
         if (htmlListener != null) {
             Table table = htmlListener.getTable();
             if (table != null) {
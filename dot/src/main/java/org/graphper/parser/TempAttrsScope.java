@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.parser;
+
+import static org.graphper.draw.svg.SvgConstants.ID;
+import static org.graphper.parser.DotTempAttrListener.combineAttrs;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * The nested template attributes of node or edge attribute statements. Each subgraph opens a new
+ * scope, the attribute statements in the scope are merged with the attributes of outer scopes,
+ * and the scope is removed when the subgraph ends.
+ *
+ * @author Jamison Jiang
+ */
+class TempAttrsScope {
+
+  private Deque<GraphTempAttrs> tempNodeAttrsDeque;
+
+  /**
+   * Opens the scope of a subgraph.
+   *
+   * @param scope the key of the subgraph scope
+   */
+  void pushScope(Object scope) {
+    pushTempNodeAttrs(scope, null);
+  }
+
+  /**
+   * Merges the attributes of an attribute statement into the current scope.
+   *
+   * @param tempAttrs the attributes of statement
+   */
+  void pushTemplate(Map<String, String> tempAttrs) {
+    GraphTempAttrs graphTempAttrs = peekGraphTempAttrs();
+    if (graphTempAttrs == null) {
+      pushTempNodeAttrs(null, tempAttrs);
+    } else {
+      pushTempNodeAttrs(graphTempAttrs.scope, tempAttrs);
+    }
+  }
+
+  /**
+   * Retrieves the attributes of the current scope.
+   *
+   * @return the current map of temporary attributes, or {@code null} if none exist
+   */
+  Map<String, String> current() {
+    GraphTempAttrs graphTempAttrs = peekGraphTempAttrs();
+    return graphTempAttrs == null ? null : graphTempAttrs.tempNodeAttrs;
+  }
+
+  /**
+   * Removes and returns the attributes of the current scope.
+   *
+   * @return the popped attribute map, or {@code null} if the stack is empty
+   */
+  Map<String, String> poll() {
+    if (tempNodeAttrsDeque == null) {
+      return null;
+    }
+    GraphTempAttrs graphTempAttrs = tempNodeAttrsDeque.poll();
+    if (graphTempAttrs == null) {
+      return null;
+    }
+    return graphTempAttrs.tempNodeAttrs;
+  }
+
+  private void pushTempNodeAttrs(Object scope, Map<String, String> tempAttrs) {
+    if (tempAttrs != null && !tempAttrs.isEmpty()) {
+      tempAttrs.remove(ID);
+    }
+
+    if (tempNodeAttrsDeque == null) {
+      tempNodeAttrsDeque = new LinkedList<>();
+    }
+
+    GraphTempAttrs currentTempAttr = tempNodeAttrsDeque.peek();
+    if (currentTempAttr != null && currentTempAttr.scope == scope) {
+      // If the top of the stack is the same subgraph context, merge with it
+      tempAttrs = combineAttrs(currentTempAttr.tempNodeAttrs, tempAttrs);
+      tempNodeAttrsDeque.poll();
+    } else {
+      // Otherwise, merge with all existing contexts
+      Iterator<GraphTempAttrs> iterator = tempNodeAttrsDeque.iterator();
+      while (iterator.hasNext()) {
+        currentTempAttr = iterator.next();
+        tempAttrs = combineAttrs(currentTempAttr.tempNodeAttrs, tempAttrs);
+      }
+    }
+
+    tempNodeAttrsDeque.push(new GraphTempAttrs(scope, tempAttrs));
+  }
+
+  private GraphTempAttrs peekGraphTempAttrs() {
+    return tempNodeAttrsDeque == null ? null : tempNodeAttrsDeque.peek();
+  }
+
+  private static class GraphTempAttrs {
+
+    private final Object scope;
+    private final Map<String, String> tempNodeAttrs;
+
+    GraphTempAttrs(Object scope, Map<String, String> tempNodeAttrs) {
+      this.scope = scope;
+      this.tempNodeAttrs = tempNodeAttrs;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 The graph-support project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.graphper.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * Runs the start rule of a parser in two stages. The first stage uses the faster {@link
+ * PredictionMode#SLL} prediction and bails out at the first syntax error, only if it fails the
+ * tokens are rewound and parsed again with the full {@link PredictionMode#LL} prediction, the
+ * original error strategy and the error listeners. Almost all valid inputs are accepted by the
+ * first stage, and a real syntax error is still reported by the second stage.
+ *
+ * <p>The token stream of parser must be seekable, so it does not apply to the unbuffered token
+ * stream.
+ *
+ * @author Jamison Jiang
+ */
+final class TwoStageParser {
+
+  private TwoStageParser() {
+  }
+
+  static <P extends Parser, T extends ParserRuleContext> T parse(P parser, Function<P, T> rule) {
+    ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+    List<? extends ANTLRErrorListener> errorListeners = new ArrayList<>(
+        parser.getErrorListeners());
+
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    parser.setErrorHandler(new BailErrorStrategy());
+    // The grammar actions also report errors by the listeners, they must fail the first stage
+    parser.removeErrorListeners();
+    parser.addErrorListener(BailErrorListener.INSTANCE);
+    try {
+      return rule.apply(parser);
+    } catch (ParseCancellationException e) {
+      // Rewind the tokens, SLL may fail on the input which only LL can parse
+      parser.reset();
+      parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      parser.setErrorHandler(errorHandler);
+      parser.removeErrorListeners();
+      errorListeners.forEach(parser::addErrorListener);
+      return rule.apply(parser);
+    }
+  }
+
+  private static class BailErrorListener extends BaseErrorListener {
+
+    private static final BailErrorListener INSTANCE = new BailErrorListener();
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                            int charPositionInLine, String msg, RecognitionException e) {
+      throw new ParseCancellationException(msg, e);
+    }
+  }
+}
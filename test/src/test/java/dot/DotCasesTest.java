@@ -20,10 +20,19 @@ import helper.DocumentUtils;
 import helper.GraphvizVisual;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
 import org.graphper.api.Graphviz;
 import org.graphper.draw.ExecuteException;
+import org.graphper.draw.svg.SvgDrawBoard;
 import org.graphper.parser.DotParser;
+import org.graphper.parser.HtmlParser;
+import org.graphper.parser.ParseException;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class DotCasesTest extends GraphvizVisual {
@@ -88,6 +97,75 @@ public class DotCasesTest extends GraphvizVisual {
     }
   }
 
+  @Test
+  public void testStreamingParse() throws IOException, ExecuteException {
+    File[] files = new File(DocumentUtils.getDotCasesPath(), "manual").listFiles();
+    Assertions.assertNotNull(files);
+
+    for (File file : files) {
+      if (!file.getName().endsWith(".dot")) {
+        continue;
+      }
+
+      String dot = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      Graphviz tree = DotParser.parse(dot);
+      Graphviz stream = DotParser.parseStreaming(new StringReader(dot), file.getName(), null);
+      Assertions.assertEquals(svg(tree), svg(stream), file.getName());
+    }
+  }
+
+  @Test
+  public void testWarmUpAndSyntaxError() {
+    DotParser.warmUp();
+
+    // The errors reported by grammar actions must fall back to the full LL parse
+    ParseException e = Assertions.assertThrows(ParseException.class,
+                                               () -> DotParser.parse("digraph { a -> b; b -- c }"));
+    Assertions.assertTrue(e.getMessage().contains("Cannot use '--' in a directed graph."));
+    e = Assertions.assertThrows(ParseException.class, () -> DotParser.parse("digraph { a -> ; }"));
+    Assertions.assertTrue(e.getMessage().startsWith("line 1:15 mismatched input ';'"));
+  }
+
+  @Test
+  public void testHtmlLabelCache() throws ExecuteException {
+    HtmlParser.clearLabelCache();
+    String table = "<<table><tr><td>1</td><td>2</td></tr></table>>";
+    Graphviz graphviz = DotParser.parse(
+        "digraph { a [label=" + table + "]; b [label=" + table + "]; a -> b }");
+    Assertions.assertEquals(1, HtmlParser.labelCacheMissCount());
+    Assertions.assertEquals(1, HtmlParser.labelCacheHitCount());
+
+    // The nodes share the parsed table, but each node has its own cells
+    String otherTable = "<<table><tr><td>1</td><td>2</td></tr></table> >";
+    Graphviz expected = DotParser.parse(
+        "digraph { a [label=" + table + "]; b [label=" + otherTable + "]; a -> b }");
+    Assertions.assertEquals(2, HtmlParser.labelCacheMissCount());
+    Assertions.assertEquals(svg(expected), svg(graphviz));
+  }
+
+  @Test
+  public void testParseAll() {
+    List<Graphviz> graphs = DotParser.parseAll(
+        CharStreams.fromString("digraph a { x -> y }\n graph b { u -- v -- w }"), null);
+    Assertions.assertEquals(2, graphs.size());
+    Assertions.assertEquals(2, graphs.get(0).nodeNum());
+    Assertions.assertEquals(3, graphs.get(1).nodeNum());
+
+    // Unlike the single graph parse, the trailing content is not ignored
+    Assertions.assertThrows(ParseException.class, () -> DotParser.parseAll(
+        CharStreams.fromString("digraph a { x -> y } }"), null));
+  }
+
+  private static String svg(Graphviz graphviz) throws ExecuteException {
+    // Generated element ids and the order of floating labels depend on the creation order of lines
+    String[] elements = graphviz.toSvgStr()
+        .replaceAll(SvgDrawBoard.GRAPH_ROOT + "[0-9]+", "")
+        .replaceAll("id=\"[^\"]*\"", "")
+        .split(">");
+    Arrays.sort(elements);
+    return String.join(">", elements);
+  }
+
   private void listFilesRecursive(File directory) throws IOException {
     File[] files = directory.listFiles();
 